@@ -0,0 +1,79 @@
+package worms.gui;
+
+import java.awt.Dimension;
+import java.lang.reflect.InvocationTargetException;
+
+import javax.swing.JFrame;
+import javax.swing.SwingUtilities;
+
+import worms.gui.game.PlayGameScreen;
+import worms.model.Facade;
+
+/**
+ * Plays a game in a window for a while, once painted passively through
+ * Swing's repaint requests and once rendered actively with page flipping, and
+ * compares the time taken to draw a frame, the time from a repaint request to
+ * the drawn frame, and the regularity of frames.
+ *
+ * Needs a display.
+ *
+ * Usage: <code>java worms.gui.RenderingModeBenchmark [seconds]</code>
+ */
+public class RenderingModeBenchmark {
+
+	public static void main(String[] args) throws InterruptedException,
+			InvocationTargetException {
+		double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 10;
+
+		run("passive", false, seconds);
+		run("active ", true, seconds);
+		System.exit(0);
+	}
+
+	private static void run(final String label, boolean active, double seconds)
+			throws InterruptedException, InvocationTargetException {
+		GUIOptions options = new GUIOptions();
+		options.disableFullScreen = true;
+		options.activeRendering = active;
+		final WormsGUI gui = new WormsGUI(new Facade(), options);
+		final GameState gameState = new GameState(gui.getFacade(),
+				options.randomSeed, GUIConstants.DEFAULT_WINDOW_WIDTH,
+				GUIConstants.DEFAULT_WINDOW_HEIGHT);
+		final PlayGameScreen[] screen = new PlayGameScreen[1];
+		final JFrame[] window = new JFrame[1];
+
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				screen[0] = PlayGameScreen.create(gui, new Simulation(
+						gameState), false);
+				gameState.startGame();
+				window[0] = new JFrame("Worms (" + label.trim() + ")");
+				screen[0].getPanel().setPreferredSize(
+						new Dimension(GUIConstants.DEFAULT_WINDOW_WIDTH,
+								GUIConstants.DEFAULT_WINDOW_HEIGHT));
+				window[0].getContentPane().add(screen[0].getPanel());
+				window[0].pack();
+				window[0].setVisible(true);
+				screen[0].startScreen();
+			}
+		});
+		// skip the frames drawn while the window appears
+		Thread.sleep(1000);
+		screen[0].getFrameTimes().reset();
+		screen[0].getFrameLatencies().reset();
+		screen[0].getFrameJitter().reset();
+		Thread.sleep((long) (seconds * 1000));
+
+		System.out.printf("%s frame time: %s%n", label, screen[0].getFrameTimes());
+		System.out.printf("%s latency:    %s%n", label, screen[0].getFrameLatencies());
+		System.out.printf("%s frames:     %s (%d frames)%n", label,
+				screen[0].getFrameJitter(), screen[0].getFrameTimes().getCount());
+		SwingUtilities.invokeAndWait(new Runnable() {
+			@Override
+			public void run() {
+				window[0].dispose();
+			}
+		});
+	}
+}
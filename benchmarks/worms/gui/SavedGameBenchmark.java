@@ -0,0 +1,172 @@
+package worms.gui;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import worms.gui.game.commands.Command;
+import worms.gui.game.commands.CommandCodec;
+import worms.gui.game.commands.Jump;
+import worms.gui.game.commands.Rename;
+import worms.gui.game.commands.Turn;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Saves and loads a game with many worms, and reports how long that takes,
+ * how large the saved game is and whether the loaded game is identical: the
+ * same worms with the same names, the same selection, the same random numbers
+ * to come and the same waiting commands. For comparison, it also reports how
+ * long it takes to create the same worms one by one.
+ *
+ * Usage: <code>java worms.gui.SavedGameBenchmark [nbWorms] [file]</code>
+ */
+public class SavedGameBenchmark {
+
+	private static final int REPETITIONS = 10;
+
+	public static void main(String[] args) throws IOException {
+		int nbWorms = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		File file = args.length > 1 ? new File(args[1]) : File.createTempFile(
+				"worms", ".save");
+		file.deleteOnExit();
+
+		Simulation.HeadlessView view = new Simulation.HeadlessView();
+		GameState state = createGame(nbWorms, view);
+
+		double saveTime = Double.MAX_VALUE;
+		double loadTime = Double.MAX_VALUE;
+		GameState loaded = null;
+		for (int i = 0; i < REPETITIONS; i++) {
+			// so that no run pays for the garbage of the one before
+			System.gc();
+			long start = System.nanoTime();
+			SavedGame.save(state, file);
+			saveTime = Math.min(saveTime, (System.nanoTime() - start) / 1e9);
+			loaded = null;
+			System.gc();
+			start = System.nanoTime();
+			loaded = SavedGame.load(file, new Facade(), view);
+			loadTime = Math.min(loadTime, (System.nanoTime() - start) / 1e9);
+		}
+		System.out.printf("game:    %d worms, %d bytes saved (%.1f per worm)%n",
+				nbWorms, file.length(), file.length() / (double) nbWorms);
+		System.out.printf("save:    %.1f ms%n", saveTime * 1e3);
+		System.out.printf("load:    %.1f ms%n", loadTime * 1e3);
+		System.out.printf("loaded:  %s%n", compare(state, loaded));
+
+		double oneByOne = Double.MAX_VALUE;
+		for (int i = 0; i < REPETITIONS; i++) {
+			System.gc();
+			long start = System.nanoTime();
+			restoreOneByOne(state, new Facade());
+			oneByOne = Math.min(oneByOne, (System.nanoTime() - start) / 1e9);
+		}
+		System.out.printf("compare: %.1f ms to restore the worms one by one%n",
+				oneByOne * 1e3);
+	}
+
+	/**
+	 * A game with the given number of worms, of which some have been changed
+	 * and some are waiting for commands.
+	 */
+	private static GameState createGame(int nbWorms, Simulation.HeadlessView view) {
+		IFacade facade = new Facade();
+		GameState state = new GameState(facade, 7, 1000, 1000);
+		String[] names = { "Worm", "Other worm", "Worm \"Jim\"", "Long worm name" };
+		double[] x = new double[nbWorms];
+		double[] y = new double[nbWorms];
+		double[] direction = new double[nbWorms];
+		double[] radius = new double[nbWorms];
+		int[] nameIndices = new int[nbWorms];
+		long[] actionPoints = new long[nbWorms];
+		Random random = new Random(7);
+		for (int i = 0; i < nbWorms; i++) {
+			x[i] = random.nextDouble() * 1000;
+			y[i] = random.nextDouble() * 1000;
+			direction[i] = random.nextDouble() * 2 * Math.PI;
+			radius[i] = 0.25 + random.nextDouble();
+			nameIndices[i] = random.nextInt(names.length);
+			actionPoints[i] = random.nextInt(500);
+		}
+		Worm[] worms = facade.restoreWorms(x, y, direction, radius, names,
+				nameIndices, actionPoints);
+		state.restoreWorms(worms);
+		state.getRandom().nextLong();
+		state.setNameIndex(3);
+		state.selectNextWorm();
+		state.selectNextWorm();
+		for (int i = 0; i < 10; i++) {
+			Worm worm = worms[random.nextInt(nbWorms)];
+			state.enqueueCommand(new Turn(facade, worm, 0.1 * i, view));
+			state.enqueueCommand(new Rename(facade, worm, "Renamed", view));
+			state.enqueueCommand(new Jump(facade, worm, view));
+		}
+		return state;
+	}
+
+	private static void restoreOneByOne(GameState state, IFacade facade) {
+		IFacade original = state.getFacade();
+		for (Worm worm : state.getWorms()) {
+			facade.restoreWorm(original.getX(worm), original.getY(worm),
+					original.getOrientation(worm), original.getRadius(worm),
+					original.getName(worm), original.getActionPoints(worm));
+		}
+	}
+
+	private static String compare(GameState expected, GameState actual) {
+		IFacade e = expected.getFacade();
+		IFacade a = actual.getFacade();
+		List<Worm> expectedWorms = new ArrayList<Worm>(expected.getWorms());
+		List<Worm> actualWorms = new ArrayList<Worm>(actual.getWorms());
+		if (expectedWorms.size() != actualWorms.size()) {
+			return "DIFFERENT number of worms";
+		}
+		for (int i = 0; i < expectedWorms.size(); i++) {
+			Worm ew = expectedWorms.get(i);
+			Worm aw = actualWorms.get(i);
+			if (e.getX(ew) != a.getX(aw) || e.getY(ew) != a.getY(aw)
+					|| e.getOrientation(ew) != a.getOrientation(aw)
+					|| e.getRadius(ew) != a.getRadius(aw)
+					|| ew.getCurrentNumberOfActionPoints() != aw
+							.getCurrentNumberOfActionPoints()
+					|| !e.getName(ew).equals(a.getName(aw))) {
+				return "DIFFERENT worm " + i;
+			}
+		}
+		int selected = expectedWorms.indexOf(expected.getSelectedWorm());
+		if (selected != actualWorms.indexOf(actual.getSelectedWorm())
+				|| expected.getNextSelection() != actual.getNextSelection()
+				|| expected.getNameIndex() != actual.getNameIndex()) {
+			return "DIFFERENT selection";
+		}
+		List<Command> expectedCommands = expected.getCommandProcessor()
+				.getWaitingCommands();
+		List<Command> actualCommands = actual.getCommandProcessor()
+				.getWaitingCommands();
+		if (expectedCommands.size() != actualCommands.size()) {
+			return "DIFFERENT number of waiting commands";
+		}
+		for (int i = 0; i < expectedCommands.size(); i++) {
+			Command ec = expectedCommands.get(i);
+			Command ac = actualCommands.get(i);
+			if (CommandCodec.getType(ec) != CommandCodec.getType(ac)
+					|| expectedWorms.indexOf(ec.getWorm()) != actualWorms
+							.indexOf(ac.getWorm())) {
+				return "DIFFERENT waiting command " + i;
+			}
+		}
+		// the random numbers to come; this uses them up in both games
+		for (int i = 0; i < 100; i++) {
+			if (expected.getRandom().nextLong() != actual.getRandom()
+					.nextLong()) {
+				return "DIFFERENT random numbers";
+			}
+		}
+		return "identical (" + actualWorms.size() + " worms, "
+				+ actualCommands.size() + " waiting commands)";
+	}
+}
@@ -0,0 +1,171 @@
+package worms.gui;
+
+import java.util.Random;
+
+import worms.gui.game.SnapshotRecorder;
+import worms.gui.game.WorldSnapshot;
+import worms.gui.game.commands.Command;
+import worms.gui.game.commands.Jump;
+import worms.gui.game.commands.Move;
+import worms.gui.game.commands.Turn;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Plays a game in real time with a simulated paint load on the frame thread,
+ * once with the simulation advanced by the frame timer and once with the
+ * simulation on its own {@link SimulationThread}, and reports:
+ * <ul>
+ * <li>tick jitter: how far the real time between two steps deviates from
+ * their period;</li>
+ * <li>frame jitter: how far the real time between two frames deviates from
+ * the frame period;</li>
+ * <li>render error: how far the game time shown by successive frames drifts
+ * from the real time between them.</li>
+ * </ul>
+ *
+ * Usage: <code>java worms.gui.SimulationThreadBenchmark [seconds] [maxPaintMillis]</code>
+ */
+public class SimulationThreadBenchmark {
+
+	private static final long FRAME_PERIOD = 1000000000L / GUIConstants.FRAMERATE;
+
+	public static void main(String[] args) throws InterruptedException {
+		double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 5;
+		int maxPaintMillis = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+
+		run("timer   ", false, seconds, maxPaintMillis);
+		run("threaded", true, seconds, maxPaintMillis);
+	}
+
+	private static void run(String label, boolean threaded, double seconds,
+			int maxPaintMillis) throws InterruptedException {
+		IFacade facade = new Facade();
+		GameState state = new GameState(facade, 3,
+				GUIConstants.DEFAULT_WINDOW_WIDTH,
+				GUIConstants.DEFAULT_WINDOW_HEIGHT);
+		final Simulation.HeadlessView messages = new Simulation.HeadlessView();
+		final SnapshotRecorder recorder = new SnapshotRecorder(state, messages);
+		final JitterStats tickJitter = new JitterStats(Math.round(Simulation.DEFAULT_TIME_STEP
+				/ GUIConstants.TIME_SCALE * 1e9));
+		// records the real time of every step, also when driven by the timer
+		final Simulation simulation = new Simulation(state) {
+			@Override
+			public void step() {
+				tickJitter.recordEvent(System.nanoTime());
+				super.step();
+			}
+		};
+		state.startGame();
+
+		final WorldSnapshot[] published = new WorldSnapshot[2];
+		published[0] = published[1] = recorder.capture(simulation);
+		SimulationThread thread = null;
+		if (threaded) {
+			thread = new SimulationThread(simulation,
+					new SimulationThread.StepListener() {
+						@Override
+						public void stepped(Simulation simulation) {
+							WorldSnapshot snapshot = recorder.capture(simulation);
+							synchronized (published) {
+								published[0] = published[1];
+								published[1] = snapshot;
+							}
+						}
+					});
+			thread.start();
+		}
+
+		JitterStats frameJitter = new JitterStats(FRAME_PERIOD);
+		JitterStats renderError = new JitterStats(FRAME_PERIOD);
+		Random player = new Random(3);
+		Random load = new Random(4);
+		long start = System.nanoTime();
+		long nextFrame = start;
+		long lastFrame = -1;
+		double lastShownTime = 0;
+		while (System.nanoTime() - start < seconds * 1e9) {
+			sleepUntil(nextFrame);
+			nextFrame += FRAME_PERIOD;
+			long now = System.nanoTime();
+			frameJitter.recordEvent(now);
+
+			double shownTime;
+			synchronized (simulation.getLock()) {
+				if (state.isIdle()) {
+					state.selectNextWorm();
+					state.enqueueCommand(createRandomCommand(facade, recorder,
+							state.getSelectedWorm(), player));
+				}
+			}
+			if (threaded) {
+				WorldSnapshot previous, current;
+				synchronized (published) {
+					previous = published[0];
+					current = published[1];
+				}
+				double alpha = (now - current.getTimestamp())
+						/ (double) thread.getPeriod();
+				shownTime = current.interpolateFrom(previous,
+						Math.max(0, Math.min(1, alpha))).getSimulationTime();
+			} else {
+				if (lastFrame >= 0) {
+					simulation.advance((now - lastFrame) / 1e9
+							* GUIConstants.TIME_SCALE);
+				}
+				shownTime = recorder.capture(simulation).getSimulationTime();
+			}
+			if (lastFrame >= 0) {
+				// the game time shown should advance with real time
+				long shownDelta = Math.round((shownTime - lastShownTime)
+						/ GUIConstants.TIME_SCALE * 1e9);
+				renderError.record(FRAME_PERIOD + shownDelta - (now - lastFrame));
+			}
+			lastFrame = now;
+			lastShownTime = shownTime;
+
+			paint(load.nextInt(maxPaintMillis + 1));
+		}
+		if (thread != null) {
+			thread.stop();
+		}
+		System.out.printf("%s ticks:  %s%n", label, tickJitter);
+		System.out.printf("%s frames: %s%n", label, frameJitter);
+		System.out.printf("%s render error: p50 %.2f ms, p99 %.2f ms, max %.2f ms (%d steps)%n",
+				label, renderError.getDeviationPercentileMillis(50),
+				renderError.getDeviationPercentileMillis(99),
+				renderError.getMaxDeviationMillis(), simulation.getTickCount());
+	}
+
+	/**
+	 * Keep the frame thread busy for the given number of milliseconds, as a
+	 * slow paint would.
+	 */
+	private static void paint(int millis) {
+		long end = System.nanoTime() + millis * 1000000L;
+		while (System.nanoTime() < end) {
+			// busy
+		}
+	}
+
+	private static void sleepUntil(long deadline) throws InterruptedException {
+		long delay = deadline - System.nanoTime();
+		if (delay > 0) {
+			Thread.sleep(delay / 1000000, (int) (delay % 1000000));
+		}
+	}
+
+	private static Command createRandomCommand(
+			IFacade facade, SnapshotRecorder view, Worm worm, Random player) {
+		switch (player.nextInt(3)) {
+		case 0:
+			return new Move(facade, worm, 1 + player.nextInt(3), view);
+		case 1:
+			return new Turn(facade, worm, (player.nextDouble() * 2 - 1)
+					* Math.PI, view);
+		default:
+			return new Jump(facade, worm, view);
+		}
+	}
+}
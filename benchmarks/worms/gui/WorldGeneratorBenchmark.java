@@ -0,0 +1,173 @@
+package worms.gui;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Generates worlds of several sizes with several numbers of threads, and
+ * reports how long that takes, whether the same seed gives the same world
+ * with every number of threads and whether any worms overlap. For comparison,
+ * it also reports how long it takes to create as many worms one by one at
+ * random locations, as for the ten random worms of a game.
+ *
+ * Usage: <code>java worms.gui.WorldGeneratorBenchmark [nbWorms,...] [threads,...]</code>
+ */
+public class WorldGeneratorBenchmark {
+
+	public static void main(String[] args) {
+		int[] sizes = parseInts(args.length > 0 ? args[0] : "100000,1000000");
+		int[] threads = parseInts(args.length > 1 ? args[1] : "1,2,4");
+
+		// warm up
+		generate(sizes[0], 1);
+
+		for (int nbWorms : sizes) {
+			Long expected = null;
+			boolean same = true;
+			WorldGenerator generator = null;
+			Worm[] worms = null;
+			IFacade facade = null;
+			for (int nbThreads : threads) {
+				facade = new Facade();
+				generator = new WorldGenerator(7, nbWorms);
+				ForkJoinPool pool = new ForkJoinPool(nbThreads);
+				System.gc();
+				long start = System.nanoTime();
+				worms = generator.generate(facade, pool);
+				double time = (System.nanoTime() - start) / 1e9;
+				pool.shutdown();
+				long checksum = checksum(facade, worms);
+				if (expected == null) {
+					expected = checksum;
+				} else if (expected != checksum) {
+					same = false;
+				}
+				System.out.printf(
+						"%8d worms, %d threads: %7.1f ms (%.1f M worms/s)%n",
+						nbWorms, nbThreads, time * 1e3, nbWorms / time / 1e6);
+			}
+			System.out.printf(
+					"%8d worms: %.0f by %.0f m, %s world for every number of threads, %d overlapping pairs%n",
+					nbWorms, generator.getWorldWidth(),
+					generator.getWorldHeight(), same ? "same" : "DIFFERENT",
+					countOverlaps(facade, worms, generator.getMaxRadius()));
+			worms = null;
+			facade = null;
+
+			System.gc();
+			long start = System.nanoTime();
+			createOneByOne(nbWorms, generator);
+			System.out.printf(
+					"%8d worms: %7.1f ms one by one, without checking overlaps%n",
+					nbWorms, (System.nanoTime() - start) / 1e6);
+		}
+	}
+
+	private static Worm[] generate(int nbWorms, int nbThreads) {
+		ForkJoinPool pool = new ForkJoinPool(nbThreads);
+		try {
+			return new WorldGenerator(7, nbWorms).generate(new Facade(), pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	private static void createOneByOne(int nbWorms, WorldGenerator generator) {
+		IFacade facade = new Facade();
+		Random random = new Random(7);
+		double width = generator.getWorldWidth();
+		double height = generator.getWorldHeight();
+		for (int i = 0; i < nbWorms; i++) {
+			double radius = 0.25 + random.nextDouble() / 4;
+			facade.createWorm((random.nextDouble() - 0.5) * width,
+					(random.nextDouble() - 0.5) * height,
+					random.nextDouble() * 2 * Math.PI, radius,
+					WorldGenerator.createName(i % 4096));
+		}
+	}
+
+	private static long checksum(IFacade facade, Worm[] worms) {
+		long result = 0;
+		for (Worm worm : worms) {
+			result = 31 * result + Double.doubleToLongBits(facade.getX(worm));
+			result = 31 * result + Double.doubleToLongBits(facade.getY(worm));
+			result = 31 * result
+					+ Double.doubleToLongBits(facade.getOrientation(worm));
+			result = 31 * result
+					+ Double.doubleToLongBits(facade.getRadius(worm));
+			result = 31 * result + facade.getName(worm).hashCode();
+		}
+		return result;
+	}
+
+	/**
+	 * Count the pairs of worms that overlap, by comparing the worms in
+	 * neighbouring cells of a grid that is as fine as the largest worm.
+	 */
+	private static long countOverlaps(IFacade facade, Worm[] worms,
+			double maxRadius) {
+		double cellSize = 2 * maxRadius;
+		Map<Long, List<Worm>> cells = new HashMap<Long, List<Worm>>();
+		for (Worm worm : worms) {
+			Long cell = getCell(facade.getX(worm), facade.getY(worm), cellSize,
+					0, 0);
+			List<Worm> list = cells.get(cell);
+			if (list == null) {
+				list = new ArrayList<Worm>(2);
+				cells.put(cell, list);
+			}
+			list.add(worm);
+		}
+		long result = 0;
+		for (Worm worm : worms) {
+			double x = facade.getX(worm);
+			double y = facade.getY(worm);
+			for (int dx = -1; dx <= 1; dx++) {
+				for (int dy = -1; dy <= 1; dy++) {
+					List<Worm> others = cells.get(getCell(x, y, cellSize, dx,
+							dy));
+					if (others == null) {
+						continue;
+					}
+					for (Worm other : others) {
+						if (other == worm) {
+							continue;
+						}
+						double distance = GUIUtils.distance(x, y,
+								facade.getX(other), facade.getY(other));
+						if (distance < facade.getRadius(worm)
+								+ facade.getRadius(other)) {
+							result++;
+						}
+					}
+				}
+			}
+		}
+		// every pair is counted twice
+		return result / 2;
+	}
+
+	private static Long getCell(double x, double y, double cellSize, int dx,
+			int dy) {
+		long column = (long) Math.floor(x / cellSize) + dx;
+		long row = (long) Math.floor(y / cellSize) + dy;
+		return (column << 32) ^ (row & 0xffffffffL);
+	}
+
+	private static int[] parseInts(String list) {
+		String[] parts = list.split(",");
+		int[] result = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			result[i] = Integer.parseInt(parts[i].trim());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,184 @@
+package worms.gui.game;
+
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import worms.gui.DurationStats;
+import worms.gui.GUIConstants;
+import worms.gui.GUIOptions;
+import worms.gui.GUIUtils;
+import worms.gui.GameState;
+import worms.gui.Simulation;
+import worms.gui.WormsGUI;
+import worms.gui.game.commands.Command;
+import worms.gui.game.commands.Jump;
+import worms.gui.game.commands.Move;
+import worms.gui.game.commands.Turn;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Plays the same game twice on a screen that paints into an image, once
+ * repainting the whole screen every frame and once repainting only the region
+ * that changed and skipping frames in which nothing changed, and reports the
+ * time spent painting and the number of pixels painted. Afterwards, the image
+ * built from the changed regions is compared with a full repaint.
+ *
+ * Runs without a display.
+ *
+ * Usage: <code>java worms.gui.game.ChangedRegionBenchmark [nbWorms] [frames]</code>
+ */
+public class ChangedRegionBenchmark {
+
+	private static final int WIDTH = GUIConstants.DEFAULT_WINDOW_WIDTH;
+	private static final int HEIGHT = GUIConstants.DEFAULT_WINDOW_HEIGHT;
+
+	// the player gives a command every so many frames, when the game is idle
+	private static final int FRAMES_PER_COMMAND = GUIConstants.FRAMERATE;
+
+	public static void main(String[] args) {
+		int nbWorms = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+		int frames = args.length > 1 ? Integer.parseInt(args[1]) : 900;
+
+		// warm up
+		run("warm-up", nbWorms, frames / 3, false, false);
+		run("warm-up", nbWorms, frames / 3, true, false);
+
+		run("full   ", nbWorms, frames, false, false);
+		run("changed", nbWorms, frames, true, true);
+	}
+
+	private static void run(String label, int nbWorms, int frames,
+			boolean changedOnly, boolean verify) {
+		GUIOptions options = new GUIOptions();
+		options.disableFullScreen = true;
+		IFacade facade = new Facade();
+		WormsGUI gui = new WormsGUI(facade, options);
+		GameState state = new GameState(facade, 7, WIDTH, HEIGHT);
+		addWorms(state, nbWorms);
+		state.startGame();
+		Simulation simulation = new Simulation(state);
+		PlayGameScreen screen = PlayGameScreen.create(gui, simulation, false);
+		screen.getPanel().setSize(WIDTH, HEIGHT);
+		screen.createSprites();
+
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		paint(screen, image, null);
+
+		List<Worm> worms = new ArrayList<Worm>(state.getWorms());
+		Random player = new Random(11);
+		double dt = GUIConstants.TIME_SCALE / GUIConstants.FRAMERATE;
+		DurationStats frameTimes = new DurationStats();
+		long paintedPixels = 0;
+		int paintedFrames = 0;
+		for (int frame = 0; frame < frames; frame++) {
+			if (frame % FRAMES_PER_COMMAND == 0 && state.isIdle()) {
+				Worm worm = worms.get(player.nextInt(worms.size()));
+				state.selectWorm(worm);
+				state.enqueueCommand(createRandomCommand(facade, screen, worm,
+						player));
+			}
+			long start = System.nanoTime();
+			Rectangle changed = screen.advanceFrame(dt);
+			if (!changedOnly) {
+				changed = new Rectangle(0, 0, WIDTH, HEIGHT);
+			}
+			if (changed != null) {
+				paint(screen, image, changed);
+				paintedPixels += (long) changed.width * changed.height;
+				paintedFrames++;
+			}
+			frameTimes.record(System.nanoTime() - start);
+		}
+
+		if (!label.startsWith("warm-up")) {
+			System.out.printf("%s %d worms: %s%n", label, worms.size(),
+					frameTimes);
+			System.out.printf(
+					"%s painted %d of %d frames, %.1f%% of the pixels%n",
+					label, paintedFrames, frames, 100.0 * paintedPixels
+							/ ((long) frames * WIDTH * HEIGHT));
+		}
+		if (verify) {
+			BufferedImage expected = new BufferedImage(WIDTH, HEIGHT,
+					BufferedImage.TYPE_INT_RGB);
+			paint(screen, expected, null);
+			System.out.printf("%s differs from a full repaint in %d pixels%n",
+					label, countDifferences(image, expected));
+		}
+	}
+
+	/**
+	 * Add worms on a grid that covers the screen.
+	 */
+	private static void addWorms(GameState state, int nbWorms) {
+		IFacade facade = state.getFacade();
+		double worldWidth = GUIUtils.pixelToMeter(WIDTH);
+		double worldHeight = GUIUtils.pixelToMeter(HEIGHT);
+		int columns = (int) Math.ceil(Math.sqrt(nbWorms * worldWidth
+				/ worldHeight));
+		int rows = (nbWorms + columns - 1) / columns;
+		for (int i = 0; i < nbWorms; i++) {
+			double x = -worldWidth / 2 + (i % columns + 0.5) * worldWidth
+					/ columns;
+			double y = -worldHeight / 2 + (i / columns + 0.5) * worldHeight
+					/ rows;
+			state.addWorm(facade.createWorm(x, y, i * 0.7 % (2 * Math.PI),
+					0.25, createName(i)));
+		}
+	}
+
+	private static String createName(int index) {
+		StringBuilder name = new StringBuilder("Worm ");
+		do {
+			name.append((char) ('a' + index % 26));
+			index /= 26;
+		} while (index > 0);
+		return name.toString();
+	}
+
+	private static void paint(PlayGameScreen screen, BufferedImage image,
+			Rectangle region) {
+		Graphics2D g = image.createGraphics();
+		try {
+			if (region != null) {
+				g.setClip(region);
+			}
+			screen.getPanel().paint(g);
+		} finally {
+			g.dispose();
+		}
+	}
+
+	private static int countDifferences(BufferedImage image,
+			BufferedImage expected) {
+		int result = 0;
+		for (int y = 0; y < image.getHeight(); y++) {
+			for (int x = 0; x < image.getWidth(); x++) {
+				if (image.getRGB(x, y) != expected.getRGB(x, y)) {
+					result++;
+				}
+			}
+		}
+		return result;
+	}
+
+	private static Command createRandomCommand(IFacade facade,
+			GameView view, Worm worm, Random player) {
+		switch (player.nextInt(3)) {
+		case 0:
+			return new Move(facade, worm, 1 + player.nextInt(3), view);
+		case 1:
+			return new Turn(facade, worm, (player.nextDouble() * 2 - 1)
+					* Math.PI, view);
+		default:
+			return new Jump(facade, worm, view);
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package worms.gui.game;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import worms.gui.DurationStats;
+import worms.gui.GUIConstants;
+import worms.gui.GUIOptions;
+import worms.gui.GameState;
+import worms.gui.Simulation;
+import worms.gui.WorldGenerator;
+import worms.gui.WormsGUI;
+import worms.model.Facade;
+import worms.model.IFacade;
+
+/**
+ * Paints a generated world at several scales, so with more and smaller worms
+ * on the screen the further the camera zooms out, once with the default
+ * levels of detail and once painting every worm in full, and reports the time
+ * taken to paint a frame.
+ *
+ * Runs without a display.
+ *
+ * Usage: <code>java worms.gui.game.LevelOfDetailBenchmark [frames] [nbWorms] [scale,...]</code>
+ */
+public class LevelOfDetailBenchmark {
+
+	private static final int WIDTH = GUIConstants.DEFAULT_WINDOW_WIDTH;
+	private static final int HEIGHT = GUIConstants.DEFAULT_WINDOW_HEIGHT;
+
+	public static void main(String[] args) {
+		int frames = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		int nbWorms = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+		double[] scales = parseDoubles(args.length > 2 ? args[2]
+				: "45,15,5,1.5");
+
+		// warm up
+		run(nbWorms, scales[0], true, frames, false);
+		run(nbWorms, scales[0], false, frames, false);
+
+		System.out.printf("%7s %8s %-7s %-10s %-45s%n", "scale", "visible",
+				"max", "levels", "paint");
+		for (double scale : scales) {
+			for (boolean levels : new boolean[] { true, false }) {
+				run(nbWorms, scale, levels, frames, true);
+			}
+		}
+	}
+
+	private static void run(int nbWorms, double scale, boolean levels,
+			int frames, boolean report) {
+		GUIOptions options = new GUIOptions();
+		options.disableFullScreen = true;
+		if (!levels) {
+			options.dotRadius = 0;
+			options.labelRadius = 0;
+			options.maxLabeledWorms = Integer.MAX_VALUE;
+			options.maxSpriteWorms = Integer.MAX_VALUE;
+		}
+		IFacade facade = new Facade();
+		WormsGUI gui = new WormsGUI(facade, options);
+		GameState state = new GameState(facade, 7, WIDTH, HEIGHT);
+		state.startGame(new WorldGenerator(7, nbWorms));
+		state.selectWorm(null);
+		Simulation simulation = new Simulation(state);
+		PlayGameScreen screen = PlayGameScreen.create(gui, simulation, false);
+		screen.getPanel().setSize(WIDTH, HEIGHT);
+		screen.getCamera().setScale(scale);
+		screen.createSprites();
+		screen.advanceFrame(0);
+
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		// renders the name labels
+		paint(screen, image);
+
+		System.gc();
+		DurationStats paintTimes = new DurationStats();
+		for (int frame = 0; frame < frames; frame++) {
+			long start = System.nanoTime();
+			paint(screen, image);
+			paintTimes.record(System.nanoTime() - start);
+		}
+		if (report) {
+			int nbVisible = screen.getVisibleWormSprites().size();
+			System.out.printf("%7.1f %8d %-7s %-10s %-45s%n", scale,
+					nbVisible, new LevelOfDetail(options)
+							.getMaxDetail(nbVisible), levels ? "default"
+							: "full only", paintTimes);
+		}
+	}
+
+	private static void paint(PlayGameScreen screen, BufferedImage image) {
+		Graphics2D g = image.createGraphics();
+		try {
+			screen.getPanel().paint(g);
+		} finally {
+			g.dispose();
+		}
+	}
+
+	private static double[] parseDoubles(String list) {
+		String[] parts = list.split(",");
+		double[] result = new double[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			result[i] = Double.parseDouble(parts[i].trim());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,176 @@
+package worms.gui.game;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Random;
+
+import worms.gui.GUIConstants;
+import worms.gui.GUIOptions;
+import worms.gui.GUIUtils;
+import worms.gui.GameState;
+import worms.gui.Simulation;
+import worms.gui.WormsGUI;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Paints the same still game over and over into an image, through the plain
+ * and the debug painter, for several numbers of worms, several radii and with
+ * or without a selected worm, and reports the frames painted per second and
+ * the bytes allocated per frame. Frames are painted by the panel of the
+ * screen, as Swing would paint them, so with the same rendering hints.
+ *
+ * Runs without a display.
+ *
+ * Usage: <code>java worms.gui.game.OffscreenRenderingBenchmark [frames] [nbWorms,...] [radius,...]</code>
+ */
+public class OffscreenRenderingBenchmark {
+
+	private static final int WIDTH = GUIConstants.DEFAULT_WINDOW_WIDTH;
+	private static final int HEIGHT = GUIConstants.DEFAULT_WINDOW_HEIGHT;
+
+	public static void main(String[] args) {
+		int frames = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+		int[] counts = parseInts(args.length > 1 ? args[1] : "10,100,1000");
+		double[] radii = parseDoubles(args.length > 2 ? args[2]
+				: "0.25,1,3");
+
+		// warm up
+		run(false, counts[counts.length - 1], radii[0], true, frames);
+		run(true, counts[counts.length - 1], radii[0], true, frames);
+
+		System.out.printf("%-7s %7s %6s %-9s %10s %14s%n", "painter", "worms",
+				"radius", "selection", "fps", "bytes/frame");
+		for (boolean debug : new boolean[] { false, true }) {
+			for (int nbWorms : counts) {
+				for (double radius : radii) {
+					for (boolean selected : new boolean[] { false, true }) {
+						double[] result = run(debug, nbWorms, radius,
+								selected, frames);
+						System.out.printf("%-7s %7d %6.2f %-9s %10.1f %14.0f%n",
+								debug ? "debug" : "plain", nbWorms, radius,
+								selected ? "selected" : "none", result[0],
+								result[1]);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Paint the given number of frames of a game with the given worms.
+	 *
+	 * @return the frames painted per second and the bytes allocated per frame
+	 *         (or -1 if that cannot be measured)
+	 */
+	private static double[] run(boolean debug, int nbWorms, double radius,
+			boolean selected, int frames) {
+		GUIOptions options = new GUIOptions();
+		options.disableFullScreen = true;
+		IFacade facade = new Facade();
+		WormsGUI gui = new WormsGUI(facade, options);
+		GameState state = new GameState(facade, 7, WIDTH, HEIGHT);
+		Worm first = addWorms(state, nbWorms, radius);
+		state.selectWorm(selected ? first : null);
+		Simulation simulation = new Simulation(state);
+		PlayGameScreen screen = PlayGameScreen.create(gui, simulation, debug);
+		screen.getPanel().setSize(WIDTH, HEIGHT);
+		screen.createSprites();
+		screen.advanceFrame(0);
+
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		// renders the name labels and samples the jump markers
+		paint(screen, image);
+
+		long allocated = getAllocatedBytes();
+		long start = System.nanoTime();
+		for (int frame = 0; frame < frames; frame++) {
+			paint(screen, image);
+		}
+		long time = System.nanoTime() - start;
+		long allocatedAfter = getAllocatedBytes();
+		return new double[] {
+				frames / (time / 1e9),
+				allocated < 0 ? -1 : (allocatedAfter - allocated)
+						/ (double) frames };
+	}
+
+	/**
+	 * Add worms at random locations on the screen, and return the first one.
+	 */
+	private static Worm addWorms(GameState state, int nbWorms, double radius) {
+		IFacade facade = state.getFacade();
+		double worldWidth = GUIUtils.pixelToMeter(WIDTH);
+		double worldHeight = GUIUtils.pixelToMeter(HEIGHT);
+		Random random = new Random(7);
+		Worm first = null;
+		for (int i = 0; i < nbWorms; i++) {
+			Worm worm = facade.createWorm((random.nextDouble() - 0.5)
+					* worldWidth, (random.nextDouble() - 0.5) * worldHeight,
+					random.nextDouble() * 2 * Math.PI, radius, createName(i));
+			state.addWorm(worm);
+			if (first == null) {
+				first = worm;
+			}
+		}
+		return first;
+	}
+
+	private static String createName(int index) {
+		StringBuilder name = new StringBuilder("Worm ");
+		do {
+			name.append((char) ('a' + index % 26));
+			index /= 26;
+		} while (index > 0);
+		return name.toString();
+	}
+
+	private static void paint(PlayGameScreen screen, BufferedImage image) {
+		Graphics2D g = image.createGraphics();
+		try {
+			screen.getPanel().paint(g);
+		} finally {
+			g.dispose();
+		}
+	}
+
+	/**
+	 * Bytes allocated so far by this thread, or -1 if the virtual machine does
+	 * not count them
+	 */
+	private static long getAllocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+			return -1;
+		}
+		com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+		if (!allocations.isThreadAllocatedMemorySupported()
+				|| !allocations.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		return allocations.getThreadAllocatedBytes(Thread.currentThread()
+				.getId());
+	}
+
+	private static int[] parseInts(String list) {
+		String[] parts = list.split(",");
+		int[] result = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			result[i] = Integer.parseInt(parts[i].trim());
+		}
+		return result;
+	}
+
+	private static double[] parseDoubles(String list) {
+		String[] parts = list.split(",");
+		double[] result = new double[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			result[i] = Double.parseDouble(parts[i].trim());
+		}
+		return result;
+	}
+}
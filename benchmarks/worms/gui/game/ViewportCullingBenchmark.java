@@ -0,0 +1,108 @@
+package worms.gui.game;
+
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+import worms.gui.DurationStats;
+import worms.gui.GUIConstants;
+import worms.gui.GUIOptions;
+import worms.gui.GameState;
+import worms.gui.Simulation;
+import worms.gui.WorldGenerator;
+import worms.gui.WormsGUI;
+import worms.model.Facade;
+import worms.model.IFacade;
+
+/**
+ * Pans the camera over generated worlds of several sizes, all with the same
+ * density of worms, and reports the time taken to prepare and to paint each
+ * frame and the number of worms painted. Since only the worms around the
+ * screen are captured and painted, preparing and painting a frame should take
+ * about as long in every world.
+ *
+ * Runs without a display.
+ *
+ * Usage: <code>java worms.gui.game.ViewportCullingBenchmark [frames] [nbWorms,...]</code>
+ */
+public class ViewportCullingBenchmark {
+
+	private static final int WIDTH = GUIConstants.DEFAULT_WINDOW_WIDTH;
+	private static final int HEIGHT = GUIConstants.DEFAULT_WINDOW_HEIGHT;
+
+	// pixels the camera moves per frame
+	private static final double PAN_SPEED = 8;
+
+	public static void main(String[] args) {
+		int frames = args.length > 0 ? Integer.parseInt(args[0]) : 300;
+		int[] sizes = parseInts(args.length > 1 ? args[1]
+				: "1000,10000,100000,1000000");
+
+		// warm up
+		run(sizes[0], frames, false);
+
+		System.out.printf("%8s %9s %-45s %-45s%n", "worms", "painted",
+				"prepare", "paint");
+		for (int nbWorms : sizes) {
+			run(nbWorms, frames, true);
+		}
+	}
+
+	private static void run(int nbWorms, int frames, boolean report) {
+		GUIOptions options = new GUIOptions();
+		options.disableFullScreen = true;
+		IFacade facade = new Facade();
+		WormsGUI gui = new WormsGUI(facade, options);
+		GameState state = new GameState(facade, 7, WIDTH, HEIGHT);
+		state.startGame(new WorldGenerator(7, nbWorms));
+		state.selectWorm(null);
+		Simulation simulation = new Simulation(state);
+		PlayGameScreen screen = PlayGameScreen.create(gui, simulation, false);
+		screen.getPanel().setSize(WIDTH, HEIGHT);
+		screen.createSprites();
+
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		screen.advanceFrame(0);
+		paint(screen, image);
+
+		System.gc();
+		DurationStats prepareTimes = new DurationStats();
+		DurationStats paintTimes = new DurationStats();
+		long painted = 0;
+		for (int frame = 0; frame < frames; frame++) {
+			// back and forth, so that the camera stays within small worlds
+			double direction = (frame / 100) % 2 == 0 ? 1 : -1;
+			screen.pan(direction * PAN_SPEED, direction * PAN_SPEED / 2);
+			long start = System.nanoTime();
+			screen.advanceFrame(0);
+			long prepared = System.nanoTime();
+			paint(screen, image);
+			long end = System.nanoTime();
+			prepareTimes.record(prepared - start);
+			paintTimes.record(end - prepared);
+			painted += screen.getVisibleWormSprites().size();
+		}
+		if (report) {
+			System.out.printf("%8d %9.0f %-45s %-45s%n", nbWorms, painted
+					/ (double) frames, prepareTimes, paintTimes);
+		}
+	}
+
+	private static void paint(PlayGameScreen screen, BufferedImage image) {
+		Graphics2D g = image.createGraphics();
+		try {
+			screen.getPanel().paint(g);
+		} finally {
+			g.dispose();
+		}
+	}
+
+	private static int[] parseInts(String list) {
+		String[] parts = list.split(",");
+		int[] result = new int[parts.length];
+		for (int i = 0; i < parts.length; i++) {
+			result[i] = Integer.parseInt(parts[i].trim());
+		}
+		return result;
+	}
+}
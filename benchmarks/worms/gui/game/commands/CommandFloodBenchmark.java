@@ -0,0 +1,66 @@
+package worms.gui.game.commands;
+
+import worms.gui.GUIConstants;
+import worms.gui.GameState;
+import worms.gui.Simulation;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Simulates a player who holds down the key to move a worm: one move is
+ * enqueued every simulation step for a while, after which the key is
+ * released. For several capacities and overflow policies of the command
+ * queue, reports how many commands were merged and dropped, and how long the
+ * worm keeps moving after the key is released.
+ *
+ * Usage: <code>java worms.gui.game.commands.CommandFloodBenchmark [heldSteps]</code>
+ */
+public class CommandFloodBenchmark {
+
+	public static void main(String[] args) {
+		int heldSteps = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+
+		run(heldSteps, Integer.MAX_VALUE,
+				CommandProcessor.OverflowPolicy.DROP_NEWEST);
+		run(heldSteps, GUIConstants.MAX_PENDING_COMMANDS,
+				CommandProcessor.OverflowPolicy.DROP_NEWEST);
+		run(heldSteps, GUIConstants.MAX_PENDING_COMMANDS,
+				CommandProcessor.OverflowPolicy.DROP_OLDEST);
+	}
+
+	private static void run(int heldSteps, int capacity,
+			CommandProcessor.OverflowPolicy policy) {
+		IFacade facade = new Facade();
+		GameState state = new GameState(facade, 5,
+				GUIConstants.DEFAULT_WINDOW_WIDTH,
+				GUIConstants.DEFAULT_WINDOW_HEIGHT);
+		CommandProcessor processor = state.getCommandProcessor();
+		processor.setCapacity(capacity);
+		processor.setOverflowPolicy(policy);
+		// large enough not to run out of action points
+		Worm worm = facade.createWorm(0, 0, 0, 10, "Worm");
+		state.addWorm(worm);
+		Simulation simulation = new Simulation(state);
+		Simulation.HeadlessView view = new Simulation.HeadlessView();
+
+		for (int i = 0; i < heldSteps; i++) {
+			state.enqueueCommand(new Move(facade, worm, 1, view));
+			simulation.step();
+		}
+		double releaseTime = simulation.getSimulationTime();
+		while (!state.isIdle()) {
+			simulation.step();
+		}
+
+		System.out.printf(
+				"capacity %s, %s: %d enqueued, %d merged, %d dropped; "
+						+ "moved %.1f m; still moving %.2f worm-s after release%n",
+				capacity == Integer.MAX_VALUE ? "unbounded" : String
+						.valueOf(capacity), policy, processor
+						.getNbEnqueuedCommands(), processor
+						.getNbMergedCommands(), processor
+						.getNbDroppedCommands(), facade.getX(worm),
+				simulation.getSimulationTime() - releaseTime);
+	}
+}
@@ -0,0 +1,148 @@
+package worms.gui.game.commands;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+import worms.gui.GUIConstants;
+import worms.gui.GameState;
+import worms.gui.Simulation;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Lets a number of player threads enqueue commands for many worms at the same
+ * time, while the simulation runs until all commands have finished, and
+ * reports:
+ * <ul>
+ * <li>how fast commands are enqueued and executed, in real time;</li>
+ * <li>how much game time the commands took, compared with the sum of their
+ * durations, which is what executing them one after the other would take.</li>
+ * </ul>
+ *
+ * Usage: <code>java worms.gui.game.commands.CommandLaneBenchmark [nbWorms] [nbCommands] [nbPlayers]</code>
+ */
+public class CommandLaneBenchmark {
+
+	public static void main(String[] args) throws InterruptedException {
+		int nbWorms = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int nbCommands = args.length > 1 ? Integer.parseInt(args[1]) : 100000;
+		int nbPlayers = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+
+		// warm up
+		run(nbWorms, nbCommands / 10, nbPlayers, false);
+		run(nbWorms, nbCommands, nbPlayers, true);
+	}
+
+	private static void run(int nbWorms, int nbCommands, int nbPlayers,
+			boolean report) throws InterruptedException {
+		final IFacade facade = new Facade();
+		final GameState state = new GameState(facade, 5,
+				GUIConstants.DEFAULT_WINDOW_WIDTH,
+				GUIConstants.DEFAULT_WINDOW_HEIGHT);
+		// measure the lanes, not the backpressure
+		state.getCommandProcessor().setCapacity(Integer.MAX_VALUE);
+		final List<Worm> worms = new ArrayList<Worm>();
+		for (int i = 0; i < nbWorms; i++) {
+			Worm worm = facade.createWorm(i % 100, i / 100, 0, 1, "Worm");
+			state.addWorm(worm);
+			worms.add(worm);
+		}
+		Simulation simulation = new Simulation(state);
+		final Simulation.HeadlessView view = new Simulation.HeadlessView();
+
+		// every player gives commands to its own worms
+		final List<List<Command>> enqueued = new ArrayList<List<Command>>();
+		final CountDownLatch start = new CountDownLatch(1);
+		final CountDownLatch done = new CountDownLatch(nbPlayers);
+		final int commandsPerPlayer = nbCommands / nbPlayers;
+		for (int p = 0; p < nbPlayers; p++) {
+			final List<Command> commands = new ArrayList<Command>(
+					commandsPerPlayer);
+			enqueued.add(commands);
+			final int player = p;
+			final int players = nbPlayers;
+			new Thread("player " + p) {
+				@Override
+				public void run() {
+					Random random = new Random(player);
+					try {
+						start.await();
+					} catch (InterruptedException e) {
+						return;
+					}
+					for (int i = 0; i < commandsPerPlayer; i++) {
+						int index = player + players
+								* random.nextInt(worms.size() / players);
+						Command command = createRandomCommand(facade, view,
+								worms.get(index), random);
+						commands.add(command);
+						state.enqueueCommand(command);
+					}
+					done.countDown();
+				}
+			}.start();
+		}
+
+		long startTime = System.nanoTime();
+		start.countDown();
+		long enqueueTime = -1;
+		while (enqueueTime < 0 || !state.isIdle()) {
+			simulation.step();
+			if (enqueueTime < 0 && done.getCount() == 0) {
+				enqueueTime = System.nanoTime() - startTime;
+			}
+		}
+		long totalTime = System.nanoTime() - startTime;
+
+		int executed = 0;
+		double serialTime = 0;
+		for (List<Command> commands : enqueued) {
+			for (Command command : commands) {
+				if (command.isStarted()) {
+					executed++;
+					serialTime += command.getElapsedTime();
+				}
+			}
+		}
+		if (report) {
+			int total = commandsPerPlayer * nbPlayers;
+			System.out.printf(
+					"%d players, %d worms, %d commands (%d executed, %d merged or cancelled)%n",
+					nbPlayers, nbWorms, total, executed, total - executed);
+			System.out.printf("merged:    %d, dropped: %d%n", state
+					.getCommandProcessor().getNbMergedCommands(), state
+					.getCommandProcessor().getNbDroppedCommands());
+			System.out.printf("enqueued:  %.0f commands/s%n", total
+					/ (enqueueTime / 1e9));
+			System.out.printf("finished:  %.0f commands/s, %.3f s, %d steps%n",
+					total / (totalTime / 1e9), totalTime / 1e9,
+					simulation.getTickCount());
+			System.out.printf(
+					"game time: %.1f worm-s in lanes, %.1f worm-s one after the other (%.0fx)%n",
+					simulation.getSimulationTime(), serialTime, serialTime
+							/ simulation.getSimulationTime());
+		}
+	}
+
+	private static Command createRandomCommand(IFacade facade,
+			Simulation.HeadlessView view, Worm worm, Random random) {
+		int kind = random.nextInt(100);
+		if (kind < 50) {
+			return new Move(facade, worm, 1, view);
+		} else if (kind < 85) {
+			return new Turn(facade, worm, (random.nextDouble() * 2 - 1)
+					* Math.PI / 8, view);
+		} else if (kind < 90) {
+			return new Resize(facade, worm, 1 + (random.nextBoolean() ? 0.01
+					: -0.01), view);
+		} else if (kind < 99) {
+			return new Rename(facade, worm, random.nextBoolean() ? "Worm"
+					: "Other worm", view);
+		} else {
+			return new Jump(facade, worm, view);
+		}
+	}
+}
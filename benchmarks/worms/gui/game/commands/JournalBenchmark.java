@@ -0,0 +1,224 @@
+package worms.gui.game.commands;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import worms.gui.GUIConstants;
+import worms.gui.GameState;
+import worms.gui.Simulation;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Records a session in which a scripted player floods many worms with
+ * commands, pausing now and then until all of them have finished, and
+ * reports:
+ * <ul>
+ * <li>how much recording the session costs;</li>
+ * <li>how fast the whole session is replayed, compared with real time, and
+ * whether the replayed game ends in the same state;</li>
+ * <li>how long it takes to seek to a random step, and whether the game is
+ * then in the same state as when it is replayed from the start;</li>
+ * <li>how long it takes to open a journal that was not closed.</li>
+ * </ul>
+ *
+ * Usage: <code>java worms.gui.game.commands.JournalBenchmark [nbCommands] [nbWorms] [journalFile]</code>
+ */
+public class JournalBenchmark {
+
+	private static final int COMMANDS_PER_STEP = 10;
+	private static final int BURST_STEPS = 2000;
+
+	public static void main(String[] args) throws IOException {
+		int nbCommands = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		int nbWorms = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+		File file = args.length > 2 ? new File(args[2]) : File.createTempFile(
+				"worms", ".journal");
+		file.deleteOnExit();
+
+		// warm up
+		play(nbCommands / 10, nbWorms, null);
+		replay(file, play(nbCommands / 10, nbWorms, file), false);
+
+		long start = System.nanoTime();
+		play(nbCommands, nbWorms, null);
+		double plainTime = (System.nanoTime() - start) / 1e9;
+		start = System.nanoTime();
+		Simulation recorded = play(nbCommands, nbWorms, file);
+		double recordTime = (System.nanoTime() - start) / 1e9;
+		System.out.printf(
+				"session:   %d commands, %d worms, %d steps (%.0f s real time)%n",
+				nbCommands, nbWorms, recorded.getTickCount(),
+				recorded.getSimulationTime() / GUIConstants.TIME_SCALE);
+		System.out.printf(
+				"recording: %.3f s without journal, %.3f s with (%d bytes)%n",
+				plainTime, recordTime, file.length());
+		replay(file, recorded, true);
+		recover(file, recorded);
+	}
+
+	/**
+	 * Play a session with the given number of commands, and record it in the
+	 * given file unless it is null.
+	 */
+	private static Simulation play(int nbCommands, int nbWorms, File file)
+			throws IOException {
+		IFacade facade = new Facade();
+		GameState state = new GameState(facade, 7,
+				GUIConstants.DEFAULT_WINDOW_WIDTH,
+				GUIConstants.DEFAULT_WINDOW_HEIGHT);
+		Simulation simulation = new Simulation(state);
+		CommandJournal journal = file == null ? null : CommandJournal.create(
+				file, state, simulation.getTimeStep());
+		Worm[] worms = new Worm[nbWorms];
+		for (int i = 0; i < nbWorms; i++) {
+			worms[i] = facade.createWorm(i % 100, i / 100, 0, 1, "Worm");
+			state.addWorm(worms[i]);
+		}
+		Simulation.HeadlessView view = new Simulation.HeadlessView();
+		Random player = new Random(7);
+		int given = 0;
+		while (given < nbCommands) {
+			for (int step = 0; step < BURST_STEPS && given < nbCommands; step++) {
+				for (int i = 0; i < COMMANDS_PER_STEP && given < nbCommands; i++) {
+					state.enqueueCommand(createRandomCommand(facade, view,
+							worms[player.nextInt(nbWorms)], player));
+					given++;
+				}
+				simulation.step();
+			}
+			// let all commands finish, so that a checkpoint can be taken
+			simulation.runUntilIdle(Long.MAX_VALUE);
+			simulation.step();
+		}
+		if (journal != null) {
+			state.setJournal(null);
+			journal.close();
+		}
+		return simulation;
+	}
+
+	private static Command createRandomCommand(IFacade facade,
+			Simulation.HeadlessView view, Worm worm, Random random) {
+		int kind = random.nextInt(100);
+		if (kind < 2) {
+			return new Move(facade, worm, 1, view);
+		} else if (kind < 70) {
+			return new Turn(facade, worm, (random.nextDouble() * 2 - 1)
+					* Math.PI / 8, view);
+		} else if (kind < 80) {
+			return new Resize(facade, worm, 1 + (random.nextBoolean() ? 0.01
+					: -0.01), view);
+		} else if (kind < 99) {
+			return new Rename(facade, worm, random.nextBoolean() ? "Worm"
+					: "Other worm", view);
+		} else {
+			return new Jump(facade, worm, view);
+		}
+	}
+
+	private static void replay(File file, Simulation recorded, boolean report)
+			throws IOException {
+		long start = System.nanoTime();
+		JournalReplay replay = JournalReplay.open(file);
+		double openTime = (System.nanoTime() - start) / 1e9;
+		try {
+			start = System.nanoTime();
+			// the whole session, from the first checkpoint on
+			Simulation replayed = replay.seek(new Facade(),
+					new Simulation.HeadlessView(), 0);
+			replay.advanceToEnd();
+			double replayTime = (System.nanoTime() - start) / 1e9;
+			boolean same = checksum(replayed.getGameState()) == checksum(recorded
+					.getGameState());
+
+			// seek to random steps, and check some of them against a replay
+			// from the start
+			Random random = new Random(11);
+			int nbSeeks = 100;
+			long seekNanos = 0;
+			int nbChecked = 0;
+			int nbMismatches = 0;
+			for (int i = 0; i < nbSeeks; i++) {
+				long tick = (long) (random.nextDouble() * replay.getEndTick());
+				start = System.nanoTime();
+				Simulation sought = replay.seek(new Facade(),
+						new Simulation.HeadlessView(), tick);
+				seekNanos += System.nanoTime() - start;
+				long checksum = checksum(sought.getGameState());
+				if (i < 5) {
+					replay.seek(new Facade(), new Simulation.HeadlessView(), 0);
+					replay.advanceTo(tick);
+					nbChecked++;
+					if (checksum != checksum(replay.getSimulation()
+							.getGameState())) {
+						nbMismatches++;
+					}
+				}
+			}
+			if (report) {
+				System.out.printf(
+						"replay:    opened in %.2f ms; %d commands, %d checkpoints%n",
+						openTime * 1e3, replay.getNbCommands(),
+						replay.getNbCheckpoints());
+				System.out.printf(
+						"replay:    %.3f s (%.0fx real time), %s state%n",
+						replayTime, replayed.getSimulationTime()
+								/ GUIConstants.TIME_SCALE / replayTime,
+						same ? "same" : "DIFFERENT");
+				System.out.printf(
+						"seek:      %.2f ms on average; %d of %d checked seeks differ%n",
+						seekNanos / 1e6 / nbSeeks, nbMismatches, nbChecked);
+			}
+		} finally {
+			replay.close();
+		}
+	}
+
+	/**
+	 * Cut the index off the journal, as if it was not closed, and replay it.
+	 */
+	private static void recover(File file, Simulation recorded)
+			throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.seek(raf.length() - 12);
+			raf.setLength(raf.readLong());
+		} finally {
+			raf.close();
+		}
+		long start = System.nanoTime();
+		JournalReplay replay = JournalReplay.open(file);
+		double openTime = (System.nanoTime() - start) / 1e9;
+		try {
+			Simulation replayed = replay.seek(new Facade(),
+					new Simulation.HeadlessView(), recorded.getTickCount());
+			System.out.printf(
+					"recovery:  opened without index in %.2f ms; %d checkpoints, %s state%n",
+					openTime * 1e3, replay.getNbCheckpoints(),
+					checksum(replayed.getGameState()) == checksum(recorded
+							.getGameState()) ? "same" : "DIFFERENT");
+		} finally {
+			replay.close();
+		}
+	}
+
+	private static long checksum(GameState state) {
+		IFacade facade = state.getFacade();
+		long result = 0;
+		for (Worm worm : state.getWorms()) {
+			result = 31 * result + Double.doubleToLongBits(facade.getX(worm));
+			result = 31 * result + Double.doubleToLongBits(facade.getY(worm));
+			result = 31 * result
+					+ Double.doubleToLongBits(facade.getOrientation(worm));
+			result = 31 * result
+					+ Double.doubleToLongBits(facade.getRadius(worm));
+			result = 31 * result + facade.getActionPoints(worm);
+			result = 31 * result + facade.getName(worm).hashCode();
+		}
+		return result;
+	}
+}
@@ -0,0 +1,74 @@
+package worms.gui.game.sprites;
+
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import worms.gui.GUIConstants;
+import worms.gui.GUIUtils;
+
+/**
+ * Times creating and resizing worm sprites with the shared
+ * {@link SpriteImageCache}, against reading, scaling and flipping the image
+ * for every sprite as was done before. Prints the hit rate and resident bytes
+ * of the shared cache.
+ *
+ * Must be run from the project directory, so that the images can be found.
+ *
+ * Usage: <code>java worms.gui.game.sprites.SpriteImageCacheBenchmark [nbSprites] [nbRounds]</code>
+ */
+public class SpriteImageCacheBenchmark {
+
+	private static final String IMAGE = "images/worm.png";
+
+	public static void main(String[] args) {
+		int nbSprites = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+		int nbRounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		SpriteImageCache cache = SpriteImageCache.getDefault();
+
+		for (int round = 0; round < nbRounds; round++) {
+			Random random = new Random(round);
+			long start = System.nanoTime();
+			for (int i = 0; i < nbSprites; i++) {
+				// radii as in a new game, then one resize step
+				WormSprite sprite = new WormSprite(null);
+				double radius = 0.25 + 0.25 * random.nextInt(5);
+				sprite.setRadius(radius, GUIConstants.WORLD_SCALE);
+				sprite.setHflipped(true);
+				sprite.getImageToDraw();
+				sprite.setRadius(radius * 1.1, GUIConstants.WORLD_SCALE);
+				sprite.getImageToDraw();
+			}
+			double cached = perSprite(start, nbSprites);
+
+			int nbUncached = Math.max(1, nbSprites / 20);
+			random = new Random(round);
+			start = System.nanoTime();
+			for (int i = 0; i < nbUncached; i++) {
+				double radius = 0.25 + 0.25 * random.nextInt(5);
+				uncached(radius);
+				uncached(radius * 1.1);
+			}
+			double uncached = perSprite(start, nbUncached);
+
+			System.out.printf(
+					"round %d: %8.1f us per sprite cached, %8.1f us uncached; hit rate %.4f, %d rasters, %d KiB resident, %d evictions%n",
+					round, cached / 1000, uncached / 1000, cache.getHitRate(),
+					cache.getNbRasters(), cache.getResidentBytes() / 1024,
+					cache.getEvictions());
+		}
+	}
+
+	private static double perSprite(long start, int nbSprites) {
+		return (System.nanoTime() - start) / (double) nbSprites;
+	}
+
+	private static void uncached(double radius) {
+		// a private cache that keeps nothing but the last raster, like a
+		// sprite that reads, scales and flips its own image
+		SpriteImageCache cache = new SpriteImageCache(0);
+		BufferedImage source = cache.getSource(IMAGE);
+		double scale = 0.8 * 2 * radius
+				/ GUIUtils.pixelToMeter(source.getHeight());
+		cache.getImage(source, scale, true);
+	}
+}
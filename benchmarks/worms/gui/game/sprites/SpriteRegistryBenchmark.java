@@ -0,0 +1,98 @@
+package worms.gui.game.sprites;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import worms.model.Worm;
+import worms.model.WormStore;
+
+/**
+ * Times the per-frame sprite lookups of the game screen for a growing number
+ * of worms: finding the sprite of a worm and iterating over all worm sprites,
+ * through a {@link SpriteRegistry} and through the copy-and-scan lookup it
+ * replaced.
+ *
+ * Usage: <code>java worms.gui.game.sprites.SpriteRegistryBenchmark [maxNbWorms]</code>
+ */
+public class SpriteRegistryBenchmark {
+
+	private static final int NB_LOOKUPS = 20000;
+
+	public static void main(String[] args) {
+		int maxNbWorms = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+
+		WormStore store = new WormStore();
+		SpriteRegistry registry = new SpriteRegistry();
+		Set<Sprite> sprites = new HashSet<Sprite>();
+		for (int nbWorms = 10; nbWorms <= maxNbWorms; nbWorms *= 4) {
+			while (registry.size() < nbWorms) {
+				int i = registry.size();
+				WormSprite sprite = new WormSprite(new Worm(store, "Worm", i, 0, 0, 1));
+				registry.add(sprite);
+				sprites.add(sprite);
+			}
+			for (int round = 0; round < 3; round++) {
+				long check = 0;
+				int nbScanLookups = Math.max(1, NB_LOOKUPS * 10 / nbWorms);
+
+				long start = System.nanoTime();
+				for (int i = 0; i < NB_LOOKUPS; i++) {
+					Worm worm = store.getWorm(i % nbWorms);
+					check += registry.getWormSprite(worm) != null ? 1 : 0;
+				}
+				double registryLookup = perOp(start, NB_LOOKUPS);
+
+				start = System.nanoTime();
+				for (int i = 0; i < nbScanLookups; i++) {
+					Worm worm = store.getWorm(i % nbWorms);
+					check += scanWormSprite(sprites, worm) != null ? 1 : 0;
+				}
+				double scanLookup = perOp(start, nbScanLookups);
+
+				start = System.nanoTime();
+				for (int i = 0; i < 100; i++) {
+					for (WormSprite sprite : registry.getSpritesOfType(WormSprite.class)) {
+						check += sprite.getWorm().getId();
+					}
+				}
+				double registryIteration = perOp(start, 100);
+
+				start = System.nanoTime();
+				for (int i = 0; i < 100; i++) {
+					for (WormSprite sprite : copyOfType(sprites, WormSprite.class)) {
+						check += sprite.getWorm().getId();
+					}
+				}
+				double scanIteration = perOp(start, 100);
+
+				System.out.printf(
+						"%5d worms: getWormSprite %6.0f vs %9.0f ns, iterate %9.0f vs %9.0f ns (registry vs copy-and-scan) (%d)%n",
+						nbWorms, registryLookup, scanLookup,
+						registryIteration, scanIteration, check);
+			}
+		}
+	}
+
+	private static double perOp(long start, int nbOps) {
+		return (System.nanoTime() - start) / (double) nbOps;
+	}
+
+	private static <T extends Sprite> Set<T> copyOfType(Set<Sprite> sprites, Class<T> type) {
+		Set<T> result = new HashSet<T>();
+		for (Sprite sprite : sprites) {
+			if (type.isInstance(sprite)) {
+				result.add(type.cast(sprite));
+			}
+		}
+		return result;
+	}
+
+	private static WormSprite scanWormSprite(Set<Sprite> sprites, Worm worm) {
+		for (WormSprite sprite : copyOfType(sprites, WormSprite.class)) {
+			if (worm != null && worm.equals(sprite.getWorm())) {
+				return sprite;
+			}
+		}
+		return null;
+	}
+}
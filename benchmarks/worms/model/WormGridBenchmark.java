@@ -0,0 +1,163 @@
+package worms.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Compares point picking, radius queries and nearest-neighbour queries on a {@link WormGrid}
+ * with a linear scan over the same {@link WormStore}, and times keeping the grid up to date
+ * while worms move.
+ *
+ * Usage: <code>java worms.model.WormGridBenchmark [nbWorms] [nbRounds]</code>
+ */
+public class WormGridBenchmark {
+
+	private static final int NB_QUERIES = 10000;
+	private static final int NB_SCAN_QUERIES = 200;
+	private static final double QUERY_DISTANCE = 5;
+	private static final int K = 8;
+
+	public static void main(String[] args) {
+		int nbWorms = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int nbRounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+		// about one worm per four square metres
+		double side = 2 * Math.sqrt(nbWorms);
+
+		Random random = new Random(1);
+		WormStore store = new WormStore(nbWorms);
+		for (int i = 0; i < nbWorms; i++) {
+			new Worm(store, "Worm", side * random.nextDouble(), side
+					* random.nextDouble(), 0, 0.25 + random.nextDouble());
+		}
+		long start = System.nanoTime();
+		WormGrid grid = new WormGrid(store);
+		System.out.printf("indexed %d worms in %.1f ms%n", nbWorms,
+				(System.nanoTime() - start) / 1e6);
+
+		double[] xs = new double[NB_QUERIES];
+		double[] ys = new double[NB_QUERIES];
+		for (int i = 0; i < NB_QUERIES; i++) {
+			xs[i] = side * random.nextDouble();
+			ys[i] = side * random.nextDouble();
+		}
+		List<Worm> found = new ArrayList<Worm>();
+		Worm[] nearest = new Worm[K];
+
+		for (int round = 0; round < nbRounds; round++) {
+			long check = 0;
+
+			start = System.nanoTime();
+			for (int i = 0; i < NB_QUERIES; i++) {
+				if (grid.getWormAt(xs[i], ys[i]) != null)
+					check++;
+			}
+			double gridPick = perQuery(start, NB_QUERIES);
+
+			start = System.nanoTime();
+			for (int i = 0; i < NB_SCAN_QUERIES; i++) {
+				if (scanPick(store, xs[i], ys[i]) >= 0)
+					check++;
+			}
+			double scanPick = perQuery(start, NB_SCAN_QUERIES);
+
+			start = System.nanoTime();
+			for (int i = 0; i < NB_QUERIES; i++) {
+				found.clear();
+				grid.collectWormsWithin(xs[i], ys[i], QUERY_DISTANCE, found);
+				check += found.size();
+			}
+			double gridWithin = perQuery(start, NB_QUERIES);
+
+			start = System.nanoTime();
+			for (int i = 0; i < NB_SCAN_QUERIES; i++) {
+				check += scanWithin(store, xs[i], ys[i], QUERY_DISTANCE);
+			}
+			double scanWithin = perQuery(start, NB_SCAN_QUERIES);
+
+			start = System.nanoTime();
+			for (int i = 0; i < NB_QUERIES; i++) {
+				check += grid.findNearestWorms(xs[i], ys[i], K, nearest);
+			}
+			double gridNearest = perQuery(start, NB_QUERIES);
+
+			start = System.nanoTime();
+			for (int i = 0; i < NB_SCAN_QUERIES; i++) {
+				check += scanNearest(store, xs[i], ys[i], K);
+			}
+			double scanNearest = perQuery(start, NB_SCAN_QUERIES);
+
+			// every worm takes one step to the right, so about half of them changes cells
+			start = System.nanoTime();
+			for (int id = 0; id < nbWorms; id++) {
+				store.getWorm(id).move(1);
+			}
+			double moves = perQuery(start, nbWorms);
+			grid.detach();
+			start = System.nanoTime();
+			for (int id = 0; id < nbWorms; id++) {
+				store.getWorm(id).move(1);
+			}
+			double movesUnindexed = perQuery(start, nbWorms);
+			grid = new WormGrid(store);
+
+			System.out.printf(
+					"round %d: pick %.0f vs %.0f ns, within %.0f vs %.0f ns, %d-nearest %.0f vs %.0f ns (grid vs scan), move %.0f ns indexed, %.0f ns not (%d)%n",
+					round, gridPick, scanPick, gridWithin, scanWithin, K,
+					gridNearest, scanNearest, moves, movesUnindexed, check);
+		}
+	}
+
+	private static double perQuery(long start, int nbQueries) {
+		return (System.nanoTime() - start) / (double) nbQueries;
+	}
+
+	private static int scanPick(WormStore store, double x, double y) {
+		int result = -1;
+		double best = Double.POSITIVE_INFINITY;
+		for (int id = 0; id < store.getNbWorms(); id++) {
+			double dx = store.getHorizontalPosition(id) - x;
+			double dy = store.getVerticalPosition(id) - y;
+			double distance = dx * dx + dy * dy;
+			double radius = store.getRadius(id);
+			if (distance <= radius * radius && distance < best) {
+				best = distance;
+				result = id;
+			}
+		}
+		return result;
+	}
+
+	private static int scanWithin(WormStore store, double x, double y,
+			double distance) {
+		int result = 0;
+		for (int id = 0; id < store.getNbWorms(); id++) {
+			double dx = store.getHorizontalPosition(id) - x;
+			double dy = store.getVerticalPosition(id) - y;
+			if (dx * dx + dy * dy <= distance * distance)
+				result++;
+		}
+		return result;
+	}
+
+	private static int scanNearest(WormStore store, double x, double y, int k) {
+		// insertion into a sorted array of the k best distances so far
+		double[] best = new double[k];
+		Arrays.fill(best, Double.POSITIVE_INFINITY);
+		for (int id = 0; id < store.getNbWorms(); id++) {
+			double dx = store.getHorizontalPosition(id) - x;
+			double dy = store.getVerticalPosition(id) - y;
+			double distance = dx * dx + dy * dy;
+			if (distance < best[k - 1]) {
+				int i = k - 1;
+				while (i > 0 && best[i - 1] > distance) {
+					best[i] = best[i - 1];
+					i--;
+				}
+				best[i] = distance;
+			}
+		}
+		return k;
+	}
+}
@@ -0,0 +1,116 @@
+package worms.model;
+
+import java.util.Random;
+
+/**
+ * Compares computing the jump times, jump positions, jump displacements and move costs of all
+ * worms in a {@link WormStore} one {@link Worm} at a time with the kernels of
+ * {@link WormKinematics}, once right after every worm has turned, so that the jump state
+ * the store keeps for each worm is out of date, and once more with up to date jump state.
+ *
+ * Usage: <code>java worms.model.WormKinematicsBenchmark [nbWorms] [nbRounds]</code>
+ */
+public class WormKinematicsBenchmark {
+
+	private static final double TIME = 0.1;
+	private static final int STEPS = 1;
+
+	public static void main(String[] args) {
+		int nbWorms = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int nbRounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		Random random = new Random(1);
+		WormStore store = new WormStore(nbWorms);
+		for (int i = 0; i < nbWorms; i++) {
+			// all facing upwards, so that every worm can jump
+			new Worm(store, "Worm", 100 * random.nextDouble(),
+					100 * random.nextDouble(), Math.PI * random.nextDouble(),
+					0.25 + random.nextDouble());
+		}
+		double[] times = new double[nbWorms];
+		double[] positions = new double[2 * nbWorms];
+		double[] displacements = new double[nbWorms];
+		long[] costs = new long[nbWorms];
+
+		for (int round = 0; round < nbRounds; round++) {
+			for (boolean turned : new boolean[] { true, false }) {
+				double check = 0;
+
+				if (turned)
+					turnAll(store);
+				long start = System.nanoTime();
+				for (int id = 0; id < nbWorms; id++)
+					check += store.getWorm(id).jumpTime();
+				double wormTimes = perWorm(start, nbWorms);
+				if (turned)
+					turnAll(store);
+				start = System.nanoTime();
+				WormKinematics.computeJumpTimes(store, 0, nbWorms, times);
+				double kernelTimes = perWorm(start, nbWorms);
+
+				if (turned)
+					turnAll(store);
+				start = System.nanoTime();
+				for (int id = 0; id < nbWorms; id++)
+					check += store.getWorm(id).jumpStep(TIME)[1];
+				double wormSteps = perWorm(start, nbWorms);
+				if (turned)
+					turnAll(store);
+				start = System.nanoTime();
+				WormKinematics.computeJumpSteps(store, 0, nbWorms, TIME,
+						positions);
+				double kernelSteps = perWorm(start, nbWorms);
+
+				// the position at the end of the jump
+				if (turned)
+					turnAll(store);
+				start = System.nanoTime();
+				for (int id = 0; id < nbWorms; id++) {
+					Worm worm = store.getWorm(id);
+					check += worm.jumpStep(worm.jumpTime())[0]
+							- worm.getHorizontalPosition();
+				}
+				double wormDisplacements = perWorm(start, nbWorms);
+				if (turned)
+					turnAll(store);
+				start = System.nanoTime();
+				WormKinematics.computeJumpDisplacements(store, 0, nbWorms,
+						displacements);
+				double kernelDisplacements = perWorm(start, nbWorms);
+
+				if (turned)
+					turnAll(store);
+				start = System.nanoTime();
+				for (int id = 0; id < nbWorms; id++) {
+					if (store.getWorm(id).canMove(STEPS))
+						check++;
+				}
+				double wormCosts = perWorm(start, nbWorms);
+				if (turned)
+					turnAll(store);
+				start = System.nanoTime();
+				WormKinematics.computeMoveCosts(store, 0, nbWorms, STEPS, costs);
+				double kernelCosts = perWorm(start, nbWorms);
+
+				check += times[0] + positions[1] + displacements[0] + costs[0];
+				System.out.printf(
+						"round %d, %-7s: jump time %.1f vs %.1f ns, jump step %.1f vs %.1f ns, displacement %.1f vs %.1f ns, move cost %.1f vs %.1f ns (worm vs kernel, %.0f)%n",
+						round, turned ? "turned" : "cached", wormTimes,
+						kernelTimes, wormSteps, kernelSteps, wormDisplacements,
+						kernelDisplacements, wormCosts, kernelCosts, check);
+			}
+		}
+	}
+
+	/**
+	 * Turn every worm over no angle, which costs no action points but makes its stored jump state out of date.
+	 */
+	private static void turnAll(WormStore store) {
+		for (int id = 0; id < store.getNbWorms(); id++)
+			store.getWorm(id).turn(0);
+	}
+
+	private static double perWorm(long start, int nbWorms) {
+		return (System.nanoTime() - start) / (double) nbWorms;
+	}
+}
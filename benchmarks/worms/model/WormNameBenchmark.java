@@ -0,0 +1,46 @@
+package worms.model;
+
+/**
+ * Times bulk worm creation and renaming through {@link Facade}, which are dominated by
+ * name validation and name storage.
+ * 
+ * Usage: <code>java worms.model.WormNameBenchmark [nbWorms] [nbRounds]</code>
+ */
+public class WormNameBenchmark {
+
+	private static final String[] NAMES = { "Shari", "Shannon", "Willard",
+			"Jodi", "Santos", "Ross", "Cora", "Jacob", "Homer", "Kara",
+			"The ol' \"Wormpje\"", "Sad crying worm" };
+
+	public static void main(String[] args) {
+		int nbWorms = args.length > 0 ? Integer.parseInt(args[0]) : 200000;
+		int nbRounds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+		for (int round = 0; round < nbRounds; round++) {
+			IFacade facade = new Facade();
+			Worm[] worms = new Worm[nbWorms];
+
+			long start = System.nanoTime();
+			for (int i = 0; i < nbWorms; i++) {
+				worms[i] = facade.createWorm(i, i, 1, 0.5,
+						NAMES[i % NAMES.length]);
+			}
+			long created = System.nanoTime();
+			for (int i = 0; i < nbWorms; i++) {
+				facade.rename(worms[i], NAMES[(i + round + 1) % NAMES.length]);
+			}
+			long renamed = System.nanoTime();
+			long nameLength = 0;
+			for (int i = 0; i < nbWorms; i++) {
+				nameLength += facade.getName(worms[i]).length();
+			}
+			long read = System.nanoTime();
+
+			System.out.printf(
+					"round %2d: createWorm %6.1f ns/op, rename %6.1f ns/op, getName %5.1f ns/op (%d)%n",
+					round, (created - start) / (double) nbWorms,
+					(renamed - created) / (double) nbWorms,
+					(read - renamed) / (double) nbWorms, nameLength);
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package worms.model;
+
+/**
+ * Measures the retained heap size per worm when a large number of worms is kept in one
+ * {@link WormStore}.
+ * 
+ * Run with a fixed heap, e.g. <code>java -Xms2g -Xmx2g worms.model.WormStoreFootprint 1000000</code>.
+ */
+public class WormStoreFootprint {
+
+	public static void main(String[] args) {
+		int nbWorms = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+
+		long before = usedMemory();
+		WormStore store = new WormStore(nbWorms);
+		long afterColumns = usedMemory();
+		Worm[] worms = new Worm[nbWorms];
+		for (int i = 0; i < nbWorms; i++) {
+			worms[i] = new Worm(store, "Worm", i, -i, 1, 0.25 + (i % 100) / 100.0);
+		}
+		long afterWorms = usedMemory();
+
+		System.out.printf("worms:            %d%n", store.getNbWorms());
+		System.out.printf("store columns:    %.1f bytes/worm%n",
+				(afterColumns - before) / (double) nbWorms);
+		System.out.printf("handles:          %.1f bytes/worm%n",
+				(afterWorms - afterColumns) / (double) nbWorms);
+		System.out.printf("total:            %.1f bytes/worm%n",
+				(afterWorms - before) / (double) nbWorms);
+
+		// keep everything reachable until after the last measurement
+		if (worms[nbWorms - 1].getStore() != store) {
+			throw new AssertionError();
+		}
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 5; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+}
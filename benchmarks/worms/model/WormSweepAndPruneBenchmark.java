@@ -0,0 +1,93 @@
+package worms.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Moves every worm of a {@link WormStore} a step per tick, and then only one in a hundred, and
+ * times bringing a {@link WormSweepAndPrune} up to date and finding all pairs of overlapping
+ * worms after each tick, as well as sweeping the bodies of worms along their moves and jumps.
+ *
+ * Usage: <code>java worms.model.WormSweepAndPruneBenchmark [nbWorms] [nbTicks]</code>
+ */
+public class WormSweepAndPruneBenchmark {
+
+	private static final int NB_QUERIES = 10000;
+
+	public static void main(String[] args) {
+		int nbWorms = args.length > 0 ? Integer.parseInt(args[0]) : 100000;
+		int nbTicks = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+		// about one worm per four square metres
+		double side = 2 * Math.sqrt(nbWorms);
+
+		Random random = new Random(1);
+		WormStore store = new WormStore(nbWorms);
+		for (int i = 0; i < nbWorms; i++) {
+			new Worm(store, "Worm", side * random.nextDouble(), side
+					* random.nextDouble(), 2 * Math.PI * random.nextDouble(),
+					0.25 + 0.25 * random.nextDouble());
+		}
+		long start = System.nanoTime();
+		WormSweepAndPrune broadPhase = new WormSweepAndPrune(store);
+		System.out.printf("indexed %d worms in %.1f ms%n", nbWorms,
+				(System.nanoTime() - start) / 1e6);
+
+		List<Worm> found = new ArrayList<Worm>();
+		for (int tick = 0; tick < 2 * nbTicks; tick++) {
+			// every worm in the first half, every hundredth one in the second
+			int stride = tick < nbTicks ? 1 : 100;
+			int moved = 0;
+			start = System.nanoTime();
+			for (int id = tick % stride; id < nbWorms; id += stride) {
+				Worm worm = store.getWorm(id);
+				if (worm.canMove(1)) {
+					worm.move(1);
+					moved++;
+				}
+			}
+			double moves = millis(start);
+
+			start = System.nanoTime();
+			broadPhase.update();
+			double update = millis(start);
+
+			start = System.nanoTime();
+			int pairs = broadPhase.findOverlappingPairs(null);
+			double find = millis(start);
+
+			long check = 0;
+			start = System.nanoTime();
+			for (int i = 0; i < NB_QUERIES; i++) {
+				found.clear();
+				broadPhase.collectWormsAlongMove(store.getWorm(i), 3, found);
+				check += found.size();
+			}
+			double sweptMoves = (System.nanoTime() - start)
+					/ (double) NB_QUERIES;
+
+			start = System.nanoTime();
+			int jumps = 0;
+			for (int i = 0; i < NB_QUERIES; i++) {
+				Worm worm = store.getWorm(i);
+				if (worm.getOrientation() > Math.PI)
+					continue;
+				found.clear();
+				broadPhase.collectWormsAlongJump(worm, found);
+				check += found.size();
+				jumps++;
+			}
+			double sweptJumps = (System.nanoTime() - start)
+					/ (double) Math.max(1, jumps);
+
+			System.out.printf(
+					"tick %d: moved %d worms in %.1f ms, update %.2f ms, %d overlapping pairs in %.2f ms, swept move %.0f ns, swept jump %.0f ns (%d)%n",
+					tick, moved, moves, update, pairs, find, sweptMoves,
+					sweptJumps, check);
+		}
+	}
+
+	private static double millis(long start) {
+		return (System.nanoTime() - start) / 1e6;
+	}
+}
@@ -0,0 +1,114 @@
+package worms.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares a JMH result file (CSV format) against a checked-in baseline and
+ * fails if any benchmark got slower than the baseline by more than the given
+ * tolerance.
+ * 
+ * Usage: <code>BaselineCheck result.csv baseline.csv [tolerance]</code>,
+ * where the tolerance is a fraction (default 0.25, i.e. 25% slower).
+ * 
+ * Baselines depend on the machine they were recorded on; record a new one
+ * (<code>ant jmh-baseline</code>) before comparing on a different machine.
+ */
+public class BaselineCheck {
+
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			System.err.println("Usage: BaselineCheck result.csv baseline.csv [tolerance]");
+			System.exit(2);
+		}
+		Map<String, String[]> results = read(args[0]);
+		Map<String, String[]> baseline = read(args[1]);
+		double tolerance = args.length > 2 ? Double.parseDouble(args[2]) : 0.25;
+
+		int nbRegressions = 0;
+		for (Map.Entry<String, String[]> entry : results.entrySet()) {
+			String[] expected = baseline.get(entry.getKey());
+			if (expected == null) {
+				System.out.printf("%-60s (not in baseline)%n", entry.getKey());
+				continue;
+			}
+			String mode = entry.getValue()[1];
+			double score = Double.parseDouble(entry.getValue()[4]);
+			double baselineScore = Double.parseDouble(expected[4]);
+			// for throughput, higher is better; for all time-based modes, lower is better
+			double slowdown = "thrpt".equals(mode) ? baselineScore / score - 1
+					: score / baselineScore - 1;
+			boolean regressed = slowdown > tolerance;
+			if (regressed) {
+				nbRegressions++;
+			}
+			System.out.printf("%-60s %12.3f -> %12.3f %s %+6.1f%%%s%n",
+					entry.getKey(), baselineScore, score, entry.getValue()[6],
+					100 * slowdown, regressed ? "  REGRESSION" : "");
+		}
+		if (nbRegressions > 0) {
+			System.out.printf("%d benchmark(s) regressed by more than %.0f%%%n",
+					nbRegressions, 100 * tolerance);
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Read the rows of a JMH CSV result file, keyed by benchmark name and
+	 * parameters.
+	 */
+	private static Map<String, String[]> read(String fileName)
+			throws IOException {
+		Map<String, String[]> result = new LinkedHashMap<String, String[]>();
+		BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(fileName), "UTF-8"));
+		try {
+			String[] header = null;
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.trim().isEmpty()) {
+					continue;
+				}
+				String[] row = split(line);
+				if (header == null) {
+					header = row;
+					continue;
+				}
+				StringBuilder key = new StringBuilder(row[0]);
+				// parameter columns follow the fixed "Unit" column
+				for (int i = 7; i < row.length && i < header.length; i++) {
+					key.append(' ').append(header[i]).append('=').append(row[i]);
+				}
+				result.put(key.toString(), row);
+			}
+		} finally {
+			reader.close();
+		}
+		return result;
+	}
+
+	private static String[] split(String line) {
+		List<String> fields = new ArrayList<String>();
+		StringBuilder field = new StringBuilder();
+		boolean quoted = false;
+		for (int i = 0; i < line.length(); i++) {
+			char c = line.charAt(i);
+			if (c == '"') {
+				quoted = !quoted;
+			} else if (c == ',' && !quoted) {
+				fields.add(field.toString());
+				field.setLength(0);
+			} else {
+				field.append(c);
+			}
+		}
+		fields.add(field.toString());
+		return fields.toArray(new String[fields.size()]);
+	}
+}
@@ -0,0 +1,153 @@
+package worms.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for the {@link Facade} wrappers around {@link Worm}, including
+ * the paths that wrap exceptions in a {@link ModelException}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class FacadeBenchmark {
+
+	static final int BATCH_SIZE = 1024;
+
+	private IFacade facade;
+	private Worm mover;
+	private Worm jumper;
+	private Worm stander;
+	private double jumpTime;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		facade = new Facade();
+		mover = facade.createWorm(0, 0, 1, 1000, "Mover");
+		jumper = facade.createWorm(0, 0, 1, 1, "Jumper");
+		stander = facade.createWorm(0, 0, 3 * Math.PI / 2, 1, "Stander");
+		jumpTime = facade.getJumpTime(jumper);
+	}
+
+	@Benchmark
+	public void move() {
+		facade.move(mover, 1);
+	}
+
+	@Benchmark
+	public boolean canMove() {
+		return facade.canMove(mover, 10);
+	}
+
+	@Benchmark
+	public void turn() {
+		facade.turn(mover, 0.1);
+	}
+
+	@Benchmark
+	public boolean canTurn() {
+		return facade.canTurn(mover, -7);
+	}
+
+	@Benchmark
+	public double getJumpTime() {
+		return facade.getJumpTime(jumper);
+	}
+
+	@Benchmark
+	public double[] getJumpStep() {
+		return facade.getJumpStep(jumper, jumpTime / 2);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void jump(FreshWorms worms) {
+		for (Worm worm : worms.worms) {
+			worms.facade.jump(worm);
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void createWorm(EmptyFacade empty, Blackhole blackhole) {
+		for (int i = 0; i < BATCH_SIZE; i++) {
+			blackhole.consume(empty.facade.createWorm(i, i, 1, 0.5, "Created"));
+		}
+	}
+
+	@Benchmark
+	public void createWorm_invalidName(Blackhole blackhole) {
+		try {
+			facade.createWorm(0, 0, 1, 0.5, "invalid");
+		} catch (ModelException exc) {
+			blackhole.consume(exc);
+		}
+	}
+
+	@Benchmark
+	public void move_notEnoughActionPoints(Blackhole blackhole) {
+		try {
+			facade.move(jumper, 1000000);
+		} catch (ModelException exc) {
+			blackhole.consume(exc);
+		}
+	}
+
+	@Benchmark
+	public void jump_facingDownwards(Blackhole blackhole) {
+		try {
+			facade.jump(stander);
+		} catch (ModelException exc) {
+			blackhole.consume(exc);
+		}
+	}
+
+	@Benchmark
+	public void getJumpTime_facingDownwards(Blackhole blackhole) {
+		try {
+			blackhole.consume(facade.getJumpTime(stander));
+		} catch (ModelException exc) {
+			blackhole.consume(exc);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class FreshWorms {
+		IFacade facade;
+		final Worm[] worms = new Worm[BATCH_SIZE];
+
+		@Setup(Level.Invocation)
+		public void setUp() {
+			facade = new Facade(new WormStore(BATCH_SIZE));
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				worms[i] = facade.createWorm(0, 0, 1, 1, "Jumper");
+			}
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class EmptyFacade {
+		IFacade facade;
+
+		@Setup(Level.Invocation)
+		public void setUp() {
+			facade = new Facade(new WormStore(BATCH_SIZE));
+		}
+	}
+}
@@ -0,0 +1,131 @@
+package worms.model;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import worms.BadOrientationException;
+
+/**
+ * Benchmarks for the physics of {@link Worm}.
+ * 
+ * The worms that move and turn are large enough to have billions of action
+ * points, so they never run out during a run. Jumping uses up all action
+ * points, so jumps are measured on batches of fresh worms.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WormBenchmark {
+
+	static final int BATCH_SIZE = 1024;
+
+	private Worm mover;
+	private Worm jumper;
+	private Worm stander;
+	private double jumpTime;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		WormStore store = new WormStore();
+		mover = new Worm(store, "Mover", 0, 0, 1, 1000);
+		jumper = new Worm(store, "Jumper", 0, 0, 1, 1, 4000);
+		stander = new Worm(store, "Stander", 0, 0, 3 * Math.PI / 2, 1, 4000);
+		jumpTime = jumper.jumpTime();
+	}
+
+	@Benchmark
+	public void move() {
+		mover.move(1);
+	}
+
+	@Benchmark
+	public boolean canMove() {
+		return mover.canMove(10);
+	}
+
+	@Benchmark
+	public void turn() {
+		mover.turn(0.1);
+	}
+
+	@Benchmark
+	public boolean isValidRotationAngle() {
+		return mover.isValidRotationAngle(-7);
+	}
+
+	@Benchmark
+	public double jumpTime() {
+		return jumper.jumpTime();
+	}
+
+	@Benchmark
+	public double[] jumpStep() {
+		return jumper.jumpStep(jumpTime / 2);
+	}
+
+	@Benchmark
+	public void sampleJumpTrajectory(Trajectory trajectory) {
+		jumper.sampleJumpTrajectory(Trajectory.SAMPLES, trajectory.xy);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH_SIZE)
+	public void jump(FreshWorms worms) {
+		for (Worm worm : worms.worms) {
+			worm.jump();
+		}
+	}
+
+	@Benchmark
+	public void jumpTime_facingDownwards(Blackhole blackhole) {
+		try {
+			blackhole.consume(stander.jumpTime());
+		} catch (BadOrientationException exc) {
+			blackhole.consume(exc);
+		}
+	}
+
+	@Benchmark
+	public void move_notEnoughActionPoints(Blackhole blackhole) {
+		try {
+			jumper.move(1000000);
+		} catch (IllegalArgumentException exc) {
+			blackhole.consume(exc);
+		}
+	}
+
+	@State(Scope.Thread)
+	public static class Trajectory {
+		static final int SAMPLES = 16;
+		final double[] xy = new double[2 * SAMPLES];
+	}
+
+	@State(Scope.Thread)
+	public static class FreshWorms {
+		final Worm[] worms = new Worm[BATCH_SIZE];
+
+		@Setup(Level.Invocation)
+		public void setUp() {
+			WormStore store = new WormStore(BATCH_SIZE);
+			for (int i = 0; i < BATCH_SIZE; i++) {
+				worms[i] = new Worm(store, "Jumper", 0, 0, 1, 1, 4000);
+			}
+		}
+	}
+}
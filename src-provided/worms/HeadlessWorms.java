@@ -0,0 +1,189 @@
+package worms;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import worms.gui.GUIConstants;
+import worms.gui.GameState;
+import worms.gui.Simulation;
+import worms.gui.game.commands.Command;
+import worms.gui.game.commands.CommandJournal;
+import worms.gui.game.commands.JournalReplay;
+import worms.gui.game.commands.Jump;
+import worms.gui.game.commands.Move;
+import worms.gui.game.commands.Turn;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Plays games without a display, as fast as possible.
+ * 
+ * Each game is driven by a simple scripted player that gives the selected worm
+ * a random command whenever the previous one has finished. The final state of
+ * every game is summarized in a checksum, so that runs with the same seed can
+ * be compared.
+ * 
+ * Options: <code>-seed N</code>, <code>-games N</code>,
+ * <code>-time S</code> (game time per game, in worm-seconds) and
+ * <code>-journal FILE</code> (record the first game in a journal).
+ * 
+ * With <code>-replay FILE</code>, the game recorded in the given journal is
+ * replayed instead, up to step <code>-to N</code> or to its end.
+ */
+public class HeadlessWorms {
+
+	public static void main(String[] args) throws IOException {
+		long seed = 3;
+		int nbGames = 100;
+		double gameTime = 600;
+		File journalFile = null;
+		File replayFile = null;
+		long replayTo = -1;
+		for (int i = 0; i < args.length; i++) {
+			String arg = args[i];
+			if ("-seed".equals(arg)) {
+				seed = Long.parseLong(args[++i]);
+			} else if ("-games".equals(arg)) {
+				nbGames = Integer.parseInt(args[++i]);
+			} else if ("-time".equals(arg)) {
+				gameTime = Double.parseDouble(args[++i]);
+			} else if ("-journal".equals(arg)) {
+				journalFile = new File(args[++i]);
+			} else if ("-replay".equals(arg)) {
+				replayFile = new File(args[++i]);
+			} else if ("-to".equals(arg)) {
+				replayTo = Long.parseLong(args[++i]);
+			}
+		}
+		if (replayFile != null) {
+			replay(replayFile, replayTo);
+			return;
+		}
+
+		long start = System.nanoTime();
+		long nbTicks = 0;
+		long checksum = 0;
+		for (int game = 0; game < nbGames; game++) {
+			Simulation simulation = playGame(new Facade(), seed + game,
+					gameTime, game == 0 ? journalFile : null);
+			nbTicks += simulation.getTickCount();
+			checksum = 31 * checksum + checksum(simulation.getGameState());
+		}
+		double wallTime = (System.nanoTime() - start) / 1e9;
+		double realTime = nbGames * gameTime / GUIConstants.TIME_SCALE;
+
+		System.out.printf("games:      %d%n", nbGames);
+		System.out.printf("ticks:      %d%n", nbTicks);
+		System.out.printf("wall time:  %.3f s%n", wallTime);
+		System.out.printf("speed-up:   %.0fx real time%n", realTime / wallTime);
+		System.out.printf("checksum:   %016x%n", checksum);
+	}
+
+	/**
+	 * Replay the game recorded in the given journal up to the given step, or
+	 * to its end if the step is negative.
+	 */
+	private static void replay(File file, long tick) throws IOException {
+		JournalReplay replay = JournalReplay.open(file);
+		try {
+			long start = System.nanoTime();
+			Simulation simulation = replay.seek(new Facade(),
+					new Simulation.HeadlessView(),
+					tick < 0 ? replay.getEndTick() : tick);
+			double wallTime = (System.nanoTime() - start) / 1e9;
+			double realTime = simulation.getSimulationTime()
+					/ GUIConstants.TIME_SCALE;
+
+			System.out.printf("commands:   %d%n", replay.getNbCommands());
+			System.out.printf("ticks:      %d of %d%n",
+					simulation.getTickCount(), replay.getEndTick());
+			System.out.printf("wall time:  %.3f s%n", wallTime);
+			System.out.printf("speed-up:   %.0fx real time%n", realTime
+					/ wallTime);
+			System.out.printf("checksum:   %016x%n",
+					checksum(simulation.getGameState()));
+		} finally {
+			replay.close();
+		}
+	}
+
+	/**
+	 * Play a single game with the given seed for the given amount of game
+	 * time (in worm-seconds).
+	 */
+	public static Simulation playGame(IFacade facade, long seed,
+			double gameTime) {
+		try {
+			return playGame(facade, seed, gameTime, null);
+		} catch (IOException e) {
+			// no journal is written
+			throw new AssertionError(e);
+		}
+	}
+
+	/**
+	 * Play a single game with the given seed for the given amount of game
+	 * time (in worm-seconds), and record it in the given journal file unless
+	 * it is null.
+	 */
+	public static Simulation playGame(IFacade facade, long seed,
+			double gameTime, File journalFile) throws IOException {
+		GameState state = new GameState(facade, seed,
+				GUIConstants.DEFAULT_WINDOW_WIDTH,
+				GUIConstants.DEFAULT_WINDOW_HEIGHT);
+		Simulation simulation = new Simulation(state);
+		Simulation.HeadlessView view = new Simulation.HeadlessView();
+		Random player = new Random(seed);
+		CommandJournal journal = null;
+		if (journalFile != null) {
+			journal = CommandJournal.create(journalFile, state,
+					simulation.getTimeStep());
+		}
+
+		state.startGame();
+		while (simulation.getSimulationTime() < gameTime) {
+			if (state.isIdle()) {
+				state.selectNextWorm();
+				state.enqueueCommand(createRandomCommand(facade, view,
+						state.getSelectedWorm(), player));
+			}
+			simulation.step();
+		}
+		if (journal != null) {
+			state.setJournal(null);
+			journal.close();
+		}
+		return simulation;
+	}
+
+	private static Command createRandomCommand(
+			IFacade facade, Simulation.HeadlessView view, Worm worm,
+			Random player) {
+		switch (player.nextInt(3)) {
+		case 0:
+			return new Move(facade, worm, 1 + player.nextInt(3), view);
+		case 1:
+			return new Turn(facade, worm, (player.nextDouble() * 2 - 1)
+					* Math.PI, view);
+		default:
+			return new Jump(facade, worm, view);
+		}
+	}
+
+	private static long checksum(GameState state) {
+		long result = 0;
+		for (Worm worm : state.getWorms()) {
+			IFacade facade = state.getFacade();
+			result = 31 * result
+					+ Double.doubleToLongBits(facade.getX(worm));
+			result = 31 * result
+					+ Double.doubleToLongBits(facade.getY(worm));
+			result = 31 * result
+					+ Double.doubleToLongBits(facade.getOrientation(worm));
+			result = 31 * result + facade.getActionPoints(worm);
+		}
+		return result;
+	}
+}
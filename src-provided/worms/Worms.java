@@ -1,12 +1,21 @@
 package worms;
 
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.util.Arrays;
+
 import worms.gui.GUIOptions;
 import worms.gui.WormsGUI;
 import worms.model.Facade;
 
 public class Worms {
 
-	public static void main(String[] args) {
+	public static void main(String[] args) throws IOException {
+		if (GraphicsEnvironment.isHeadless()
+				|| Arrays.asList(args).contains("-headless")) {
+			HeadlessWorms.main(args);
+			return;
+		}
 		new WormsGUI(new Facade(), parseOptions(args)).start();
 	}
 
@@ -17,9 +26,22 @@ public class Worms {
 			String arg = args[i];
 			if ("-window".equals(arg)) {
 				options.disableFullScreen = true;
+			} else if ("-active".equals(arg)) {
+				options.activeRendering = true;
+			} else if ("-threaded".equals(arg)) {
+				options.threadedSimulation = true;
 			} else if ("-seed".equals(arg)) {
 				long randomSeed = Long.parseLong(args[++i]);
 				options.randomSeed = randomSeed;
+			} else if ("-journal".equals(arg)) {
+				options.journalFile = args[++i];
+			} else if ("-worms".equals(arg)) {
+				options.generatedWorms = Integer.parseInt(args[++i]);
+			} else if ("-fulldetail".equals(arg)) {
+				options.dotRadius = 0;
+				options.labelRadius = 0;
+				options.maxLabeledWorms = Integer.MAX_VALUE;
+				options.maxSpriteWorms = Integer.MAX_VALUE;
 			}
 		}
 
@@ -0,0 +1,214 @@
+package worms.gui;
+
+import java.awt.geom.AffineTransform;
+import java.awt.geom.NoninvertibleTransformException;
+import java.awt.geom.Rectangle2D;
+
+/**
+ * The part of the world that a screen shows: the point of the world (in
+ * worm-meter) at the center of the screen and the scale at which it is drawn
+ * (in pixels per worm-meter). Both are combined into one affine transform from
+ * the world to the screen, through which everything that is drawn and every
+ * location on the screen that is clicked is mapped.
+ *
+ * The y axis of the world points up, that of the screen down.
+ */
+public class Camera {
+
+	private double centerX;
+	private double centerY;
+	private double scale;
+	private int viewportWidth;
+	private int viewportHeight;
+
+	private final AffineTransform worldToScreen = new AffineTransform();
+	private final AffineTransform screenToWorld = new AffineTransform();
+
+	private long version;
+
+	/**
+	 * Create a camera that looks at the origin of the world at the given
+	 * scale.
+	 */
+	public Camera(double scale) {
+		this.scale = restrictScale(scale);
+		updateTransforms();
+	}
+
+	/**
+	 * The horizontal coordinate (in worm-meter) of the point at the center of
+	 * the screen
+	 */
+	public double getCenterX() {
+		return centerX;
+	}
+
+	/**
+	 * The vertical coordinate (in worm-meter) of the point at the center of
+	 * the screen
+	 */
+	public double getCenterY() {
+		return centerY;
+	}
+
+	/**
+	 * The number of pixels per worm-meter
+	 */
+	public double getScale() {
+		return scale;
+	}
+
+	public int getViewportWidth() {
+		return viewportWidth;
+	}
+
+	public int getViewportHeight() {
+		return viewportHeight;
+	}
+
+	/**
+	 * A number that changes whenever the camera moves, zooms or gets a
+	 * viewport of another size
+	 */
+	public long getVersion() {
+		return version;
+	}
+
+	/**
+	 * Show the given point of the world (in worm-meter) at the center of the
+	 * screen.
+	 */
+	public void setCenter(double x, double y) {
+		if (x == centerX && y == centerY) {
+			return;
+		}
+		centerX = x;
+		centerY = y;
+		updateTransforms();
+	}
+
+	/**
+	 * Draw the world at the given number of pixels per worm-meter, restricted
+	 * to {@link GUIConstants#MIN_WORLD_SCALE} and
+	 * {@link GUIConstants#MAX_WORLD_SCALE}, keeping the point at the center of
+	 * the screen in place.
+	 */
+	public void setScale(double scale) {
+		scale = restrictScale(scale);
+		if (scale == this.scale) {
+			return;
+		}
+		this.scale = scale;
+		updateTransforms();
+	}
+
+	/**
+	 * Set the size (in pixels) of the screen; the center of the world stays at
+	 * its center.
+	 */
+	public void setViewportSize(int width, int height) {
+		if (width == viewportWidth && height == viewportHeight) {
+			return;
+		}
+		viewportWidth = width;
+		viewportHeight = height;
+		updateTransforms();
+	}
+
+	/**
+	 * Move the world the given number of pixels over the screen.
+	 */
+	public void pan(double dx, double dy) {
+		setCenter(centerX - dx / scale, centerY + dy / scale);
+	}
+
+	/**
+	 * Multiply the scale by the given factor, keeping the point of the world
+	 * that is shown at the given location on the screen (in pixels) in place.
+	 */
+	public void zoom(double factor, double screenX, double screenY) {
+		double x = getWorldX(screenX);
+		double y = getWorldY(screenY);
+		double oldScale = scale;
+		scale = restrictScale(scale * factor);
+		if (scale == oldScale) {
+			return;
+		}
+		// the point under the anchor moves by its distance to the center
+		centerX = x - (x - centerX) * oldScale / scale;
+		centerY = y - (y - centerY) * oldScale / scale;
+		updateTransforms();
+	}
+
+	private static double restrictScale(double scale) {
+		return Math.max(GUIConstants.MIN_WORLD_SCALE,
+				Math.min(GUIConstants.MAX_WORLD_SCALE, scale));
+	}
+
+	private void updateTransforms() {
+		worldToScreen.setToTranslation(viewportWidth / 2.0,
+				viewportHeight / 2.0);
+		worldToScreen.scale(scale, -scale);
+		worldToScreen.translate(-centerX, -centerY);
+		try {
+			screenToWorld.setTransform(worldToScreen.createInverse());
+		} catch (NoninvertibleTransformException e) {
+			// the scale is never 0
+			throw new IllegalStateException(e);
+		}
+		version++;
+	}
+
+	/**
+	 * The transform from the world (in worm-meter) to the screen (in pixels).
+	 * It is shared and must not be modified; it changes whenever the camera
+	 * moves.
+	 */
+	public AffineTransform getTransform() {
+		return worldToScreen;
+	}
+
+	/**
+	 * The inverse of {@link #getTransform()}, from the screen to the world. It
+	 * is shared and must not be modified.
+	 */
+	public AffineTransform getInverseTransform() {
+		return screenToWorld;
+	}
+
+	public double getScreenX(double x) {
+		return worldToScreen.getScaleX() * x + worldToScreen.getTranslateX();
+	}
+
+	public double getScreenY(double y) {
+		return worldToScreen.getScaleY() * y + worldToScreen.getTranslateY();
+	}
+
+	public double getWorldX(double screenX) {
+		return screenToWorld.getScaleX() * screenX
+				+ screenToWorld.getTranslateX();
+	}
+
+	public double getWorldY(double screenY) {
+		return screenToWorld.getScaleY() * screenY
+				+ screenToWorld.getTranslateY();
+	}
+
+	/**
+	 * Returns the given length in worm-meter in pixels.
+	 */
+	public double toPixels(double meters) {
+		return meters * scale;
+	}
+
+	/**
+	 * Returns the part of the world (in worm-meter) that is shown on the
+	 * screen.
+	 */
+	public Rectangle2D getVisibleWorld() {
+		double width = viewportWidth / scale;
+		double height = viewportHeight / scale;
+		return new Rectangle2D.Double(centerX - width / 2,
+				centerY - height / 2, width, height);
+	}
+}
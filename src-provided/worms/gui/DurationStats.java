@@ -0,0 +1,47 @@
+package worms.gui;
+
+/**
+ * Collects durations, such as the time taken to draw a frame, and reports
+ * their distribution.
+ *
+ * Durations are recorded in nanoseconds and reported in milliseconds.
+ */
+public class DurationStats extends ValueStats {
+
+	/**
+	 * Record a duration, in nanoseconds.
+	 */
+	@Override
+	public void record(long duration) {
+		super.record(duration);
+	}
+
+	/**
+	 * Mean duration since the last reset, in milliseconds
+	 */
+	public double getMeanMillis() {
+		return getMean() / 1e6;
+	}
+
+	/**
+	 * Longest duration since the last reset, in milliseconds
+	 */
+	public double getMaxMillis() {
+		return getMax() / 1e6;
+	}
+
+	/**
+	 * The given percentile (in [0, 100]) of the recent durations, in
+	 * milliseconds
+	 */
+	public double getPercentileMillis(double percentile) {
+		return getPercentile(percentile) / 1e6;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("mean %.2f ms, p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+				getMeanMillis(), getPercentileMillis(50),
+				getPercentileMillis(99), getMaxMillis());
+	}
+}
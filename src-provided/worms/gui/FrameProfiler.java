@@ -0,0 +1,216 @@
+package worms.gui;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Measures how much time each phase of the game takes per frame, and how much
+ * memory is allocated and how often the garbage collector runs between two
+ * frames.
+ *
+ * Phases are timed with {@link #start()} and {@link #record(Phase, long)}, on
+ * any thread; the time of all occurrences of a phase between two calls of
+ * {@link #frameFinished()} adds up to its time for that frame. Code that is
+ * profiled only does so when a profiler is installed, so that it costs nothing
+ * otherwise.
+ */
+public class FrameProfiler {
+
+	public static enum Phase {
+		EVOLVE("evolve"), COMMAND_QUEUE("command queue"), PAINT("paint"), DRAW_NAME(
+				"  names"), DRAW_ACTION_BAR("  action bars"), DRAW_JUMP_MARKERS(
+				"  jump markers");
+
+		private final String label;
+
+		private Phase(String label) {
+			this.label = label;
+		}
+
+		public String getLabel() {
+			return label;
+		}
+	}
+
+	private static final Phase[] PHASES = Phase.values();
+
+	// time spent in each phase during the current frame
+	private final AtomicLongArray frameTimes = new AtomicLongArray(
+			PHASES.length);
+	private final DurationStats[] phaseTimes = new DurationStats[PHASES.length];
+
+	private final ValueStats frameAllocations = new ValueStats();
+
+	// the threads that ran profiled phases, for counting their allocations
+	private volatile long[] threadIds = new long[0];
+	private long allocatedBytes = -1;
+
+	private long gcCount = -1;
+	private long gcTime = -1;
+	private long frameGcCount;
+	private long totalGcCount;
+	private long totalGcTime;
+
+	public FrameProfiler() {
+		for (int i = 0; i < phaseTimes.length; i++) {
+			phaseTimes[i] = new DurationStats();
+		}
+	}
+
+	/**
+	 * Returns the time at which a phase starts.
+	 */
+	public long start() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Record that the given phase, which started at the given time (from
+	 * {@link #start()}), has ended.
+	 *
+	 * @return the time at which the phase ended, which is also the start of
+	 *         the next phase
+	 */
+	public long record(Phase phase, long start) {
+		long now = System.nanoTime();
+		frameTimes.addAndGet(phase.ordinal(), now - start);
+		return now;
+	}
+
+	/**
+	 * Make the allocations of the current thread count. Threads that run
+	 * profiled phases call this when they run them.
+	 */
+	public void addCurrentThread() {
+		long id = Thread.currentThread().getId();
+		if (!contains(threadIds, id)) {
+			synchronized (this) {
+				if (!contains(threadIds, id)) {
+					long[] result = Arrays.copyOf(threadIds,
+							threadIds.length + 1);
+					result[threadIds.length] = id;
+					threadIds = result;
+				}
+			}
+		}
+	}
+
+	private static boolean contains(long[] ids, long id) {
+		for (long each : ids) {
+			if (each == id) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Close the current frame: the time of each phase during the frame, the
+	 * bytes allocated by the profiled threads and the garbage collections
+	 * since the previous frame are added to the statistics.
+	 */
+	public void frameFinished() {
+		addCurrentThread();
+		for (int i = 0; i < PHASES.length; i++) {
+			phaseTimes[i].record(frameTimes.getAndSet(i, 0));
+		}
+
+		long allocated = getAllocatedBytes();
+		// less is allocated in total when a profiled thread has ended
+		if (allocatedBytes >= 0 && allocated >= allocatedBytes) {
+			frameAllocations.record(allocated - allocatedBytes);
+		}
+		allocatedBytes = allocated;
+
+		long count = 0;
+		long time = 0;
+		List<GarbageCollectorMXBean> collectors = ManagementFactory
+				.getGarbageCollectorMXBeans();
+		for (GarbageCollectorMXBean collector : collectors) {
+			count += Math.max(0, collector.getCollectionCount());
+			time += Math.max(0, collector.getCollectionTime());
+		}
+		synchronized (this) {
+			if (gcCount >= 0) {
+				frameGcCount = count - gcCount;
+				totalGcCount += frameGcCount;
+				totalGcTime += time - gcTime;
+			}
+			gcCount = count;
+			gcTime = time;
+		}
+	}
+
+	/**
+	 * Bytes allocated so far by the profiled threads, or -1 if the virtual
+	 * machine does not tell.
+	 */
+	private long getAllocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+			return -1;
+		}
+		com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+		if (!allocations.isThreadAllocatedMemorySupported()
+				|| !allocations.isThreadAllocatedMemoryEnabled()) {
+			return -1;
+		}
+		long result = 0;
+		for (long id : threadIds) {
+			// threads that have ended no longer count
+			result += Math.max(0, allocations.getThreadAllocatedBytes(id));
+		}
+		return result;
+	}
+
+	/**
+	 * Time taken by the given phase per frame
+	 */
+	public DurationStats getPhaseTimes(Phase phase) {
+		return phaseTimes[phase.ordinal()];
+	}
+
+	/**
+	 * Bytes allocated by the profiled threads per frame; or no values if the
+	 * virtual machine does not tell.
+	 */
+	public ValueStats getFrameAllocations() {
+		return frameAllocations;
+	}
+
+	/**
+	 * Number of garbage collections between the last two frames
+	 */
+	public synchronized long getFrameGcCount() {
+		return frameGcCount;
+	}
+
+	/**
+	 * Number of garbage collections since the last reset
+	 */
+	public synchronized long getGcCount() {
+		return totalGcCount;
+	}
+
+	/**
+	 * Time spent collecting garbage since the last reset, in milliseconds
+	 */
+	public synchronized long getGcTimeMillis() {
+		return totalGcTime;
+	}
+
+	public void reset() {
+		for (DurationStats stats : phaseTimes) {
+			stats.reset();
+		}
+		frameAllocations.reset();
+		synchronized (this) {
+			totalGcCount = 0;
+			totalGcTime = 0;
+		}
+	}
+}
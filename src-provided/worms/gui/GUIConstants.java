@@ -22,11 +22,58 @@ public final class GUIConstants {
 	 */
 	public static final double TIME_SCALE = 2;
 
+	/**
+	 * Rate at which the simulation advances, in fixed steps per (real) second
+	 * of game time
+	 */
+	public static final int SIMULATION_TICK_RATE = 120; // ticks per second
+
+	/**
+	 * Maximal number of simulation steps taken to catch up with real time in
+	 * a single frame; time beyond that is dropped instead of replayed
+	 */
+	public static final int MAX_CATCH_UP_TICKS = SIMULATION_TICK_RATE / 4;
+
+	/**
+	 * Minimal number of simulation steps between two checkpoints in a journal
+	 * of a game
+	 */
+	public static final int JOURNAL_CHECKPOINT_INTERVAL = 10 * SIMULATION_TICK_RATE;
+
 	/**
 	 * Scale at which the game is drawn to the screen (in pixels per worm-meter)
 	 */
 	public static double WORLD_SCALE = 45;
 
+	/**
+	 * Smallest and largest scale to which the camera zooms (in pixels per
+	 * worm-meter)
+	 */
+	public static final double MIN_WORLD_SCALE = 0.5;
+	public static final double MAX_WORLD_SCALE = 1000;
+
+	/**
+	 * Factor by which the scale changes per step of the mouse wheel or press
+	 * of a zoom key
+	 */
+	public static final double ZOOM_FACTOR = 1.25;
+
+	/**
+	 * Distance by which the camera moves per press of a pan key (in pixels)
+	 */
+	public static final double PAN_STEP = 100;
+
+	/**
+	 * Maximal number of bytes held by the shared cache of scaled and flipped
+	 * sprite images
+	 */
+	public static final long SPRITE_CACHE_BYTES = 32L * 1024 * 1024;
+
+	/**
+	 * Maximal number of rendered name bars a painter keeps for reuse
+	 */
+	public static final int MAX_NAME_LABELS = 256;
+
 	/**
 	 * Minimal angle to turn when pressing the 'turn' key a single time
 	 */
@@ -48,6 +95,18 @@ public final class GUIConstants {
 	 */
 	public static final double MOVE_DURATION = 1;
 
+	/**
+	 * Maximal number of steps of a move into which successive moves of a worm
+	 * are merged
+	 */
+	public static final int MAX_MERGED_STEPS = 3;
+
+	/**
+	 * Maximal number of commands of a worm that wait while another one of its
+	 * commands executes
+	 */
+	public static final int MAX_PENDING_COMMANDS = 4;
+
 	/**
 	 * Fraction by which to expand or shrink a worm's radius when resizing
 	 */
@@ -3,4 +3,42 @@ package worms.gui;
 public class GUIOptions {
 	public boolean disableFullScreen = false;
 	public long randomSeed = 3;
-}
\ No newline at end of file
+	/**
+	 * Run the simulation on its own thread instead of on the Swing timer
+	 */
+	public boolean threadedSimulation = false;
+	/**
+	 * Draw the game from the game loop on a canvas with page flipping,
+	 * instead of asking Swing to repaint it
+	 */
+	public boolean activeRendering = false;
+	/**
+	 * Record every game in a journal in this file, so that it can be replayed
+	 * (null to not record games)
+	 */
+	public String journalFile = null;
+	/**
+	 * Start games with a generated world of this many worms, instead of ten
+	 * random worms (0 for the ten random worms)
+	 */
+	public int generatedWorms = 0;
+	/**
+	 * Worms drawn with a smaller radius (in pixels) are painted as dots,
+	 * without their image, name or action bar
+	 */
+	public double dotRadius = 2.5;
+	/**
+	 * Worms drawn with a smaller radius (in pixels) are painted without their
+	 * name and action bar
+	 */
+	public double labelRadius = 6;
+	/**
+	 * With more worms on the screen, none is painted with its name and action
+	 * bar
+	 */
+	public int maxLabeledWorms = 1000;
+	/**
+	 * With more worms on the screen, all are painted as dots
+	 */
+	public int maxSpriteWorms = 10000;
+}
@@ -4,29 +4,38 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Random;
 
 import worms.gui.game.commands.Command;
+import worms.gui.game.commands.CommandJournal;
 import worms.gui.game.commands.CommandProcessor;
 import worms.model.IFacade;
 import worms.model.Worm;
 
 public class GameState {
 
-	private final Random random;
+	private final long randomSeed;
+	private Random random;
 	private final IFacade facade;
-	private final Collection<Worm> worms = new ArrayList<Worm>();
+	private final List<Worm> worms = new ArrayList<Worm>();
 	private final CommandProcessor commandProcessor = new CommandProcessor();
 
-	private Iterator<Worm> selection;
+	// only while profiling
+	private volatile FrameProfiler profiler;
+
+	// only while the game is recorded
+	private volatile CommandJournal journal;
+
+	// index of the worm that is selected next
+	private int nextSelection;
 	private Worm selectedWorm;
 
 	private final int width;
 	private final int height;
 
 	public GameState(IFacade facade, long randomSeed, int width, int height) {
+		this.randomSeed = randomSeed;
 		this.random = new Random(randomSeed);
 		this.facade = facade;
 		this.width = width;
@@ -52,7 +61,7 @@ public class GameState {
 			double direction = random.nextDouble() * 2 * Math.PI;
 			Worm worm = facade.createWorm(x, y, direction, radius, name);
 			if (worm != null) {
-				worms.add(worm);
+				add(worm);
 			} else {
 				throw new NullPointerException("Created worm must not be null");
 			}
@@ -64,16 +73,27 @@ public class GameState {
 		selectNextWorm();
 	}
 
+	/**
+	 * Start the game with the worms of a world made by the given generator,
+	 * instead of ten random worms.
+	 */
+	public void startGame(WorldGenerator generator) {
+		for (Worm worm : generator.generate(facade)) {
+			add(worm);
+		}
+		selectNextWorm();
+	}
+
 	public Worm getSelectedWorm() {
 		return selectedWorm;
 	}
 
 	public void selectNextWorm() {
-		if (selection == null || !selection.hasNext()) {
-			selection = worms.iterator();
+		if (nextSelection >= worms.size()) {
+			nextSelection = 0;
 		}
-		if (selection.hasNext()) {
-			selectWorm(selection.next());
+		if (nextSelection < worms.size()) {
+			selectWorm(worms.get(nextSelection++));
 		} else {
 			selectWorm(null);
 		}
@@ -83,20 +103,152 @@ public class GameState {
 		selectedWorm = worm;
 	}
 
+	public long getRandomSeed() {
+		return randomSeed;
+	}
+
+	/**
+	 * Width of the game, in pixels
+	 */
+	public int getWidth() {
+		return width;
+	}
+
+	/**
+	 * Height of the game, in pixels
+	 */
+	public int getHeight() {
+		return height;
+	}
+
 	public IFacade getFacade() {
 		return facade;
 	}
 
+	/**
+	 * Add a worm that was created elsewhere to the game.
+	 */
+	public void addWorm(Worm worm) {
+		if (worm == null) {
+			throw new NullPointerException("Added worm must not be null");
+		}
+		add(worm);
+		// the selection starts over
+		nextSelection = 0;
+	}
+
+	private void add(Worm worm) {
+		worms.add(worm);
+		CommandJournal journal = this.journal;
+		if (journal != null) {
+			journal.wormAdded(worm);
+		}
+	}
+
+	/**
+	 * Add worms that were restored elsewhere to the game, without recording
+	 * them in its journal.
+	 */
+	void restoreWorms(Worm[] restored) {
+		worms.addAll(Arrays.asList(restored));
+	}
+
+	Random getRandom() {
+		return random;
+	}
+
+	void setRandom(Random random) {
+		this.random = random;
+	}
+
+	/**
+	 * Index of the next name given to a random worm
+	 */
+	int getNameIndex() {
+		return nameIndex;
+	}
+
+	void setNameIndex(int nameIndex) {
+		this.nameIndex = nameIndex;
+	}
+
+	/**
+	 * Index of the worm that {@link #selectNextWorm()} selects, if it is less
+	 * than the number of worms
+	 */
+	int getNextSelection() {
+		return nextSelection;
+	}
+
+	void setNextSelection(int nextSelection) {
+		this.nextSelection = nextSelection;
+	}
+
 	public Collection<Worm> getWorms() {
 		return Collections.unmodifiableCollection(worms);
 	}
 
 	public void evolve(double timeDelta) {
-		commandProcessor.advanceCommandQueue(timeDelta);
+		CommandJournal journal = this.journal;
+		if (journal != null) {
+			journal.stepStarted(this);
+		}
+		FrameProfiler profiler = this.profiler;
+		if (profiler == null) {
+			commandProcessor.advanceCommandQueue(timeDelta);
+		} else {
+			long start = profiler.start();
+			commandProcessor.advanceCommandQueue(timeDelta);
+			profiler.record(FrameProfiler.Phase.COMMAND_QUEUE, start);
+		}
+		if (journal != null) {
+			journal.stepFinished();
+		}
+	}
+
+	/**
+	 * The journal in which the game is recorded, or null if it is not
+	 * recorded
+	 */
+	public CommandJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Record the game in the given journal from now on, or stop recording it
+	 * if the journal is null. Use {@link CommandJournal#create} to start a
+	 * journal.
+	 */
+	public void setJournal(CommandJournal journal) {
+		this.journal = journal;
+		commandProcessor.setListener(journal);
+	}
+
+	/**
+	 * The profiler that measures the phases of the game, or null if it is not
+	 * profiled
+	 */
+	public FrameProfiler getProfiler() {
+		return profiler;
+	}
+
+	public void setProfiler(FrameProfiler profiler) {
+		this.profiler = profiler;
+	}
+
+	public CommandProcessor getCommandProcessor() {
+		return commandProcessor;
 	}
 
 	public void enqueueCommand(Command cmd) {
 		commandProcessor.enqueueCommand(cmd);
 	}
 
+	/**
+	 * Returns whether no command is executing or waiting to be executed.
+	 */
+	public boolean isIdle() {
+		return commandProcessor.isIdle();
+	}
+
 }
@@ -0,0 +1,122 @@
+package worms.gui;
+
+import java.util.Arrays;
+
+/**
+ * Collects the intervals between successive events that should occur at a
+ * fixed period, such as simulation steps or frames, and reports how far they
+ * deviate from that period.
+ *
+ * Percentiles are computed over the most recent {@link #WINDOW_SIZE}
+ * intervals; the count, mean and maximum cover all intervals since the last
+ * reset. The statistics may be recorded and read from different threads.
+ */
+public class JitterStats {
+
+	/**
+	 * Number of recent intervals over which percentiles are computed
+	 */
+	public static final int WINDOW_SIZE = 1024;
+
+	private final long nominalPeriod;
+	private final long[] deviations = new long[WINDOW_SIZE];
+
+	private long lastTimestamp = -1;
+	private long count;
+	private long totalInterval;
+	private long maxDeviation;
+
+	/**
+	 * @param nominalPeriod
+	 *            the intended interval between events, in nanoseconds
+	 */
+	public JitterStats(long nominalPeriod) {
+		if (nominalPeriod <= 0) {
+			throw new IllegalArgumentException("Period must be positive: "
+					+ nominalPeriod);
+		}
+		this.nominalPeriod = nominalPeriod;
+	}
+
+	/**
+	 * The intended interval between events, in nanoseconds
+	 */
+	public long getNominalPeriod() {
+		return nominalPeriod;
+	}
+
+	/**
+	 * Record that an event occurred at the given time (from
+	 * {@link System#nanoTime()}). The first event only starts the first
+	 * interval.
+	 */
+	public synchronized void recordEvent(long timestamp) {
+		if (lastTimestamp >= 0) {
+			record(timestamp - lastTimestamp);
+		}
+		lastTimestamp = timestamp;
+	}
+
+	/**
+	 * Record an interval between two events, in nanoseconds.
+	 */
+	public synchronized void record(long interval) {
+		long deviation = Math.abs(interval - nominalPeriod);
+		deviations[(int) (count % WINDOW_SIZE)] = deviation;
+		count++;
+		totalInterval += interval;
+		maxDeviation = Math.max(maxDeviation, deviation);
+	}
+
+	/**
+	 * Number of intervals recorded since the last reset
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Mean interval since the last reset, in milliseconds
+	 */
+	public synchronized double getMeanIntervalMillis() {
+		return count == 0 ? 0 : totalInterval / (double) count / 1e6;
+	}
+
+	/**
+	 * Largest deviation from the nominal period since the last reset, in
+	 * milliseconds
+	 */
+	public synchronized double getMaxDeviationMillis() {
+		return maxDeviation / 1e6;
+	}
+
+	/**
+	 * The given percentile (in [0, 100]) of the deviations from the nominal
+	 * period over the recent intervals, in milliseconds
+	 */
+	public synchronized double getDeviationPercentileMillis(double percentile) {
+		int n = (int) Math.min(count, WINDOW_SIZE);
+		if (n == 0) {
+			return 0;
+		}
+		long[] sorted = Arrays.copyOf(deviations, n);
+		Arrays.sort(sorted);
+		int index = (int) Math.ceil(percentile / 100 * n) - 1;
+		return sorted[Math.max(0, Math.min(n - 1, index))] / 1e6;
+	}
+
+	public synchronized void reset() {
+		lastTimestamp = -1;
+		count = 0;
+		totalInterval = 0;
+		maxDeviation = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format(
+				"mean %.2f ms, jitter p50 %.2f ms, p99 %.2f ms, max %.2f ms",
+				getMeanIntervalMillis(), getDeviationPercentileMillis(50),
+				getDeviationPercentileMillis(99), getMaxDeviationMillis());
+	}
+}
@@ -0,0 +1,357 @@
+package worms.gui;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import worms.gui.game.GameView;
+import worms.gui.game.commands.Command;
+import worms.gui.game.commands.CommandCodec;
+import worms.gui.game.commands.CommandProcessor;
+import worms.model.IFacade;
+import worms.model.ModelException;
+import worms.model.Worm;
+
+/**
+ * Saves games to files and loads them again.
+ *
+ * A saved game holds a header, followed by a column for each value of the
+ * worms (locations, directions and radii, action points and the index of
+ * their name), the distinct names of the worms, the state of the random
+ * generator of the game and the commands that have not taken effect yet. All
+ * values are little-endian, so that on most machines the columns are copied
+ * as they are. The file is mapped into memory as a whole, and written and
+ * read in place.
+ *
+ * Commands that have taken effect are not saved: a loaded game shows their
+ * worms where they ended up, without finishing their animations.
+ */
+public class SavedGame {
+
+	private static final int MAGIC = 0x57534156; // "WSAV"
+	private static final int VERSION = 2;
+
+	// including padding, so that the columns of doubles are aligned
+	private static final int HEADER_SIZE = 72;
+
+	private SavedGame() {
+	}
+
+	/**
+	 * Save the given game to the given file, which is overwritten. The game
+	 * must not change while it is saved.
+	 */
+	public static void save(GameState state, File file) throws IOException {
+		IFacade facade = state.getFacade();
+		List<Worm> worms = new ArrayList<Worm>(state.getWorms());
+		int nbWorms = worms.size();
+
+		// distinct names, in the order in which they are first used
+		Map<String, Integer> nameIndices = new HashMap<String, Integer>();
+		List<String> names = new ArrayList<String>();
+		int[] wormNames = new int[nbWorms];
+		int namesSize = 0;
+		for (int i = 0; i < nbWorms; i++) {
+			String name = facade.getName(worms.get(i));
+			Integer index = nameIndices.get(name);
+			if (index == null) {
+				index = names.size();
+				nameIndices.put(name, index);
+				names.add(name);
+				namesSize += CommandCodec.getSize(name);
+			}
+			wormNames[i] = index;
+		}
+
+		byte[] random = serialize(state.getRandom());
+
+		List<Command> commands = state.getCommandProcessor()
+				.getWaitingCommands();
+		int commandsSize = 0;
+		for (Command cmd : commands) {
+			commandsSize += 1 + 4 + CommandCodec.getArgumentsSize(cmd);
+		}
+
+		long size = HEADER_SIZE + (long) nbWorms * (5 * 8 + 4)
+				+ namesSize + random.length + commandsSize;
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Game too large to save: " + size
+					+ " bytes");
+		}
+		RandomAccessFile raf = new RandomAccessFile(file, "rw");
+		try {
+			raf.setLength(size);
+			ByteBuffer buffer = raf.getChannel()
+					.map(FileChannel.MapMode.READ_WRITE, 0, size)
+					.order(ByteOrder.LITTLE_ENDIAN);
+			write(buffer, state, worms, names, wormNames, random, commands);
+		} finally {
+			raf.close();
+		}
+	}
+
+	private static void write(ByteBuffer buffer, GameState state,
+			List<Worm> worms, List<String> names, int[] wormNames,
+			byte[] random, List<Command> commands) {
+		IFacade facade = state.getFacade();
+		int nbWorms = worms.size();
+		CommandProcessor processor = state.getCommandProcessor();
+		Worm selected = state.getSelectedWorm();
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putInt(state.getWidth());
+		buffer.putInt(state.getHeight());
+		buffer.putLong(state.getRandomSeed());
+		buffer.putInt(state.getNameIndex());
+		buffer.putInt(state.getNextSelection());
+		buffer.putInt(selected == null ? -1 : worms.indexOf(selected));
+		buffer.putInt(processor.getCapacity());
+		buffer.putInt(processor.getOverflowPolicy().ordinal());
+		buffer.putInt(nbWorms);
+		buffer.putInt(names.size());
+		buffer.putInt(random.length);
+		buffer.putInt(commands.size());
+		buffer.position(HEADER_SIZE);
+
+		// the columns, filled in place
+		int x = buffer.position();
+		int y = x + 8 * nbWorms;
+		int direction = y + 8 * nbWorms;
+		int radius = direction + 8 * nbWorms;
+		int actionPoints = radius + 8 * nbWorms;
+		int name = actionPoints + 8 * nbWorms;
+		for (int i = 0; i < nbWorms; i++) {
+			Worm worm = worms.get(i);
+			buffer.putDouble(x + 8 * i, facade.getX(worm));
+			buffer.putDouble(y + 8 * i, facade.getY(worm));
+			buffer.putDouble(direction + 8 * i, facade.getOrientation(worm));
+			buffer.putDouble(radius + 8 * i, facade.getRadius(worm));
+			buffer.putLong(actionPoints + 8 * i,
+					worm.getCurrentNumberOfActionPoints());
+		}
+		buffer.position(name);
+		buffer.asIntBuffer().put(wormNames);
+		buffer.position(name + 4 * nbWorms);
+
+		for (String distinct : names) {
+			CommandCodec.writeString(buffer, distinct);
+		}
+		buffer.put(random);
+
+		Map<Worm, Integer> wormIndices = new IdentityHashMap<Worm, Integer>();
+		for (Command cmd : commands) {
+			wormIndices.put(cmd.getWorm(), -1);
+		}
+		for (int i = 0; i < nbWorms; i++) {
+			if (wormIndices.containsKey(worms.get(i))) {
+				wormIndices.put(worms.get(i), i);
+			}
+		}
+		for (Command cmd : commands) {
+			Integer index = wormIndices.get(cmd.getWorm());
+			buffer.put(CommandCodec.getType(cmd));
+			buffer.putInt(index == null ? -1 : index);
+			CommandCodec.writeArguments(buffer, cmd);
+		}
+	}
+
+	/**
+	 * Load the game saved in the given file. Its worms are created by the
+	 * given facade, and the visible effects of its commands are shown in the
+	 * given view.
+	 */
+	public static GameState load(File file, IFacade facade, GameView view)
+			throws IOException {
+		ByteBuffer buffer;
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			FileChannel channel = raf.getChannel();
+			long size = channel.size();
+			if (size < HEADER_SIZE || size > Integer.MAX_VALUE) {
+				throw new IOException("Not a saved game: " + size + " bytes");
+			}
+			buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(
+					ByteOrder.LITTLE_ENDIAN);
+		} finally {
+			raf.close();
+		}
+
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("Not a saved game");
+		}
+		int version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported saved game version: "
+					+ version);
+		}
+		int width = buffer.getInt();
+		int height = buffer.getInt();
+		long randomSeed = buffer.getLong();
+		int nameIndex = buffer.getInt();
+		int nextSelection = buffer.getInt();
+		int selected = buffer.getInt();
+		int capacity = buffer.getInt();
+		int policy = buffer.getInt();
+		int nbWorms = buffer.getInt();
+		int nbNames = buffer.getInt();
+		int randomSize = buffer.getInt();
+		int nbCommands = buffer.getInt();
+		buffer.position(HEADER_SIZE);
+		if (nbWorms < 0 || nbNames < 0 || randomSize < 0 || nbCommands < 0
+				|| nameIndex < 0 || nextSelection < 0 || selected < -1
+				|| selected >= nbWorms || capacity < 1 || policy < 0
+				|| policy >= CommandProcessor.OverflowPolicy.values().length
+				|| (long) nbWorms * (5 * 8 + 4) + randomSize > buffer
+						.remaining()) {
+			throw new IOException("Corrupt saved game");
+		}
+
+		double[] x = new double[nbWorms];
+		double[] y = new double[nbWorms];
+		double[] direction = new double[nbWorms];
+		double[] radius = new double[nbWorms];
+		long[] actionPoints = new long[nbWorms];
+		int[] wormNames = new int[nbWorms];
+		readColumn(buffer, x);
+		readColumn(buffer, y);
+		readColumn(buffer, direction);
+		readColumn(buffer, radius);
+		readColumn(buffer, actionPoints);
+		readColumn(buffer, wormNames);
+		for (int name : wormNames) {
+			if (name < 0 || name >= nbNames) {
+				throw new IOException("Corrupt saved game");
+			}
+		}
+		String[] names = new String[nbNames];
+		for (int i = 0; i < nbNames; i++) {
+			names[i] = readName(buffer);
+		}
+		if (randomSize > buffer.remaining()) {
+			throw new IOException("Corrupt saved game");
+		}
+		byte[] random = new byte[randomSize];
+		buffer.get(random);
+
+		GameState state = new GameState(facade, randomSeed, width, height);
+		state.setRandom(deserialize(random));
+		state.setNameIndex(nameIndex);
+		Worm[] worms;
+		try {
+			worms = facade.restoreWorms(x, y, direction, radius, names,
+					wormNames, actionPoints);
+		} catch (ModelException e) {
+			throw new IOException("Corrupt saved game", e);
+		}
+		state.restoreWorms(worms);
+		state.setNextSelection(nextSelection);
+		state.selectWorm(selected < 0 ? null : worms[selected]);
+
+		CommandProcessor processor = state.getCommandProcessor();
+		processor.setCapacity(capacity);
+		processor.setOverflowPolicy(CommandProcessor.OverflowPolicy.values()[policy]);
+		for (int i = 0; i < nbCommands; i++) {
+			if (buffer.remaining() < 1 + 4) {
+				throw new IOException("Corrupt saved game");
+			}
+			byte type = buffer.get();
+			int worm = buffer.getInt();
+			if (worm < -1 || worm >= nbWorms
+					|| CommandCodec.getArgumentsSize(buffer,
+							buffer.position(), type) < 0) {
+				throw new IOException("Corrupt saved game");
+			}
+			state.enqueueCommand(CommandCodec.readCommand(buffer, type,
+					facade, worm < 0 ? null : worms[worm], view));
+		}
+		return state;
+	}
+
+	/**
+	 * Get a name that was put by {@link CommandCodec#writeString} from the
+	 * given buffer, checking that it fits in the buffer.
+	 */
+	private static String readName(ByteBuffer buffer) throws IOException {
+		if (buffer.remaining() < 4) {
+			throw new IOException("Corrupt saved game");
+		}
+		int length = buffer.getInt(buffer.position());
+		if (length < 0 || length > (buffer.remaining() - 4) / 2) {
+			throw new IOException("Corrupt saved game");
+		}
+		return CommandCodec.readString(buffer);
+	}
+
+	private static void readColumn(ByteBuffer buffer, double[] column) {
+		buffer.asDoubleBuffer().get(column);
+		buffer.position(buffer.position() + 8 * column.length);
+	}
+
+	private static void readColumn(ByteBuffer buffer, long[] column) {
+		buffer.asLongBuffer().get(column);
+		buffer.position(buffer.position() + 8 * column.length);
+	}
+
+	private static void readColumn(ByteBuffer buffer, int[] column) {
+		buffer.asIntBuffer().get(column);
+		buffer.position(buffer.position() + 4 * column.length);
+	}
+
+	private static byte[] serialize(Random random) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream out = new ObjectOutputStream(bytes);
+		out.writeObject(random);
+		out.close();
+		return bytes.toByteArray();
+	}
+
+	/**
+	 * Get the random generator that was serialized in the given bytes.
+	 *
+	 * Only instances of {@link Random} itself are read: a saved game that
+	 * refers to any other class is corrupt, and its objects are never
+	 * created.
+	 */
+	private static Random deserialize(byte[] bytes) throws IOException {
+		ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(
+				bytes)) {
+			@Override
+			protected Class<?> resolveClass(ObjectStreamClass desc)
+					throws IOException, ClassNotFoundException {
+				if (!Random.class.getName().equals(desc.getName())) {
+					throw new InvalidClassException(desc.getName(),
+							"Corrupt saved game");
+				}
+				return super.resolveClass(desc);
+			}
+
+			@Override
+			protected Class<?> resolveProxyClass(String[] interfaces)
+					throws IOException {
+				throw new InvalidClassException("Corrupt saved game");
+			}
+		};
+		try {
+			return (Random) in.readObject();
+		} catch (ClassNotFoundException e) {
+			throw new IOException("Corrupt saved game", e);
+		} finally {
+			in.close();
+		}
+	}
+}
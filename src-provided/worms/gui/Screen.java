@@ -1,22 +1,28 @@
 package worms.gui;
 
+import java.awt.Canvas;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.RenderingHints;
+import java.awt.Toolkit;
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
+import java.awt.image.BufferStrategy;
 
 import javax.swing.JPanel;
 
 public abstract class Screen {
 
 	protected class InputMode implements KeyListener, MouseListener,
-			MouseMotionListener {
+			MouseMotionListener, MouseWheelListener {
 
 		public void paintOverlay(Graphics2D g) {
 		}
@@ -65,10 +71,15 @@ public abstract class Screen {
 		@Override
 		public void mouseMoved(MouseEvent e) {
 		}
+
+		@Override
+		public void mouseWheelMoved(MouseWheelEvent e) {
+		}
 	}
 
 	private final WormsGUI gui;
 	private final Component contents;
+	private final Camera camera = new Camera(GUIConstants.WORLD_SCALE);
 
 	protected Screen(WormsGUI gui) {
 		this.gui = gui;
@@ -83,24 +94,107 @@ public abstract class Screen {
 	}
 
 	protected Component createContents() {
-		@SuppressWarnings("serial")
-		Component result = new JPanel() {
-			@Override
-			public void paint(Graphics g) {
-				super.paint(g);
-				Graphics2D graphics = (Graphics2D) g;
-				graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
-						RenderingHints.VALUE_ANTIALIAS_ON);
-
-				Screen.this.paintScreen(graphics);
-
-				getCurrentInputMode().paintOverlay(graphics);
-			}
-		};
+		Component result;
+		if (isActivelyRendered()) {
+			result = new Canvas();
+			// all frames are drawn by render()
+			result.setIgnoreRepaint(true);
+		} else {
+			@SuppressWarnings("serial")
+			JPanel panel = new JPanel() {
+				@Override
+				public void paint(Graphics g) {
+					long start = System.nanoTime();
+					super.paint(g);
+					paintFrame((Graphics2D) g);
+					frameDrawn(start);
+				}
+			};
+			result = panel;
+		}
 		result.setBackground(Color.BLACK);
 		return result;
 	}
 
+	/**
+	 * Returns whether this screen draws its frames itself, on a canvas with a
+	 * buffer strategy, instead of asking Swing to repaint a panel. Called from
+	 * the constructor of Screen.
+	 */
+	protected boolean isActivelyRendered() {
+		return false;
+	}
+
+	private void paintFrame(Graphics2D graphics) {
+		graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING,
+				RenderingHints.VALUE_ANTIALIAS_ON);
+
+		paintScreen(graphics);
+
+		getCurrentInputMode().paintOverlay(graphics);
+	}
+
+	/**
+	 * Draw a frame on the canvas of an actively rendered screen, and show it
+	 * right away. Must be called on the event dispatch thread.
+	 */
+	private void render() {
+		Canvas canvas = (Canvas) contents;
+		if (!canvas.isDisplayable()) {
+			return;
+		}
+		long start = System.nanoTime();
+		BufferStrategy strategy = canvas.getBufferStrategy();
+		if (strategy == null) {
+			canvas.createBufferStrategy(2);
+			strategy = canvas.getBufferStrategy();
+		}
+		do {
+			do {
+				Graphics2D graphics = (Graphics2D) strategy.getDrawGraphics();
+				try {
+					graphics.setColor(canvas.getBackground());
+					graphics.fillRect(0, 0, canvas.getWidth(),
+							canvas.getHeight());
+					paintFrame(graphics);
+				} finally {
+					graphics.dispose();
+				}
+			} while (strategy.contentsRestored());
+			strategy.show();
+		} while (strategy.contentsLost());
+		Toolkit.getDefaultToolkit().sync();
+		frameDrawn(start);
+	}
+
+	private long frameRequestedAt = -1;
+
+	private final DurationStats frameTimes = new DurationStats();
+	private final DurationStats frameLatencies = new DurationStats();
+
+	private void frameDrawn(long start) {
+		long now = System.nanoTime();
+		frameTimes.record(now - start);
+		if (frameRequestedAt >= 0) {
+			frameLatencies.record(now - frameRequestedAt);
+			frameRequestedAt = -1;
+		}
+	}
+
+	/**
+	 * Time taken to draw a frame
+	 */
+	public DurationStats getFrameTimes() {
+		return frameTimes;
+	}
+
+	/**
+	 * Time from a call to {@link #repaint(Rectangle)} until the frame has been drawn
+	 */
+	public DurationStats getFrameLatencies() {
+		return frameLatencies;
+	}
+
 	public WormsGUI getGUI() {
 		return gui;
 	}
@@ -118,12 +212,14 @@ public abstract class Screen {
 			contents.removeKeyListener(currentInputMode);
 			contents.removeMouseListener(currentInputMode);
 			contents.removeMouseMotionListener(currentInputMode);
+			contents.removeMouseWheelListener(currentInputMode);
 		}
 		currentInputMode = newMode;
 		if (newMode != null) {
 			contents.addKeyListener(newMode);
 			contents.addMouseListener(newMode);
 			contents.addMouseMotionListener(newMode);
+			contents.addMouseWheelListener(newMode);
 		}
 	}
 
@@ -145,24 +241,56 @@ public abstract class Screen {
 		return getPanel().getWidth();
 	}
 
+	/**
+	 * Draw a new frame: right away for an actively rendered screen, or when
+	 * Swing gets to it otherwise.
+	 */
 	public void repaint() {
-		getPanel().repaint();
+		repaint(null);
+	}
+
+	/**
+	 * Draw a new frame that only differs from the last one within the given
+	 * region, or anywhere if it is null. An actively rendered screen always
+	 * draws the whole frame.
+	 */
+	public void repaint(Rectangle region) {
+		if (frameRequestedAt < 0) {
+			frameRequestedAt = System.nanoTime();
+		}
+		if (isActivelyRendered()) {
+			render();
+		} else if (region == null) {
+			getPanel().repaint();
+		} else {
+			getPanel().repaint(region.x, region.y, region.width,
+					region.height);
+		}
+	}
+
+	/**
+	 * The camera through which this screen shows the world, with a viewport
+	 * of the current size of the screen
+	 */
+	public Camera getCamera() {
+		camera.setViewportSize(getScreenWidth(), getScreenHeight());
+		return camera;
 	}
 
 	public double getScreenX(double x) {
-		return getScreenWidth() / 2.0 + GUIUtils.meterToPixels(x);
+		return getCamera().getScreenX(x);
 	}
 
 	public double getLogicalX(double screenX) {
-		return GUIUtils.pixelToMeter(screenX - getScreenWidth() / 2.0);
+		return getCamera().getWorldX(screenX);
 	}
 
 	public double getScreenY(double y) {
-		return getScreenHeight() / 2.0 - GUIUtils.meterToPixels(y);
+		return getCamera().getScreenY(y);
 	}
 
 	public double getLogicalY(double screenY) {
-		return GUIUtils.pixelToMeter(getScreenHeight() / 2.0 - screenY);
+		return getCamera().getWorldY(screenY);
 	}
 
 }
@@ -0,0 +1,193 @@
+package worms.gui;
+
+import worms.gui.game.GameView;
+import worms.model.Worm;
+
+/**
+ * Advances a game in fixed, deterministic time steps.
+ * 
+ * The simulation does not depend on AWT or Swing: it can be driven by the
+ * game loop of the GUI (through {@link #advance(double)}, which converts
+ * real-time deltas into a whole number of steps) or run headless as fast as
+ * possible (through {@link #step()}). Given the same game state and the same
+ * commands enqueued at the same ticks, the outcome is always the same.
+ */
+public class Simulation {
+
+	/**
+	 * Duration of a single step, in worm-seconds
+	 */
+	public static final double DEFAULT_TIME_STEP = GUIConstants.TIME_SCALE
+			/ GUIConstants.SIMULATION_TICK_RATE;
+
+	private final GameState gameState;
+	private final double timeStep;
+
+	private final Object lock = new Object();
+
+	private long tickCount = 0;
+	private double pendingTime = 0;
+
+	public Simulation(GameState gameState) {
+		this(gameState, DEFAULT_TIME_STEP);
+	}
+
+	public Simulation(GameState gameState, double timeStep) {
+		this(gameState, timeStep, 0);
+	}
+
+	/**
+	 * Create a simulation of a game that has already taken the given number of
+	 * steps, such as a game that was restored.
+	 */
+	public Simulation(GameState gameState, double timeStep, long tickCount) {
+		if (tickCount < 0) {
+			throw new IllegalArgumentException(
+					"Tick count must not be negative: " + tickCount);
+		}
+		if (!(timeStep > 0)) {
+			throw new IllegalArgumentException("Time step must be positive: "
+					+ timeStep);
+		}
+		this.gameState = gameState;
+		this.timeStep = timeStep;
+		this.tickCount = tickCount;
+	}
+
+	public GameState getGameState() {
+		return gameState;
+	}
+
+	/**
+	 * Duration of a single step, in worm-seconds
+	 */
+	public double getTimeStep() {
+		return timeStep;
+	}
+
+	/**
+	 * Number of steps taken so far
+	 */
+	public long getTickCount() {
+		return tickCount;
+	}
+
+	/**
+	 * Game time simulated so far, in worm-seconds
+	 */
+	public double getSimulationTime() {
+		return tickCount * timeStep;
+	}
+
+	/**
+	 * The lock that is held while a step is taken. Other threads must hold it
+	 * while they read or change the game through its facade.
+	 */
+	public Object getLock() {
+		return lock;
+	}
+
+	/**
+	 * Advance the game by a single step.
+	 */
+	public void step() {
+		synchronized (lock) {
+			FrameProfiler profiler = gameState.getProfiler();
+			if (profiler == null) {
+				gameState.evolve(timeStep);
+			} else {
+				profiler.addCurrentThread();
+				long start = profiler.start();
+				gameState.evolve(timeStep);
+				profiler.record(FrameProfiler.Phase.EVOLVE, start);
+			}
+			tickCount++;
+		}
+	}
+
+	/**
+	 * Advance the game by the given number of steps.
+	 */
+	public void step(long nbSteps) {
+		for (long i = 0; i < nbSteps; i++) {
+			step();
+		}
+	}
+
+	/**
+	 * Account for the given amount of elapsed game time (in worm-seconds) and
+	 * take as many whole steps as fit in it. The remainder is carried over to
+	 * the next call. At most {@link GUIConstants#MAX_CATCH_UP_TICKS} steps are
+	 * taken; any time beyond that is dropped, so that a long pause does not
+	 * make the game fast-forward.
+	 * 
+	 * @return the number of steps taken
+	 */
+	public int advance(double elapsedTime) {
+		pendingTime += elapsedTime;
+		int nbSteps = 0;
+		while (pendingTime >= timeStep) {
+			if (nbSteps == GUIConstants.MAX_CATCH_UP_TICKS) {
+				pendingTime = 0;
+				break;
+			}
+			step();
+			pendingTime -= timeStep;
+			nbSteps++;
+		}
+		return nbSteps;
+	}
+
+	/**
+	 * Fraction of a step that has elapsed since the last step was taken by
+	 * {@link #advance(double)}, in [0, 1).
+	 */
+	public double getPendingStepFraction() {
+		return pendingTime / timeStep;
+	}
+
+	/**
+	 * Take steps until all enqueued commands have finished, or until the given
+	 * number of steps has been taken.
+	 * 
+	 * @return the number of steps taken
+	 */
+	public long runUntilIdle(long maxSteps) {
+		long nbSteps = 0;
+		while (!gameState.isIdle() && nbSteps < maxSteps) {
+			step();
+			nbSteps++;
+		}
+		return nbSteps;
+	}
+
+	/**
+	 * A view that ignores all visible effects of commands, for running the
+	 * simulation without a display. It only counts the messages it receives.
+	 */
+	public static class HeadlessView implements GameView {
+
+		private long nbMessages = 0;
+
+		@Override
+		public void showWormLocation(Worm worm, double x, double y) {
+		}
+
+		@Override
+		public void showWormDirection(Worm worm, double direction) {
+		}
+
+		@Override
+		public void showWormRadius(Worm worm, double radius) {
+		}
+
+		@Override
+		public void addMessage(String message) {
+			nbMessages++;
+		}
+
+		public long getNbMessages() {
+			return nbMessages;
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package worms.gui;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a {@link Simulation} on its own thread, one step per time step of real
+ * time, independently of how long the screen takes to paint.
+ *
+ * Each step is taken while holding the lock of the simulation, and is
+ * followed by a call to the step listener under the same lock, so that the
+ * listener can publish a consistent view of the game to other threads. When
+ * the thread falls behind (e.g. because the machine is busy), it takes at most
+ * {@link GUIConstants#MAX_CATCH_UP_TICKS} steps in a row to catch up and drops
+ * the remaining time.
+ */
+public class SimulationThread {
+
+	public interface StepListener {
+		/**
+		 * Called on the simulation thread after each step, while holding the
+		 * lock of the simulation.
+		 */
+		void stepped(Simulation simulation);
+	}
+
+	private final Simulation simulation;
+	private final StepListener listener;
+	private final long period;
+	private final JitterStats tickJitter;
+
+	private volatile boolean running;
+	private Thread thread;
+
+	/**
+	 * Create a simulation thread that takes one step of the given simulation
+	 * for every time step of real time.
+	 */
+	public SimulationThread(Simulation simulation, StepListener listener) {
+		this.simulation = simulation;
+		this.listener = listener;
+		this.period = Math.max(1, Math.round(simulation.getTimeStep()
+				/ GUIConstants.TIME_SCALE * 1e9));
+		this.tickJitter = new JitterStats(period);
+	}
+
+	public Simulation getSimulation() {
+		return simulation;
+	}
+
+	/**
+	 * Real time between two steps, in nanoseconds
+	 */
+	public long getPeriod() {
+		return period;
+	}
+
+	/**
+	 * Deviations of the real time between two steps from the period
+	 */
+	public JitterStats getTickJitter() {
+		return tickJitter;
+	}
+
+	public boolean isRunning() {
+		return running;
+	}
+
+	public synchronized void start() {
+		if (thread != null) {
+			throw new IllegalStateException("Already started");
+		}
+		running = true;
+		thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				runLoop();
+			}
+		}, "Simulation");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stop taking steps, and wait until the current step has finished.
+	 */
+	public void stop() {
+		Thread toJoin;
+		synchronized (this) {
+			running = false;
+			toJoin = thread;
+		}
+		if (toJoin == null || toJoin == Thread.currentThread()) {
+			return;
+		}
+		toJoin.interrupt();
+		try {
+			toJoin.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void runLoop() {
+		long nextTick = System.nanoTime();
+		while (running) {
+			long now = System.nanoTime();
+			if (now < nextTick) {
+				LockSupport.parkNanos(nextTick - now);
+				continue;
+			}
+			if (now - nextTick > GUIConstants.MAX_CATCH_UP_TICKS * period) {
+				// too far behind; drop the missed time
+				nextTick = now;
+			}
+			tickJitter.recordEvent(now);
+			synchronized (simulation.getLock()) {
+				simulation.step();
+				listener.stepped(simulation);
+			}
+			nextTick += period;
+		}
+	}
+}
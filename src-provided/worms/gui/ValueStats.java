@@ -0,0 +1,79 @@
+package worms.gui;
+
+import java.util.Arrays;
+
+/**
+ * Collects values, such as the number of bytes allocated per frame, and
+ * reports their distribution.
+ *
+ * Percentiles are computed over the most recent {@link #WINDOW_SIZE} values;
+ * the count, mean and maximum cover all values since the last reset. Values
+ * may be recorded and read from different threads.
+ */
+public class ValueStats {
+
+	/**
+	 * Number of recent values over which percentiles are computed
+	 */
+	public static final int WINDOW_SIZE = 1024;
+
+	private final long[] values = new long[WINDOW_SIZE];
+
+	private long count;
+	private long total;
+	private long max;
+
+	public synchronized void record(long value) {
+		values[(int) (count % WINDOW_SIZE)] = value;
+		count++;
+		total += value;
+		max = Math.max(max, value);
+	}
+
+	/**
+	 * Number of values recorded since the last reset
+	 */
+	public synchronized long getCount() {
+		return count;
+	}
+
+	/**
+	 * Mean value since the last reset
+	 */
+	public synchronized double getMean() {
+		return count == 0 ? 0 : total / (double) count;
+	}
+
+	/**
+	 * Largest value since the last reset
+	 */
+	public synchronized long getMax() {
+		return max;
+	}
+
+	/**
+	 * The given percentile (in [0, 100]) of the recent values
+	 */
+	public synchronized long getPercentile(double percentile) {
+		int n = (int) Math.min(count, WINDOW_SIZE);
+		if (n == 0) {
+			return 0;
+		}
+		long[] sorted = Arrays.copyOf(values, n);
+		Arrays.sort(sorted);
+		int index = (int) Math.ceil(percentile / 100 * n) - 1;
+		return sorted[Math.max(0, Math.min(n - 1, index))];
+	}
+
+	public synchronized void reset() {
+		count = 0;
+		total = 0;
+		max = 0;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("mean %.1f, p50 %d, p99 %d, max %d", getMean(),
+				getPercentile(50), getPercentile(99), getMax());
+	}
+}
@@ -0,0 +1,505 @@
+package worms.gui;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Generates worlds with many worms, which are placed at random without
+ * overlapping each other and get random names, directions and radii.
+ *
+ * Worms are placed by Poisson-disk sampling on a grid of cells that are so
+ * small that each of them holds at most one worm: a few random locations in
+ * each cell are tried, until one is far enough from the worms placed around
+ * it. The grid is divided into tiles, which are filled in parallel: in each
+ * of four phases, every other tile in both directions, so that no two tiles of
+ * a phase place worms near each other. Every tile, and every group of worms
+ * whose direction, radius and name are drawn, has its own stream of random
+ * numbers, which is derived from the seed and the location of the tile or
+ * group. A seed therefore always gives the same world, however many threads
+ * generate it.
+ *
+ * Names are made up of syllables, so that they are valid names of worms.
+ */
+public class WorldGenerator {
+
+	public static final double DEFAULT_MIN_RADIUS = 0.25;
+	public static final double DEFAULT_MAX_RADIUS = 0.5;
+	public static final int DEFAULT_NB_NAMES = 4096;
+
+	// number of cells along the side of a tile
+	private static final int TILE_SIZE = 32;
+	private static final int ATTEMPTS_PER_CELL = 4;
+	// fraction of the cells that get a worm, a little less than measured
+	private static final double EXPECTED_FILL = 0.32;
+	// number of worms whose direction, radius and name are drawn together
+	private static final int GROUP_SIZE = 4096;
+
+	// kinds of streams of random numbers
+	private static final long TILE_STREAM = 1;
+	private static final long SELECTION_STREAM = 2;
+	private static final long GROUP_STREAM = 3;
+
+	private static final String CONSONANTS = "bdfgklmnprstvz";
+	private static final String VOWELS = "aeiou";
+
+	private final long seed;
+	private final int nbWorms;
+	private double minRadius = DEFAULT_MIN_RADIUS;
+	private double maxRadius = DEFAULT_MAX_RADIUS;
+	private double aspectRatio = 1;
+	private int nbNames = DEFAULT_NB_NAMES;
+
+	// the size of the last generated world, in meter
+	private double worldWidth;
+	private double worldHeight;
+
+	/**
+	 * A generator of worlds with the given number of worms
+	 */
+	public WorldGenerator(long seed, int nbWorms) {
+		if (nbWorms < 0) {
+			throw new IllegalArgumentException("Negative number of worms: "
+					+ nbWorms);
+		}
+		this.seed = seed;
+		this.nbWorms = nbWorms;
+	}
+
+	public long getSeed() {
+		return seed;
+	}
+
+	public int getNbWorms() {
+		return nbWorms;
+	}
+
+	public double getMinRadius() {
+		return minRadius;
+	}
+
+	public double getMaxRadius() {
+		return maxRadius;
+	}
+
+	/**
+	 * Give the worms a radius between the given bounds (in meter).
+	 */
+	public void setRadii(double minRadius, double maxRadius) {
+		if (!(minRadius > 0 && minRadius <= maxRadius)) {
+			throw new IllegalArgumentException("Invalid radii: " + minRadius
+					+ " to " + maxRadius);
+		}
+		this.minRadius = minRadius;
+		this.maxRadius = maxRadius;
+	}
+
+	/**
+	 * Width of the world divided by its height
+	 */
+	public double getAspectRatio() {
+		return aspectRatio;
+	}
+
+	public void setAspectRatio(double aspectRatio) {
+		if (!(aspectRatio > 0) || Double.isInfinite(aspectRatio)) {
+			throw new IllegalArgumentException("Invalid aspect ratio: "
+					+ aspectRatio);
+		}
+		this.aspectRatio = aspectRatio;
+	}
+
+	/**
+	 * Number of distinct names that the worms get, at most
+	 */
+	public int getNbNames() {
+		return nbNames;
+	}
+
+	public void setNbNames(int nbNames) {
+		if (nbNames < 1) {
+			throw new IllegalArgumentException("Invalid number of names: "
+					+ nbNames);
+		}
+		this.nbNames = nbNames;
+	}
+
+	/**
+	 * Width of the last generated world, in meter; the world is centered
+	 * around the origin.
+	 */
+	public double getWorldWidth() {
+		return worldWidth;
+	}
+
+	/**
+	 * Height of the last generated world, in meter; the world is centered
+	 * around the origin.
+	 */
+	public double getWorldHeight() {
+		return worldHeight;
+	}
+
+	/**
+	 * Generate the worms of a world with the given facade, using as many
+	 * threads as there are processors.
+	 */
+	public Worm[] generate(IFacade facade) {
+		ForkJoinPool pool = new ForkJoinPool();
+		try {
+			return generate(facade, pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Generate the worms of a world with the given facade, using the threads
+	 * of the given pool.
+	 *
+	 * @return the new worms, ordered by tile
+	 */
+	public Worm[] generate(IFacade facade, ForkJoinPool pool) {
+		// worms in cells this far apart never overlap
+		double cellSize = 2 * maxRadius / Math.sqrt(2);
+		double area = Math.max(1, nbWorms) * cellSize * cellSize
+				/ EXPECTED_FILL;
+		Placement placement;
+		while (true) {
+			double width = Math.sqrt(area * aspectRatio);
+			placement = new Placement(cellSize, width, area / width);
+			placement.fill(pool);
+			if (placement.getNbPlaced() >= nbWorms) {
+				break;
+			}
+			// too crowded; try again, in a larger world
+			area *= 1.1 * nbWorms / Math.max(1, placement.getNbPlaced());
+		}
+		worldWidth = placement.getWidth();
+		worldHeight = placement.getHeight();
+
+		double[] x = new double[nbWorms];
+		double[] y = new double[nbWorms];
+		placement.select(x, y);
+
+		int nbNames = Math.max(1, Math.min(this.nbNames, nbWorms));
+		String[] names = new String[nbNames];
+		for (int i = 0; i < nbNames; i++) {
+			names[i] = createName(i);
+		}
+		double[] direction = new double[nbWorms];
+		double[] radius = new double[nbWorms];
+		int[] nameIndices = new int[nbWorms];
+		pool.invoke(new DrawGroups(direction, radius, nameIndices, nbNames, 0,
+				(nbWorms + GROUP_SIZE - 1) / GROUP_SIZE));
+
+		return facade.createWorms(x, y, direction, radius, names, nameIndices);
+	}
+
+	/**
+	 * Returns the name with the given index; names with different indices
+	 * differ.
+	 */
+	public static String createName(int index) {
+		int base = CONSONANTS.length() * VOWELS.length();
+		// at least two syllables
+		long number = index + (long) base;
+		StringBuilder result = new StringBuilder();
+		do {
+			int syllable = (int) (number % base);
+			result.append(CONSONANTS.charAt(syllable / VOWELS.length()));
+			result.append(VOWELS.charAt(syllable % VOWELS.length()));
+			number /= base;
+		} while (number > 0);
+		result.setCharAt(0, Character.toUpperCase(result.charAt(0)));
+		return result.toString();
+	}
+
+	/**
+	 * The worms placed on the grid of a world
+	 */
+	private class Placement {
+		private final double cellSize;
+		private final int columns;
+		private final int rows;
+		private final int tileColumns;
+		private final int tileRows;
+		/*
+		 * The location of the worm in each cell, relative to the corner of the
+		 * cell and in cells, or NaN if the cell is empty.
+		 */
+		private final float[] offsetX;
+		private final float[] offsetY;
+		private final int[] tileCounts;
+
+		public Placement(double cellSize, double width, double height) {
+			this.cellSize = cellSize;
+			this.columns = Math.max(1, (int) Math.ceil(width / cellSize));
+			this.rows = Math.max(1, (int) Math.ceil(height / cellSize));
+			if ((long) columns * rows > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("World too large: "
+						+ columns + " by " + rows + " cells");
+			}
+			this.tileColumns = (columns + TILE_SIZE - 1) / TILE_SIZE;
+			this.tileRows = (rows + TILE_SIZE - 1) / TILE_SIZE;
+			this.offsetX = new float[columns * rows];
+			this.offsetY = new float[columns * rows];
+			Arrays.fill(offsetX, Float.NaN);
+			this.tileCounts = new int[tileColumns * tileRows];
+		}
+
+		public double getWidth() {
+			return columns * cellSize;
+		}
+
+		public double getHeight() {
+			return rows * cellSize;
+		}
+
+		public int getNbPlaced() {
+			int result = 0;
+			for (int count : tileCounts) {
+				result += count;
+			}
+			return result;
+		}
+
+		public void fill(ForkJoinPool pool) {
+			for (int phase = 0; phase < 4; phase++) {
+				int[] tiles = new int[tileCounts.length];
+				int nbTiles = 0;
+				for (int tileY = phase / 2; tileY < tileRows; tileY += 2) {
+					for (int tileX = phase % 2; tileX < tileColumns; tileX += 2) {
+						tiles[nbTiles++] = tileY * tileColumns + tileX;
+					}
+				}
+				pool.invoke(new FillTiles(this, tiles, 0, nbTiles));
+			}
+		}
+
+		private void fillTile(int tile) {
+			SplitMix random = createRandom(TILE_STREAM, tile);
+			int startX = (tile % tileColumns) * TILE_SIZE;
+			int startY = (tile / tileColumns) * TILE_SIZE;
+			int endX = Math.min(columns, startX + TILE_SIZE);
+			int endY = Math.min(rows, startY + TILE_SIZE);
+			int count = 0;
+			for (int row = startY; row < endY; row++) {
+				for (int column = startX; column < endX; column++) {
+					for (int attempt = 0; attempt < ATTEMPTS_PER_CELL; attempt++) {
+						float x = random.nextFloat();
+						float y = random.nextFloat();
+						if (isFree(column, row, x, y)) {
+							offsetX[row * columns + column] = x;
+							offsetY[row * columns + column] = y;
+							count++;
+							break;
+						}
+					}
+				}
+			}
+			tileCounts[tile] = count;
+		}
+
+		/**
+		 * Returns whether no worm in the cells around the given cell is too
+		 * close to the given location in it.
+		 */
+		private boolean isFree(int column, int row, float x, float y) {
+			for (int otherRow = Math.max(0, row - 2); otherRow <= Math.min(
+					rows - 1, row + 2); otherRow++) {
+				for (int otherColumn = Math.max(0, column - 2); otherColumn <= Math
+						.min(columns - 1, column + 2); otherColumn++) {
+					if (Math.abs(otherRow - row) == 2
+							&& Math.abs(otherColumn - column) == 2) {
+						// the corners of these cells are sqrt(2) apart
+						continue;
+					}
+					int cell = otherRow * columns + otherColumn;
+					float otherX = offsetX[cell];
+					if (otherX != otherX) {
+						// NaN: empty
+						continue;
+					}
+					double dx = (otherColumn + otherX) - (column + x);
+					double dy = (otherRow + offsetY[cell]) - (row + y);
+					// the cells are the minimal distance divided by sqrt(2)
+					if (dx * dx + dy * dy < 2) {
+						return false;
+					}
+				}
+			}
+			return true;
+		}
+
+		/**
+		 * Put the locations of as many worms as the given arrays hold in them,
+		 * in meter, chosen at random from those placed, in the order of the
+		 * tiles.
+		 */
+		public void select(double[] x, double[] y) {
+			SplitMix random = createRandom(SELECTION_STREAM, 0);
+			int wanted = x.length;
+			int remaining = getNbPlaced();
+			int selected = 0;
+			for (int tile = 0; tile < tileCounts.length && selected < wanted; tile++) {
+				int startX = (tile % tileColumns) * TILE_SIZE;
+				int startY = (tile / tileColumns) * TILE_SIZE;
+				int endX = Math.min(columns, startX + TILE_SIZE);
+				int endY = Math.min(rows, startY + TILE_SIZE);
+				for (int row = startY; row < endY; row++) {
+					for (int column = startX; column < endX; column++) {
+						int cell = row * columns + column;
+						if (offsetX[cell] != offsetX[cell]) {
+							continue;
+						}
+						// each of the remaining worms is as likely to be chosen
+						if (random.nextDouble() * remaining < wanted - selected) {
+							x[selected] = (column + offsetX[cell]) * cellSize
+									- getWidth() / 2;
+							y[selected] = (row + offsetY[cell]) * cellSize
+									- getHeight() / 2;
+							selected++;
+						}
+						remaining--;
+					}
+				}
+			}
+		}
+	}
+
+	@SuppressWarnings("serial")
+	private static class FillTiles extends RecursiveAction {
+		private final Placement placement;
+		private final int[] tiles;
+		private final int from;
+		private final int to;
+
+		public FillTiles(Placement placement, int[] tiles, int from, int to) {
+			this.placement = placement;
+			this.tiles = tiles;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= 2) {
+				for (int i = from; i < to; i++) {
+					placement.fillTile(tiles[i]);
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new FillTiles(placement, tiles, from, middle),
+						new FillTiles(placement, tiles, middle, to));
+			}
+		}
+	}
+
+	/**
+	 * Draws the direction, radius and name of the worms in a range of groups.
+	 */
+	@SuppressWarnings("serial")
+	private class DrawGroups extends RecursiveAction {
+		private final double[] direction;
+		private final double[] radius;
+		private final int[] nameIndices;
+		private final int nbNames;
+		private final int from;
+		private final int to;
+
+		public DrawGroups(double[] direction, double[] radius,
+				int[] nameIndices, int nbNames, int from, int to) {
+			this.direction = direction;
+			this.radius = radius;
+			this.nameIndices = nameIndices;
+			this.nbNames = nbNames;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from <= 4) {
+				for (int group = from; group < to; group++) {
+					drawGroup(group);
+				}
+			} else {
+				int middle = (from + to) >>> 1;
+				invokeAll(new DrawGroups(direction, radius, nameIndices,
+						nbNames, from, middle), new DrawGroups(direction,
+						radius, nameIndices, nbNames, middle, to));
+			}
+		}
+
+		private void drawGroup(int group) {
+			SplitMix random = createRandom(GROUP_STREAM, group);
+			int end = Math.min(direction.length, (group + 1) * GROUP_SIZE);
+			for (int i = group * GROUP_SIZE; i < end; i++) {
+				direction[i] = random.nextDouble() * 2 * Math.PI;
+				radius[i] = minRadius + random.nextDouble()
+						* (maxRadius - minRadius);
+				nameIndices[i] = random.nextInt(nbNames);
+			}
+		}
+	}
+
+	/**
+	 * Returns the stream of random numbers of the given kind with the given
+	 * index.
+	 */
+	private SplitMix createRandom(long kind, long index) {
+		long streamSeed = SplitMix.mix(seed + kind * SplitMix.GAMMA);
+		return new SplitMix(SplitMix.mix(streamSeed + index * SplitMix.GAMMA));
+	}
+
+	/**
+	 * A SplitMix64 generator of random numbers: cheap to create, and streams
+	 * with different seeds are independent.
+	 */
+	private static final class SplitMix {
+		private static final long GAMMA = 0x9e3779b97f4a7c15L;
+
+		private long state;
+
+		public SplitMix(long seed) {
+			this.state = seed;
+		}
+
+		public long nextLong() {
+			state += GAMMA;
+			return mix(state);
+		}
+
+		/**
+		 * Returns a number between 0 (inclusive) and 1 (exclusive).
+		 */
+		public double nextDouble() {
+			return (nextLong() >>> 11) * 0x1.0p-53;
+		}
+
+		/**
+		 * Returns a number between 0 (inclusive) and 1 (exclusive).
+		 */
+		public float nextFloat() {
+			return (nextLong() >>> 40) * 0x1.0p-24f;
+		}
+
+		/**
+		 * Returns a number between 0 (inclusive) and the given bound
+		 * (exclusive).
+		 */
+		public int nextInt(int bound) {
+			return (int) ((nextLong() >>> 33) * bound >>> 31);
+		}
+
+		public static long mix(long z) {
+			z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+			z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+			return z ^ (z >>> 31);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package worms.gui.game;
+
+import worms.model.Worm;
+
+/**
+ * Receives the visible effects of commands while they execute.
+ * 
+ * Locations are given in world coordinates (worm-meters), so commands do not
+ * depend on how (or whether) the game is drawn.
+ */
+public interface GameView {
+
+	/**
+	 * The given worm is currently shown at the given location, which may lie
+	 * in between its old and new location while a command is animated.
+	 */
+	void showWormLocation(Worm worm, double x, double y);
+
+	/**
+	 * The given worm now faces the given direction (in radians).
+	 */
+	void showWormDirection(Worm worm, double direction);
+
+	/**
+	 * The given worm now has the given radius (in worm-meters).
+	 */
+	void showWormRadius(Worm worm, double radius);
+
+	/**
+	 * Show the given message to the player.
+	 */
+	void addMessage(String message);
+}
@@ -0,0 +1,90 @@
+package worms.gui.game;
+
+import worms.gui.GUIOptions;
+
+/**
+ * Chooses how much of each worm to paint, from the radius at which it is
+ * drawn and the number of worms on the screen: small or numerous worms are
+ * painted as dots, somewhat larger or fewer ones as their image only, and the
+ * others with their name and action bar as well.
+ */
+public class LevelOfDetail {
+
+	public enum Detail {
+		/**
+		 * A dot of the worm's size, painted together with the other dots
+		 */
+		DOT,
+		/**
+		 * The worm's image, without name or action bar
+		 */
+		SPRITE,
+		/**
+		 * The worm's image, name and action bar
+		 */
+		FULL
+	}
+
+	private final double dotRadius;
+	private final double labelRadius;
+	private final int maxLabeledWorms;
+	private final int maxSpriteWorms;
+
+	/**
+	 * @param dotRadius
+	 *            worms drawn with a smaller radius (in pixels) are dots
+	 * @param labelRadius
+	 *            worms drawn with a smaller radius (in pixels) have no name or
+	 *            action bar
+	 * @param maxLabeledWorms
+	 *            with more worms on the screen, none has a name or action bar
+	 * @param maxSpriteWorms
+	 *            with more worms on the screen, all are dots
+	 */
+	public LevelOfDetail(double dotRadius, double labelRadius,
+			int maxLabeledWorms, int maxSpriteWorms) {
+		this.dotRadius = dotRadius;
+		this.labelRadius = labelRadius;
+		this.maxLabeledWorms = maxLabeledWorms;
+		this.maxSpriteWorms = maxSpriteWorms;
+	}
+
+	/**
+	 * The levels of detail set in the given options
+	 */
+	public LevelOfDetail(GUIOptions options) {
+		this(options.dotRadius, options.labelRadius, options.maxLabeledWorms,
+				options.maxSpriteWorms);
+	}
+
+	/**
+	 * Returns the most detail in which any worm is painted when the given
+	 * number of worms is on the screen.
+	 */
+	public Detail getMaxDetail(int nbVisibleWorms) {
+		if (nbVisibleWorms > maxSpriteWorms) {
+			return Detail.DOT;
+		}
+		if (nbVisibleWorms > maxLabeledWorms) {
+			return Detail.SPRITE;
+		}
+		return Detail.FULL;
+	}
+
+	/**
+	 * Returns the detail in which to paint a worm drawn with the given radius
+	 * (in pixels), when the given number of worms is on the screen.
+	 */
+	public Detail getDetail(double radius, int nbVisibleWorms) {
+		Detail max = getMaxDetail(nbVisibleWorms);
+		Detail result;
+		if (radius < dotRadius) {
+			result = Detail.DOT;
+		} else if (radius < labelRadius) {
+			result = Detail.SPRITE;
+		} else {
+			result = Detail.FULL;
+		}
+		return result.compareTo(max) < 0 ? result : max;
+	}
+}
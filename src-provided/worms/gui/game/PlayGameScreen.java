@@ -1,22 +1,36 @@
 package worms.gui.game;
 
 import java.awt.Graphics2D;
-import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
 import java.awt.event.MouseEvent;
-import java.util.HashSet;
+import java.awt.event.MouseWheelEvent;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 
+import worms.gui.Camera;
+import worms.gui.FrameProfiler;
 import worms.gui.GUIConstants;
 import worms.gui.GUIUtils;
 import worms.gui.GameState;
+import worms.gui.JitterStats;
 import worms.gui.Screen;
+import worms.gui.Simulation;
+import worms.gui.SimulationThread;
 import worms.gui.WormsGUI;
 import worms.gui.game.commands.Jump;
 import worms.gui.game.commands.Move;
@@ -24,35 +38,60 @@ import worms.gui.game.commands.Rename;
 import worms.gui.game.commands.Resize;
 import worms.gui.game.commands.Turn;
 import worms.gui.game.sprites.Sprite;
+import worms.gui.game.sprites.SpriteRegistry;
 import worms.gui.game.sprites.WormSprite;
 import worms.model.IFacade;
 import worms.model.Worm;
 
-public class PlayGameScreen extends Screen {
+public class PlayGameScreen extends Screen implements GameView {
 
 	private class DefaultInputMode extends InputMode {
 
+		// where the camera is being dragged from, or null if it is not
+		private int[] dragOrigin;
+
 		@Override
 		public void mouseClicked(MouseEvent e) {
-			Point point = e.getPoint();
-			for (WormSprite sprite : getSpritesOfType(WormSprite.class)) {
-				Worm worm = sprite.getWorm();
-				double[] xy = sprite.getCenterLocation();
-				double radius = GUIUtils.meterToPixels(getFacade().getRadius(
-						worm));
-				if (GUIUtils.distance(xy[0], xy[1], point.getX(), point.getY()) <= radius) {
-					getGameState().selectWorm(worm);
-					return;
-				}
+			Worm worm;
+			synchronized (getModelLock()) {
+				worm = getFacade().getWormAt(getLogicalX(e.getX()),
+						getLogicalY(e.getY()));
+			}
+			if (worm != null) {
+				getGameState().selectWorm(worm);
+			}
+		}
+
+		@Override
+		public void mousePressed(MouseEvent e) {
+			if (SwingUtilities.isRightMouseButton(e)) {
+				dragOrigin = new int[] { e.getX(), e.getY() };
 			}
 		}
 
+		@Override
+		public void mouseReleased(MouseEvent e) {
+			dragOrigin = null;
+		}
+
 		@Override
 		public void mouseDragged(MouseEvent e) {
+			if (dragOrigin != null) {
+				pan(e.getX() - dragOrigin[0], e.getY() - dragOrigin[1]);
+				dragOrigin[0] = e.getX();
+				dragOrigin[1] = e.getY();
+				return;
+			}
 			switchInputMode(new TurningMode());
 			getCurrentInputMode().mouseDragged(e);
 		}
 
+		@Override
+		public void mouseWheelMoved(MouseWheelEvent e) {
+			zoom(Math.pow(GUIConstants.ZOOM_FACTOR, -e.getWheelRotation()),
+					e.getX(), e.getY());
+		}
+
 		@Override
 		public void keyPressed(KeyEvent e) {
 			switch (e.getKeyCode()) {
@@ -64,6 +103,26 @@ public class PlayGameScreen extends Screen {
 			case KeyEvent.VK_UP:
 				move(GUIConstants.DEFAULT_NB_STEPS);
 				break;
+			case KeyEvent.VK_W:
+				pan(0, GUIConstants.PAN_STEP);
+				break;
+			case KeyEvent.VK_S:
+				pan(0, -GUIConstants.PAN_STEP);
+				break;
+			case KeyEvent.VK_A:
+				pan(GUIConstants.PAN_STEP, 0);
+				break;
+			case KeyEvent.VK_D:
+				pan(-GUIConstants.PAN_STEP, 0);
+				break;
+			case KeyEvent.VK_PAGE_UP:
+				zoom(GUIConstants.ZOOM_FACTOR, getScreenWidth() / 2.0,
+						getScreenHeight() / 2.0);
+				break;
+			case KeyEvent.VK_PAGE_DOWN:
+				zoom(1 / GUIConstants.ZOOM_FACTOR, getScreenWidth() / 2.0,
+						getScreenHeight() / 2.0);
+				break;
 			}
 		}
 
@@ -82,6 +141,12 @@ public class PlayGameScreen extends Screen {
 			case KeyEvent.VK_N:
 				switchInputMode(new EnteringNameMode());
 				break;
+			case KeyEvent.VK_F:
+				setFollowingSelection(!isFollowingSelection());
+				break;
+			case KeyEvent.VK_HOME:
+				resetCamera();
+				break;
 			case KeyEvent.VK_PLUS:
 			case KeyEvent.VK_ADD:
 				resizeWorm(true);
@@ -156,8 +221,8 @@ public class PlayGameScreen extends Screen {
 		public void mouseDragged(MouseEvent e) {
 			double[] wormXY = getWormSprite(getSelectedWorm())
 					.getCenterLocation();
-			double currentOrientation = getFacade().getOrientation(
-					getSelectedWorm());
+			double currentOrientation = getWormState(getSelectedWorm())
+					.getOrientation();
 			this.angle = Math.PI
 					- currentOrientation
 					+ Math.atan2((e.getY() - wormXY[1]), (wormXY[0] - e.getX()));
@@ -228,9 +293,65 @@ public class PlayGameScreen extends Screen {
 	}
 
 	private final PlayGameScreenPainter painter;
-	private final GameState gameState;
+	private final Simulation simulation;
+	private final SnapshotRecorder recorder;
+
+	private final SpriteRegistry sprites = new SpriteRegistry();
+
+	// null unless the phases of the game are profiled
+	private final FrameProfiler profiler;
+
+	private final JitterStats frameJitter = new JitterStats(
+			1000000000L / GUIConstants.FRAMERATE);
+	// only when the simulation runs on its own thread
+	private SimulationThread simulationThread;
+
+	/**
+	 * The last two snapshots published by the simulation; always replaced as a
+	 * whole.
+	 */
+	private static final class PublishedSnapshots {
+		private final WorldSnapshot previous;
+		private final WorldSnapshot current;
+
+		public PublishedSnapshots(WorldSnapshot previous, WorldSnapshot current) {
+			this.previous = previous;
+			this.current = current;
+		}
+	}
 
-	private final Set<Sprite> sprites = new HashSet<Sprite>();
+	private volatile PublishedSnapshots published;
+
+	// the snapshot that is being painted; only used on the event dispatch thread
+	private WorldSnapshot rendered;
+
+	/*
+	 * What the frames painted so far show, to find the region that changes in
+	 * the next frame; only used on the event dispatch thread.
+	 */
+	private final Map<Worm, WorldSnapshot.WormState> paintedStates = new IdentityHashMap<Worm, WorldSnapshot.WormState>();
+	private final Map<Worm, Rectangle> paintedBounds = new IdentityHashMap<Worm, Rectangle>();
+	private Worm paintedSelection;
+	private String paintedMessage;
+	private InputMode paintedInputMode;
+	private int paintedWidth = -1;
+	private int paintedHeight = -1;
+	private long paintedCameraVersion = -1;
+	private LevelOfDetail.Detail paintedMaxDetail;
+
+	/*
+	 * The sprites of the worms that the next frame shows, in the order in which
+	 * they are painted; only used on the event dispatch thread.
+	 */
+	private final List<WormSprite> visibleSprites = new ArrayList<WormSprite>();
+	private final Set<Worm> visibleWorms = Collections
+			.newSetFromMap(new IdentityHashMap<Worm, Boolean>());
+
+	// whether the camera keeps the selected worm at the center of the screen
+	private boolean followingSelection;
+
+	// the message shown in the frame that is being painted
+	private String message;
 
 	private static class MessageDisplay {
 		private LinkedList<String> messages = new LinkedList<String>();
@@ -239,7 +360,7 @@ public class PlayGameScreen extends Screen {
 		public MessageDisplay() {
 		}
 
-		public void addMessage(String message) {
+		public synchronized void addMessage(String message) {
 			if (messages.isEmpty() || !messages.getLast().equals(message))
 				this.messages.add(message);
 		}
@@ -264,7 +385,7 @@ public class PlayGameScreen extends Screen {
 			}
 		}
 
-		public String getMessage() {
+		public synchronized String getMessage() {
 			if (isDisplayingMessage()) {
 				if (currentDisplayTime() >= GUIConstants.MESSAGE_DISPLAY_TIME) {
 					messages.remove();
@@ -279,25 +400,63 @@ public class PlayGameScreen extends Screen {
 
 	private MessageDisplay messageDisplay = new MessageDisplay();
 
-	public PlayGameScreen(WormsGUI gui, GameState state) {
+	public PlayGameScreen(WormsGUI gui, Simulation simulation) {
 		super(gui);
-		this.gameState = state;
+		this.simulation = simulation;
+		this.recorder = new SnapshotRecorder(simulation.getGameState(), this);
 		this.painter = createPainter();
+		this.profiler = createProfiler();
+		if (profiler != null) {
+			simulation.getGameState().setProfiler(profiler);
+		}
+	}
+
+	/**
+	 * Returns the profiler that measures the phases of each frame, or null if
+	 * they are not measured.
+	 */
+	protected FrameProfiler createProfiler() {
+		return null;
+	}
+
+	/**
+	 * The profiler that measures the phases of each frame, or null if they are
+	 * not measured
+	 */
+	public FrameProfiler getProfiler() {
+		return profiler;
 	}
 
 	protected InputMode createDefaultInputMode() {
 		return new DefaultInputMode();
 	}
 
+	@Override
+	protected boolean isActivelyRendered() {
+		return getGUI().getOptions().activeRendering;
+	}
+
 	@Override
 	protected void screenStarted() {
 		createSprites();
+		recorder.setVisibleWorld(getCapturedWorld());
+		publish(recorder.capture(simulation));
 		runGameLoop();
 	}
 
 	private void runGameLoop() {
 		final AtomicLong lastUpdateTimestamp = new AtomicLong();
+		final boolean threaded = getGUI().getOptions().threadedSimulation;
 
+		if (threaded) {
+			simulationThread = new SimulationThread(simulation,
+					new SimulationThread.StepListener() {
+						@Override
+						public void stepped(Simulation simulation) {
+							publish(recorder.capture(simulation));
+						}
+					});
+		}
 		final Timer timer = new Timer(1000 / GUIConstants.FRAMERATE,
 				new ActionListener() {
 					@Override
@@ -305,27 +464,323 @@ public class PlayGameScreen extends Screen {
 						long now = System.currentTimeMillis();
 						long delta = now - lastUpdateTimestamp.getAndSet(now);
 						double dt = delta / 1000.0 * GUIConstants.TIME_SCALE;
-						gameState.evolve(dt);
-						repaint();
+						Rectangle changed = advanceFrame(dt);
+						if (changed != null) {
+							repaint(changed);
+						}
 					}
 				});
 		Thread.setDefaultUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
 			@Override
-			public void uncaughtException(Thread t, Throwable e) {
+			public void uncaughtException(Thread t, final Throwable e) {
 				timer.stop();
+				if (simulationThread != null) {
+					simulationThread.stop();
+				}
 				e.printStackTrace();
-				getGUI().showError(
-						e.getClass().getName() + ": " + e.getMessage());
+				SwingUtilities.invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						getGUI().showError(
+								e.getClass().getName() + ": " + e.getMessage());
+					}
+				});
 			}
 		});
 		lastUpdateTimestamp.set(System.currentTimeMillis());
 		timer.start();
+		if (simulationThread != null) {
+			simulationThread.start();
+		}
 	}
 
+	/**
+	 * Prepare the next frame: advance the game by the given time (in
+	 * worm-seconds) unless it runs on its own thread, and determine what the
+	 * frame shows.
+	 * 
+	 * @return the region of the screen in which the next frame differs from
+	 *         the last one, or null if nothing changes
+	 */
+	Rectangle advanceFrame(double dt) {
+		frameJitter.recordEvent(System.nanoTime());
+		recorder.setVisibleWorld(getCapturedWorld());
+		if (simulationThread == null) {
+			simulation.advance(dt);
+			publish(recorder.capture(simulation));
+		}
+		updateRenderedSnapshot();
+		message = messageDisplay.getMessage();
+		return collectChangedRegion();
+	}
+
+	/**
+	 * The part of the world (in worm-meter) whose worms the snapshots hold: the
+	 * part on the screen, widened by a quarter of the screen on every side, so
+	 * that worms whose names or bars reach onto the screen and worms that come
+	 * into sight while the camera moves before the next snapshot are in it
+	 */
+	private Rectangle2D getCapturedWorld() {
+		Rectangle2D visible = getCamera().getVisibleWorld();
+		double dx = visible.getWidth() / 4;
+		double dy = visible.getHeight() / 4;
+		return new Rectangle2D.Double(visible.getX() - dx,
+				visible.getY() - dy, visible.getWidth() + 2 * dx,
+				visible.getHeight() + 2 * dy);
+	}
+
+	/**
+	 * Returns the union of the regions that the worms, selection and message
+	 * that changed covered in the last frame and cover in the next, or the
+	 * whole screen if the changes cannot be confined, or null if nothing
+	 * changes.
+	 */
+	private Rectangle collectChangedRegion() {
+		Rectangle screen = new Rectangle(0, 0, getScreenWidth(),
+				getScreenHeight());
+		// overlays of the other input modes cover the whole screen
+		boolean everything = !painter.supportsChangedRegions()
+				|| !(getCurrentInputMode() instanceof DefaultInputMode)
+				|| getCurrentInputMode() != paintedInputMode;
+		long cameraVersion = getCamera().getVersion();
+		// the detail of all worms may change with the number on the screen
+		LevelOfDetail.Detail maxDetail = painter.getMaxDetail();
+		if (screen.width != paintedWidth || screen.height != paintedHeight
+				|| cameraVersion != paintedCameraVersion
+				|| maxDetail != paintedMaxDetail) {
+			// all worms are shown elsewhere
+			paintedStates.clear();
+			paintedBounds.clear();
+			everything = true;
+		}
+		paintedInputMode = getCurrentInputMode();
+		paintedWidth = screen.width;
+		paintedHeight = screen.height;
+		paintedCameraVersion = cameraVersion;
+		paintedMaxDetail = maxDetail;
+
+		Rectangle changed = null;
+		Worm selected = getSelectedWorm();
+		for (WormSprite sprite : visibleSprites) {
+			Worm worm = sprite.getWorm();
+			WorldSnapshot.WormState state = rendered.getState(worm);
+			WorldSnapshot.WormState old = paintedStates.get(worm);
+			boolean selectionChanged = (worm == selected) != (worm == paintedSelection);
+			if (old != null && old.looksLike(state) && !selectionChanged) {
+				continue;
+			}
+			Rectangle bounds = painter.getPaintBounds(sprite, worm == selected);
+			changed = union(changed, paintedBounds.get(worm));
+			changed = union(changed, bounds);
+			paintedStates.put(worm, state);
+			paintedBounds.put(worm, bounds);
+		}
+		// worms that left the screen are no longer painted
+		Iterator<Map.Entry<Worm, Rectangle>> painted = paintedBounds
+				.entrySet().iterator();
+		while (painted.hasNext()) {
+			Map.Entry<Worm, Rectangle> entry = painted.next();
+			if (!visibleWorms.contains(entry.getKey())) {
+				changed = union(changed, entry.getValue());
+				paintedStates.remove(entry.getKey());
+				painted.remove();
+			}
+		}
+		paintedSelection = selected;
+		if (message == null ? paintedMessage != null : !message
+				.equals(paintedMessage)) {
+			changed = union(changed, new Rectangle(0, 0, screen.width,
+					PlayGameScreenPainter.MESSAGE_BAR_HEIGHT));
+		}
+		paintedMessage = message;
+
+		if (everything) {
+			return screen;
+		}
+		if (changed == null) {
+			return null;
+		}
+		changed = changed.intersection(screen);
+		return changed.isEmpty() ? null : changed;
+	}
+
+	private static Rectangle union(Rectangle region, Rectangle other) {
+		if (other == null) {
+			return region;
+		}
+		return region == null ? new Rectangle(other) : region.union(other);
+	}
+
+	/**
+	 * Returns the region of the screen that the given worm covered when it was
+	 * last painted, or null if that is not known.
+	 */
+	Rectangle getPaintedBounds(Worm worm) {
+		return paintedBounds.get(worm);
+	}
+
+	/**
+	 * Publish a new snapshot of the game, to be painted from the next frame
+	 * on. Called by the thread that runs the simulation.
+	 */
+	private void publish(WorldSnapshot snapshot) {
+		PublishedSnapshots old = published;
+		published = new PublishedSnapshots(old == null ? snapshot
+				: old.current, snapshot);
+	}
+
+	/**
+	 * Determine what to paint in this frame, and move the sprites of the worms
+	 * that are visible there. When the simulation runs on its own thread, the
+	 * frame shows the game between the last two snapshots, so that worms move
+	 * smoothly however the frames and the steps of the simulation interleave.
+	 * Only worms that the painter would paint on the screen are visible. The
+	 * snapshots only hold the worms around the screen and sprites are created
+	 * when their worms first come into sight, so that the cost of a frame does
+	 * not grow with the size of the world.
+	 */
+	private void updateRenderedSnapshot() {
+		PublishedSnapshots snapshots = published;
+		if (snapshots == null) {
+			return;
+		}
+		if (simulationThread != null) {
+			double alpha = (System.nanoTime() - snapshots.current
+					.getTimestamp()) / (double) simulationThread.getPeriod();
+			rendered = snapshots.current.interpolateFrom(snapshots.previous,
+					Math.max(0, Math.min(1, alpha)));
+		} else {
+			rendered = snapshots.current;
+		}
+		Camera camera = getCamera();
+		Worm selected = getSelectedWorm();
+		if (followingSelection && selected != null) {
+			WorldSnapshot.WormState state = rendered.getState(selected);
+			if (state != null) {
+				camera.setCenter(state.getShownX(), state.getShownY());
+			}
+		}
+		visibleSprites.clear();
+		visibleWorms.clear();
+		for (WorldSnapshot.WormState state : rendered.getWorms()) {
+			if (!painter.isVisible(state, state.getWorm() == selected)) {
+				continue;
+			}
+			WormSprite sprite = getWormSprite(state.getWorm());
+			if (sprite == null) {
+				sprite = createWormSprite(state.getWorm());
+				sprites.add(sprite);
+			}
+			sprite.setCenterLocation(camera.getScreenX(state.getShownX()),
+					camera.getScreenY(state.getShownY()));
+			sprite.setDirection(state.getShownDirection());
+			sprite.setRadius(state.getShownRadius(), camera.getScale());
+			visibleSprites.add(sprite);
+			visibleWorms.add(state.getWorm());
+		}
+	}
+
+	/**
+	 * The sprites of the worms that the frame that is being painted shows
+	 */
+	public List<WormSprite> getVisibleWormSprites() {
+		return Collections.unmodifiableList(visibleSprites);
+	}
+
+	/**
+	 * Move the world the given number of pixels over the screen. The camera
+	 * no longer follows the selected worm.
+	 */
+	public void pan(double dx, double dy) {
+		followingSelection = false;
+		getCamera().pan(dx, dy);
+	}
+
+	/**
+	 * Zoom in (for a factor larger than 1) or out, keeping the point of the
+	 * world at the given location on the screen in place, or the selected worm
+	 * if the camera follows it.
+	 */
+	public void zoom(double factor, double screenX, double screenY) {
+		Camera camera = getCamera();
+		if (followingSelection) {
+			camera.setScale(camera.getScale() * factor);
+		} else {
+			camera.zoom(factor, screenX, screenY);
+		}
+	}
+
+	/**
+	 * Look at the origin of the world at the default scale again.
+	 */
+	public void resetCamera() {
+		followingSelection = false;
+		Camera camera = getCamera();
+		camera.setCenter(0, 0);
+		camera.setScale(GUIConstants.WORLD_SCALE);
+	}
+
+	public boolean isFollowingSelection() {
+		return followingSelection;
+	}
+
+	/**
+	 * Keep the selected worm at the center of the screen from the next frame
+	 * on, or stop doing so.
+	 */
+	public void setFollowingSelection(boolean value) {
+		followingSelection = value;
+	}
+
+	/**
+	 * Returns the state of the given worm in the frame that is being painted,
+	 * or null if there is none.
+	 */
+	public WorldSnapshot.WormState getWormState(Worm worm) {
+		return rendered == null ? null : rendered.getState(worm);
+	}
+
+	/**
+	 * The lock to hold while using the facade from the event dispatch thread
+	 */
+	public Object getModelLock() {
+		return simulation.getLock();
+	}
+
+	/**
+	 * Deviations of the time between two frames from the frame period
+	 */
+	public JitterStats getFrameJitter() {
+		return frameJitter;
+	}
+
+	/**
+	 * Deviations of the time between two simulation steps from their period,
+	 * or null if the simulation does not run on its own thread
+	 */
+	public JitterStats getTickJitter() {
+		return simulationThread == null ? null : simulationThread
+				.getTickJitter();
+	}
+
+	/**
+	 * Create the sprites of the worms around the screen and of the selected
+	 * worm. The sprites of the other worms are created when they come into
+	 * sight.
+	 */
 	public void createSprites() {
-		for (Worm worm : getGameState().getWorms()) {
-			WormSprite sprite = createWormSprite(worm);
-			sprites.add(sprite);
+		Rectangle2D world = getCapturedWorld();
+		List<Worm> worms = new ArrayList<Worm>();
+		getFacade().collectWormsNear(world.getCenterX(), world.getCenterY(),
+				Math.hypot(world.getWidth(), world.getHeight()) / 2, worms);
+		Worm selected = getSelectedWorm();
+		if (selected != null) {
+			worms.add(selected);
+		}
+		for (Worm worm : worms) {
+			if (getWormSprite(worm) == null) {
+				sprites.add(createWormSprite(worm));
+			}
 		}
 	}
 
@@ -335,12 +790,16 @@ public class PlayGameScreen extends Screen {
 		WormSprite sprite = new WormSprite(worm);
 		sprite.setCenterLocation(x, y);
 		sprite.setDirection(getFacade().getOrientation(worm));
-		sprite.setRadius(getFacade().getRadius(worm));
+		sprite.setRadius(getFacade().getRadius(worm), getCamera().getScale());
 		return sprite;
 	}
 
 	public GameState getGameState() {
-		return gameState;
+		return simulation.getGameState();
+	}
+
+	public Simulation getSimulation() {
+		return simulation;
 	}
 
 	protected IFacade getFacade() {
@@ -351,23 +810,32 @@ public class PlayGameScreen extends Screen {
 		return new PlayGameScreenPainter(this);
 	}
 
-	public <T extends Sprite> Set<T> getSpritesOfType(Class<T> type) {
-		Set<T> result = new HashSet<T>();
-		for (Sprite sprite : sprites) {
-			if (type.isInstance(sprite)) {
-				result.add(type.cast(sprite));
-			}
-		}
-		return result;
+	public <T extends Sprite> Collection<T> getSpritesOfType(Class<T> type) {
+		return sprites.getSpritesOfType(type);
 	}
 
 	public WormSprite getWormSprite(Worm worm) {
-		for (WormSprite sprite : getSpritesOfType(WormSprite.class)) {
-			if (worm != null && worm.equals(sprite.getWorm())) {
-				return sprite;
-			}
-		}
-		return null;
+		return sprites.getWormSprite(worm);
+	}
+
+	/*
+	 * Commands run on the simulation thread; what they show is recorded and
+	 * reaches the sprites through the published snapshots.
+	 */
+
+	@Override
+	public void showWormLocation(Worm worm, double x, double y) {
+		recorder.showWormLocation(worm, x, y);
+	}
+
+	@Override
+	public void showWormDirection(Worm worm, double direction) {
+		recorder.showWormDirection(worm, direction);
+	}
+
+	@Override
+	public void showWormRadius(Worm worm, double radius) {
+		recorder.showWormRadius(worm, radius);
 	}
 
 	public void move(int nbSteps) {
@@ -423,27 +891,39 @@ public class PlayGameScreen extends Screen {
 
 	@Override
 	protected void paintScreen(Graphics2D g) {
-		painter.paint(g);
-		String message = messageDisplay.getMessage();
+		if (profiler == null) {
+			painter.paint(g);
+		} else {
+			long start = profiler.start();
+			painter.paint(g);
+			profiler.record(FrameProfiler.Phase.PAINT, start);
+			profiler.frameFinished();
+		}
 		if (message != null) {
 			painter.paintMessage(g, message);
 		}
 	}
 
+	@Override
 	public void addMessage(String message) {
 		messageDisplay.addMessage(message);
 	}
 
-	public static PlayGameScreen create(WormsGUI gui, GameState gameState,
+	public static PlayGameScreen create(WormsGUI gui, Simulation simulation,
 			boolean debugMode) {
 		if (!debugMode) {
-			return new PlayGameScreen(gui, gameState);
+			return new PlayGameScreen(gui, simulation);
 		} else {
-			return new PlayGameScreen(gui, gameState) {
+			return new PlayGameScreen(gui, simulation) {
 				@Override
 				protected PlayGameScreenPainter createPainter() {
 					return new PlayGameScreenDebugPainter(this);
 				}
+
+				@Override
+				protected FrameProfiler createProfiler() {
+					return new FrameProfiler();
+				}
 			};
 		}
 	}
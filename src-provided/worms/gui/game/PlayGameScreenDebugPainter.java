@@ -1,11 +1,16 @@
 package worms.gui.game;
 
 import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.Shape;
 
+import worms.gui.DurationStats;
+import worms.gui.FrameProfiler;
 import worms.gui.GUIUtils;
+import worms.gui.JitterStats;
+import worms.gui.ValueStats;
+import worms.gui.game.commands.CommandProcessor;
 import worms.gui.game.sprites.WormSprite;
-import worms.model.ModelException;
 
 public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 
@@ -15,13 +20,93 @@ public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 		super(screen);
 	}
 
+	/**
+	 * The timing statistics change every frame, and the jump markers of all
+	 * worms are drawn.
+	 */
+	@Override
+	public boolean supportsChangedRegions() {
+		return false;
+	}
+
+	@Override
+	public void paint(Graphics2D g) {
+		super.paint(g);
+		drawTimingStatistics(g);
+		drawProfile(g);
+	}
+
+	/**
+	 * Show, in the bottom right corner, how long each phase took per frame,
+	 * and how much was allocated and collected.
+	 */
+	protected void drawProfile(Graphics2D g) {
+		FrameProfiler profiler = getScreen().getProfiler();
+		if (profiler == null) {
+			return;
+		}
+		g.setColor(Color.YELLOW);
+		int x = getScreen().getScreenWidth() - 300;
+		int y = getScreen().getScreenHeight() - 10;
+		g.drawString(String.format("gc: %d this frame, %d (%d ms) in total",
+				profiler.getFrameGcCount(), profiler.getGcCount(),
+				profiler.getGcTimeMillis()), x, y);
+		y -= 15;
+		ValueStats allocations = profiler.getFrameAllocations();
+		if (allocations.getCount() > 0) {
+			g.drawString(String.format(
+					"allocated: p50 %.1f kB, p99 %.1f kB per frame",
+					allocations.getPercentile(50) / 1e3,
+					allocations.getPercentile(99) / 1e3), x, y);
+			y -= 15;
+		}
+		FrameProfiler.Phase[] phases = FrameProfiler.Phase.values();
+		for (int i = phases.length - 1; i >= 0; i--) {
+			DurationStats times = profiler.getPhaseTimes(phases[i]);
+			g.drawString(String.format("%s: p50 %.2f ms, p99 %.2f ms",
+					phases[i].getLabel(), times.getPercentileMillis(50),
+					times.getPercentileMillis(99)), x, y);
+			y -= 15;
+		}
+	}
+
+	/**
+	 * Show how regularly frames are painted, how long they take and, when the
+	 * simulation runs on its own thread, how regularly it takes its steps.
+	 * Also show how many commands were merged and dropped.
+	 */
+	protected void drawTimingStatistics(Graphics2D g) {
+		g.setColor(Color.YELLOW);
+		int y = getScreen().getScreenHeight() - 10;
+		CommandProcessor commands = getState().getCommandProcessor();
+		g.drawString(String.format(
+				"commands: %d enqueued, %d merged, %d dropped",
+				commands.getNbEnqueuedCommands(),
+				commands.getNbMergedCommands(),
+				commands.getNbDroppedCommands()), 10, y);
+		y -= 15;
+		JitterStats tickJitter = getScreen().getTickJitter();
+		if (tickJitter != null) {
+			g.drawString("steps: " + tickJitter, 10, y);
+			y -= 15;
+		}
+		g.drawString("frames: " + getScreen().getFrameJitter(), 10, y);
+		y -= 15;
+		g.drawString("frame time: " + getScreen().getFrameTimes()
+				+ "; latency: " + getScreen().getFrameLatencies(), 10, y);
+	}
+
 	@Override
 	protected void paintWorm(WormSprite sprite) {
 		super.paintWorm(sprite);
 
 		if (getState().getSelectedWorm() != sprite.getWorm()) {
 			drawOutline(sprite);
+			long start = profiler == null ? 0 : profiler.start();
 			drawJumpMarkers(sprite); // also draw for other worms
+			if (profiler != null) {
+				profiler.record(FrameProfiler.Phase.DRAW_JUMP_MARKERS, start);
+			}
 		}
 
 		drawDirectionLine(sprite);
@@ -32,27 +117,23 @@ public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 
 	@Override
 	protected void drawJumpMarkers(WormSprite sprite) {
-		try {
-			double time = getFacade().getJumpTime(sprite.getWorm());
-			double[] prevXY = getFacade().getJumpStep(sprite.getWorm(), 0);
-			int n = 1 + (int) (time / JUMP_MARKER_TIME_DISTANCE * 2);
-			for (int i = 1; i <= n; i++) {
-				double dt = i * time / n;
-				double[] xy = getFacade().getJumpStep(sprite.getWorm(), dt);
-				if (xy != null && prevXY != null) {
-					double jumpX = getScreenX(xy[0]);
-					double jumpY = getScreenY(xy[1]);
-					graphics.setColor(JUMP_MARKER_COLOR);
-					graphics.drawLine((int) getScreenX(prevXY[0]),
-							(int) getScreenY(prevXY[1]), (int) jumpX,
-							(int) jumpY);
-					prevXY = xy;
-					drawCrossMarker(jumpX, jumpY, JUMP_MARKER_SIZE,
-							JUMP_MARKER_COLOR);
-				}
-			}
-		} catch (ModelException e) {
+		double[] xy = getJumpTrajectory(sprite, JUMP_MARKER_TIME_DISTANCE / 2);
+		if (xy == null) {
 			// cannot jump; draw nothing
+			return;
+		}
+		// the trajectory starts at the worm's current location
+		double prevX = getScreenX(getWormState(sprite).getX());
+		double prevY = getScreenY(getWormState(sprite).getY());
+		for (int i = 0; i < xy.length / 2; i++) {
+			double jumpX = getScreenX(xy[2 * i]);
+			double jumpY = getScreenY(xy[2 * i + 1]);
+			graphics.setColor(JUMP_MARKER_COLOR);
+			graphics.drawLine((int) prevX, (int) prevY, (int) jumpX,
+					(int) jumpY);
+			prevX = jumpX;
+			prevY = jumpY;
+			drawCrossMarker(jumpX, jumpY, JUMP_MARKER_SIZE, JUMP_MARKER_COLOR);
 		}
 	}
 
@@ -61,30 +142,29 @@ public class PlayGameScreenDebugPainter extends PlayGameScreenPainter {
 	 * necessarily equal to the sprite's location)
 	 */
 	protected void drawLocationMarker(WormSprite worm) {
-		double x = getFacade().getX(worm.getWorm());
-		double y = getFacade().getY(worm.getWorm());
+		double x = getWormState(worm).getX();
+		double y = getWormState(worm).getY();
 
 		drawCrossMarker(getScreenX(x), getScreenY(y), LOCATION_MARKER_SIZE,
 				Color.YELLOW);
 	}
 
 	protected void drawOutline(WormSprite sprite) {
-		double r = getFacade().getRadius(sprite.getWorm());
+		double r = getWormState(sprite).getRadius();
 		double x = sprite.getCenterX();
 		double y = sprite.getCenterY();
 
 		graphics.setColor(Color.YELLOW);
-		Shape circle = GUIUtils.circleAt(x, y, GUIUtils.meterToPixels(r));
+		Shape circle = GUIUtils.circleAt(x, y, toPixels(r));
 		graphics.draw(circle);
 
 	}
 
 	protected void drawDirectionLine(WormSprite sprite) {
-		double r = GUIUtils.meterToPixels(getFacade().getRadius(
-				sprite.getWorm()));
+		double r = toPixels(getWormState(sprite).getRadius());
 		double x = sprite.getCenterX();
 		double y = sprite.getCenterY();
-		double direction = getFacade().getOrientation(sprite.getWorm());
+		double direction = getWormState(sprite).getOrientation();
 
 		graphics.setColor(Color.YELLOW);
 		graphics.drawLine((int) x, (int) y,
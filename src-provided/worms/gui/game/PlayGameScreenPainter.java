@@ -1,18 +1,30 @@
 package worms.gui.game;
 
 import java.awt.Color;
+import java.awt.Component;
 import java.awt.Font;
+import java.awt.FontMetrics;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.Shape;
 import java.awt.geom.Ellipse2D;
 import java.awt.geom.Rectangle2D;
 import java.awt.geom.RoundRectangle2D;
-
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import worms.gui.Camera;
+import worms.gui.FrameProfiler;
+import worms.gui.GUIConstants;
 import worms.gui.GUIUtils;
 import worms.gui.GameState;
+import worms.gui.game.WorldSnapshot.WormState;
 import worms.gui.game.sprites.WormSprite;
 import worms.model.IFacade;
 import worms.model.ModelException;
+import worms.model.Worm;
 
 public class PlayGameScreenPainter {
 
@@ -48,16 +60,32 @@ public class PlayGameScreenPainter {
 			0x60a7130e, true);
 	protected static final Color MESSAGE_TEXT_COLOR = Color.WHITE;
 	protected static final Color JUMP_MARKER_COLOR = Color.GRAY;
+	// the average color of the image of a worm
+	protected static final Color DOT_COLOR = new Color(0xaa7155);
 
 	protected static final int JUMP_MARKER_SIZE = 1;
 	protected static final double JUMP_MARKER_TIME_DISTANCE = 0.1; // worm-seconds
 	protected static final double DIRECTION_INDICATOR_SIZE = 10;
 
+	// height of the bar at the top of the screen that shows a message
+	protected static final int MESSAGE_BAR_HEIGHT = 120;
+
+	// extra pixels around the paint bounds, for antialiasing and rounding
+	private static final int PAINT_BOUNDS_MARGIN = 2;
+
 	protected Graphics2D graphics;
+	// null unless the phases of the frame are profiled
+	protected FrameProfiler profiler;
 	private final PlayGameScreen screen;
 
+	// all worms are drawn with the image of this sprite, at their own scale
+	private final WormSprite wormImage = new WormSprite(null);
+
+	private final LevelOfDetail levelOfDetail;
+
 	public PlayGameScreenPainter(PlayGameScreen screen) {
 		this.screen = screen;
+		this.levelOfDetail = new LevelOfDetail(screen.getGUI().getOptions());
 	}
 
 	public PlayGameScreen getScreen() {
@@ -72,19 +100,243 @@ public class PlayGameScreenPainter {
 		return getState().getFacade();
 	}
 
+	/**
+	 * Returns the state of the sprite's worm in the frame that is being
+	 * painted. Painting reads the model through these states; the facade is
+	 * only used while holding the lock of the model.
+	 */
+	protected WormState getWormState(WormSprite sprite) {
+		return getScreen().getWormState(sprite.getWorm());
+	}
+
+	protected Object getModelLock() {
+		return getScreen().getModelLock();
+	}
+
+	/**
+	 * Returns whether this painter only paints within the bounds returned by
+	 * {@link #getPaintBounds(WormSprite, boolean)}, so that only the regions
+	 * of the screen that change need to be repainted.
+	 */
+	public boolean supportsChangedRegions() {
+		return true;
+	}
+
 	public void paint(Graphics2D g) {
 		this.graphics = g;
-
-		for (WormSprite sprite : getScreen().getSpritesOfType(WormSprite.class)) {
-			if (sprite.getWorm() == getState().getSelectedWorm()) {
+		this.profiler = getScreen().getProfiler();
+		this.nameMetrics = g.getFontMetrics();
+
+		// worms outside the region that is repainted are skipped
+		Rectangle clip = supportsChangedRegions() ? g.getClipBounds() : null;
+		boolean dotColorSet = false;
+		for (WormSprite sprite : getScreen().getVisibleWormSprites()) {
+			if (clip != null) {
+				Rectangle bounds = getScreen().getPaintedBounds(
+						sprite.getWorm());
+				if (bounds != null && !bounds.intersects(clip)) {
+					continue;
+				}
+			}
+			boolean selected = sprite.getWorm() == getState()
+					.getSelectedWorm();
+			if (selected) {
 				drawSelection(sprite);
 			}
-			paintWorm(sprite);
+			switch (getDetail(sprite, selected)) {
+			case DOT:
+				if (!dotColorSet) {
+					graphics.setColor(DOT_COLOR);
+					dotColorSet = true;
+				}
+				drawDot(sprite);
+				break;
+			case SPRITE:
+				sprite.draw(graphics);
+				break;
+			default:
+				paintWorm(sprite);
+				dotColorSet = false;
+			}
 		}
 
 		this.graphics = null;
 	}
 
+	/**
+	 * Returns the most detail in which any worm is painted in the frame that
+	 * is being painted, given the number of worms on the screen.
+	 */
+	public LevelOfDetail.Detail getMaxDetail() {
+		return levelOfDetail.getMaxDetail(getScreen().getVisibleWormSprites()
+				.size());
+	}
+
+	/**
+	 * Returns the detail in which the given sprite is painted in the frame
+	 * that is being painted. The selected worm is always painted in full.
+	 */
+	protected LevelOfDetail.Detail getDetail(WormSprite sprite,
+			boolean selected) {
+		if (selected) {
+			return LevelOfDetail.Detail.FULL;
+		}
+		return levelOfDetail.getDetail(
+				toPixels(getWormState(sprite).getShownRadius()), getScreen()
+						.getVisibleWormSprites().size());
+	}
+
+	/**
+	 * The side (in pixels) of the square dot that is painted for the given
+	 * sprite: at least one pixel, so that every worm stays visible
+	 */
+	private int getDotSize(WormSprite sprite) {
+		return (int) Math.max(1, Math.round(2 * toPixels(getWormState(sprite)
+				.getShownRadius())));
+	}
+
+	/**
+	 * Draw the given sprite as a dot, in the current color. Dots are small
+	 * enough to be drawn as squares, which is much faster than filling
+	 * circles.
+	 */
+	private void drawDot(WormSprite sprite) {
+		int size = getDotSize(sprite);
+		graphics.fillRect((int) (sprite.getCenterX() - size / 2.0),
+				(int) (sprite.getCenterY() - size / 2.0), size, size);
+	}
+
+	/**
+	 * Returns whether anything painted for a worm that is shown in the given
+	 * state may lie on the screen. The selected worm is always visible, since
+	 * its jump markers may lie anywhere. This only reads the state, not the
+	 * worm's sprite, so that it is cheap enough to be asked for every worm
+	 * around the screen in every frame.
+	 */
+	public boolean isVisible(WormState state, boolean selected) {
+		if (selected) {
+			return true;
+		}
+		Camera camera = getScreen().getCamera();
+		double x = camera.getScreenX(state.getShownX());
+		double y = camera.getScreenY(state.getShownY());
+		double radius = camera.toPixels(Math.max(state.getShownRadius(),
+				state.getRadius()));
+		double imageScale = wormImage.getScaleFor(state.getShownRadius(),
+				camera.getScale());
+		double halfWidth = Math.max(wormImage.getImageWidth() * imageScale
+				/ 2, ACTION_BAR_WIDTH / 2 + 1);
+		double above = wormImage.getImageHeight() * imageScale / 2;
+		double below = Math.max(above, radius + ACTION_BAR_HEIGHT + 1);
+
+		FontMetrics metrics = getNameMetrics();
+		String name = state.getName();
+		int nameLength = name == null ? "(null)".length() : name.length();
+		if (metrics != null && metrics.getMaxAdvance() > 0) {
+			halfWidth = Math.max(halfWidth, nameLength
+					* metrics.getMaxAdvance() / 2.0 + TEXT_BAR_H_MARGIN);
+			above = Math.max(above, radius + TEXT_BAR_V_OFFSET
+					+ metrics.getHeight() + 2 * TEXT_BAR_V_MARGIN);
+		} else {
+			// the name may be anywhere above the worm
+			halfWidth = Double.POSITIVE_INFINITY;
+			above = Double.POSITIVE_INFINITY;
+		}
+		halfWidth += PAINT_BOUNDS_MARGIN;
+		above += PAINT_BOUNDS_MARGIN;
+		below += PAINT_BOUNDS_MARGIN;
+		return x + halfWidth >= 0
+				&& x - halfWidth <= camera.getViewportWidth()
+				&& y + below >= 0 && y - above <= camera.getViewportHeight();
+	}
+
+	/**
+	 * Returns a region of the screen that contains everything painted for the
+	 * given sprite: its dot, or its image and, in full detail, its name bar
+	 * and action bar and, if its worm is selected, the selection, direction
+	 * indicator and jump markers.
+	 */
+	public Rectangle getPaintBounds(WormSprite sprite, boolean selected) {
+		double x = sprite.getCenterX();
+		double y = sprite.getCenterY();
+		LevelOfDetail.Detail detail = getDetail(sprite, selected);
+		if (detail == LevelOfDetail.Detail.DOT) {
+			int size = getDotSize(sprite);
+			Rectangle result = new Rectangle((int) (x - size / 2.0),
+					(int) (y - size / 2.0), size, size);
+			result.grow(PAINT_BOUNDS_MARGIN, PAINT_BOUNDS_MARGIN);
+			return result;
+		}
+		double radius = toPixels(getWormState(sprite).getRadius());
+		double imageWidth = sprite.getWidth(graphics);
+		double imageHeight = sprite.getHeight(graphics);
+		Rectangle2D bounds = new Rectangle2D.Double(x - imageWidth / 2, y
+				- imageHeight / 2, imageWidth, imageHeight);
+		if (detail == LevelOfDetail.Detail.SPRITE) {
+			Rectangle result = bounds.getBounds();
+			result.grow(PAINT_BOUNDS_MARGIN, PAINT_BOUNDS_MARGIN);
+			return result;
+		}
+
+		FontMetrics metrics = getNameMetrics();
+		if (metrics != null) {
+			String name = getWormState(sprite).getName();
+			double nameWidth = metrics.stringWidth(name == null ? "(null)"
+					: name) + 2 * TEXT_BAR_H_MARGIN;
+			double nameHeight = metrics.getHeight() + 2 * TEXT_BAR_V_MARGIN;
+			bounds.add(new Rectangle2D.Double(x - nameWidth / 2, y - radius
+					- TEXT_BAR_V_OFFSET - nameHeight, nameWidth, nameHeight
+					+ metrics.getDescent()));
+		} else {
+			// not painted yet; the name may be anywhere above the worm
+			bounds.add(new Rectangle2D.Double(0, 0, getScreen()
+					.getScreenWidth(), y));
+		}
+		bounds.add(new Rectangle2D.Double(x - ACTION_BAR_WIDTH / 2,
+				y + radius, ACTION_BAR_WIDTH + 1, ACTION_BAR_HEIGHT + 1));
+
+		if (selected) {
+			double r = radius + DIRECTION_INDICATOR_SIZE;
+			bounds.add(new Rectangle2D.Double(x - r, y - r, 2 * r, 2 * r));
+			addJumpMarkerBounds(sprite, bounds);
+		}
+
+		Rectangle result = bounds.getBounds();
+		result.grow(PAINT_BOUNDS_MARGIN, PAINT_BOUNDS_MARGIN);
+		return result;
+	}
+
+	private void addJumpMarkerBounds(WormSprite sprite, Rectangle2D bounds) {
+		double[] xy = getJumpTrajectory(sprite, JUMP_MARKER_TIME_DISTANCE);
+		if (xy == null) {
+			// cannot jump; no markers
+			return;
+		}
+		for (int i = 0; i < xy.length / 2; i++) {
+			double jumpX = getScreenX(xy[2 * i]);
+			double jumpY = getScreenY(xy[2 * i + 1]);
+			bounds.add(new Rectangle2D.Double(jumpX - JUMP_MARKER_SIZE, jumpY
+					- JUMP_MARKER_SIZE, 2 * JUMP_MARKER_SIZE + 1,
+					2 * JUMP_MARKER_SIZE + 1));
+		}
+	}
+
+	/**
+	 * The metrics of the font in which names are painted, or null if they are
+	 * not known yet.
+	 */
+	private FontMetrics getNameMetrics() {
+		if (nameMetrics == null) {
+			Component panel = getScreen().getPanel();
+			if (panel.getFont() != null) {
+				nameMetrics = panel.getFontMetrics(panel.getFont());
+			}
+		}
+		return nameMetrics;
+	}
+
+	private FontMetrics nameMetrics;
+
 	protected double getScreenX(double x) {
 		return getScreen().getScreenX(x);
 	}
@@ -93,58 +345,160 @@ public class PlayGameScreenPainter {
 		return getScreen().getScreenY(y);
 	}
 
+	/**
+	 * Returns the given length in worm-meter in pixels, at the scale of the
+	 * camera.
+	 */
+	protected double toPixels(double meters) {
+		return getScreen().getCamera().toPixels(meters);
+	}
+
 	protected void paintWorm(WormSprite sprite) {
 
 		sprite.draw(graphics);
 
+		long start = profiler == null ? 0 : profiler.start();
 		drawName(sprite);
+		if (profiler != null) {
+			start = profiler.record(FrameProfiler.Phase.DRAW_NAME, start);
+		}
 
 		drawActionBar(sprite);
+		if (profiler != null) {
+			start = profiler.record(FrameProfiler.Phase.DRAW_ACTION_BAR,
+					start);
+		}
 
 		if (getState().getSelectedWorm() == sprite.getWorm()) {
 			drawDirectionIndicator(sprite);
+			if (profiler != null) {
+				start = profiler.start();
+			}
 			drawJumpMarkers(sprite);
+			if (profiler != null) {
+				profiler.record(FrameProfiler.Phase.DRAW_JUMP_MARKERS, start);
+			}
 		}
 	}
 
 	protected void drawName(WormSprite sprite) {
-		final double radius = GUIUtils.meterToPixels(getFacade().getRadius(
-				sprite.getWorm()));
-		String name = getFacade().getName(sprite.getWorm());
+		final double radius = toPixels(getWormState(sprite).getRadius());
+		NameLabel label = getNameLabel(sprite);
+
+		final double x = sprite.getCenterX() - label.textWidth / 2;
+		final double y = sprite.getCenterY() - radius - TEXT_BAR_V_OFFSET;
+
+		graphics.drawImage(label.image, (int) Math.round(x
+				- TEXT_BAR_H_MARGIN), (int) Math.round(y - label.textHeight
+				- TEXT_BAR_V_MARGIN), null);
+	}
+
+	/**
+	 * A name bar rendered into an image, which is drawn as a whole in every
+	 * frame
+	 */
+	private static class NameLabel {
+		private final double textWidth;
+		private final double textHeight;
+		private final BufferedImage image;
+
+		public NameLabel(double textWidth, double textHeight,
+				BufferedImage image) {
+			this.textWidth = textWidth;
+			this.textHeight = textHeight;
+			this.image = image;
+		}
+	}
+
+	/**
+	 * The name and font a name bar is rendered with
+	 */
+	private static final class NameLabelKey {
+		private final String name;
+		private final Font font;
+
+		public NameLabelKey(String name, Font font) {
+			this.name = name;
+			this.font = font;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof NameLabelKey))
+				return false;
+			NameLabelKey other = (NameLabelKey) obj;
+			return name.equals(other.name) && font.equals(other.font);
+		}
+
+		@Override
+		public int hashCode() {
+			return name.hashCode() * 31 + font.hashCode();
+		}
+	}
 
+	// the name bars that were drawn last, shared by worms with the same name;
+	// in access order, least recently used first
+	private final Map<NameLabelKey, NameLabel> nameLabels = new LinkedHashMap<NameLabelKey, NameLabel>(
+			16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(
+				Map.Entry<NameLabelKey, NameLabel> eldest) {
+			return size() > GUIConstants.MAX_NAME_LABELS;
+		}
+	};
+
+	private NameLabel getNameLabel(WormSprite sprite) {
+		String name = getWormState(sprite).getName();
 		if (name == null) {
 			name = "(null)";
 		}
+		NameLabelKey key = new NameLabelKey(name, graphics.getFont());
+		NameLabel label = nameLabels.get(key);
+		if (label == null) {
+			label = renderNameLabel(name);
+			nameLabels.put(key, label);
+		}
+		return label;
+	}
 
+	private NameLabel renderNameLabel(String name) {
 		Rectangle2D bounds = graphics.getFontMetrics().getStringBounds(name,
 				graphics);
 		final double stringWidth = bounds.getWidth();
 		final double stringHeight = bounds.getHeight();
+		final double width = stringWidth + 2 * TEXT_BAR_H_MARGIN;
+		final double height = stringHeight + 2 * TEXT_BAR_V_MARGIN;
 
-		final double x = sprite.getCenterX() - stringWidth / 2;
-		final double y = sprite.getCenterY() - radius - TEXT_BAR_V_OFFSET;
-
-		RoundRectangle2D nameBarFill = new RoundRectangle2D.Double(x
-				- TEXT_BAR_H_MARGIN, y - stringHeight - TEXT_BAR_V_MARGIN,
-				stringWidth + 2 * TEXT_BAR_H_MARGIN, stringHeight + 2
-						* TEXT_BAR_V_MARGIN, 5, 5);
-		graphics.setColor(NAME_BAR_BACKGROUND);
-		graphics.fill(nameBarFill);
-
-		graphics.setColor(NAME_BAR_TEXT);
-
-		graphics.drawString(name, (float) x, (float) (y));
+		BufferedImage image = new BufferedImage((int) Math.ceil(width) + 1,
+				(int) Math.ceil(height) + 1, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = image.createGraphics();
+		try {
+			g.setRenderingHints(graphics.getRenderingHints());
+			g.setFont(graphics.getFont());
+
+			RoundRectangle2D nameBarFill = new RoundRectangle2D.Double(0, 0,
+					width, height, 5, 5);
+			g.setColor(NAME_BAR_BACKGROUND);
+			g.fill(nameBarFill);
+
+			g.setColor(NAME_BAR_TEXT);
+			g.drawString(name, (float) TEXT_BAR_H_MARGIN,
+					(float) (stringHeight + TEXT_BAR_V_MARGIN));
+		} finally {
+			g.dispose();
+		}
+		return new NameLabel(stringWidth, stringHeight, image);
 	}
 
 	protected void drawActionBar(WormSprite sprite) {
 		double x = sprite.getCenterX();
 		double y = sprite.getCenterY();
-		double radius = GUIUtils.meterToPixels(getFacade().getRadius(
-				sprite.getWorm()));
+		double radius = toPixels(getWormState(sprite).getRadius());
 
-		double actionPoints = getFacade().getActionPoints(sprite.getWorm());
-		double maxActionPoints = getFacade().getMaxActionPoints(
-				sprite.getWorm());
+		double actionPoints = getWormState(sprite).getActionPoints();
+		double maxActionPoints = getWormState(sprite).getMaxActionPoints();
 
 		RoundRectangle2D actionBarFill = new RoundRectangle2D.Double(x
 				- ACTION_BAR_WIDTH / 2, y + radius, actionPoints
@@ -162,22 +516,21 @@ public class PlayGameScreenPainter {
 	protected void drawSelection(WormSprite sprite) {
 		double x = sprite.getCenterX();
 		double y = sprite.getCenterY();
-		double r = getFacade().getRadius(sprite.getWorm());
+		double r = getWormState(sprite).getRadius();
 
 		graphics.setColor(SELECTION_FILL_COLOR);
 
-		Shape circle = GUIUtils.circleAt(x, y, GUIUtils.meterToPixels(r));
+		Shape circle = GUIUtils.circleAt(x, y, toPixels(r));
 		graphics.fill(circle);
 	}
 
 	protected void drawDirectionIndicator(WormSprite sprite) {
 		double x = sprite.getCenterX();
 		double y = sprite.getCenterY();
-		double r = GUIUtils.meterToPixels(getFacade().getRadius(
-				sprite.getWorm()));
+		double r = toPixels(getWormState(sprite).getRadius());
 		r += DIRECTION_INDICATOR_SIZE / 2;
-		double direction = GUIUtils.restrictDirection(getFacade()
-				.getOrientation(sprite.getWorm()));
+		double direction = GUIUtils.restrictDirection(getWormState(sprite)
+				.getOrientation());
 
 		graphics.setColor(DIRECTION_MARKER_COLOR);
 
@@ -192,13 +545,16 @@ public class PlayGameScreenPainter {
 			double angle) {
 		double x = sprite.getCenterX();
 		double y = sprite.getCenterY();
-		double r = GUIUtils.meterToPixels(getFacade().getRadius(
-				sprite.getWorm()));
+		double r = toPixels(getWormState(sprite).getRadius());
 		r += DIRECTION_INDICATOR_SIZE / 2;
-		double direction = GUIUtils.restrictDirection(getFacade()
-				.getOrientation(sprite.getWorm()) + angle);
+		double direction = GUIUtils.restrictDirection(getWormState(sprite)
+				.getOrientation() + angle);
 
-		if (getFacade().canTurn(sprite.getWorm(), angle)) {
+		boolean canTurn;
+		synchronized (getModelLock()) {
+			canTurn = getFacade().canTurn(sprite.getWorm(), angle);
+		}
+		if (canTurn) {
 			graphics.setColor(TURN_ANGLE_MARKER_COLOR);
 		} else {
 			graphics.setColor(INVALID_TURN_ANGLE_MARKER_COLOR);
@@ -212,22 +568,78 @@ public class PlayGameScreenPainter {
 	}
 
 	protected void drawJumpMarkers(WormSprite sprite) {
-		try {
-			double time = getFacade().getJumpTime(sprite.getWorm());
-			int n = 1 + (int) (time / JUMP_MARKER_TIME_DISTANCE);
-			for (int i = 1; i <= n; i++) {
-				double dt = i * time / n;
-				double[] xy = getFacade().getJumpStep(sprite.getWorm(), dt);
-				if (xy != null) {
-					double jumpX = getScreenX(xy[0]);
-					double jumpY = getScreenY(xy[1]);
-					drawCrossMarker(jumpX, jumpY, JUMP_MARKER_SIZE,
-							JUMP_MARKER_COLOR);
+		double[] xy = getJumpTrajectory(sprite, JUMP_MARKER_TIME_DISTANCE);
+		if (xy == null) {
+			// cannot jump; draw nothing
+			return;
+		}
+		for (int i = 0; i < xy.length / 2; i++) {
+			double jumpX = getScreenX(xy[2 * i]);
+			double jumpY = getScreenY(xy[2 * i + 1]);
+			drawCrossMarker(jumpX, jumpY, JUMP_MARKER_SIZE, JUMP_MARKER_COLOR);
+		}
+	}
+
+	/**
+	 * A sampled jump trajectory, valid as long as the painted modification
+	 * stamp of its worm does not move
+	 */
+	private static class JumpTrajectory {
+		private final long modificationStamp;
+		private final double timeDistance;
+		// null if the worm cannot jump
+		private final double[] xy;
+
+		public JumpTrajectory(long modificationStamp, double timeDistance,
+				double[] xy) {
+			this.modificationStamp = modificationStamp;
+			this.timeDistance = timeDistance;
+			this.xy = xy;
+		}
+	}
+
+	private final Map<Worm, JumpTrajectory> jumpTrajectories = new IdentityHashMap<Worm, JumpTrajectory>();
+
+	/**
+	 * Returns the locations (in worm-meter) along the jump trajectory of the
+	 * given sprite's worm at the given interval of time, as (x, y) pairs, or
+	 * null if it cannot jump. The trajectory is only sampled again when the
+	 * painted state of the worm has changed since it was last sampled, and
+	 * only once the model has not moved past that state; until then, the
+	 * trajectory that was sampled before is returned, if any. The array must
+	 * not be modified.
+	 */
+	protected double[] getJumpTrajectory(WormSprite sprite, double timeDistance) {
+		Worm worm = sprite.getWorm();
+		long stamp = getWormState(sprite).getModificationStamp();
+		JumpTrajectory trajectory = jumpTrajectories.get(worm);
+		boolean hasTrajectory = trajectory != null
+				&& trajectory.timeDistance == timeDistance;
+		if (!hasTrajectory || trajectory.modificationStamp != stamp) {
+			synchronized (getModelLock()) {
+				// the model may be ahead of the state that is painted
+				boolean ahead = getFacade().getModificationStamp(worm) != stamp;
+				if (hasTrajectory && ahead) {
+					return trajectory.xy;
 				}
+				double[] xy;
+				try {
+					double time = getFacade().getJumpTime(worm);
+					int n = 1 + (int) (time / timeDistance);
+					xy = new double[2 * n];
+					getFacade().sampleJumpTrajectory(worm, n, xy);
+				} catch (ModelException e) {
+					xy = null;
+				}
+				if (ahead) {
+					// nothing sampled before: show the model's arc this once
+					return xy;
+				}
+				trajectory = new JumpTrajectory(stamp, timeDistance, xy);
 			}
-		} catch (ModelException e) {
-			// cannot jump; draw nothing
+			jumpTrajectories.put(worm, trajectory);
 		}
+		return trajectory.xy;
 	}
 
 	protected void drawCrossMarker(double x, double y, int size, Color color) {
@@ -238,7 +650,7 @@ public class PlayGameScreenPainter {
 
 	void paintNameEntry(Graphics2D g, String enteredName) {
 		g.setColor(RENAME_BACKGROUND_COLOR);
-		g.fillRect(0, 0, getScreen().getScreenWidth(), 120);
+		g.fillRect(0, 0, getScreen().getScreenWidth(), MESSAGE_BAR_HEIGHT);
 		g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 20));
 		g.setColor(RENAME_TEXT_COLOR);
 		GUIUtils.drawCenteredString(g, "Enter new name for worm: "
@@ -247,7 +659,7 @@ public class PlayGameScreenPainter {
 
 	void paintMessage(Graphics2D g, String message) {
 		g.setColor(MESSAGE_BACKGROUND_COLOR);
-		g.fillRect(0, 0, getScreen().getScreenWidth(), 120);
+		g.fillRect(0, 0, getScreen().getScreenWidth(), MESSAGE_BAR_HEIGHT);
 		g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 20));
 		g.setColor(MESSAGE_TEXT_COLOR);
 		GUIUtils.drawCenteredString(g, message, getScreen().getScreenWidth(),
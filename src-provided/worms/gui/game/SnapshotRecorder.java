@@ -0,0 +1,172 @@
+package worms.gui.game;
+
+import java.awt.geom.Rectangle2D;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import worms.gui.GameState;
+import worms.gui.Simulation;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * A game view that records what commands show of each worm, and turns it into
+ * {@link WorldSnapshot}s. It must only be used by the thread that runs the
+ * simulation, except for {@link #setVisibleWorld(Rectangle2D)}. Messages are
+ * passed on to another view.
+ *
+ * Once the part of the world that can be seen is known, snapshots only hold
+ * the worms that may be seen there, the worms that are being animated and the
+ * selected worm, so that taking a snapshot does not visit every worm.
+ */
+public class SnapshotRecorder implements GameView {
+
+	private static final int X = 0;
+	private static final int Y = 1;
+	private static final int DIRECTION = 2;
+	private static final int RADIUS = 3;
+
+	private final GameState gameState;
+	private final GameView messageView;
+
+	// how the worms in the last snapshot and the animated worms are shown
+	private final Map<Worm, double[]> shown = new IdentityHashMap<Worm, double[]>();
+	// worms that may be shown elsewhere than where they are in the model
+	private final Set<Worm> animated = Collections
+			.newSetFromMap(new IdentityHashMap<Worm, Boolean>());
+	private WorldSnapshot last;
+
+	// the part of the world that can be seen, or null if all of it
+	private volatile Rectangle2D visibleWorld;
+
+	// reused by every snapshot
+	private final List<Worm> candidates = new ArrayList<Worm>();
+	private final Set<Worm> captured = Collections
+			.newSetFromMap(new IdentityHashMap<Worm, Boolean>());
+
+	/**
+	 * @param messageView
+	 *            the view that receives the messages of commands; it must
+	 *            accept them from the simulation thread
+	 */
+	public SnapshotRecorder(GameState gameState, GameView messageView) {
+		this.gameState = gameState;
+		this.messageView = messageView;
+	}
+
+	/**
+	 * Take only the worms that may be seen in the given part of the world (in
+	 * worm-meter) into the next snapshots, or all worms if it is null. May be
+	 * called from any thread.
+	 */
+	public void setVisibleWorld(Rectangle2D visibleWorld) {
+		this.visibleWorld = visibleWorld == null ? null
+				: (Rectangle2D) visibleWorld.clone();
+	}
+
+	private double[] getShown(Worm worm) {
+		double[] result = shown.get(worm);
+		if (result == null) {
+			IFacade facade = gameState.getFacade();
+			result = new double[] { facade.getX(worm), facade.getY(worm),
+					facade.getOrientation(worm), facade.getRadius(worm) };
+			shown.put(worm, result);
+		}
+		return result;
+	}
+
+	@Override
+	public void showWormLocation(Worm worm, double x, double y) {
+		double[] state = getShown(worm);
+		state[X] = x;
+		state[Y] = y;
+		animated.add(worm);
+	}
+
+	@Override
+	public void showWormDirection(Worm worm, double direction) {
+		getShown(worm)[DIRECTION] = direction;
+		animated.add(worm);
+	}
+
+	@Override
+	public void showWormRadius(Worm worm, double radius) {
+		getShown(worm)[RADIUS] = radius;
+		animated.add(worm);
+	}
+
+	@Override
+	public void addMessage(String message) {
+		messageView.addMessage(message);
+	}
+
+	/**
+	 * Take a snapshot of the game as it is after the last step of the given
+	 * simulation. Worms whose modification stamp did not move and that are
+	 * shown as before keep their state of the previous snapshot.
+	 */
+	public WorldSnapshot capture(Simulation simulation) {
+		IFacade facade = gameState.getFacade();
+		Rectangle2D region = visibleWorld;
+		candidates.clear();
+		if (region == null) {
+			candidates.addAll(gameState.getWorms());
+		} else {
+			facade.collectWormsNear(region.getCenterX(), region.getCenterY(),
+					Math.hypot(region.getWidth(), region.getHeight()) / 2,
+					candidates);
+			candidates.addAll(animated);
+			Worm selected = gameState.getSelectedWorm();
+			if (selected != null) {
+				candidates.add(selected);
+			}
+		}
+
+		List<WorldSnapshot.WormState> states = new ArrayList<WorldSnapshot.WormState>(
+				candidates.size());
+		captured.clear();
+		for (Worm worm : candidates) {
+			if (!captured.add(worm)) {
+				continue;
+			}
+			double[] state = getShown(worm);
+			long stamp = facade.getModificationStamp(worm);
+			WorldSnapshot.WormState result = last == null ? null : last
+					.getState(worm);
+			if (result == null
+					|| result.getModificationStamp() != stamp
+					|| !result.isShownAs(state[X], state[Y], state[DIRECTION],
+							state[RADIUS])) {
+				result = new WorldSnapshot.WormState(worm, state[X],
+						state[Y], state[DIRECTION], state[RADIUS],
+						facade.getX(worm), facade.getY(worm),
+						facade.getOrientation(worm), facade.getRadius(worm),
+						facade.getName(worm), facade.getActionPoints(worm),
+						facade.getMaxActionPoints(worm), stamp);
+			}
+			if (result.isShownAs(result.getX(), result.getY(),
+					result.getOrientation(), result.getRadius())) {
+				animated.remove(worm);
+			}
+			states.add(result);
+		}
+		WorldSnapshot snapshot = new WorldSnapshot(simulation.getTickCount(),
+				simulation.getSimulationTime(), System.nanoTime(),
+				states.toArray(new WorldSnapshot.WormState[states.size()]));
+
+		// worms that can no longer be seen are shown where they are
+		if (last != null) {
+			for (WorldSnapshot.WormState state : last.getWorms()) {
+				if (!captured.contains(state.getWorm())) {
+					shown.remove(state.getWorm());
+				}
+			}
+		}
+		last = snapshot;
+		return snapshot;
+	}
+}
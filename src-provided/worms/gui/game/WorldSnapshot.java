@@ -0,0 +1,299 @@
+package worms.gui.game;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import worms.model.Worm;
+
+/**
+ * An immutable picture of the game after a simulation step: where the worms
+ * that may be seen are shown (which differs from their location in the model
+ * while they are animated), together with the values of the model the screen
+ * needs to paint them. The states of the worms are ordered by the ids of the
+ * worms, so that the state of a worm is found without an index.
+ *
+ * Snapshots are created on the thread that runs the simulation and can be
+ * read from any thread.
+ */
+public final class WorldSnapshot {
+
+	public static final class WormState {
+		private final Worm worm;
+
+		private final double shownX;
+		private final double shownY;
+		private final double shownDirection;
+		private final double shownRadius;
+
+		private final double x;
+		private final double y;
+		private final double orientation;
+		private final double radius;
+		private final String name;
+		private final int actionPoints;
+		private final int maxActionPoints;
+		private final long modificationStamp;
+
+		/**
+		 * @param modificationStamp
+		 *            the modification stamp of the worm when the values of the
+		 *            model were read
+		 */
+		public WormState(Worm worm, double shownX, double shownY,
+				double shownDirection, double shownRadius, double x, double y,
+				double orientation, double radius, String name,
+				int actionPoints, int maxActionPoints, long modificationStamp) {
+			this.worm = worm;
+			this.shownX = shownX;
+			this.shownY = shownY;
+			this.shownDirection = shownDirection;
+			this.shownRadius = shownRadius;
+			this.x = x;
+			this.y = y;
+			this.orientation = orientation;
+			this.radius = radius;
+			this.name = name;
+			this.actionPoints = actionPoints;
+			this.maxActionPoints = maxActionPoints;
+			this.modificationStamp = modificationStamp;
+		}
+
+		public Worm getWorm() {
+			return worm;
+		}
+
+		/**
+		 * x-coordinate at which the worm is shown (in worm-meter)
+		 */
+		public double getShownX() {
+			return shownX;
+		}
+
+		/**
+		 * y-coordinate at which the worm is shown (in worm-meter)
+		 */
+		public double getShownY() {
+			return shownY;
+		}
+
+		public double getShownDirection() {
+			return shownDirection;
+		}
+
+		public double getShownRadius() {
+			return shownRadius;
+		}
+
+		/**
+		 * x-coordinate of the worm in the model (in worm-meter)
+		 */
+		public double getX() {
+			return x;
+		}
+
+		/**
+		 * y-coordinate of the worm in the model (in worm-meter)
+		 */
+		public double getY() {
+			return y;
+		}
+
+		public double getOrientation() {
+			return orientation;
+		}
+
+		public double getRadius() {
+			return radius;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getActionPoints() {
+			return actionPoints;
+		}
+
+		public int getMaxActionPoints() {
+			return maxActionPoints;
+		}
+
+		/**
+		 * The modification stamp of the worm when the values of the model in
+		 * this state were read; values computed from them remain valid for
+		 * other states with the same stamp.
+		 */
+		public long getModificationStamp() {
+			return modificationStamp;
+		}
+
+		/**
+		 * Returns whether the worm is shown at the given location, in the
+		 * given direction and with the given radius in this state.
+		 */
+		boolean isShownAs(double shownX, double shownY,
+				double shownDirection, double shownRadius) {
+			return this.shownX == shownX && this.shownY == shownY
+					&& this.shownDirection == shownDirection
+					&& this.shownRadius == shownRadius;
+		}
+
+		/**
+		 * Returns whether the worm is painted the same in the given state as
+		 * in this one.
+		 */
+		public boolean looksLike(WormState other) {
+			return this == other
+					|| (worm == other.worm
+							&& modificationStamp == other.modificationStamp && isShownAs(
+								other.shownX, other.shownY,
+								other.shownDirection, other.shownRadius));
+		}
+
+		/**
+		 * Returns the state that lies the given fraction of the way from the
+		 * given state to this one. Only the shown location, direction and
+		 * radius are interpolated; the values of the model are those of this
+		 * state.
+		 */
+		WormState interpolateFrom(WormState from, double alpha) {
+			double delta = Math.IEEEremainder(shownDirection
+					- from.shownDirection, 2 * Math.PI);
+			return new WormState(worm, lerp(from.shownX, shownX, alpha),
+					lerp(from.shownY, shownY, alpha), from.shownDirection
+							+ alpha * delta, lerp(from.shownRadius,
+							shownRadius, alpha), x, y, orientation, radius,
+					name, actionPoints, maxActionPoints, modificationStamp);
+		}
+
+		private static double lerp(double from, double to, double alpha) {
+			return from + alpha * (to - from);
+		}
+	}
+
+	private final long tick;
+	private final double simulationTime;
+	private final long timestamp;
+	private final WormState[] worms;
+	private final List<WormState> wormList;
+
+	private static final Comparator<WormState> BY_ID = new Comparator<WormState>() {
+		@Override
+		public int compare(WormState s1, WormState s2) {
+			return compareIds(s1.getWorm().getId(), s2.getWorm().getId());
+		}
+	};
+
+	private static int compareIds(int id1, int id2) {
+		return id1 < id2 ? -1 : (id1 == id2 ? 0 : 1);
+	}
+
+	/**
+	 * @param timestamp
+	 *            the time (from {@link System#nanoTime()}) at which the
+	 *            snapshot was taken
+	 * @param worms
+	 *            the states of worms of the same store, at most one for each
+	 *            worm
+	 */
+	public WorldSnapshot(long tick, double simulationTime, long timestamp,
+			WormState[] worms) {
+		this(tick, simulationTime, timestamp, worms.clone(), true);
+	}
+
+	private WorldSnapshot(long tick, double simulationTime, long timestamp,
+			WormState[] worms, boolean sort) {
+		this.tick = tick;
+		this.simulationTime = simulationTime;
+		this.timestamp = timestamp;
+		if (sort) {
+			Arrays.sort(worms, BY_ID);
+		}
+		this.worms = worms;
+		this.wormList = Collections.unmodifiableList(Arrays.asList(worms));
+	}
+
+	/**
+	 * Number of simulation steps taken when the snapshot was taken
+	 */
+	public long getTick() {
+		return tick;
+	}
+
+	/**
+	 * Game time when the snapshot was taken, in worm-seconds
+	 */
+	public double getSimulationTime() {
+		return simulationTime;
+	}
+
+	/**
+	 * Time (from {@link System#nanoTime()}) at which the snapshot was taken
+	 */
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	/**
+	 * The states of the worms in this snapshot, ordered by the ids of the
+	 * worms
+	 */
+	public List<WormState> getWorms() {
+		return wormList;
+	}
+
+	/**
+	 * Returns the state of the given worm, or null if the worm is not in this
+	 * snapshot.
+	 */
+	public WormState getState(Worm worm) {
+		int low = 0;
+		int high = worms.length - 1;
+		int id = worm.getId();
+		while (low <= high) {
+			int middle = (low + high) >>> 1;
+			int order = compareIds(worms[middle].getWorm().getId(), id);
+			if (order < 0) {
+				low = middle + 1;
+			} else if (order > 0) {
+				high = middle - 1;
+			} else {
+				return worms[middle].getWorm() == worm ? worms[middle] : null;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the snapshot that lies the given fraction (in [0, 1]) of the way
+	 * from the given snapshot to this one. Worms that are not in the given
+	 * snapshot keep their state of this snapshot.
+	 */
+	public WorldSnapshot interpolateFrom(WorldSnapshot from, double alpha) {
+		if (from == this || alpha >= 1) {
+			return this;
+		}
+		WormState[] result = new WormState[worms.length];
+		// both are ordered by id, so the states of a worm are found together
+		int j = 0;
+		for (int i = 0; i < result.length; i++) {
+			WormState to = worms[i];
+			int id = to.getWorm().getId();
+			while (j < from.worms.length
+					&& from.worms[j].getWorm().getId() < id) {
+				j++;
+			}
+			WormState previous = j < from.worms.length
+					&& from.worms[j].getWorm() == to.getWorm() ? from.worms[j]
+					: null;
+			// worms that did not change keep their state
+			result[i] = previous == null || previous == to ? to : to
+					.interpolateFrom(previous, alpha);
+		}
+		return new WorldSnapshot(tick, from.simulationTime + alpha
+				* (simulationTime - from.simulationTime), timestamp, result,
+				false);
+	}
+}
@@ -1,30 +1,67 @@
 package worms.gui.game.commands;
 
-import worms.gui.game.PlayGameScreen;
+import java.util.Collections;
+import java.util.List;
+
+import worms.gui.game.GameView;
 import worms.model.IFacade;
+import worms.model.Worm;
 
 public abstract class Command {
 
 	private final IFacade facade;
-	private final PlayGameScreen screen;
+	private final GameView view;
 
 	private double elapsedTime;
 	private boolean cancelled = false;
 	private boolean started = false;
 
-	protected Command(IFacade facade, PlayGameScreen screen) {
+	protected Command(IFacade facade, GameView view) {
 		this.facade = facade;
-		this.screen = screen;
+		this.view = view;
 	}
 
-	protected PlayGameScreen getScreen() {
-		return screen;
+	protected GameView getView() {
+		return view;
 	}
 
 	protected IFacade getFacade() {
 		return facade;
 	}
 
+	/**
+	 * The worm this command acts on; its commands are executed one after the
+	 * other.
+	 */
+	public abstract Worm getWorm();
+
+	/**
+	 * Returns whether this command may be executed as soon as possible,
+	 * before the commands that were enqueued earlier for the same worm have
+	 * finished. Only instantaneous commands that leave the physics of the worm
+	 * alone, such as renaming it, can.
+	 */
+	public boolean canOvertake() {
+		return false;
+	}
+
+	/**
+	 * Returns a single command that has the effect of this command followed by
+	 * the given one, or null if they cannot be merged. Neither command has
+	 * started.
+	 */
+	public Command mergeWith(Command next) {
+		return null;
+	}
+
+	/**
+	 * Returns the commands this command was merged from, in the order in which
+	 * they were enqueued, or only this command if it was not merged.
+	 */
+	public List<Command> getParts() {
+		return Collections.singletonList(this);
+	}
+
 	public final void startExecution() {
 		if (canExecute()) {
 			doStartExecution();
@@ -50,6 +87,14 @@ public abstract class Command {
 		return started;
 	}
 
+	/**
+	 * Returns whether this command has changed the game. A command that has
+	 * not can be executed again from the start with the same outcome.
+	 */
+	public boolean hasTakenEffect() {
+		return isStarted();
+	}
+
 	public final boolean isFinished() {
 		return cancelled || (isStarted() && isDoneExecuting());
 	}
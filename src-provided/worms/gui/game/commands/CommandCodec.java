@@ -0,0 +1,178 @@
+package worms.gui.game.commands;
+
+import java.nio.ByteBuffer;
+
+import worms.gui.game.GameView;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Writes commands to, and reads them from, binary files such as journals and
+ * saved games. A command is written as a type, which the file writes where it
+ * sees fit, followed by its arguments. The worm of a command is not written
+ * either; files refer to worms in their own way.
+ */
+public final class CommandCodec {
+
+	// types of commands; other types of records in files use other values
+	public static final byte MOVE = 3;
+	public static final byte TURN = 4;
+	public static final byte JUMP = 5;
+	public static final byte RENAME = 6;
+	public static final byte RESIZE = 7;
+
+	private CommandCodec() {
+	}
+
+	/**
+	 * Returns whether the given type is the type of a command.
+	 */
+	public static boolean isCommand(byte type) {
+		return type >= MOVE && type <= RESIZE;
+	}
+
+	/**
+	 * Returns the type of the given command.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the command cannot be written
+	 */
+	public static byte getType(Command cmd) {
+		if (cmd instanceof Move) {
+			return MOVE;
+		} else if (cmd instanceof Turn) {
+			return TURN;
+		} else if (cmd instanceof Jump) {
+			return JUMP;
+		} else if (cmd instanceof Rename) {
+			return RENAME;
+		} else if (cmd instanceof Resize) {
+			return RESIZE;
+		}
+		throw new IllegalArgumentException("Cannot write command: " + cmd);
+	}
+
+	/**
+	 * Number of bytes taken by the arguments of the given command
+	 */
+	public static int getArgumentsSize(Command cmd) {
+		switch (getType(cmd)) {
+		case MOVE:
+			return 4;
+		case TURN:
+		case RESIZE:
+			return 8;
+		case RENAME:
+			return 4 + 2 * ((Rename) cmd).getNewName().length();
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Returns the number of bytes taken by the arguments of a command of the
+	 * given type at the given offset in the given buffer, or -1 if the type is
+	 * not the type of a command or the arguments do not fit in the buffer.
+	 */
+	public static int getArgumentsSize(ByteBuffer buffer, int offset,
+			byte type) {
+		long size;
+		switch (type) {
+		case MOVE:
+			size = 4;
+			break;
+		case TURN:
+		case RESIZE:
+			size = 8;
+			break;
+		case JUMP:
+			size = 0;
+			break;
+		case RENAME:
+			if (offset + 4 > buffer.limit()) {
+				return -1;
+			}
+			size = 4 + 2L * buffer.getInt(offset);
+			break;
+		default:
+			return -1;
+		}
+		return size >= 0 && offset + size <= buffer.limit() ? (int) size : -1;
+	}
+
+	/**
+	 * Put the arguments of the given command in the given buffer.
+	 */
+	public static void writeArguments(ByteBuffer buffer, Command cmd) {
+		switch (getType(cmd)) {
+		case MOVE:
+			buffer.putInt(((Move) cmd).getNbSteps());
+			break;
+		case TURN:
+			buffer.putDouble(((Turn) cmd).getAngle());
+			break;
+		case RESIZE:
+			buffer.putDouble(((Resize) cmd).getFactor());
+			break;
+		case RENAME:
+			writeString(buffer, ((Rename) cmd).getNewName());
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Get the arguments of a command of the given type from the given buffer,
+	 * and return that command for the given worm.
+	 *
+	 * @throws IllegalArgumentException
+	 *             if the type is not the type of a command
+	 */
+	public static Command readCommand(ByteBuffer buffer, byte type,
+			IFacade facade, Worm worm, GameView view) {
+		switch (type) {
+		case MOVE:
+			return new Move(facade, worm, buffer.getInt(), view);
+		case TURN:
+			return new Turn(facade, worm, buffer.getDouble(), view);
+		case JUMP:
+			return new Jump(facade, worm, view);
+		case RENAME:
+			return new Rename(facade, worm, readString(buffer), view);
+		case RESIZE:
+			return new Resize(facade, worm, buffer.getDouble(), view);
+		default:
+			throw new IllegalArgumentException("Not a command: " + type);
+		}
+	}
+
+	/**
+	 * Number of bytes taken by the given string
+	 */
+	public static int getSize(String string) {
+		return 4 + 2 * string.length();
+	}
+
+	/**
+	 * Put the given string in the given buffer, as its length followed by its
+	 * characters.
+	 */
+	public static void writeString(ByteBuffer buffer, String string) {
+		buffer.putInt(string.length());
+		for (int i = 0; i < string.length(); i++) {
+			buffer.putChar(string.charAt(i));
+		}
+	}
+
+	/**
+	 * Get a string that was put by {@link #writeString} from the given buffer.
+	 */
+	public static String readString(ByteBuffer buffer) {
+		char[] chars = new char[buffer.getInt()];
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = buffer.getChar();
+		}
+		return new String(chars);
+	}
+}
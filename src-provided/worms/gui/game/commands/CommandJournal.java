@@ -0,0 +1,308 @@
+package worms.gui.game.commands;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import worms.gui.GUIConstants;
+import worms.gui.GameState;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Records a game in a file, so that it can be replayed exactly by a
+ * {@link JournalReplay}. The journal holds:
+ * <ul>
+ * <li>the random seed and the settings of the game;</li>
+ * <li>every command the command queue of the game takes in, together with the
+ * simulation step in which it does;</li>
+ * <li>every worm that is added to the game;</li>
+ * <li>from time to time, a checkpoint with the state of all worms, taken at
+ * the start of a step in which no worm has a command executing or waiting.</li>
+ * </ul>
+ *
+ * Records are appended to a memory-mapped region of the file, which is mapped
+ * anew when it is full. A journal that is not closed, for instance because
+ * the game crashed, can still be replayed: the records end at the first zero
+ * byte. Closing the journal appends an index of the checkpoints and trims the
+ * file.
+ */
+public class CommandJournal implements CommandProcessor.Listener, Closeable {
+
+	static final int MAGIC = 0x574a4e4c; // "WJNL"
+	static final int VERSION = 1;
+	static final int END_MAGIC = 0x4c4e4a57;
+
+	// types of records other than commands (see CommandCodec); a zero byte
+	// marks the end of the records
+	static final byte END = 0;
+	static final byte CHECKPOINT = 1;
+	static final byte ADD_WORM = 2;
+	static final byte INDEX = 8;
+
+	// magic, version, seed, time step, width, height, capacity, policy
+	static final int HEADER_SIZE = 4 + 4 + 8 + 8 + 4 + 4 + 4 + 1;
+
+	private static final int REGION_SIZE = 1 << 24;
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private MappedByteBuffer buffer;
+	// offset in the file of the start of the buffer
+	private long regionStart;
+
+	private final IFacade facade;
+	private final int checkpointInterval;
+
+	// worms are identified by the order in which they were recorded
+	private final Map<Worm, Integer> wormIndices = new IdentityHashMap<Worm, Integer>();
+
+	private long tick;
+	private long lastCheckpointTick;
+	private long[] checkpointTicks = new long[16];
+	private long[] checkpointOffsets = new long[16];
+	private int nbCheckpoints;
+	private long nbCommands;
+	private boolean closed;
+
+	/**
+	 * Create a journal of the given game in the given file, which is
+	 * overwritten, and attach it to the game. The game advances by steps of
+	 * the given duration, and must not have commands executing or waiting.
+	 */
+	public static CommandJournal create(File file, GameState state,
+			double timeStep) throws IOException {
+		return create(file, state, timeStep,
+				GUIConstants.JOURNAL_CHECKPOINT_INTERVAL);
+	}
+
+	/**
+	 * Create a journal of the given game in the given file, with at least the
+	 * given number of steps between two checkpoints.
+	 */
+	public static CommandJournal create(File file, GameState state,
+			double timeStep, int checkpointInterval) throws IOException {
+		if (!(timeStep > 0)) {
+			throw new IllegalArgumentException("Time step must be positive: "
+					+ timeStep);
+		}
+		if (checkpointInterval < 1) {
+			throw new IllegalArgumentException(
+					"Checkpoint interval must be positive: "
+							+ checkpointInterval);
+		}
+		if (!state.isIdle()) {
+			throw new IllegalStateException(
+					"Cannot start a journal while commands are executing");
+		}
+		CommandJournal journal = new CommandJournal(file, state.getFacade(),
+				checkpointInterval);
+		journal.writeHeader(state, timeStep);
+		journal.writeCheckpoint(state.getWorms());
+		state.setJournal(journal);
+		return journal;
+	}
+
+	private CommandJournal(File file, IFacade facade, int checkpointInterval)
+			throws IOException {
+		this.file = new RandomAccessFile(file, "rw");
+		this.file.setLength(0);
+		this.channel = this.file.getChannel();
+		this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+				REGION_SIZE);
+		this.facade = facade;
+		this.checkpointInterval = checkpointInterval;
+	}
+
+	private void writeHeader(GameState state, double timeStep) {
+		CommandProcessor processor = state.getCommandProcessor();
+		buffer.putInt(MAGIC);
+		buffer.putInt(VERSION);
+		buffer.putLong(state.getRandomSeed());
+		buffer.putDouble(timeStep);
+		buffer.putInt(state.getWidth());
+		buffer.putInt(state.getHeight());
+		buffer.putInt(processor.getCapacity());
+		buffer.put((byte) processor.getOverflowPolicy().ordinal());
+	}
+
+	/**
+	 * Number of commands recorded so far
+	 */
+	public synchronized long getNbCommands() {
+		return nbCommands;
+	}
+
+	/**
+	 * Number of checkpoints recorded so far
+	 */
+	public synchronized int getNbCheckpoints() {
+		return nbCheckpoints;
+	}
+
+	/**
+	 * Number of bytes recorded so far
+	 */
+	public synchronized long getSize() {
+		return getOffset();
+	}
+
+	/**
+	 * Number of simulation steps recorded so far
+	 */
+	public synchronized long getTickCount() {
+		return tick;
+	}
+
+	/**
+	 * Called at the start of every step of the given game, before its command
+	 * queue is advanced. Takes a checkpoint if one is due.
+	 */
+	public synchronized void stepStarted(GameState state) {
+		if (tick - lastCheckpointTick >= checkpointInterval
+				&& state.getCommandProcessor().getNbBusyLanes() == 0) {
+			writeCheckpoint(state.getWorms());
+		}
+	}
+
+	/**
+	 * Called at the end of every step of the game.
+	 */
+	public synchronized void stepFinished() {
+		tick++;
+	}
+
+	/**
+	 * Called when a worm is added to the game.
+	 */
+	public synchronized void wormAdded(Worm worm) {
+		String name = facade.getName(worm);
+		ensureRemaining(1 + 8 + getWormSize(name));
+		buffer.put(ADD_WORM);
+		buffer.putLong(tick);
+		writeWorm(worm, name);
+	}
+
+	@Override
+	public synchronized void commandAccepted(Command cmd) {
+		byte type = CommandCodec.getType(cmd);
+		ensureRemaining(1 + 8 + 4 + CommandCodec.getArgumentsSize(cmd));
+		buffer.put(type);
+		buffer.putLong(tick);
+		buffer.putInt(getWormIndex(cmd.getWorm()));
+		CommandCodec.writeArguments(buffer, cmd);
+		nbCommands++;
+	}
+
+	/**
+	 * Commands for worms that were not recorded are replayed for no worm.
+	 */
+	private int getWormIndex(Worm worm) {
+		Integer index = wormIndices.get(worm);
+		return index == null ? -1 : index;
+	}
+
+	private void writeCheckpoint(Collection<Worm> worms) {
+		String[] names = new String[worms.size()];
+		int size = 1 + 8 + 4;
+		int i = 0;
+		for (Worm worm : worms) {
+			names[i] = facade.getName(worm);
+			size += getWormSize(names[i]);
+			i++;
+		}
+		ensureRemaining(size);
+		if (nbCheckpoints == checkpointTicks.length) {
+			checkpointTicks = Arrays.copyOf(checkpointTicks,
+					2 * nbCheckpoints);
+			checkpointOffsets = Arrays.copyOf(checkpointOffsets,
+					2 * nbCheckpoints);
+		}
+		checkpointTicks[nbCheckpoints] = tick;
+		checkpointOffsets[nbCheckpoints] = getOffset();
+		nbCheckpoints++;
+		lastCheckpointTick = tick;
+
+		buffer.put(CHECKPOINT);
+		buffer.putLong(tick);
+		buffer.putInt(names.length);
+		wormIndices.clear();
+		i = 0;
+		for (Worm worm : worms) {
+			writeWorm(worm, names[i]);
+			i++;
+		}
+	}
+
+	private static int getWormSize(String name) {
+		return 4 * 8 + 4 + CommandCodec.getSize(name);
+	}
+
+	private void writeWorm(Worm worm, String name) {
+		wormIndices.put(worm, wormIndices.size());
+		buffer.putDouble(facade.getX(worm));
+		buffer.putDouble(facade.getY(worm));
+		buffer.putDouble(facade.getOrientation(worm));
+		buffer.putDouble(facade.getRadius(worm));
+		buffer.putInt(facade.getActionPoints(worm));
+		CommandCodec.writeString(buffer, name);
+	}
+
+	private long getOffset() {
+		return regionStart + buffer.position();
+	}
+
+	/**
+	 * Make sure the given number of bytes can be put in the buffer, mapping
+	 * the next region of the file if necessary.
+	 */
+	private void ensureRemaining(int size) {
+		if (closed) {
+			throw new IllegalStateException("The journal is closed");
+		}
+		if (buffer.remaining() < size) {
+			long offset = getOffset();
+			try {
+				buffer = channel.map(FileChannel.MapMode.READ_WRITE, offset,
+						Math.max(REGION_SIZE, size));
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot extend the journal", e);
+			}
+			regionStart = offset;
+		}
+	}
+
+	/**
+	 * Append the index of the checkpoints, trim the file and close it. The
+	 * journal must be detached from its game first.
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		ensureRemaining(1 + 8 + 8 + 4 + nbCheckpoints * 16 + 8 + 4);
+		long indexOffset = getOffset();
+		buffer.put(INDEX);
+		buffer.putLong(tick);
+		buffer.putLong(nbCommands);
+		buffer.putInt(nbCheckpoints);
+		for (int i = 0; i < nbCheckpoints; i++) {
+			buffer.putLong(checkpointTicks[i]);
+			buffer.putLong(checkpointOffsets[i]);
+		}
+		buffer.putLong(indexOffset);
+		buffer.putInt(END_MAGIC);
+		closed = true;
+		buffer.force();
+		channel.truncate(getOffset());
+		file.close();
+	}
+}
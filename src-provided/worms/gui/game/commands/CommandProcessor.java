@@ -1,36 +1,279 @@
 package worms.gui.game.commands;
 
-import java.util.LinkedList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
 
+import worms.gui.GUIConstants;
+import worms.model.Worm;
+
+/**
+ * Executes commands in one lane per worm: the commands of a worm are executed
+ * one after the other, in the order in which they were enqueued, while the
+ * commands of different worms execute at the same time. Commands that can
+ * overtake (see {@link Command#canOvertake()}) are executed as soon as the
+ * queue is advanced, without waiting in the lane of their worm.
+ *
+ * A command that arrives in a lane is merged with the last command waiting
+ * there if possible (see {@link Command#mergeWith(Command)}), so that repeated
+ * input, such as a key that is held down, does not pile up. At most
+ * {@link #getCapacity()} commands wait in a lane; when another one arrives,
+ * the {@link OverflowPolicy} decides which one is dropped.
+ *
+ * Commands may be enqueued from any thread; the queue is advanced by the
+ * thread that runs the simulation. Lanes are advanced in the order in which
+ * they became busy, so that the outcome does not depend on timing.
+ */
 public class CommandProcessor {
-	private Queue<Command> commandQueue = new LinkedList<Command>();
-	private Command executingCommand;
+
+	/**
+	 * What to do with a command that arrives in a lane that is full
+	 */
+	public static enum OverflowPolicy {
+		/**
+		 * Drop the command that arrives
+		 */
+		DROP_NEWEST,
+		/**
+		 * Drop the command that has waited longest, to make room for the one
+		 * that arrives
+		 */
+		DROP_OLDEST
+	}
+
+	/**
+	 * Is notified of every command the queue takes in, in the order in which
+	 * it does, on the thread that advances the queue
+	 */
+	public static interface Listener {
+		void commandAccepted(Command cmd);
+	}
+
+	/**
+	 * The commands of a single worm
+	 */
+	private static class Lane {
+		private final Worm worm;
+		private final Deque<Command> pending = new ArrayDeque<Command>();
+		private Command executingCommand;
+
+		public Lane(Worm worm) {
+			this.worm = worm;
+		}
+
+		private void startNextCommand() {
+			executingCommand = pending.poll();
+			if (executingCommand != null) {
+				executingCommand.startExecution();
+			}
+		}
+
+		public void advance(double timeDelta) {
+			if (executingCommand == null) {
+				startNextCommand();
+			}
+			if (executingCommand != null) {
+				executingCommand.update(timeDelta);
+				while (executingCommand != null
+						&& executingCommand.isFinished()) {
+					startNextCommand();
+				}
+			}
+		}
+
+		public boolean isIdle() {
+			return executingCommand == null && pending.isEmpty();
+		}
+	}
+
+	// commands that have not been assigned to a lane yet
+	private final Queue<Command> incoming = new ConcurrentLinkedQueue<Command>();
+
+	private final Map<Worm, Lane> lanes = new IdentityHashMap<Worm, Lane>();
+	private final List<Lane> busyLanes = new ArrayList<Lane>();
+	private volatile int nbBusyLanes;
+
+	private volatile Listener listener;
+
+	private volatile int capacity;
+	private volatile OverflowPolicy overflowPolicy;
+
+	private final AtomicLong nbEnqueued = new AtomicLong();
+	// only changed by the thread that advances the queue
+	private volatile long nbMerged;
+	private volatile long nbDropped;
+
+	public CommandProcessor() {
+		this(GUIConstants.MAX_PENDING_COMMANDS, OverflowPolicy.DROP_NEWEST);
+	}
+
+	public CommandProcessor(int capacity, OverflowPolicy overflowPolicy) {
+		setCapacity(capacity);
+		setOverflowPolicy(overflowPolicy);
+	}
+
+	/**
+	 * Maximal number of commands that wait in the lane of a worm
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public void setCapacity(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive: "
+					+ capacity);
+		}
+		this.capacity = capacity;
+	}
+
+	public OverflowPolicy getOverflowPolicy() {
+		return overflowPolicy;
+	}
+
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		if (overflowPolicy == null) {
+			throw new NullPointerException("Overflow policy must not be null");
+		}
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * The listener that is notified of the commands the queue takes in, or
+	 * null if there is none
+	 */
+	public Listener getListener() {
+		return listener;
+	}
+
+	public void setListener(Listener listener) {
+		this.listener = listener;
+	}
 
 	public void enqueueCommand(Command cmd) {
-		commandQueue.add(cmd);
+		incoming.add(cmd);
+		nbEnqueued.incrementAndGet();
 	}
 
-	private void startNextCommand() {
-		if (!commandQueue.isEmpty()) {
-			executingCommand = commandQueue.poll();
-			executingCommand.startExecution();
-		} else {
-			executingCommand = null;
+	/**
+	 * Number of commands enqueued so far
+	 */
+	public long getNbEnqueuedCommands() {
+		return nbEnqueued.get();
+	}
+
+	/**
+	 * Number of commands merged into the command before them so far
+	 */
+	public long getNbMergedCommands() {
+		return nbMerged;
+	}
+
+	/**
+	 * Number of commands dropped so far because their lane was full
+	 */
+	public long getNbDroppedCommands() {
+		return nbDropped;
+	}
+
+	/**
+	 * Returns the commands that have not changed the game yet, in the order in
+	 * which they would be executed for each worm: the commands that are
+	 * executing but have not taken effect, the commands that wait in the lanes
+	 * and the commands that have not been assigned to a lane yet. Merged
+	 * commands are split into the commands they were merged from. Enqueueing
+	 * them in another processor, in the same order, makes it execute the same
+	 * commands.
+	 *
+	 * Must be called while the queue is not advanced.
+	 */
+	public List<Command> getWaitingCommands() {
+		List<Command> result = new ArrayList<Command>();
+		for (Lane lane : busyLanes) {
+			if (lane.executingCommand != null
+					&& !lane.executingCommand.hasTakenEffect()) {
+				result.addAll(lane.executingCommand.getParts());
+			}
+			for (Command cmd : lane.pending) {
+				result.addAll(cmd.getParts());
+			}
 		}
+		result.addAll(incoming);
+		return result;
+	}
+
+	public boolean isIdle() {
+		return incoming.isEmpty() && nbBusyLanes == 0;
+	}
+
+	/**
+	 * Number of worms that have a command executing or waiting
+	 */
+	public int getNbBusyLanes() {
+		return nbBusyLanes;
 	}
 
 	public void advanceCommandQueue(double timeDelta) {
-		if (executingCommand == null) {
-			startNextCommand();
+		Listener listener = this.listener;
+		Command cmd;
+		while ((cmd = incoming.poll()) != null) {
+			if (listener != null) {
+				listener.commandAccepted(cmd);
+			}
+			if (cmd.canOvertake()) {
+				cmd.startExecution();
+			} else {
+				addToLane(getLane(cmd.getWorm()), cmd);
+			}
 		}
-		if (executingCommand != null) {
-			executingCommand.update(timeDelta);
-			while (executingCommand != null
-					&& executingCommand.isFinished()) {
-				startNextCommand();
+
+		int nbBusy = 0;
+		for (int i = 0; i < busyLanes.size(); i++) {
+			Lane lane = busyLanes.get(i);
+			lane.advance(timeDelta);
+			if (lane.isIdle()) {
+				lanes.remove(lane.worm);
+			} else {
+				busyLanes.set(nbBusy++, lane);
 			}
 		}
+		busyLanes.subList(nbBusy, busyLanes.size()).clear();
+		nbBusyLanes = nbBusy;
+	}
+
+	private void addToLane(Lane lane, Command cmd) {
+		Command last = lane.pending.peekLast();
+		Command merged = last == null ? null : last.mergeWith(cmd);
+		if (merged != null) {
+			lane.pending.removeLast();
+			lane.pending.addLast(merged);
+			nbMerged++;
+		} else if (lane.pending.size() < capacity) {
+			lane.pending.addLast(cmd);
+		} else {
+			if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+				lane.pending.removeFirst();
+				lane.pending.addLast(cmd);
+			}
+			nbDropped++;
+		}
+	}
+
+	private Lane getLane(Worm worm) {
+		Lane lane = lanes.get(worm);
+		if (lane == null) {
+			lane = new Lane(worm);
+			lanes.put(worm, lane);
+			busyLanes.add(lane);
+			nbBusyLanes = busyLanes.size();
+		}
+		return lane;
 	}
 
-}
\ No newline at end of file
+}
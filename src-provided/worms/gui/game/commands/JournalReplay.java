@@ -0,0 +1,373 @@
+package worms.gui.game.commands;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import worms.gui.GameState;
+import worms.gui.Simulation;
+import worms.gui.game.GameView;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+/**
+ * Replays a game that was recorded by a {@link CommandJournal}.
+ *
+ * The journal is mapped into memory as a whole and read in place. A replay
+ * can start at any step: it restores the last checkpoint at or before that
+ * step, which is found by a binary search over the index of the checkpoints,
+ * and replays the commands from there on. Journals that were not closed have
+ * no index; it is then built by reading through the journal once when it is
+ * opened.
+ */
+public class JournalReplay implements Closeable {
+
+	private final RandomAccessFile file;
+	private final ByteBuffer buffer;
+
+	private final long randomSeed;
+	private final double timeStep;
+	private final int width;
+	private final int height;
+	private final int capacity;
+	private final CommandProcessor.OverflowPolicy overflowPolicy;
+
+	private long[] checkpointTicks;
+	private long[] checkpointOffsets;
+	private int nbCheckpoints;
+	private long endTick;
+	private long nbCommands;
+
+	// the game being replayed
+	private IFacade facade;
+	private GameView view;
+	private Simulation simulation;
+	private final List<Worm> worms = new ArrayList<Worm>();
+	// offset of the next record to replay
+	private int position;
+
+	/**
+	 * Open the journal in the given file. Journals of more than 2 GB cannot be
+	 * opened.
+	 */
+	public static JournalReplay open(File file) throws IOException {
+		RandomAccessFile raf = new RandomAccessFile(file, "r");
+		try {
+			return new JournalReplay(raf);
+		} catch (IOException e) {
+			raf.close();
+			throw e;
+		} catch (RuntimeException e) {
+			raf.close();
+			throw e;
+		}
+	}
+
+	private JournalReplay(RandomAccessFile file) throws IOException {
+		this.file = file;
+		FileChannel channel = file.getChannel();
+		long size = channel.size();
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Journal too large: " + size + " bytes");
+		}
+		if (size < CommandJournal.HEADER_SIZE) {
+			throw new IOException("Not a journal: too short");
+		}
+		this.buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+		if (buffer.getInt(0) != CommandJournal.MAGIC) {
+			throw new IOException("Not a journal");
+		}
+		int version = buffer.getInt(4);
+		if (version != CommandJournal.VERSION) {
+			throw new IOException("Unsupported journal version: " + version);
+		}
+		this.randomSeed = buffer.getLong(8);
+		this.timeStep = buffer.getDouble(16);
+		this.width = buffer.getInt(24);
+		this.height = buffer.getInt(28);
+		this.capacity = buffer.getInt(32);
+		this.overflowPolicy = CommandProcessor.OverflowPolicy.values()[buffer
+				.get(36)];
+
+		if (!readIndex()) {
+			buildIndex();
+		}
+		if (nbCheckpoints == 0) {
+			throw new IOException("Journal without checkpoints");
+		}
+	}
+
+	/**
+	 * Read the index at the end of a closed journal.
+	 */
+	private boolean readIndex() {
+		int end = buffer.limit();
+		if (end < CommandJournal.HEADER_SIZE + 12
+				|| buffer.getInt(end - 4) != CommandJournal.END_MAGIC) {
+			return false;
+		}
+		int offset = (int) buffer.getLong(end - 12);
+		if (buffer.get(offset) != CommandJournal.INDEX) {
+			return false;
+		}
+		endTick = buffer.getLong(offset + 1);
+		nbCommands = buffer.getLong(offset + 9);
+		nbCheckpoints = buffer.getInt(offset + 17);
+		checkpointTicks = new long[nbCheckpoints];
+		checkpointOffsets = new long[nbCheckpoints];
+		offset += 21;
+		for (int i = 0; i < nbCheckpoints; i++) {
+			checkpointTicks[i] = buffer.getLong(offset);
+			checkpointOffsets[i] = buffer.getLong(offset + 8);
+			offset += 16;
+		}
+		return true;
+	}
+
+	/**
+	 * Read through the records of a journal that was not closed. A record that
+	 * was cut off ends the journal.
+	 */
+	private void buildIndex() {
+		checkpointTicks = new long[16];
+		checkpointOffsets = new long[16];
+		int offset = CommandJournal.HEADER_SIZE;
+		int next;
+		while ((next = skipRecord(offset)) > 0) {
+			byte type = buffer.get(offset);
+			long tick = buffer.getLong(offset + 1);
+			if (type == CommandJournal.CHECKPOINT) {
+				if (nbCheckpoints == checkpointTicks.length) {
+					checkpointTicks = Arrays.copyOf(checkpointTicks,
+							2 * nbCheckpoints);
+					checkpointOffsets = Arrays.copyOf(checkpointOffsets,
+							2 * nbCheckpoints);
+				}
+				checkpointTicks[nbCheckpoints] = tick;
+				checkpointOffsets[nbCheckpoints] = offset;
+				nbCheckpoints++;
+			} else if (type != CommandJournal.ADD_WORM) {
+				nbCommands++;
+			}
+			endTick = tick;
+			offset = next;
+		}
+	}
+
+	/**
+	 * Returns the offset of the record after the one at the given offset, or
+	 * -1 if there is no complete record at the given offset.
+	 */
+	private int skipRecord(int offset) {
+		int limit = buffer.limit();
+		if (offset + 1 + 8 > limit) {
+			return -1;
+		}
+		int result = offset + 1 + 8;
+		switch (buffer.get(offset)) {
+		case CommandJournal.CHECKPOINT:
+			if (result + 4 > limit) {
+				return -1;
+			}
+			int nbWorms = buffer.getInt(result);
+			result += 4;
+			for (int i = 0; i < nbWorms && result > 0; i++) {
+				result = skipWorm(result);
+			}
+			return result;
+		case CommandJournal.ADD_WORM:
+			return skipWorm(result);
+		default:
+			// a command, with the index of its worm
+			if (result + 4 > limit) {
+				return -1;
+			}
+			int size = CommandCodec.getArgumentsSize(buffer, result + 4,
+					buffer.get(offset));
+			return size < 0 ? -1 : result + 4 + size;
+		}
+	}
+
+	private int skipWorm(int offset) {
+		return skipName(offset + 4 * 8 + 4);
+	}
+
+	private int skipName(int offset) {
+		if (offset + 4 > buffer.limit()) {
+			return -1;
+		}
+		int result = offset + 4 + 2 * buffer.getInt(offset);
+		return result <= buffer.limit() ? result : -1;
+	}
+
+	public long getRandomSeed() {
+		return randomSeed;
+	}
+
+	/**
+	 * Duration of a single step of the recorded game, in worm-seconds
+	 */
+	public double getTimeStep() {
+		return timeStep;
+	}
+
+	/**
+	 * Number of steps recorded; for journals that were not closed, the step of
+	 * the last record.
+	 */
+	public long getEndTick() {
+		return endTick;
+	}
+
+	/**
+	 * Number of commands recorded
+	 */
+	public long getNbCommands() {
+		return nbCommands;
+	}
+
+	public int getNbCheckpoints() {
+		return nbCheckpoints;
+	}
+
+	/**
+	 * The simulation of the game being replayed, or null if no replay has
+	 * started
+	 */
+	public Simulation getSimulation() {
+		return simulation;
+	}
+
+	/**
+	 * Start replaying the game with the given facade, which must not have
+	 * created worms yet, from the given step on. The visible effects of the
+	 * commands are shown in the given view.
+	 *
+	 * @return the simulation of the game, which has taken the given number of
+	 *         steps
+	 */
+	public Simulation seek(IFacade facade, GameView view, long tick) {
+		if (tick < checkpointTicks[0]) {
+			throw new IllegalArgumentException("Cannot replay before step "
+					+ checkpointTicks[0] + ": " + tick);
+		}
+		// the last checkpoint at or before the given step
+		int index = Arrays.binarySearch(checkpointTicks, 0, nbCheckpoints,
+				tick);
+		if (index < 0) {
+			index = -index - 2;
+		}
+		this.facade = facade;
+		this.view = view;
+		restoreCheckpoint((int) checkpointOffsets[index]);
+		advanceTo(tick);
+		return simulation;
+	}
+
+	/**
+	 * Replay the game until it has taken the given number of steps.
+	 */
+	public void advanceTo(long tick) {
+		if (simulation == null) {
+			throw new IllegalStateException("No replay has started");
+		}
+		long current = simulation.getTickCount();
+		while (current < tick) {
+			replayRecords(current);
+			simulation.step();
+			current++;
+		}
+	}
+
+	/**
+	 * Replay the game until all recorded steps have been taken.
+	 */
+	public void advanceToEnd() {
+		advanceTo(endTick);
+	}
+
+	private void restoreCheckpoint(int offset) {
+		long tick = buffer.getLong(offset + 1);
+		GameState state = new GameState(facade, randomSeed, width, height);
+		state.getCommandProcessor().setCapacity(capacity);
+		state.getCommandProcessor().setOverflowPolicy(overflowPolicy);
+		simulation = new Simulation(state, timeStep, tick);
+		worms.clear();
+		int nbWorms = buffer.getInt(offset + 9);
+		position = offset + 13;
+		for (int i = 0; i < nbWorms; i++) {
+			state.addWorm(readWorm());
+		}
+	}
+
+	/**
+	 * Replay the records of the given step: add their worms to the game and
+	 * enqueue their commands, which the game takes in during that step.
+	 */
+	private void replayRecords(long tick) {
+		GameState state = simulation.getGameState();
+		int next;
+		while ((next = skipRecord(position)) > 0
+				&& buffer.getLong(position + 1) <= tick) {
+			byte type = buffer.get(position);
+			int start = position;
+			position += 1 + 8;
+			switch (type) {
+			case CommandJournal.CHECKPOINT:
+				// the game is already in this state
+				break;
+			case CommandJournal.ADD_WORM:
+				state.addWorm(readWorm());
+				break;
+			default:
+				if (!CommandCodec.isCommand(type)) {
+					throw new IllegalStateException("Unknown record at "
+							+ start);
+				}
+				Worm worm = readWormIndex();
+				buffer.position(position);
+				state.enqueueCommand(CommandCodec.readCommand(buffer, type,
+						facade, worm, view));
+			}
+			position = next;
+		}
+	}
+
+	private Worm readWormIndex() {
+		int index = buffer.getInt(position);
+		position += 4;
+		return index < 0 ? null : worms.get(index);
+	}
+
+	private Worm readWorm() {
+		double x = buffer.getDouble(position);
+		double y = buffer.getDouble(position + 8);
+		double direction = buffer.getDouble(position + 16);
+		double radius = buffer.getDouble(position + 24);
+		int actionPoints = buffer.getInt(position + 32);
+		position += 4 * 8 + 4;
+		Worm worm = facade.restoreWorm(x, y, direction, radius, readName(),
+				actionPoints);
+		worms.add(worm);
+		return worm;
+	}
+
+	private String readName() {
+		buffer.position(position);
+		String name = CommandCodec.readString(buffer);
+		position = buffer.position();
+		return name;
+	}
+
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+}
@@ -1,20 +1,33 @@
 package worms.gui.game.commands;
 
-import worms.gui.game.PlayGameScreen;
-import worms.gui.game.sprites.WormSprite;
+import worms.gui.game.GameView;
 import worms.model.IFacade;
 import worms.model.ModelException;
 import worms.model.Worm;
 
 public class Jump extends Command {
+	/**
+	 * Time between two sampled locations of the animated trajectory (in
+	 * worm-seconds); the shown location is interpolated linearly in between.
+	 */
+	private static final double TRAJECTORY_SAMPLE_TIME = 0.01;
+
 	private final Worm worm;
 	private boolean finished = false;
 
-	public Jump(IFacade facade, Worm worm, PlayGameScreen screen) {
-		super(facade, screen);
+	private double totalDuration;
+	private double startX;
+	private double startY;
+	// sampled once when the jump starts, (x, y) pairs
+	private double[] trajectory;
+	private int nbSamples;
+
+	public Jump(IFacade facade, Worm worm, GameView view) {
+		super(facade, view);
 		this.worm = worm;
 	}
 
+	@Override
 	public Worm getWorm() {
 		return worm;
 	}
@@ -26,36 +39,46 @@ public class Jump extends Command {
 
 	@Override
 	protected void doStartExecution() {
-
+		try {
+			totalDuration = getFacade().getJumpTime(getWorm());
+			nbSamples = Math.max(1,
+					(int) Math.ceil(totalDuration / TRAJECTORY_SAMPLE_TIME));
+			trajectory = new double[2 * nbSamples];
+			getFacade().sampleJumpTrajectory(getWorm(), nbSamples, trajectory);
+			startX = getFacade().getX(getWorm());
+			startY = getFacade().getY(getWorm());
+		} catch (ModelException e) {
+			trajectory = null;
+		}
 	}
-	
+
 	@Override
 	protected void executionCancelled() {
-		getScreen().addMessage("This worm cannot jump :(");
-	}
-
-	private double getTotalDuration() {
-		return getFacade().getJumpTime(getWorm());
+		getView().addMessage("This worm cannot jump :(");
 	}
 
 	@Override
 	protected void doUpdate(double dt) {
-		WormSprite sprite = getScreen().getWormSprite(getWorm());
-
 		try {
-			if (getElapsedTime() >= getTotalDuration()) {
+			if (trajectory == null) {
+				throw new ModelException("Cannot sample jump trajectory");
+			}
+			if (getElapsedTime() >= totalDuration) {
 				getFacade().jump(worm);
 				finished = true;
-				double x = getScreen().getScreenX(getFacade().getX(getWorm()));
-				double y = getScreen().getScreenY(getFacade().getY(getWorm()));
-
-				sprite.setCenterLocation(x, y);
+				getView().showWormLocation(getWorm(), getFacade().getX(getWorm()),
+						getFacade().getY(getWorm()));
 			} else {
-				double[] xy = getFacade().getJumpStep(getWorm(),
-						getElapsedTime());
+				// sample i lies at time (i+1) * totalDuration / nbSamples
+				double position = getElapsedTime() / totalDuration * nbSamples;
+				int next = Math.min((int) position, nbSamples - 1);
+				double t = position - next;
+				double prevX = next == 0 ? startX : trajectory[2 * next - 2];
+				double prevY = next == 0 ? startY : trajectory[2 * next - 1];
+				double x = (1.0 - t) * prevX + t * trajectory[2 * next];
+				double y = (1.0 - t) * prevY + t * trajectory[2 * next + 1];
 
-				sprite.setCenterLocation(getScreen().getScreenX(xy[0]),
-						getScreen().getScreenY(xy[1]));
+				getView().showWormLocation(getWorm(), x, y);
 			}
 		} catch (ModelException e) {
 			finished = true;
@@ -63,8 +86,16 @@ public class Jump extends Command {
 		}
 	}
 
+	/**
+	 * The worm only jumps when it lands.
+	 */
+	@Override
+	public boolean hasTakenEffect() {
+		return finished;
+	}
+
 	@Override
 	protected boolean isDoneExecuting() {
 		return finished;
 	}
-}
\ No newline at end of file
+}
@@ -1,14 +1,21 @@
 package worms.gui.game.commands;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
 import worms.gui.GUIConstants;
-import worms.gui.game.PlayGameScreen;
-import worms.gui.game.sprites.WormSprite;
+import worms.gui.game.GameView;
 import worms.model.IFacade;
 import worms.model.Worm;
 
 public class Move extends Command {
 	private final Worm worm;
 	private final int nbSteps;
+	// the moves this move was merged from, in order, or null if it was not
+	private final Move[] parts;
+	private int nbStepsTaken;
 
 	private double startX;
 	private double startY;
@@ -16,36 +23,110 @@ public class Move extends Command {
 	private double finalX;
 	private double finalY;
 
-	public Move(IFacade facade, Worm worm, int nbSteps, PlayGameScreen screen) {
-		super(facade, screen);
+	public Move(IFacade facade, Worm worm, int nbSteps, GameView view) {
+		this(facade, worm, nbSteps, view, null);
+	}
+
+	private Move(IFacade facade, Worm worm, int nbSteps, GameView view,
+			Move[] parts) {
+		super(facade, view);
 		this.worm = worm;
 		this.nbSteps = nbSteps;
+		this.parts = parts;
 	}
 
+	@Override
 	public Worm getWorm() {
 		return worm;
 	}
 
+	public int getNbSteps() {
+		return nbSteps;
+	}
+
+	@Override
+	public List<Command> getParts() {
+		if (parts == null) {
+			return super.getParts();
+		}
+		return Collections.<Command> unmodifiableList(Arrays.asList(parts));
+	}
+
+	/**
+	 * Successive moves of the same worm are merged into a single move of at
+	 * most {@link GUIConstants#MAX_MERGED_STEPS} steps, as long as it costs as
+	 * many action points as the moves do on their own in the direction the
+	 * worm faces.
+	 */
+	@Override
+	public Command mergeWith(Command next) {
+		if (!(next instanceof Move)) {
+			return null;
+		}
+		Move other = (Move) next;
+		int total = nbSteps + other.nbSteps;
+		if (other.worm != worm || other.getFacade() != getFacade()
+				|| other.getView() != getView()
+				|| total > GUIConstants.MAX_MERGED_STEPS
+				|| getCost(total) != getCost(nbSteps) + getCost(other.nbSteps)) {
+			return null;
+		}
+		List<Command> merged = new ArrayList<Command>(getParts());
+		merged.addAll(other.getParts());
+		return new Move(getFacade(), worm, total, getView(),
+				merged.toArray(new Move[merged.size()]));
+	}
+
+	/**
+	 * The number of action points the worm needs to move the given number of
+	 * steps in the direction it faces
+	 */
+	private long getCost(int steps) {
+		double orientation = getFacade().getOrientation(worm);
+		return (long) Math.ceil(steps
+				* (Math.abs(Math.cos(orientation) + 4
+						* Math.abs(Math.sin(orientation)))));
+	}
+
+	/**
+	 * Whether moving all steps at once costs as many action points as moving
+	 * the steps of each part in turn
+	 */
+	private boolean costsAsMuchAsParts() {
+		long cost = 0;
+		for (Command part : getParts()) {
+			cost += getCost(((Move) part).nbSteps);
+		}
+		return cost == getCost(nbSteps);
+	}
+
 	@Override
 	protected boolean canExecute() {
-		return worm != null && getFacade().canMove(worm, nbSteps);
+		if (worm == null) {
+			return false;
+		}
+		for (Command part : getParts()) {
+			if (getFacade().canMove(worm, ((Move) part).nbSteps)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	private double getTotalDuration() {
-		return nbSteps * GUIConstants.MOVE_DURATION;
+		return nbStepsTaken * GUIConstants.MOVE_DURATION;
 	}
 
 	@Override
 	protected void doUpdate(double dt) {
-		WormSprite sprite = getScreen().getWormSprite(getWorm());
 		if (getElapsedTime() < getTotalDuration()) {
 			double t = getElapsedTime() / getTotalDuration();
 			t = t * t * (3 - 2 * t); // smooth-step interpolation
 			double x = (1.0 - t) * startX + t * finalX;
 			double y = (1.0 - t) * startY + t * finalY;
-			sprite.setCenterLocation(x, y);
+			getView().showWormLocation(getWorm(), x, y);
 		} else {
-			sprite.setCenterLocation(finalX, finalY);
+			getView().showWormLocation(getWorm(), finalX, finalY);
 		}
 	}
 
@@ -56,15 +137,32 @@ public class Move extends Command {
 
 	@Override
 	protected void executionCancelled() {
-		getScreen().addMessage("This worm cannot move :(");
+		getView().addMessage("This worm cannot move :(");
 	}
 
 	@Override
 	protected void doStartExecution() {
-		this.startX = getScreen().getScreenX(getFacade().getX(worm));
-		this.startY = getScreen().getScreenY(getFacade().getY(worm));
-		getFacade().move(worm, nbSteps);
-		this.finalX = getScreen().getScreenX(getFacade().getX(worm));
-		this.finalY = getScreen().getScreenY(getFacade().getY(worm));
+		this.startX = getFacade().getX(worm);
+		this.startY = getFacade().getY(worm);
+		if (parts == null
+				|| (getFacade().canMove(worm, nbSteps) && costsAsMuchAsParts())) {
+			nbStepsTaken = nbSteps;
+			getFacade().move(worm, nbStepsTaken);
+		} else {
+			// the worm turned since the moves were merged, or cannot afford
+			// them all: take each part as if it had not been merged
+			nbStepsTaken = 0;
+			for (Command part : getParts()) {
+				int steps = ((Move) part).nbSteps;
+				if (getFacade().canMove(worm, steps)) {
+					getFacade().move(worm, steps);
+					nbStepsTaken += steps;
+				} else {
+					executionCancelled();
+				}
+			}
+		}
+		this.finalX = getFacade().getX(worm);
+		this.finalY = getFacade().getY(worm);
 	}
 }
\ No newline at end of file
@@ -1,6 +1,6 @@
 package worms.gui.game.commands;
 
-import worms.gui.game.PlayGameScreen;
+import worms.gui.game.GameView;
 import worms.model.IFacade;
 import worms.model.ModelException;
 import worms.model.Worm;
@@ -10,12 +10,29 @@ public class Rename extends InstantaneousCommand {
 	private final Worm worm;
 
 	public Rename(IFacade facade, Worm worm, String newName,
-			PlayGameScreen screen) {
-		super(facade, screen);
+			GameView view) {
+		super(facade, view);
 		this.worm = worm;
 		this.newName = newName;
 	}
 
+	@Override
+	public Worm getWorm() {
+		return worm;
+	}
+
+	public String getNewName() {
+		return newName;
+	}
+
+	/**
+	 * Never waits for the animations of the worm.
+	 */
+	@Override
+	public boolean canOvertake() {
+		return true;
+	}
+
 	@Override
 	protected boolean canExecute() {
 		return worm != null;
@@ -27,7 +44,7 @@ public class Rename extends InstantaneousCommand {
 			getFacade().rename(worm, newName);
 		} catch (ModelException e) {
 			// an invalid name
-			getScreen().addMessage("Invalid name: " + newName);
+			getView().addMessage("Invalid name: " + newName);
 		}
 	}
 }
\ No newline at end of file
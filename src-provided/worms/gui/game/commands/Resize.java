@@ -1,7 +1,6 @@
 package worms.gui.game.commands;
 
-import worms.gui.game.PlayGameScreen;
-import worms.gui.game.sprites.WormSprite;
+import worms.gui.game.GameView;
 import worms.model.IFacade;
 import worms.model.ModelException;
 import worms.model.Worm;
@@ -11,12 +10,21 @@ public class Resize extends InstantaneousCommand {
 	private final double factor;
 
 	public Resize(IFacade facade, Worm worm, double factor,
-			PlayGameScreen screen) {
-		super(facade, screen);
+			GameView view) {
+		super(facade, view);
 		this.worm = worm;
 		this.factor = factor;
 	}
 
+	@Override
+	public Worm getWorm() {
+		return worm;
+	}
+
+	public double getFactor() {
+		return factor;
+	}
+
 	@Override
 	protected boolean canExecute() {
 		return worm != null;
@@ -27,11 +35,10 @@ public class Resize extends InstantaneousCommand {
 		try {
 			double newRadius = factor * getFacade().getRadius(worm);
 			getFacade().setRadius(worm, newRadius);
-			WormSprite sprite = getScreen().getWormSprite(worm);
-			sprite.setRadius(newRadius);
+			getView().showWormRadius(worm, newRadius);
 		} catch (ModelException e) {
 			// an invalid radius
-			getScreen().addMessage(
+			getView().addMessage(
 					"Cannot " + (factor > 1.0 ? "grow" : "shrink")
 							+ " that worm anymore :(");
 		}
@@ -1,34 +1,110 @@
 package worms.gui.game.commands;
 
-import worms.gui.game.PlayGameScreen;
-import worms.gui.game.sprites.WormSprite;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import worms.gui.game.GameView;
 import worms.model.IFacade;
 import worms.model.Worm;
 
 public class Turn extends InstantaneousCommand {
 	private final Worm worm;
 	private final double angle;
+	// the turns this turn was merged from, in order, or null if it was not
+	private final Turn[] parts;
+
+	public Turn(IFacade facade, Worm worm, double angle, GameView view) {
+		this(facade, worm, angle, view, null);
+	}
 
-	public Turn(IFacade facade, Worm worm, double angle, PlayGameScreen screen) {
-		super(facade, screen);
+	private Turn(IFacade facade, Worm worm, double angle, GameView view,
+			Turn[] parts) {
+		super(facade, view);
 		this.worm = worm;
 		this.angle = angle;
+		this.parts = parts;
+	}
+
+	@Override
+	public Worm getWorm() {
+		return worm;
+	}
+
+	public double getAngle() {
+		return angle;
+	}
+
+	@Override
+	public List<Command> getParts() {
+		if (parts == null) {
+			return super.getParts();
+		}
+		return Collections.<Command> unmodifiableList(Arrays.asList(parts));
+	}
+
+	/**
+	 * Successive turns of the same worm are merged into a single turn by the
+	 * sum of their angles, as long as that sum is still an angle in [-pi, pi)
+	 * and costs as many action points as both turns do on their own.
+	 */
+	@Override
+	public Command mergeWith(Command next) {
+		if (!(next instanceof Turn)) {
+			return null;
+		}
+		Turn other = (Turn) next;
+		double total = angle + other.angle;
+		if (other.worm != worm || other.getFacade() != getFacade()
+				|| other.getView() != getView() || total < -Math.PI
+				|| total >= Math.PI
+				|| getCost(total) != getCost(angle) + getCost(other.angle)) {
+			return null;
+		}
+		List<Command> merged = new ArrayList<Command>(getParts());
+		merged.addAll(other.getParts());
+		return new Turn(getFacade(), worm, total, getView(),
+				merged.toArray(new Turn[merged.size()]));
+	}
+
+	/**
+	 * The number of action points a worm needs to turn by the given angle
+	 */
+	private static long getCost(double angle) {
+		return (long) Math.ceil(Math.abs(angle) * 60 / (2 * Math.PI));
 	}
 
 	@Override
 	protected boolean canExecute() {
-		return getFacade().canTurn(worm, angle);
+		for (Command part : getParts()) {
+			if (getFacade().canTurn(worm, ((Turn) part).angle)) {
+				return true;
+			}
+		}
+		return false;
 	}
 	
 	@Override
 	protected void executionCancelled() {
-		getScreen().addMessage("This worm cannot perform that turn :(");
+		getView().addMessage("This worm cannot perform that turn :(");
 	}
 	
 	@Override
 	protected void doStartExecution() {
-		getFacade().turn(worm, angle);
-		WormSprite sprite = getScreen().getWormSprite(worm);
-		sprite.setDirection(getFacade().getOrientation(worm));
+		if (parts == null || getFacade().canTurn(worm, angle)) {
+			getFacade().turn(worm, angle);
+		} else {
+			// the worm cannot afford all turns: take each as if it had not
+			// been merged
+			for (Turn part : parts) {
+				if (getFacade().canTurn(worm, part.angle)) {
+					getFacade().turn(worm, part.angle);
+				} else {
+					executionCancelled();
+				}
+			}
+		}
+		getView().showWormDirection(worm, getFacade().getOrientation(worm));
 	}
 }
\ No newline at end of file
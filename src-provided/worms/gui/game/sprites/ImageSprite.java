@@ -3,19 +3,15 @@ package worms.gui.game.sprites;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-
-import javax.imageio.ImageIO;
 
 public class ImageSprite extends Sprite {
 
 	// original image, at original scale
 	private final BufferedImage originalImage;
 
-	// only created when scale != 1.0
+	// shared with other sprites through the image cache
 	private BufferedImage scaledImage;
-	// only create when necessary
+	// only fetched when necessary
 	private BufferedImage scaledImageHflipped;
 
 	private boolean hflipped = false;
@@ -48,20 +44,9 @@ public class ImageSprite extends Sprite {
 
 	public void setScale(double scale) {
 		this.scale = scale;
-		if (scale != 1.0) {
-			this.scaledImage = toBufferedImage(originalImage.getScaledInstance(
-					(int) (scale * originalImage.getWidth()),
-					(int) (scale * originalImage.getHeight()),
-					Image.SCALE_SMOOTH));
-		} else {
-			this.scaledImage = originalImage;
-		}
-
-		if (isHflipped()) {
-			this.scaledImageHflipped = hflip(this.scaledImage);
-		} else {
-			this.scaledImageHflipped = null;
-		}
+		this.scaledImage = getImageCache().getImage(originalImage, scale, false);
+		// fetched from the cache when first drawn flipped
+		this.scaledImageHflipped = null;
 	}
 
 	public double getScale() {
@@ -72,7 +57,8 @@ public class ImageSprite extends Sprite {
 		Image imageToDraw = scaledImage;
 		if (isHflipped()) {
 			if (scaledImageHflipped == null) {
-				scaledImageHflipped = hflip(scaledImage);
+				scaledImageHflipped = getImageCache().getImage(originalImage,
+						scale, true);
 			}
 			imageToDraw = scaledImageHflipped;
 		}
@@ -80,12 +66,11 @@ public class ImageSprite extends Sprite {
 	}
 
 	protected BufferedImage loadImage(String filename) {
-		try {
-			return ImageIO.read(new File(filename));
-		} catch (IOException e) {
-			throw new RuntimeException(
-					"Could not read file '" + filename + "'", e);
-		}
+		return getImageCache().getSource(filename);
+	}
+
+	protected SpriteImageCache getImageCache() {
+		return SpriteImageCache.getDefault();
 	}
 
 	public void setHflipped(boolean value) {
@@ -96,35 +81,12 @@ public class ImageSprite extends Sprite {
 		return hflipped;
 	}
 
-	protected static BufferedImage hflip(BufferedImage image) {
-		BufferedImage flippedImage = new BufferedImage(image.getWidth(),
-				image.getHeight(), image.getType());
-		Graphics2D flippedGraphics = flippedImage.createGraphics();
-		flippedGraphics.scale(-1, 1);
-		flippedGraphics.drawImage(image, -image.getWidth(null), 0, null);
-		flippedGraphics.dispose();
-		return flippedImage;
-	}
-
-	protected static BufferedImage toBufferedImage(Image img) {
-		if (img instanceof BufferedImage) {
-			return (BufferedImage) img;
-		}
-
-		BufferedImage result = new BufferedImage(img.getWidth(null),
-				img.getHeight(null), BufferedImage.TYPE_INT_ARGB);
-
-		Graphics2D resultGraphics = result.createGraphics();
-		resultGraphics.drawImage(img, 0, 0, null);
-		resultGraphics.dispose();
-
-		return result;
-	}
-
 	@Override
 	public void draw(Graphics2D g) {
-		int x = (int) (getCenterX() - getWidth(g) / 2);
-		int y = (int) (getCenterY() - getHeight(g) / 2);
-		g.drawImage(getImageToDraw(), x, y, null);
+		// cached rasters are scaled to a nearby quantized scale; center them
+		Image image = getImageToDraw();
+		int x = (int) (getCenterX() - image.getWidth(null) / 2.0);
+		int y = (int) (getCenterY() - image.getHeight(null) / 2.0);
+		g.drawImage(image, x, y, null);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,247 @@
+package worms.gui.game.sprites;
+
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.imageio.ImageIO;
+
+import worms.gui.GUIConstants;
+
+/**
+ * Process-wide cache of the rasters drawn by image sprites.
+ *
+ * Source images are read from disk once per file name and are kept for the
+ * lifetime of the process. Scaled and flipped versions of a source image are
+ * keyed by (source image, quantized scale, flip), so that sprites showing the
+ * same image at (nearly) the same size share one raster. Scales are rounded to
+ * {@link #SCALE_LEVELS_PER_DOUBLING} levels per doubling, which keeps the
+ * error on the drawn size below 1%.
+ *
+ * Scaled rasters are evicted in least-recently-used order as soon as their
+ * total size exceeds the byte budget. Sprites keep the rasters they use, so
+ * eviction only affects sprites that change scale afterwards.
+ */
+public class SpriteImageCache {
+
+	/**
+	 * Number of distinct scales between a scale s and 2s
+	 */
+	public static final int SCALE_LEVELS_PER_DOUBLING = 64;
+
+	private static final SpriteImageCache DEFAULT = new SpriteImageCache(
+			GUIConstants.SPRITE_CACHE_BYTES);
+
+	/**
+	 * Returns the cache shared by all sprites.
+	 */
+	public static SpriteImageCache getDefault() {
+		return DEFAULT;
+	}
+
+	private static final class Key {
+		private final BufferedImage source;
+		private final int level;
+		private final boolean flipped;
+
+		public Key(BufferedImage source, int level, boolean flipped) {
+			this.source = source;
+			this.level = level;
+			this.flipped = flipped;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return source == other.source && level == other.level
+					&& flipped == other.flipped;
+		}
+
+		@Override
+		public int hashCode() {
+			return (System.identityHashCode(source) * 31 + level) * 2
+					+ (flipped ? 1 : 0);
+		}
+	}
+
+	private final Map<String, BufferedImage> sources = new HashMap<String, BufferedImage>();
+
+	// in access order, least recently used first
+	private final LinkedHashMap<Key, BufferedImage> rasters = new LinkedHashMap<Key, BufferedImage>(
+			16, 0.75f, true);
+
+	private long byteBudget;
+	private long residentBytes;
+	private long hits;
+	private long misses;
+	private long evictions;
+
+	public SpriteImageCache(long byteBudget) {
+		setByteBudget(byteBudget);
+	}
+
+	/**
+	 * Returns the image in the file with the given name, reading it only the
+	 * first time it is asked for.
+	 */
+	public synchronized BufferedImage getSource(String filename) {
+		BufferedImage result = sources.get(filename);
+		if (result == null) {
+			try {
+				result = ImageIO.read(new File(filename));
+			} catch (IOException e) {
+				throw new RuntimeException("Could not read file '" + filename
+						+ "'", e);
+			}
+			if (result == null) {
+				throw new RuntimeException("Not an image: '" + filename + "'");
+			}
+			sources.put(filename, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the given source image, scaled by (approximately) the given
+	 * factor and mirrored horizontally if asked.
+	 */
+	public synchronized BufferedImage getImage(BufferedImage source,
+			double scale, boolean flipped) {
+		int level = getScaleLevel(scale);
+		if (level == 0 && !flipped) {
+			return source;
+		}
+		Key key = new Key(source, level, flipped);
+		BufferedImage result = rasters.get(key);
+		if (result != null) {
+			hits++;
+			return result;
+		}
+		misses++;
+		if (flipped) {
+			result = hflip(getImage(source, scale, false));
+		} else {
+			result = scale(source, getQuantizedScale(level));
+		}
+		rasters.put(key, result);
+		residentBytes += getSizeInBytes(result);
+		evict();
+		return result;
+	}
+
+	private static int getScaleLevel(double scale) {
+		return (int) Math.round(Math.log(scale) / Math.log(2)
+				* SCALE_LEVELS_PER_DOUBLING);
+	}
+
+	private static double getQuantizedScale(int level) {
+		return Math.pow(2, level / (double) SCALE_LEVELS_PER_DOUBLING);
+	}
+
+	private void evict() {
+		Iterator<BufferedImage> it = rasters.values().iterator();
+		// the raster that was added last always stays
+		while (residentBytes > byteBudget && rasters.size() > 1) {
+			BufferedImage eldest = it.next();
+			residentBytes -= getSizeInBytes(eldest);
+			it.remove();
+			evictions++;
+		}
+	}
+
+	public synchronized long getByteBudget() {
+		return byteBudget;
+	}
+
+	public synchronized void setByteBudget(long byteBudget) {
+		if (byteBudget < 0) {
+			throw new IllegalArgumentException("Byte budget cannot be negative");
+		}
+		this.byteBudget = byteBudget;
+		evict();
+	}
+
+	/**
+	 * Returns the number of bytes held by the scaled and flipped rasters in
+	 * this cache; source images are not counted.
+	 */
+	public synchronized long getResidentBytes() {
+		return residentBytes;
+	}
+
+	public synchronized int getNbRasters() {
+		return rasters.size();
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getEvictions() {
+		return evictions;
+	}
+
+	/**
+	 * Returns the fraction of requests for a scaled or flipped raster that
+	 * were served from the cache, or 0 if there were none.
+	 */
+	public synchronized double getHitRate() {
+		long total = hits + misses;
+		return total == 0 ? 0 : hits / (double) total;
+	}
+
+	/**
+	 * Drops all scaled and flipped rasters and resets the statistics.
+	 */
+	public synchronized void clear() {
+		rasters.clear();
+		residentBytes = 0;
+		hits = 0;
+		misses = 0;
+		evictions = 0;
+	}
+
+	private static long getSizeInBytes(BufferedImage image) {
+		DataBuffer buffer = image.getRaster().getDataBuffer();
+		return (long) buffer.getSize() * buffer.getNumBanks()
+				* DataBuffer.getDataTypeSize(buffer.getDataType()) / 8;
+	}
+
+	private static BufferedImage scale(BufferedImage image, double scale) {
+		int width = Math.max(1, (int) (scale * image.getWidth()));
+		int height = Math.max(1, (int) (scale * image.getHeight()));
+		Image scaled = image.getScaledInstance(width, height,
+				Image.SCALE_SMOOTH);
+		BufferedImage result = new BufferedImage(width, height,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D resultGraphics = result.createGraphics();
+		resultGraphics.drawImage(scaled, 0, 0, null);
+		resultGraphics.dispose();
+		return result;
+	}
+
+	private static BufferedImage hflip(BufferedImage image) {
+		int type = image.getType() == BufferedImage.TYPE_CUSTOM ? BufferedImage.TYPE_INT_ARGB
+				: image.getType();
+		BufferedImage flippedImage = new BufferedImage(image.getWidth(),
+				image.getHeight(), type);
+		Graphics2D flippedGraphics = flippedImage.createGraphics();
+		flippedGraphics.scale(-1, 1);
+		flippedGraphics.drawImage(image, -image.getWidth(null), 0, null);
+		flippedGraphics.dispose();
+		return flippedImage;
+	}
+}
@@ -0,0 +1,109 @@
+package worms.gui.game.sprites;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import worms.model.Worm;
+
+/**
+ * Keeps the sprites shown on a screen, indexed so that the per-frame lookups
+ * do not depend on the number of sprites.
+ *
+ * Worm sprites are found by identity of their worm. Sprites of a given type
+ * are kept in a bucket per requested type, in the order in which they were
+ * added; {@link #getSpritesOfType(Class)} returns a read-only view of that
+ * bucket instead of a copy.
+ */
+public class SpriteRegistry {
+
+	private final List<Sprite> sprites = new ArrayList<Sprite>();
+
+	private final Map<Worm, WormSprite> wormSprites = new IdentityHashMap<Worm, WormSprite>();
+
+	private final Map<Class<?>, Bucket<?>> buckets = new HashMap<Class<?>, Bucket<?>>();
+
+	private static class Bucket<T extends Sprite> {
+		private final Class<T> type;
+		private final List<T> sprites = new ArrayList<T>();
+		private final Collection<T> view = Collections.unmodifiableList(sprites);
+
+		public Bucket(Class<T> type) {
+			this.type = type;
+		}
+
+		public void addIfInstance(Sprite sprite) {
+			if (type.isInstance(sprite)) {
+				sprites.add(type.cast(sprite));
+			}
+		}
+
+		public void remove(Sprite sprite) {
+			if (type.isInstance(sprite)) {
+				sprites.remove(sprite);
+			}
+		}
+	}
+
+	public void add(Sprite sprite) {
+		if (sprite == null) {
+			throw new IllegalArgumentException("Sprite cannot be null");
+		}
+		sprites.add(sprite);
+		if (sprite instanceof WormSprite) {
+			WormSprite wormSprite = (WormSprite) sprite;
+			wormSprites.put(wormSprite.getWorm(), wormSprite);
+		}
+		for (Bucket<?> bucket : buckets.values()) {
+			bucket.addIfInstance(sprite);
+		}
+	}
+
+	public void remove(Sprite sprite) {
+		if (!sprites.remove(sprite)) {
+			return;
+		}
+		if (sprite instanceof WormSprite) {
+			Worm worm = ((WormSprite) sprite).getWorm();
+			if (wormSprites.get(worm) == sprite) {
+				wormSprites.remove(worm);
+			}
+		}
+		for (Bucket<?> bucket : buckets.values()) {
+			bucket.remove(sprite);
+		}
+	}
+
+	public int size() {
+		return sprites.size();
+	}
+
+	/**
+	 * Returns a read-only view of the sprites of the given type, in the order
+	 * in which they were added. The view reflects later additions and
+	 * removals.
+	 */
+	public <T extends Sprite> Collection<T> getSpritesOfType(Class<T> type) {
+		@SuppressWarnings("unchecked")
+		Bucket<T> bucket = (Bucket<T>) buckets.get(type);
+		if (bucket == null) {
+			bucket = new Bucket<T>(type);
+			for (Sprite sprite : sprites) {
+				bucket.addIfInstance(sprite);
+			}
+			buckets.put(type, bucket);
+		}
+		return bucket.view;
+	}
+
+	/**
+	 * Returns the sprite of the given worm, or null if the worm has none.
+	 */
+	public WormSprite getWormSprite(Worm worm) {
+		return wormSprites.get(worm);
+	}
+}
@@ -7,6 +7,11 @@ public class WormSprite extends ImageSprite {
 
 	private final Worm worm;
 
+	// in worm-meter, NaN until set
+	private double radius = Double.NaN;
+	// in pixels per worm-meter, NaN until set
+	private double pixelsPerMeter = Double.NaN;
+
 	public WormSprite(Worm worm) {
 		super("images/worm.png");
 		this.worm = worm;
@@ -29,13 +34,29 @@ public class WormSprite extends ImageSprite {
 	/**
 	 * @param radius
 	 *            (in worm-meter)
+	 * @param pixelsPerMeter
+	 *            the scale at which the world is drawn to screen
+	 */
+	public void setRadius(double radius, double pixelsPerMeter) {
+		if (radius == this.radius && pixelsPerMeter == this.pixelsPerMeter) {
+			return;
+		}
+		this.radius = radius;
+		this.pixelsPerMeter = pixelsPerMeter;
+		setScale(getScaleFor(radius, pixelsPerMeter));
+	}
+
+	/**
+	 * Returns the scale at which the image of a worm with the given radius (in
+	 * worm-meter) is drawn, when the world is drawn at the given number of
+	 * pixels per worm-meter.
 	 */
-	public void setRadius(double radius) {
+	public double getScaleFor(double radius, double pixelsPerMeter) {
 		/*
 		 * Height of the image (when drawn at native size) in worm-meters, given
 		 * the scale at which the world is drawn to screen
 		 */
-		double imageHeightInMeters = GUIUtils.pixelToMeter(getImageHeight());
+		double imageHeightInMeters = getImageHeight() / pixelsPerMeter;
 
 		/*
 		 * scale factor to nicely fit the image in a circle with diameter equal
@@ -46,8 +67,6 @@ public class WormSprite extends ImageSprite {
 		double scaleFactor = fitFactor * 2 * radius / imageHeightInMeters;
 
 		// limit scaling
-		scaleFactor = Math.max(0.1, Math.min(scaleFactor, 100));
-		
-		setScale(scaleFactor);
+		return Math.max(0.1, Math.min(scaleFactor, 100));
 	}
 }
@@ -1,8 +1,14 @@
 package worms.gui.menu;
 
+import java.io.File;
+import java.io.IOException;
+
 import worms.gui.GameState;
+import worms.gui.Simulation;
+import worms.gui.WorldGenerator;
 import worms.gui.WormsGUI;
 import worms.gui.game.PlayGameScreen;
+import worms.gui.game.commands.CommandJournal;
 
 enum MainMenuOption {
 	Play("Play worms"), PlayDebug("Play worms (debug mode)"), Exit("Exit");
@@ -58,11 +64,29 @@ public class MainMenuScreen extends AbstractMenuScreen<MainMenuOption> {
 		WormsGUI gui = getGUI();
 		GameState gameState = new GameState(gui.getFacade(),
 				gui.getOptions().randomSeed, gui.getWidth(), gui.getHeight());
+		String journalFile = gui.getOptions().journalFile;
+		if (journalFile != null) {
+			try {
+				CommandJournal.create(new File(journalFile), gameState,
+						Simulation.DEFAULT_TIME_STEP);
+			} catch (IOException e) {
+				gui.showError("Cannot record the game: " + e.getMessage());
+				return;
+			}
+		}
 
-		PlayGameScreen playGameScreen = PlayGameScreen.create(gui, gameState,
-				debugMode);
+		PlayGameScreen playGameScreen = PlayGameScreen.create(gui,
+				new Simulation(gameState), debugMode);
 
-		gameState.startGame();
+		int generatedWorms = gui.getOptions().generatedWorms;
+		if (generatedWorms > 0) {
+			WorldGenerator generator = new WorldGenerator(
+					gui.getOptions().randomSeed, generatedWorms);
+			generator.setAspectRatio(gui.getWidth() / (double) gui.getHeight());
+			gameState.startGame(generator);
+		} else {
+			gameState.startGame();
+		}
 		getGUI().switchToScreen(playGameScreen);
 	}
 
@@ -1,5 +1,7 @@
 package worms.model;
 
+import java.util.Collection;
+
 /**
  * Implement this interface to connect your code to the user interface.
  * 
@@ -65,6 +67,36 @@ public interface IFacade {
 	Worm createWorm(double x, double y, double direction, double radius,
 			String name);
 
+	/**
+	 * Create new worms all at once, as if each of them was created by
+	 * {@link #createWorm(double, double, double, double, String)}. The given
+	 * arrays all hold a value for every new worm, except for the names: the
+	 * name of the i-th worm is <code>names[nameIndices[i]]</code>.
+	 * 
+	 * @return the new worms, in the order of the given arrays
+	 */
+	Worm[] createWorms(double[] x, double[] y, double[] direction,
+			double[] radius, String[] names, int[] nameIndices);
+
+	/**
+	 * Create a new worm that is positioned at the given location, looks in the
+	 * given direction, has the given radius, the given name and the given
+	 * number of action points, such as a worm that was saved earlier.
+	 */
+	Worm restoreWorm(double x, double y, double direction, double radius,
+			String name, int actionPoints);
+
+	/**
+	 * Create new worms all at once, such as worms that were saved earlier. The
+	 * given arrays all hold a value for every new worm, except for the names:
+	 * the name of the i-th worm is <code>names[nameIndices[i]]</code>.
+	 * 
+	 * @return the new worms, in the order of the given arrays
+	 */
+	Worm[] restoreWorms(double[] x, double[] y, double[] direction,
+			double[] radius, String[] names, int[] nameIndices,
+			long[] actionPoints);
+
 	/**
 	 * Returns whether or not the given worm can move a given number of steps.
 	 */
@@ -106,6 +138,31 @@ public interface IFacade {
 	 */
 	double[] getJumpStep(Worm worm, double t);
 
+	/**
+	 * Stores the locations on the jump trajectory of the given worm at the given
+	 * number of evenly spaced times in the given array, without allocating.
+	 * 
+	 * The location after a time (i+1) * getJumpTime(worm) / samples is stored
+	 * with its x-coordinate at outXY[2*i] and its y-coordinate at outXY[2*i+1],
+	 * so the last location is the end of the jump.
+	 */
+	void sampleJumpTrajectory(Worm worm, int samples, double[] outXY);
+
+	/**
+	 * Returns the worm whose body contains the given location, or null if there
+	 * is no such worm. If several worms contain the location, the one whose
+	 * center is closest to it is returned.
+	 */
+	Worm getWormAt(double x, double y);
+
+	/**
+	 * Adds every worm whose body lies at least partly within the given
+	 * distance of the given location to the given collection, and possibly
+	 * some worms that are a little farther away, each of them once.
+	 */
+	void collectWormsNear(double x, double y, double distance,
+			Collection<? super Worm> result);
+
 	/**
 	 * Returns the x-coordinate of the current location of the given worm.
 	 */
@@ -161,4 +218,23 @@ public interface IFacade {
 	 */
 	double getMass(Worm worm);
 
+	/**
+	 * Returns the modification stamp of the given worm: a number that
+	 * increases whenever the name, location, orientation, radius or number of
+	 * action points of the worm changes, and only then. Values computed from
+	 * the state of a worm remain valid as long as its stamp is the same.
+	 */
+	long getModificationStamp(Worm worm);
+
+	/**
+	 * Registers the given listener, so that it is notified when worms created
+	 * by this facade are added, moved or changed.
+	 */
+	void addWormListener(WormStoreListener listener);
+
+	/**
+	 * Stops notifying the given listener.
+	 */
+	void removeWormListener(WormStoreListener listener);
+
 }
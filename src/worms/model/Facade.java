@@ -5,6 +5,8 @@
  */
 package worms.model;
 
+import java.util.Collection;
+
 import worms.BadOrientationException;
 
 
@@ -12,20 +14,75 @@ import worms.BadOrientationException;
 public class Facade implements IFacade{
 	
 	public Facade() {
-		
+		this(new WormStore());
+	}
+	
+	public Facade(WormStore store) {
+		this.store = store;
+	}
+	
+	/**
+	 * Return the store that keeps the state of all worms created by this facade.
+	 */
+	public WormStore getWormStore() {
+		return store;
+	}
+	
+	private final WormStore store;
+	
+	/**
+	 * Return the grid indexing the positions of all worms created by this facade.
+	 * The grid is created the first time it is needed.
+	 */
+	public WormGrid getWormGrid() {
+		if(grid==null) grid = new WormGrid(store);
+		return grid;
 	}
+	
+	private WormGrid grid;
 
 	@Override
 	public Worm createWorm(double x, double y, double direction, double radius,
 			String name) {
 		try {
-			return  new Worm(name,x,y,direction,radius);
+			return  new Worm(store,name,x,y,direction,radius);
 		} catch(IllegalArgumentException exc) {
 			throw new ModelException(exc);
 		}
 		
 	}
 
+	@Override
+	public Worm restoreWorm(double x, double y, double direction,
+			double radius, String name, int actionPoints) {
+		try {
+			return new Worm(store, name, x, y, direction, radius, actionPoints);
+		} catch(IllegalArgumentException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public Worm[] createWorms(double[] x, double[] y, double[] direction,
+			double[] radius, String[] names, int[] nameIndices) {
+		try {
+			return Worm.createAll(store, names, nameIndices, x, y, direction, radius);
+		} catch(IllegalArgumentException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public Worm[] restoreWorms(double[] x, double[] y, double[] direction,
+			double[] radius, String[] names, int[] nameIndices,
+			long[] actionPoints) {
+		try {
+			return Worm.restoreAll(store, names, nameIndices, x, y, direction, radius, actionPoints);
+		} catch(IllegalArgumentException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
 	@Override
 	public boolean canMove(Worm worm, int nbSteps) {
 		return worm.canMove(nbSteps);
@@ -76,6 +133,28 @@ public class Facade implements IFacade{
 		return worm.jumpStep(t);
 	}
 
+	@Override
+	public void sampleJumpTrajectory(Worm worm, int samples, double[] outXY) {
+		try {
+			worm.sampleJumpTrajectory(samples, outXY);
+		} catch(IllegalArgumentException exc) {
+			throw new ModelException(exc);
+		} catch(BadOrientationException exc) {
+			throw new ModelException(exc);
+		}
+	}
+
+	@Override
+	public Worm getWormAt(double x, double y) {
+		return getWormGrid().getWormAt(x, y);
+	}
+
+	@Override
+	public void collectWormsNear(double x, double y, double distance, Collection<? super Worm> result) {
+		WormGrid grid = getWormGrid();
+		grid.collectWormsWithin(x, y, distance+grid.getMaximalRadius(), result);
+	}
+
 	@Override
 	public double getX(Worm worm) {
 		return worm.getHorizontalPosition();
@@ -134,5 +213,20 @@ public class Facade implements IFacade{
 	public double getMass(Worm worm) {
 		return worm.getMass();
 	}
+
+	@Override
+	public long getModificationStamp(Worm worm) {
+		return worm.getModificationStamp();
+	}
+
+	@Override
+	public void addWormListener(WormStoreListener listener) {
+		store.addListener(listener);
+	}
+
+	@Override
+	public void removeWormListener(WormStoreListener listener) {
+		store.removeListener(listener);
+	}
 	
 }
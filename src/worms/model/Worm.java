@@ -8,7 +8,9 @@ import worms.BadOrientationException;
  * a number of action points, a maximal radius and a maximal number of action points. Each worm is able to move, turn or jump,
  * depending on their parameters. Worms also share a density, which defines a relation between their mass and radius, and a 
  * standard acceleration, which determines how far they can jump.
- * @invar 	minRadius >0; radius >= minRadius; 0<=orientation<2*Pi; 
+ * The state of each worm is kept in a slot of a {@link WormStore}; a worm itself only registers
+ * its store and its id in that store.
+ * @invar 	MIN_RADIUS >0; radius >= MIN_RADIUS; 0<=orientation<2*Pi; 
  * 			actionPoints <= getMaximalNumberOfActionPoints();
  * 
  * 
@@ -48,18 +50,45 @@ public class Worm {
 	 * 			the new number of action points of this worm is equal to the given number. Otherwise,
 	 * 			it is equal to zero.
 	 * 			| new.getCurrentNumberOfActionPoints() = actionPoints
+	 * @post	The state of the new worm is kept in a store of its own, so that it can be
+	 * 			garbage collected with this worm.
+	 * 			| new.getStore().getNbWorms() == 1 && new.getStore().getWorm(0) == new
 	 * @throws	IllegalArgumentException
 	 * 			The name or radius is not valid.
 	 * 			| !isValidName(name) || !isValidRadius(radius)
 	 */
 	public Worm(String name, double horizontalPosition, double verticalPosition, 
 			double orientation, double radius, long actionPoints) throws IllegalArgumentException {
+		this(new WormStore(1), name, horizontalPosition, verticalPosition, orientation, radius, actionPoints);
+	}
+	
+	/**
+	 * Initialize a new worm in the given store with the given name, the given horizontal and vertical
+	 * position, the given orientation, the given radius and the given number of action points.
+	 * @param	store
+	 * 			The store that keeps the state of this worm.
+	 * @post	The new store of this worm is the given store, and this worm occupies a new slot in it.
+	 * 			| new.getStore() == store && store.getWorm(new.getId()) == this
+	 * @effect	The other parameters are handled as in the constructor without a store.
+	 * 			| this(name, horizontalPosition, verticalPosition, orientation, radius, actionPoints)
+	 * @throws	IllegalArgumentException
+	 * 			The store is not effective, or the name or radius is not valid.
+	 * 			| store == null || !isValidName(name) || !isValidRadius(radius)
+	 */
+	public Worm(WormStore store, String name, double horizontalPosition, double verticalPosition, 
+			double orientation, double radius, long actionPoints) throws IllegalArgumentException {
+		if(store==null) throw new IllegalArgumentException("Not a valid store!");
+		if(!isValidName(name)) throw new IllegalArgumentException("Not a valid name!");
+		if(!isValidRadius(radius)) throw new IllegalArgumentException("Not a valid radius!");
+		this.store = store;
+		this.id = store.add(this);
 		setName(name);
 		setHorizontalPosition(horizontalPosition);
 		setVerticalPosition(verticalPosition);
 		setOrientation(orientation);
 		setRadius(radius);
 		setCurrentNumberOfActionPoints(actionPoints);
+		store.fireWormAdded(id);
 	}
 	
 	/**
@@ -85,16 +114,155 @@ public class Worm {
 	 */
 	public Worm(String name, double horizontalPosition, double verticalPosition, 
 			double orientation, double radius) throws IllegalArgumentException {
-		this(name, horizontalPosition, verticalPosition, orientation, radius, 0);
+		this(new WormStore(1), name, horizontalPosition, verticalPosition, orientation, radius);
+	}
+	
+	/**
+	 * Initialize a new worm in the given store with the highest possible number of action points.
+	 * @effect	| this(store,name,horizontalPosition,verticalPosition,orientation,radius,0)
+	 * 			| setCurrentNumberOfActionPoints(getMaximalNumberOfActionPoints())
+	 * @throws	IllegalArgumentException
+	 * 			| store == null || !isValidName(name) || !isValidRadius(radius)
+	 */
+	public Worm(WormStore store, String name, double horizontalPosition, double verticalPosition, 
+			double orientation, double radius) throws IllegalArgumentException {
+		this(store, name, horizontalPosition, verticalPosition, orientation, radius, 0);
 		setCurrentNumberOfActionPoints(getMaximalNumberOfActionPoints());
 	}
+
+	/**
+	 * Initialize a new worm as a handle over the slot with the given id in the given store,
+	 * whose state is filled in by the store.
+	 */
+	@Raw
+	private Worm(WormStore store, int id) {
+		this.store = store;
+		this.id = id;
+	}
+
+	/**
+	 * Create new worms in the given store all at once, as if each of them was created by the
+	 * constructor with a store, with its state taken from the given columns.
+	 * @param	names
+	 * 			The distinct names of the new worms.
+	 * @param	nameIndices
+	 * 			For each new worm, the index of its name in the given names.
+	 * @pre		| for each i in 0..orientations.length-1: isValidOrientation(orientations[i])
+	 * @return	The new worms, in the order of the given columns, with consecutive ids.
+	 * 			| for each i in 0..result.length-1:
+	 * 			|	result[i].getName().equals(names[nameIndices[i]])
+	 * 			|	&& result[i].getHorizontalPosition() == horizontalPositions[i]
+	 * 			|	&& result[i].getVerticalPosition() == verticalPositions[i]
+	 * 			|	&& result[i].getOrientation() == orientations[i]
+	 * 			|	&& result[i].getRadius() == radii[i]
+	 * @return	Each new worm has the given number of action points if that is a valid number for it,
+	 * 			and no action points otherwise.
+	 * 			| for each i in 0..result.length-1:
+	 * 			|	result[i].getCurrentNumberOfActionPoints() ==
+	 * 			|		(actionPoints[i] <= result[i].getMaximalNumberOfActionPoints() && actionPoints[i] >= 0
+	 * 			|			? actionPoints[i] : 0)
+	 * @throws	IllegalArgumentException
+	 * 			The store is not effective, the columns do not have the same length, one of the name
+	 * 			indices does not refer to a name, or one of the names or radii is not valid.
+	 */
+	public static Worm[] restoreAll(WormStore store, String[] names, int[] nameIndices,
+			double[] horizontalPositions, double[] verticalPositions, double[] orientations,
+			double[] radii, long[] actionPoints) throws IllegalArgumentException {
+		if(store==null) throw new IllegalArgumentException("Not a valid store!");
+		int n = nameIndices.length;
+		if(horizontalPositions.length!=n || verticalPositions.length!=n || orientations.length!=n
+				|| radii.length!=n || actionPoints.length!=n)
+			throw new IllegalArgumentException("Columns of different lengths!");
+		for(String name : names)
+			if(!isValidName(name)) throw new IllegalArgumentException("Not a valid name!");
+		// the given action points are only copied if some of them are not valid
+		long[] validActionPoints = actionPoints;
+		for(int i=0; i<n; i++) {
+			if(nameIndices[i]<0 || nameIndices[i]>=names.length)
+				throw new IllegalArgumentException("Not a valid name index!");
+			if(!(radii[i]>=MIN_RADIUS)) throw new IllegalArgumentException("Not a valid radius!");
+			assert isValidOrientation(orientations[i]): "Precondition: The orientation must be valid";
+			long maximum = Math.round(getMass(radii[i]));
+			if(actionPoints[i]<0 || actionPoints[i]>maximum) {
+				if(validActionPoints==actionPoints) validActionPoints = actionPoints.clone();
+				validActionPoints[i] = 0;
+			}
+		}
+		int first = store.getNbWorms();
+		store.ensureCapacity(first+n);
+		Worm[] result = new Worm[n];
+		for(int i=0; i<n; i++) result[i] = new Worm(store, first+i);
+		store.addAll(result, names, nameIndices, horizontalPositions, verticalPositions,
+				orientations, radii, validActionPoints);
+		for(int i=0; i<n; i++) store.fireWormAdded(first+i);
+		return result;
+	}
+	
+	/**
+	 * Create new worms in the given store all at once, as if each of them was created by the
+	 * constructor with a store that gives it the highest possible number of action points.
+	 * @return	| for each i in 0..result.length-1:
+	 * 			|	result[i].getCurrentNumberOfActionPoints() == result[i].getMaximalNumberOfActionPoints()
+	 * @effect	| restoreAll(store, names, nameIndices, horizontalPositions, verticalPositions,
+	 * 			|	orientations, radii, actionPoints)
+	 * 			| where actionPoints[i] == Math.round(getMass(radii[i]))
+	 * @throws	IllegalArgumentException
+	 * 			The radii are not effective.
+	 * 			| radii == null
+	 */
+	public static Worm[] createAll(WormStore store, String[] names, int[] nameIndices,
+			double[] horizontalPositions, double[] verticalPositions, double[] orientations,
+			double[] radii) throws IllegalArgumentException {
+		if(radii==null) throw new IllegalArgumentException("Not valid radii!");
+		long[] actionPoints = new long[radii.length];
+		for(int i=0; i<radii.length; i++) actionPoints[i] = Math.round(getMass(radii[i]));
+		return restoreAll(store, names, nameIndices, horizontalPositions, verticalPositions,
+				orientations, radii, actionPoints);
+	}
+	
+	/**
+	 * Return the store that keeps the state of this worm.
+	 */
+	@Basic @Raw @Immutable
+	public WormStore getStore() {
+		return store;
+	}
+	
+	/**
+	 * The store that keeps the state of this worm.
+	 */
+	private final WormStore store;
+	
+	/**
+	 * Return the id of this worm in its store.
+	 */
+	@Basic @Raw @Immutable
+	public int getId() {
+		return id;
+	}
+	
+	/**
+	 * The id of this worm in its store.
+	 */
+	private final int id;
+	
+	/**
+	 * Return the modification stamp of this worm.
+	 * The stamp increases whenever the name, position, orientation, radius or number of action
+	 * points of this worm changes, so that a copy of its state is still valid as long as its
+	 * stamp has not moved.
+	 * @return	| result == getStore().getModificationStamp(getId())
+	 */
+	public long getModificationStamp() {
+		return store.getModificationStamp(id);
+	}
 	
 	/**
 	 * Return the name of this worm.
 	 */
 	@Basic @Raw
 	public String getName(){
-		return new String(name);
+		return store.getName(id);
 	}
 	
 	/**
@@ -108,7 +276,8 @@ public class Worm {
 	@Raw
 	public void setName(String name) throws IllegalArgumentException{
 		if(!isValidName(name))throw new IllegalArgumentException("Not a valid name!");
-		this.name=new String(name);
+		store.setName(id, name);
+		store.fireWormChanged(id);
 	}
 	
 	/**
@@ -119,34 +288,39 @@ public class Worm {
 	 * 			|if (name.length()<2)
 	 * 			false if the given string does not begin with an uppercase letter
 	 * 			or if it contains other characters than spaces, letters and quotes.
-	 * 			|if (!name.matches("[A-Z][A-Za-z\b\'\"]*")
+	 * 			|if (!name.matches("[A-Z][A-Za-z \'\"]+")
 	 * 			true otherwise
 	 */
 	private static boolean isValidName(String name){
-		return name!=null&&name.matches("[A-Z][A-Za-z \'\"]+");
+		if(name==null || name.length()<2) return false;
+		if(!isUppercaseLetter(name.charAt(0))) return false;
+		for(int i=1; i<name.length(); i++) {
+			char c = name.charAt(i);
+			if(!isUppercaseLetter(c) && !(c>='a' && c<='z') && c!=' ' && c!='\'' && c!='"') return false;
+		}
+		return true;
 	}
 	
-	/**
-	 * The name of this worm.
-	 */
-	private String name;
+	private static boolean isUppercaseLetter(char c) {
+		return c>='A' && c<='Z';
+	}
 	
 	/**
 	 * Constant denoting the density of all worms.
 	 */
 	@Model
-	private static final double DENSITY = 1062;
+	static final double DENSITY = 1062;
 	
 	
 	@Model
-	private static final double STANDARD_ACCELERATION = 9.80665;
+	static final double STANDARD_ACCELERATION = 9.80665;
 
 	/**
 	 * Return the horizontal position of this worm.
 	 */
 	@Basic @Raw
 	public double getHorizontalPosition() {
-		return horizontalPosition;
+		return store.getHorizontalPosition(id);
 	}
 	
 	/**
@@ -158,13 +332,8 @@ public class Worm {
 	 */
 	@Raw @Model
 	private void setHorizontalPosition(double horizontalPosition) {
-		this.horizontalPosition = horizontalPosition;
+		store.setHorizontalPosition(id, horizontalPosition);
 	}
-	
-	/**
-	 * Variable registering the horizontal position of this worm.
-	 */
-	private double horizontalPosition;
 
 	
 	/**
@@ -172,7 +341,7 @@ public class Worm {
 	 */
 	@Basic @Raw
 	public double getVerticalPosition() {
-		return verticalPosition;
+		return store.getVerticalPosition(id);
 	}
 	/**
 	 * Set the vertical position of the worm to the given position.
@@ -183,20 +352,15 @@ public class Worm {
 	 */
 	@Raw @Model
 	private void setVerticalPosition(double verticalPosition) {
-		this.verticalPosition = verticalPosition;
+		store.setVerticalPosition(id, verticalPosition);
 	}
 	
-	/**
-	 * Variable registering the vertical position of this worm.
-	 */
-	private double verticalPosition;
-	
 	/**
 	 * Return the orientation of this worm.
 	 */
 	@Basic @Raw
 	public double getOrientation(){
-		return orientation;
+		return store.getOrientation(id);
 	}
 	
 	/**
@@ -211,7 +375,7 @@ public class Worm {
 	@Raw
 	private void setOrientation(double orientation){
 		assert isValidOrientation(orientation): "Precondition: The orientation must be valid";
-		this.orientation=orientation;
+		store.setOrientation(id, orientation);
 	}
 
 	/**
@@ -223,27 +387,22 @@ public class Worm {
 		return (0<=orientation)&&(orientation<2*Math.PI);
 	}
 	
-	/**
-	 * Variable denoting the orientation of this worm.
-	 */
-	private double orientation;
-	
 	@Basic @Raw
 	public double getMinRadius(){
-		return minRadius;
+		return MIN_RADIUS;
 	}
 	
 	/**
-	 * The minimal radius this worm can have.
+	 * Constant denoting the minimal radius of all worms.
 	 */
-	private double minRadius=0.25;
+	public static final double MIN_RADIUS = 0.25;
 	
 	/**
 	 * Return the radius of this worm.
 	 */
 	@Basic @Raw
 	public double getRadius() {
-		return radius;
+		return store.getRadius(id);
 	}
 
 	/**
@@ -252,6 +411,10 @@ public class Worm {
 	 * 			The new radius for this worm.
 	 * @post	The new radius of this worm is equal to the given radius.
 	 * 			|new.getRadius()==radius
+	 * @post	If this worm has more action points than it can have with the given radius,
+	 * 			its number of action points is lowered to the new maximum.
+	 * 			|new.getCurrentNumberOfActionPoints() ==
+	 * 			|	Math.min(getCurrentNumberOfActionPoints(), new.getMaximalNumberOfActionPoints())
 	 * @throws	IllegalArgumentException
 	 * 			The given radius is not a valid radius
 	 * 			|!isValidRadius(radius)
@@ -259,25 +422,24 @@ public class Worm {
 	@Raw
 	public void setRadius(double radius) throws IllegalArgumentException{
 		if(!isValidRadius(radius)) throw new IllegalArgumentException("Not a valid radius!");
-		this.radius=radius;
+		store.setRadius(id, radius);
+		if(getCurrentNumberOfActionPoints()>getMaximalNumberOfActionPoints())
+			setCurrentNumberOfActionPoints(getMaximalNumberOfActionPoints());
+		store.fireWormMoved(id);
+		store.fireWormChanged(id);
 	}
 	
 	/**
 	 * 
 	 * Return whether the given radius is a valid radius for this worm.  
 	 * @return 	True if and only if the given radius is greater or equal to the minimal radius for this worm.
-	 * 			|result == radius >=minRadius
+	 * 			|result == radius >=getMinRadius()
 	 */
 	@Raw
 	private boolean isValidRadius(double radius){
 		return this.getMinRadius()<=radius;
 	}
 	
-	/**
-	 * Variable registering the radius of this worm.
-	 */
-	private double radius;
-	
 	
 	/**
 	 * Returns the mass of this worm.
@@ -287,15 +449,28 @@ public class Worm {
 
 	@Raw
 	public double getMass() {
-		return DENSITY*(4.0/3.0)*Math.PI*Math.pow(getRadius(), 3);
+		if(!store.hasDerivedState(id, WormStore.RADIUS_DERIVED_STATE))
+			store.setMass(id, getMass(getRadius()));
+		return store.getMass(id);
+	}
+
+	/**
+	 * Return the mass of a worm with the given radius.
+	 * @return	| result == DENSITY*(4.0/3.0)*Math.PI*Math.pow(radius, 3)
+	 */
+	@Model
+	static double getMass(double radius) {
+		return DENSITY*(4.0/3.0)*Math.PI*Math.pow(radius, 3);
 	}
 	
 	/**
 	 * Return the maximal number of action points this worm can currently have.
+	 * @return	The mass of this worm, rounded to the nearest integer.
+	 * 			| result == Math.round(getMass())
 	 */
 	@Raw
 	public long getMaximalNumberOfActionPoints(){
-		return Math.round(this.getMass());
+		return Math.round(getMass());
 	}
 	
 	/**
@@ -303,7 +478,7 @@ public class Worm {
 	 */
 	@Basic @Raw
 	public long getCurrentNumberOfActionPoints(){
-		return currentNumberOfActionPoints;
+		return store.getActionPoints(id);
 	}
 	
 	/**
@@ -316,7 +491,9 @@ public class Worm {
 	 */
 	@Raw 
 	private void setCurrentNumberOfActionPoints(long number){
-		if(isValidNumberOfActionPoints(number)) currentNumberOfActionPoints=number;
+		if(isValidNumberOfActionPoints(number)) {
+			store.setActionPoints(id, number);
+		}
 	}
 	
 	/**
@@ -343,11 +520,6 @@ public class Worm {
 		return number>=0 && number<=this.getMaximalNumberOfActionPoints();
 	}
 	
-	/**
-	 * The current number of action points for this worm.
-	 */
-	private long currentNumberOfActionPoints;
-	
 	/**
 	 * Move the worm the given number of steps in the direction it is currently facing. Decrease
 	 * the number of action points accordingly.
@@ -376,11 +548,14 @@ public class Worm {
 	 */
 	public void move(int steps) throws IllegalArgumentException{
 		if(!canMove(steps))throw new IllegalArgumentException("You fool! You can't move.");
-		long tryActionPoints = (long) Math.ceil(steps*(Math.abs(Math.cos(getOrientation())+
-				4*Math.abs(Math.sin(getOrientation())))));
+		double cos = getCosineOfOrientation();
+		double sin = getSineOfOrientation();
+		long tryActionPoints = (long) Math.ceil(steps*(Math.abs(cos+4*Math.abs(sin))));
 		removeActionPoints(tryActionPoints);
-		setHorizontalPosition(getHorizontalPosition()+Math.cos(getOrientation())*getRadius()*steps);
-		setVerticalPosition(getVerticalPosition()+Math.sin(getOrientation())*getRadius()*steps);
+		setHorizontalPosition(getHorizontalPosition()+cos*getRadius()*steps);
+		setVerticalPosition(getVerticalPosition()+sin*getRadius()*steps);
+		store.fireWormMoved(id);
+		store.fireWormChanged(id);
 	}
 	
 	/**
@@ -395,8 +570,8 @@ public class Worm {
 	 */
 	public boolean canMove(int steps) {
 		long tryActionPoints = this.getCurrentNumberOfActionPoints()-
-				(long) Math.ceil(steps*(Math.abs(Math.cos(this.getOrientation())+
-						4*Math.abs(Math.sin(this.getOrientation())))));
+				(long) Math.ceil(steps*(Math.abs(this.getCosineOfOrientation()+
+						4*Math.abs(this.getSineOfOrientation()))));
 		return tryActionPoints>=0 && steps >= 0;
 	}
 	
@@ -418,7 +593,7 @@ public class Worm {
 		double orientation = (getOrientation()+rotationAngle)%(2*Math.PI);
 		if(orientation<0)orientation=2*Math.PI+orientation;
 		setOrientation(orientation);
-		
+		store.fireWormChanged(id);
 	}
 	
 	/**
@@ -456,6 +631,8 @@ public class Worm {
 		double displacement = this.getJumpDistance();
 		setCurrentNumberOfActionPoints(0);
 		setHorizontalPosition(getHorizontalPosition() + displacement);
+		store.fireWormMoved(id);
+		store.fireWormChanged(id);
 	}
 	
 	/**
@@ -470,7 +647,8 @@ public class Worm {
 	@Raw
 	public double jumpTime() throws BadOrientationException {
 		if(getOrientation()> Math.PI) throw new BadOrientationException();
-		return getJumpDistance()/(getInitialVelocity()*Math.cos(getOrientation()));
+		ensureJumpState();
+		return store.getJumpTime(id);
 	}
 	
 	/**
@@ -497,12 +675,55 @@ public class Worm {
 		if(getCurrentNumberOfActionPoints()==0) return new double[]{getHorizontalPosition(),getVerticalPosition()};
 		if(getOrientation()>Math.PI) time=0;
 		double initialVelocity = getInitialVelocity();
-		double vx = initialVelocity*Math.cos(getOrientation());
-		double vy = initialVelocity*Math.sin(getOrientation());
+		double vx = initialVelocity*getCosineOfOrientation();
+		double vy = initialVelocity*getSineOfOrientation();
 		return new double [] {this.getHorizontalPosition()+vx*time , this.getVerticalPosition()+vy*time
 							-0.5*STANDARD_ACCELERATION*Math.pow(time,2)};
 	}
 	
+	/**
+	 * Store the positions of this worm at the given number of evenly spaced times during a jump
+	 * into the given array, ending at the time this worm would need to jump.
+	 * @param	samples
+	 * 			The number of positions to store.
+	 * @param	outXY
+	 * 			The array in which the positions are stored, as consecutive pairs of a horizontal
+	 * 			and a vertical position.
+	 * @effect	For every index i below the given number of samples, the position at index i is the
+	 * 			position this worm would have at time (i+1)/samples times the jump time.
+	 * 			| for each i in 0..samples-1:
+	 * 			|	outXY[2*i] == jumpStep((i+1)*jumpTime()/samples)[0] &&
+	 * 			|	outXY[2*i+1] == jumpStep((i+1)*jumpTime()/samples)[1]
+	 * @throws	IllegalArgumentException
+	 * 			The number of samples is negative, or the given array cannot hold all positions.
+	 * 			| samples < 0 || outXY == null || outXY.length < 2*samples
+	 * @throws	BadOrientationException
+	 * 			This worm is facing downwards.
+	 * 			| this.getOrientation() > Math.PI
+	 */
+	@Raw
+	public void sampleJumpTrajectory(int samples, double[] outXY) throws IllegalArgumentException, BadOrientationException {
+		if(samples<0 || outXY==null || outXY.length<2*samples) 
+			throw new IllegalArgumentException("Not a valid trajectory buffer!");
+		double time = jumpTime();
+		double x = getHorizontalPosition();
+		double y = getVerticalPosition();
+		double vx = 0;
+		double vy = 0;
+		double gravity = 0;
+		if(getCurrentNumberOfActionPoints()>0) {
+			double initialVelocity = getInitialVelocity();
+			vx = initialVelocity*getCosineOfOrientation();
+			vy = initialVelocity*getSineOfOrientation();
+			gravity = 0.5*STANDARD_ACCELERATION;
+		}
+		for(int i=0; i<samples; i++) {
+			double t = (i+1)*time/samples;
+			outXY[2*i] = x+vx*t;
+			outXY[2*i+1] = y+vy*t-gravity*t*t;
+		}
+	}
+	
 	/**
 	 * Return the oriented displacement this worm would make if it would jump.
 	 * @return 	The distance this worm would cover if it would jump, multiplied by the sign of
@@ -526,8 +747,8 @@ public class Worm {
 	 */
 	@Model
 	private double getInitialVelocity() {
-		double force = (5*getCurrentNumberOfActionPoints())+(getMass()*STANDARD_ACCELERATION);
-		return force/getMass()*0.5;
+		ensureJumpState();
+		return store.getInitialVelocity(id);
 	}
 	
 	/**
@@ -538,7 +759,42 @@ public class Worm {
 	 */
 	@Model
 	private double getJumpDistance() {
-		return (Math.pow(getInitialVelocity(),2)*Math.sin(2*getOrientation()))/STANDARD_ACCELERATION;
+		ensureJumpState();
+		return store.getJumpDistance(id);
+	}
+	
+	/**
+	 * Return the cosine of the orientation of this worm.
+	 * @return	| result == Math.cos(getOrientation())
+	 */
+	@Model
+	private double getCosineOfOrientation() {
+		return store.getCosineOfOrientation(id);
+	}
+	
+	/**
+	 * Return the sine of the orientation of this worm.
+	 * @return	| result == Math.sin(getOrientation())
+	 */
+	@Model
+	private double getSineOfOrientation() {
+		return store.getSineOfOrientation(id);
+	}
+	
+	/**
+	 * Make sure the store of this worm holds the initial velocity, jump distance and jump time
+	 * of this worm, recomputing them if its radius, orientation or action points have changed
+	 * since they were stored.
+	 */
+	@Model
+	private void ensureJumpState() {
+		if(store.hasDerivedState(id, WormStore.JUMP_DERIVED_STATE)) return;
+		double mass = getMass();
+		double force = (5*getCurrentNumberOfActionPoints())+(mass*STANDARD_ACCELERATION);
+		double initialVelocity = force/mass*0.5;
+		double jumpDistance = (Math.pow(initialVelocity,2)*Math.sin(2*getOrientation()))/STANDARD_ACCELERATION;
+		double jumpTime = jumpDistance/(initialVelocity*getCosineOfOrientation());
+		store.setJumpState(id, initialVelocity, jumpDistance, jumpTime);
 	}
 	
 }
@@ -0,0 +1,438 @@
+package worms.model;
+import java.util.Arrays;
+import java.util.Collection;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of uniform grids over the positions of the worms in a worm store, answering
+ * point, distance and nearest-neighbour queries without visiting every worm.
+ * Each worm is kept in the square cell that contains its centre. Cells are stored in a hash
+ * table, so the world is unbounded and empty cells take no space. A grid registers itself as
+ * a listener of its store, so it follows every worm that is added, moved, jumps or is resized.
+ * A grid is not thread-safe.
+ * @invar	The cell size of each grid is strictly positive.
+ * 			| getCellSize() > 0
+ *
+ * @version 1.7
+ * @author Yasmine Baestaens and Sander Leyssens (Bachelor of Mathematics)
+ */
+public class WormGrid implements WormStoreListener {
+
+	/**
+	 * Initialize a new grid with the default cell size over the given store.
+	 * @effect	| this(store, DEFAULT_CELL_SIZE)
+	 */
+	public WormGrid(WormStore store) throws IllegalArgumentException {
+		this(store, DEFAULT_CELL_SIZE);
+	}
+
+	/**
+	 * Initialize a new grid with the given cell size over the given store, holding all worms
+	 * that are currently in the store.
+	 * @param	store
+	 * 			The store whose worms are indexed.
+	 * @param	cellSize
+	 * 			The length of the sides of the cells of this grid, in metres.
+	 * @post	| new.getStore() == store && new.getCellSize() == cellSize
+	 * @post	| new.getNbWorms() == store.getNbWorms()
+	 * @throws	IllegalArgumentException
+	 * 			| store == null || !(cellSize > 0)
+	 */
+	public WormGrid(WormStore store, double cellSize) throws IllegalArgumentException {
+		if(store==null) throw new IllegalArgumentException("Not a valid store!");
+		if(!(cellSize>0) || Double.isInfinite(cellSize)) throw new IllegalArgumentException("Not a valid cell size!");
+		this.store = store;
+		this.cellSize = cellSize;
+		this.inverseCellSize = 1/cellSize;
+		ensureWormCapacity(store.getNbWorms());
+		for(int id=0; id<store.getNbWorms(); id++) add(id);
+		store.addListener(this);
+	}
+
+	/**
+	 * Constant denoting the default cell size, in metres: twice the largest radius of the worms
+	 * in a new game.
+	 */
+	public static final double DEFAULT_CELL_SIZE = 1.0;
+
+	/**
+	 * Return the store whose worms are indexed by this grid.
+	 */
+	@Basic @Immutable
+	public WormStore getStore() {
+		return store;
+	}
+
+	private final WormStore store;
+
+	/**
+	 * Return the length of the sides of the cells of this grid.
+	 */
+	@Basic @Immutable
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	private final double cellSize;
+	private final double inverseCellSize;
+
+	/**
+	 * Return the number of worms in this grid.
+	 */
+	@Basic
+	public int getNbWorms() {
+		return nbWorms;
+	}
+
+	/**
+	 * Return the largest radius that any worm in this grid ever had. The body of every worm in
+	 * this grid lies within this distance of its centre.
+	 * @return	| for each id in 0..getStore().getNbWorms()-1:
+	 * 			|	result >= getStore().getRadius(id)
+	 */
+	@Basic
+	public double getMaximalRadius() {
+		return maxRadius;
+	}
+
+	/**
+	 * Stop following the store of this grid. The grid is out of date after this.
+	 */
+	public void detach() {
+		store.removeListener(this);
+	}
+
+	@Override
+	public void wormAdded(WormStore store, int id) {
+		ensureWormCapacity(id+1);
+		add(id);
+	}
+
+	@Override
+	public void wormMoved(WormStore store, int id) {
+		if(id>=indexed.length || !indexed[id]) return;
+		maxRadius = Math.max(maxRadius, store.getRadius(id));
+		long key = keyOf(store.getHorizontalPosition(id), store.getVerticalPosition(id));
+		if(key!=cellOf[id]) {
+			unlink(id);
+			link(id, key);
+		}
+	}
+
+	@Override
+	public void wormChanged(WormStore store, int id) {
+		// only moves affect the grid
+	}
+
+	/**
+	 * Return the worm whose body contains the given point, or null if there is no such worm.
+	 * If several worms contain the point, the worm whose centre is closest to it is returned.
+	 */
+	public Worm getWormAt(double x, double y) {
+		int result = -1;
+		double bestDistance = Double.POSITIVE_INFINITY;
+		int minX = cellIndex(x-maxRadius), maxX = cellIndex(x+maxRadius);
+		int minY = cellIndex(y-maxRadius), maxY = cellIndex(y+maxRadius);
+		for(int cx=minX; cx<=maxX; cx++) {
+			for(int cy=minY; cy<=maxY; cy++) {
+				int slot = findSlot(key(cx, cy));
+				if(slot<0) continue;
+				for(int id=heads[slot]; id!=NONE; id=next[id]) {
+					double distance = distanceSquared(id, x, y);
+					double radius = store.getRadius(id);
+					if(distance<=radius*radius && distance<bestDistance) {
+						bestDistance = distance;
+						result = id;
+					}
+				}
+			}
+		}
+		return result<0 ? null : store.getWorm(result);
+	}
+
+	/**
+	 * Add every worm whose centre lies within the given distance of the given point to the
+	 * given collection.
+	 */
+	public void collectWormsWithin(double x, double y, double distance, Collection<? super Worm> result) {
+		double maxDistance = distance*distance;
+		int minX = cellIndex(x-distance), maxX = cellIndex(x+distance);
+		int minY = cellIndex(y-distance), maxY = cellIndex(y+distance);
+		if((double)(maxX-minX+1)*(maxY-minY+1) > nbCells) {
+			// the query covers more cells than there are occupied ones
+			for(int slot=0; slot<heads.length; slot++)
+				collectWithin(heads[slot], x, y, maxDistance, result);
+		}
+		else {
+			for(int cx=minX; cx<=maxX; cx++) {
+				for(int cy=minY; cy<=maxY; cy++) {
+					int slot = findSlot(key(cx, cy));
+					if(slot>=0) collectWithin(heads[slot], x, y, maxDistance, result);
+				}
+			}
+		}
+	}
+
+	private void collectWithin(int head, double x, double y, double maxDistance, Collection<? super Worm> result) {
+		for(int id=head; id!=NONE; id=next[id]) {
+			if(distanceSquared(id, x, y)<=maxDistance) result.add(store.getWorm(id));
+		}
+	}
+
+	/**
+	 * Store the worms whose centres are closest to the given point in the given array,
+	 * from nearest to farthest.
+	 * @param	k
+	 * 			The maximal number of worms to find.
+	 * @return	The number of worms stored, which is the minimum of k, the length of the
+	 * 			given array and the number of worms in this grid.
+	 */
+	public int findNearestWorms(double x, double y, int k, Worm[] result) {
+		k = Math.min(Math.min(k, result.length), nbWorms);
+		if(k<=0) return 0;
+		double[] heapDistances = new double[k];
+		int[] heapIds = new int[k];
+		int nbVisited = 0;
+		int centreX = cellIndex(x), centreY = cellIndex(y);
+		for(int ring=0; ; ring++) {
+			if(8L*ring>nbCells) {
+				// the ring has more cells than there are occupied ones, visit those that are left
+				for(int slot=0; slot<heads.length; slot++) {
+					if(heads[slot]==NONE) continue;
+					long cx = (int) (keys[slot]>>32), cy = (int) keys[slot];
+					if(Math.max(Math.abs(cx-centreX), Math.abs(cy-centreY))>=ring)
+						nbVisited = offer(heads[slot], x, y, k, heapDistances, heapIds, nbVisited);
+				}
+				break;
+			}
+			for(int cx=centreX-ring; cx<=centreX+ring; cx++) {
+				// only the border of the square of cells at this ring is new
+				int step = (cx==centreX-ring || cx==centreX+ring) ? 1 : Math.max(1, 2*ring);
+				for(int cy=centreY-ring; cy<=centreY+ring; cy+=step) {
+					int slot = findSlot(key(cx, cy));
+					if(slot>=0) nbVisited = offer(heads[slot], x, y, k, heapDistances, heapIds, nbVisited);
+				}
+			}
+			// worms in cells beyond this ring lie at least this far from the point
+			double reached = ring*cellSize;
+			if(nbVisited==nbWorms || (nbVisited>=k && heapDistances[0]<=reached*reached)) break;
+		}
+		for(int size=k; size>1; size--) {
+			swap(heapDistances, heapIds, 0, size-1);
+			siftDown(heapDistances, heapIds, 0, size-1);
+		}
+		for(int i=0; i<k; i++) result[i] = store.getWorm(heapIds[i]);
+		return k;
+	}
+
+	/**
+	 * Offer the worms in the list starting at the given head to the heap of the nearest worms
+	 * to the given point, which holds the first k worms visited so far.
+	 * @return	The number of worms visited so far, including those in the list.
+	 */
+	private int offer(int head, double x, double y, int k, double[] heapDistances, int[] heapIds, int nbVisited) {
+		for(int id=head; id!=NONE; id=next[id]) {
+			double distance = distanceSquared(id, x, y);
+			if(nbVisited<k) {
+				heapDistances[nbVisited] = distance;
+				heapIds[nbVisited] = id;
+				siftUp(heapDistances, heapIds, nbVisited);
+			}
+			else if(distance<heapDistances[0]) {
+				heapDistances[0] = distance;
+				heapIds[0] = id;
+				siftDown(heapDistances, heapIds, 0, k);
+			}
+			nbVisited++;
+		}
+		return nbVisited;
+	}
+
+	private static void siftUp(double[] distances, int[] ids, int i) {
+		while(i>0) {
+			int parent = (i-1)/2;
+			if(distances[parent]>=distances[i]) return;
+			swap(distances, ids, i, parent);
+			i = parent;
+		}
+	}
+
+	private static void siftDown(double[] distances, int[] ids, int i, int size) {
+		while(true) {
+			int largest = i;
+			int left = 2*i+1, right = left+1;
+			if(left<size && distances[left]>distances[largest]) largest = left;
+			if(right<size && distances[right]>distances[largest]) largest = right;
+			if(largest==i) return;
+			swap(distances, ids, i, largest);
+			i = largest;
+		}
+	}
+
+	private static void swap(double[] distances, int[] ids, int i, int j) {
+		double distance = distances[i]; distances[i] = distances[j]; distances[j] = distance;
+		int id = ids[i]; ids[i] = ids[j]; ids[j] = id;
+	}
+
+	private double distanceSquared(int id, double x, double y) {
+		double dx = store.getHorizontalPosition(id)-x;
+		double dy = store.getVerticalPosition(id)-y;
+		return dx*dx+dy*dy;
+	}
+
+	private int cellIndex(double coordinate) {
+		return (int) Math.floor(coordinate*inverseCellSize);
+	}
+
+	private long keyOf(double x, double y) {
+		return key(cellIndex(x), cellIndex(y));
+	}
+
+	private static long key(int cx, int cy) {
+		return ((long) cx<<32) | (cy & 0xffffffffL);
+	}
+
+	private void add(int id) {
+		indexed[id] = true;
+		nbWorms++;
+		maxRadius = Math.max(maxRadius, store.getRadius(id));
+		link(id, keyOf(store.getHorizontalPosition(id), store.getVerticalPosition(id)));
+	}
+
+	/**
+	 * Insert the worm with the given id at the front of the list of the cell with the given key.
+	 */
+	private void link(int id, long key) {
+		int slot = findOrCreateSlot(key);
+		int head = heads[slot];
+		next[id] = head;
+		previous[id] = NONE;
+		if(head!=NONE) previous[head] = id;
+		heads[slot] = id;
+		cellOf[id] = key;
+	}
+
+	/**
+	 * Remove the worm with the given id from the list of its cell, removing the cell if it
+	 * becomes empty.
+	 */
+	private void unlink(int id) {
+		if(next[id]!=NONE) previous[next[id]] = previous[id];
+		if(previous[id]!=NONE) next[previous[id]] = next[id];
+		else {
+			int slot = findSlot(cellOf[id]);
+			heads[slot] = next[id];
+			if(heads[slot]==NONE) removeSlot(slot);
+		}
+	}
+
+	private void ensureWormCapacity(int capacity) {
+		if(capacity<=indexed.length) return;
+		capacity = Math.max(capacity, 2*indexed.length);
+		indexed = Arrays.copyOf(indexed, capacity);
+		cellOf = Arrays.copyOf(cellOf, capacity);
+		next = Arrays.copyOf(next, capacity);
+		previous = Arrays.copyOf(previous, capacity);
+	}
+
+	/*
+	 * The cells are kept in an open-addressing hash table with linear probing, mapping the key
+	 * of each non-empty cell to the id of the first worm in it.
+	 */
+
+	private int home(long key) {
+		return (int) ((key*0x9E3779B97F4A7C15L) >>> (64-tableBits));
+	}
+
+	private int findSlot(long key) {
+		int mask = heads.length-1;
+		for(int slot=home(key); heads[slot]!=NONE; slot=(slot+1)&mask) {
+			if(keys[slot]==key) return slot;
+		}
+		return -1;
+	}
+
+	private int findOrCreateSlot(long key) {
+		int slot = findSlot(key);
+		if(slot>=0) return slot;
+		if(2*(nbCells+1)>heads.length) rehash(tableBits+1);
+		int mask = heads.length-1;
+		for(slot=home(key); heads[slot]!=NONE; slot=(slot+1)&mask);
+		keys[slot] = key;
+		nbCells++;
+		return slot;
+	}
+
+	/**
+	 * Empty the given slot, shifting back later entries of the same probe sequence so that
+	 * no tombstones are needed.
+	 */
+	private void removeSlot(int slot) {
+		int mask = heads.length-1;
+		int hole = slot;
+		for(int i=(hole+1)&mask; heads[i]!=NONE; i=(i+1)&mask) {
+			int home = home(keys[i]);
+			boolean staysBehindHole = (hole<=i) ? (hole<home && home<=i) : (hole<home || home<=i);
+			if(staysBehindHole) continue;
+			keys[hole] = keys[i];
+			heads[hole] = heads[i];
+			hole = i;
+		}
+		heads[hole] = NONE;
+		nbCells--;
+	}
+
+	private void rehash(int bits) {
+		long[] oldKeys = keys;
+		int[] oldHeads = heads;
+		tableBits = bits;
+		keys = new long[1<<bits];
+		heads = new int[1<<bits];
+		Arrays.fill(heads, NONE);
+		int mask = heads.length-1;
+		for(int i=0; i<oldHeads.length; i++) {
+			if(oldHeads[i]==NONE) continue;
+			int slot = home(oldKeys[i]);
+			while(heads[slot]!=NONE) slot = (slot+1)&mask;
+			keys[slot] = oldKeys[i];
+			heads[slot] = oldHeads[i];
+		}
+	}
+
+	/**
+	 * Constant marking the end of a list of worms, and an empty slot in the cell table.
+	 */
+	private static final int NONE = -1;
+
+	/**
+	 * The number of worms in this grid, and the largest radius any of them ever had.
+	 * Queries for bodies look this far around a point, so the largest radius never shrinks.
+	 */
+	private int nbWorms;
+	private double maxRadius;
+
+	/**
+	 * For every worm id, whether it is in this grid, the key of its cell, and its neighbours
+	 * in the list of worms of that cell.
+	 */
+	private boolean[] indexed = new boolean[0];
+	private long[] cellOf = new long[0];
+	private int[] next = new int[0];
+	private int[] previous = new int[0];
+
+	/**
+	 * The cell table.
+	 */
+	private int tableBits = 4;
+	private long[] keys = new long[1<<4];
+	private int[] heads = newEmptyHeads(1<<4);
+	private int nbCells;
+
+	private static int[] newEmptyHeads(int size) {
+		int[] result = new int[size];
+		Arrays.fill(result, NONE);
+		return result;
+	}
+
+}
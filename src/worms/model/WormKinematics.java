@@ -0,0 +1,208 @@
+package worms.model;
+
+/**
+ * A class of kernels computing the jumps and moves of a range of worms in a worm store at once,
+ * reading the columns of the store directly instead of going through one worm handle at a time.
+ * Each kernel writes the result for the worm with id from+i at index i of an array owned by the
+ * caller, and agrees with the corresponding method of {@link Worm} up to rounding.
+ * The kernels work on one worm after another in straight loops over the columns, without
+ * allocating, and take the sine and cosine of each orientation from the store, which computes
+ * them the first time they are needed after an orientation is set.
+ *
+ * @version 1.7
+ * @author Yasmine Baestaens and Sander Leyssens (Bachelor of Mathematics)
+ */
+public final class WormKinematics {
+
+	/**
+	 * Store the horizontal displacement of each worm in the given range if it would jump.
+	 * @param	store
+	 * 			The store holding the worms.
+	 * @param	from
+	 * 			The id of the first worm in the range.
+	 * @param	to
+	 * 			The id after the last worm in the range.
+	 * @param	result
+	 * 			The array in which the displacements are stored.
+	 * @effect	The displacement of each worm that can jump is the distance it would jump; that
+	 * 			of a worm without action points or facing downwards, which cannot jump, is not a number.
+	 * 			| for each id in from..to-1:
+	 * 			|	if(worm.getCurrentNumberOfActionPoints()==0 || worm.getOrientation() > Math.PI)
+	 * 			|		then Double.isNaN(result[id-from])
+	 * 			|	else result[id-from] == the change of worm.getHorizontalPosition() by worm.jump()
+	 * 			|	where worm == store.getWorm(id)
+	 * @throws	IndexOutOfBoundsException
+	 * 			| from < 0 || to > store.getNbWorms() || from > to
+	 * @throws	IllegalArgumentException
+	 * 			| result == null || result.length < to-from
+	 */
+	public static void computeJumpDisplacements(WormStore store, int from, int to, double[] result)
+			throws IndexOutOfBoundsException, IllegalArgumentException {
+		checkRange(store, from, to, result, 1);
+		store.ensureOrientationState(from, to);
+		double[] orientations = store.getOrientationColumn();
+		double[] cosines = store.getCosineColumn();
+		double[] sines = store.getSineColumn();
+		double[] radii = store.getRadiusColumn();
+		long[] actionPoints = store.getActionPointColumn();
+		for(int id=from; id<to; id++) {
+			long points = actionPoints[id];
+			if(points==0 || orientations[id]>Math.PI) {
+				result[id-from] = Double.NaN;
+				continue;
+			}
+			double initialVelocity = getInitialVelocity(points, radii[id]);
+			// the sine of twice the orientation
+			double sin2 = 2*sines[id]*cosines[id];
+			result[id-from] = initialVelocity*initialVelocity*sin2/Worm.STANDARD_ACCELERATION;
+		}
+	}
+
+	/**
+	 * Store the time each worm in the given range would need to jump.
+	 * @param	store
+	 * 			The store holding the worms.
+	 * @param	from
+	 * 			The id of the first worm in the range.
+	 * @param	to
+	 * 			The id after the last worm in the range.
+	 * @param	result
+	 * 			The array in which the times are stored.
+	 * @effect	The time of each worm is its jump time; that of a worm facing downwards, which
+	 * 			has none, is not a number.
+	 * 			| for each id in from..to-1:
+	 * 			|	if(store.getOrientation(id) > Math.PI) then Double.isNaN(result[id-from])
+	 * 			|	else result[id-from] == store.getWorm(id).jumpTime()
+	 * @throws	IndexOutOfBoundsException
+	 * 			| from < 0 || to > store.getNbWorms() || from > to
+	 * @throws	IllegalArgumentException
+	 * 			| result == null || result.length < to-from
+	 */
+	public static void computeJumpTimes(WormStore store, int from, int to, double[] result)
+			throws IndexOutOfBoundsException, IllegalArgumentException {
+		checkRange(store, from, to, result, 1);
+		store.ensureOrientationState(from, to);
+		double[] orientations = store.getOrientationColumn();
+		double[] sines = store.getSineColumn();
+		double[] radii = store.getRadiusColumn();
+		long[] actionPoints = store.getActionPointColumn();
+		for(int id=from; id<to; id++) {
+			if(orientations[id]>Math.PI) {
+				result[id-from] = Double.NaN;
+				continue;
+			}
+			// the jump distance divided by the horizontal velocity, with the cosine cancelled out
+			double initialVelocity = getInitialVelocity(actionPoints[id], radii[id]);
+			result[id-from] = 2*initialVelocity*sines[id]/Worm.STANDARD_ACCELERATION;
+		}
+	}
+
+	/**
+	 * Store the position of each worm in the given range, the given time after the start of
+	 * a jump.
+	 * @param	store
+	 * 			The store holding the worms.
+	 * @param	from
+	 * 			The id of the first worm in the range.
+	 * @param	to
+	 * 			The id after the last worm in the range.
+	 * @param	time
+	 * 			The time (in seconds) that has passed since the worms have started to jump.
+	 * @param	resultXY
+	 * 			The array in which the positions are stored, as consecutive pairs of a horizontal
+	 * 			and a vertical position.
+	 * @effect	| for each id in from..to-1:
+	 * 			|	resultXY[2*(id-from)] == store.getWorm(id).jumpStep(time)[0] &&
+	 * 			|	resultXY[2*(id-from)+1] == store.getWorm(id).jumpStep(time)[1]
+	 * @throws	IndexOutOfBoundsException
+	 * 			| from < 0 || to > store.getNbWorms() || from > to
+	 * @throws	IllegalArgumentException
+	 * 			| resultXY == null || resultXY.length < 2*(to-from)
+	 */
+	public static void computeJumpSteps(WormStore store, int from, int to, double time, double[] resultXY)
+			throws IndexOutOfBoundsException, IllegalArgumentException {
+		checkRange(store, from, to, resultXY, 2);
+		store.ensureOrientationState(from, to);
+		double[] horizontalPositions = store.getHorizontalPositionColumn();
+		double[] verticalPositions = store.getVerticalPositionColumn();
+		double[] orientations = store.getOrientationColumn();
+		double[] cosines = store.getCosineColumn();
+		double[] sines = store.getSineColumn();
+		double[] radii = store.getRadiusColumn();
+		long[] actionPoints = store.getActionPointColumn();
+		double drop = 0.5*Worm.STANDARD_ACCELERATION*time*time;
+		for(int id=from; id<to; id++) {
+			int i = 2*(id-from);
+			long points = actionPoints[id];
+			if(points==0 || orientations[id]>Math.PI) {
+				resultXY[i] = horizontalPositions[id];
+				resultXY[i+1] = verticalPositions[id];
+				continue;
+			}
+			double initialVelocity = getInitialVelocity(points, radii[id]);
+			resultXY[i] = horizontalPositions[id]+initialVelocity*cosines[id]*time;
+			resultXY[i+1] = verticalPositions[id]+initialVelocity*sines[id]*time-drop;
+		}
+	}
+
+	/**
+	 * Store the number of action points each worm in the given range would need to move the
+	 * given number of steps.
+	 * @param	store
+	 * 			The store holding the worms.
+	 * @param	from
+	 * 			The id of the first worm in the range.
+	 * @param	to
+	 * 			The id after the last worm in the range.
+	 * @param	steps
+	 * 			The number of steps.
+	 * @param	result
+	 * 			The array in which the costs are stored.
+	 * @effect	| for each id in from..to-1:
+	 * 			|	result[id-from] == (long) Math.ceil(steps*(Math.abs(Math.cos(store.getOrientation(id))+
+	 * 			|		4*Math.abs(Math.sin(store.getOrientation(id))))))
+	 * @throws	IndexOutOfBoundsException
+	 * 			| from < 0 || to > store.getNbWorms() || from > to
+	 * @throws	IllegalArgumentException
+	 * 			| result == null || result.length < to-from
+	 */
+	public static void computeMoveCosts(WormStore store, int from, int to, int steps, long[] result)
+			throws IndexOutOfBoundsException, IllegalArgumentException {
+		checkRange(store, from, to, result==null ? -1 : result.length, 1);
+		store.ensureOrientationState(from, to);
+		double[] cosines = store.getCosineColumn();
+		double[] sines = store.getSineColumn();
+		for(int id=from; id<to; id++) {
+			// the same expression as Worm.move, so that both round up to the same cost
+			result[id-from] = (long) Math.ceil(steps*(Math.abs(cosines[id]+4*Math.abs(sines[id]))));
+		}
+	}
+
+	/**
+	 * Return the initial velocity of a worm with the given number of action points and radius
+	 * if it would jump.
+	 * @return	| result == ((5*actionPoints)+(mass*Worm.STANDARD_ACCELERATION))/mass*0.5
+	 * 			|	where mass == Worm.DENSITY*(4.0/3.0)*Math.PI*radius*radius*radius
+	 */
+	private static double getInitialVelocity(long actionPoints, double radius) {
+		double mass = Worm.DENSITY*(4.0/3.0)*Math.PI*radius*radius*radius;
+		return ((5*actionPoints)+(mass*Worm.STANDARD_ACCELERATION))/mass*0.5;
+	}
+
+	private static void checkRange(WormStore store, int from, int to, double[] result, int width)
+			throws IndexOutOfBoundsException, IllegalArgumentException {
+		checkRange(store, from, to, result==null ? -1 : result.length, width);
+	}
+
+	private static void checkRange(WormStore store, int from, int to, int resultLength, int width)
+			throws IndexOutOfBoundsException, IllegalArgumentException {
+		if(from<0 || to>store.getNbWorms() || from>to)
+			throw new IndexOutOfBoundsException("No worms with ids from "+from+" to "+to);
+		if(resultLength<width*(to-from)) throw new IllegalArgumentException("Not a valid result array!");
+	}
+
+	/* disable instantiations */
+	private WormKinematics() {
+	}
+
+}
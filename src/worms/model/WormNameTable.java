@@ -0,0 +1,134 @@
+package worms.model;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of name tables, mapping each distinct worm name to a small int id.
+ * Equal names are stored only once, and every worm with that name shares the same
+ * string instance. Each entry keeps a reference count, and is removed from the table
+ * as soon as no worm refers to it anymore.
+ * A name table is not thread-safe.
+ * @invar	Every id in use refers to a name with a strictly positive reference count.
+ *
+ * @version 1.7
+ * @author Yasmine Baestaens and Sander Leyssens (Bachelor of Mathematics)
+ */
+public class WormNameTable {
+
+	/**
+	 * Constant denoting the id that does not refer to any name.
+	 */
+	public static final int NO_NAME = -1;
+
+	/**
+	 * Return the id of the given name in this table, adding the name if it is not present yet,
+	 * and increment its reference count.
+	 * @param	name
+	 * 			The name to intern.
+	 * @post	| new.getName(result).equals(name)
+	 * @post	| new.getReferenceCount(result) == old.getReferenceCount(result) + 1
+	 */
+	public int acquire(String name) {
+		return acquire(name, 1);
+	}
+
+	/**
+	 * Return the id of the given name in this table, adding the name if it is not present yet,
+	 * and increment its reference count by the given number, as for that number of worms at once.
+	 * @param	name
+	 * 			The name to intern.
+	 * @param	count
+	 * 			The number of references to add.
+	 * @post	| new.getName(result).equals(name)
+	 * @post	| new.getReferenceCount(result) == old.getReferenceCount(result) + count
+	 * @throws	IllegalArgumentException
+	 * 			| count <= 0
+	 */
+	public int acquire(String name, int count) throws IllegalArgumentException {
+		if(count<=0) throw new IllegalArgumentException("Not a valid number of references!");
+		Integer id = ids.get(name);
+		if(id==null) {
+			id = newSlot();
+			names[id] = name;
+			ids.put(name, id);
+		}
+		referenceCounts[id] += count;
+		return id;
+	}
+
+	/**
+	 * Decrement the reference count of the name with the given id, removing it from this table
+	 * if no references are left.
+	 * @param	id
+	 * 			The id of the name to release; NO_NAME is ignored.
+	 */
+	public void release(int id) {
+		if(id==NO_NAME) return;
+		if(--referenceCounts[id]==0) {
+			ids.remove(names[id]);
+			names[id] = null;
+			if(nbFreeSlots==freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, Math.max(8, 2*freeSlots.length));
+			freeSlots[nbFreeSlots++] = id;
+		}
+	}
+
+	/**
+	 * Return the name with the given id, or null if the id is NO_NAME.
+	 */
+	@Basic
+	public String getName(int id) {
+		if(id==NO_NAME) return null;
+		return names[id];
+	}
+
+	/**
+	 * Return the number of worms referring to the name with the given id.
+	 */
+	@Basic
+	public int getReferenceCount(int id) {
+		return referenceCounts[id];
+	}
+
+	/**
+	 * Return the number of distinct names in this table.
+	 */
+	public int getNbNames() {
+		return ids.size();
+	}
+
+	private int newSlot() {
+		if(nbFreeSlots>0) return freeSlots[--nbFreeSlots];
+		if(nbSlots==names.length) {
+			int capacity = Math.max(8, 2*names.length);
+			names = Arrays.copyOf(names, capacity);
+			referenceCounts = Arrays.copyOf(referenceCounts, capacity);
+		}
+		return nbSlots++;
+	}
+
+	/**
+	 * The ids of the names in this table.
+	 */
+	private final Map<String, Integer> ids = new HashMap<String, Integer>();
+
+	/**
+	 * The names and reference counts in this table, indexed by id.
+	 */
+	private String[] names = new String[0];
+	private int[] referenceCounts = new int[0];
+
+	/**
+	 * The number of ids that have ever been handed out.
+	 */
+	private int nbSlots;
+
+	/**
+	 * The ids that have been released and can be handed out again.
+	 */
+	private int[] freeSlots = new int[0];
+	private int nbFreeSlots;
+
+}
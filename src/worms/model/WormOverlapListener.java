@@ -0,0 +1,16 @@
+package worms.model;
+
+/**
+ * An interface for objects that are told about pairs of worms whose bodies overlap.
+ *
+ * @version 1.7
+ * @author Yasmine Baestaens and Sander Leyssens (Bachelor of Mathematics)
+ */
+public interface WormOverlapListener {
+
+	/**
+	 * The bodies of the worms with the given ids in the given store overlap.
+	 */
+	void wormsOverlap(WormStore store, int id, int otherId);
+
+}
@@ -0,0 +1,582 @@
+package worms.model;
+import java.util.Arrays;
+
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of worm stores, keeping the state of a group of worms in parallel primitive arrays.
+ * Each worm in a store is identified by a stable int id, which indexes every column of the store.
+ * Instances of {@link Worm} are lightweight handles over one slot of a store, so that iterating
+ * over the positions or radii of all worms only touches a few contiguous arrays.
+ * A worm store is not thread-safe.
+ * @invar	The number of worms in this store is never greater than its capacity.
+ * 			| 0 <= getNbWorms() && getNbWorms() <= getCapacity()
+ *
+ * @version 1.7
+ * @author Yasmine Baestaens and Sander Leyssens (Bachelor of Mathematics)
+ */
+public class WormStore {
+
+	/**
+	 * Initialize a new, empty worm store with a default capacity.
+	 * @effect	| this(DEFAULT_CAPACITY)
+	 */
+	public WormStore() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Initialize a new, empty worm store that can hold the given number of worms before growing.
+	 * @param 	capacity
+	 * 			The initial capacity for this store.
+	 * @post	| new.getNbWorms() == 0
+	 * @post	| new.getCapacity() == capacity
+	 * @throws	IllegalArgumentException
+	 * 			The given capacity is negative.
+	 * 			| capacity < 0
+	 */
+	public WormStore(int capacity) throws IllegalArgumentException {
+		if(capacity<0) throw new IllegalArgumentException("Not a valid capacity!");
+		handles = new Worm[capacity];
+		nameIds = new int[capacity];
+		horizontalPositions = new double[capacity];
+		verticalPositions = new double[capacity];
+		orientations = new double[capacity];
+		cosines = new double[capacity];
+		sines = new double[capacity];
+		radii = new double[capacity];
+		masses = new double[capacity];
+		actionPoints = new long[capacity];
+		modificationStamps = new long[capacity];
+		initialVelocities = new double[capacity];
+		jumpDistances = new double[capacity];
+		jumpTimes = new double[capacity];
+		derivedStates = new byte[capacity];
+	}
+
+	/**
+	 * Constant denoting the capacity of a store created without an explicit capacity.
+	 */
+	public static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * Return the number of worms in this store.
+	 */
+	@Basic
+	public int getNbWorms() {
+		return nbWorms;
+	}
+
+	/**
+	 * Return the number of worms this store can hold before its columns have to grow.
+	 */
+	@Basic
+	public int getCapacity() {
+		return handles.length;
+	}
+
+	/**
+	 * Return whether the given id identifies a worm in this store.
+	 * @return	| result == (0 <= id && id < getNbWorms())
+	 */
+	public boolean hasAsId(int id) {
+		return 0<=id && id<nbWorms;
+	}
+
+	/**
+	 * Return the worm with the given id.
+	 * @throws	IndexOutOfBoundsException
+	 * 			| !hasAsId(id)
+	 */
+	public Worm getWorm(int id) throws IndexOutOfBoundsException {
+		checkId(id);
+		return handles[id];
+	}
+
+	/**
+	 * Add the given worm to this store.
+	 * @param	worm
+	 * 			The handle to register in the new slot.
+	 * @return	The id of the new slot, which is equal to the old number of worms of this store.
+	 * 			| result == old.getNbWorms()
+	 * @post	| new.getNbWorms() == old.getNbWorms() + 1
+	 */
+	@Model
+	int add(Worm worm) {
+		if(nbWorms==handles.length) grow(Math.max(DEFAULT_CAPACITY, 2*handles.length));
+		int id = nbWorms++;
+		handles[id] = worm;
+		nameIds[id] = WormNameTable.NO_NAME;
+		derivedStates[id] = 0;
+		return id;
+	}
+
+	/**
+	 * Add the given worms to this store at once, with their state copied from the given columns.
+	 * The name of the i-th worm is the name at index nameIndices[i] in the given names.
+	 * @param	worms
+	 * 			The handles to register in the new slots, whose ids follow the ids of this store.
+	 * @pre		| for each i in 0..worms.length-1: worms[i].getId() == getNbWorms() + i
+	 * @post	| new.getNbWorms() == old.getNbWorms() + worms.length
+	 * @post	Each new worm has a new modification stamp.
+	 */
+	@Model
+	void addAll(Worm[] worms, String[] names, int[] nameIndices, double[] horizontalPositions,
+			double[] verticalPositions, double[] orientations, double[] radii, long[] actionPoints) {
+		int first = nbWorms;
+		int n = worms.length;
+		if(first+n>handles.length) grow(Math.max(first+n, 2*handles.length));
+		System.arraycopy(worms, 0, handles, first, n);
+		System.arraycopy(horizontalPositions, 0, this.horizontalPositions, first, n);
+		System.arraycopy(verticalPositions, 0, this.verticalPositions, first, n);
+		System.arraycopy(orientations, 0, this.orientations, first, n);
+		System.arraycopy(radii, 0, this.radii, first, n);
+		System.arraycopy(actionPoints, 0, this.actionPoints, first, n);
+		// every distinct name is acquired once, for all worms that have it
+		int[] counts = new int[names.length];
+		for(int i=0; i<n; i++) counts[nameIndices[i]]++;
+		int[] nameIds = new int[names.length];
+		for(int j=0; j<names.length; j++)
+			if(counts[j]>0) nameIds[j] = nameTable.acquire(names[j], counts[j]);
+		for(int i=0; i<n; i++) {
+			this.nameIds[first+i] = nameIds[nameIndices[i]];
+			modificationStamps[first+i] = ++modificationCount;
+			derivedStates[first+i] = 0;
+		}
+		nbWorms += n;
+	}
+
+	/**
+	 * Make sure this store can hold at least the given number of worms without growing again.
+	 * @post	| new.getCapacity() >= capacity
+	 */
+	public void ensureCapacity(int capacity) {
+		if(capacity>handles.length) grow(capacity);
+	}
+
+	private void grow(int capacity) {
+		handles = Arrays.copyOf(handles, capacity);
+		nameIds = Arrays.copyOf(nameIds, capacity);
+		horizontalPositions = Arrays.copyOf(horizontalPositions, capacity);
+		verticalPositions = Arrays.copyOf(verticalPositions, capacity);
+		orientations = Arrays.copyOf(orientations, capacity);
+		cosines = Arrays.copyOf(cosines, capacity);
+		sines = Arrays.copyOf(sines, capacity);
+		radii = Arrays.copyOf(radii, capacity);
+		masses = Arrays.copyOf(masses, capacity);
+		actionPoints = Arrays.copyOf(actionPoints, capacity);
+		modificationStamps = Arrays.copyOf(modificationStamps, capacity);
+		initialVelocities = Arrays.copyOf(initialVelocities, capacity);
+		jumpDistances = Arrays.copyOf(jumpDistances, capacity);
+		jumpTimes = Arrays.copyOf(jumpTimes, capacity);
+		derivedStates = Arrays.copyOf(derivedStates, capacity);
+	}
+
+	private void checkId(int id) throws IndexOutOfBoundsException {
+		if(!hasAsId(id)) throw new IndexOutOfBoundsException("No worm with id "+id);
+	}
+
+	/**
+	 * Return the name of the worm with the given id.
+	 * Worms in this store with equal names share the same string.
+	 */
+	public String getName(int id) {
+		checkId(id);
+		return nameTable.getName(nameIds[id]);
+	}
+
+	void setName(int id, String name) {
+		int oldNameId = nameIds[id];
+		if(oldNameId!=WormNameTable.NO_NAME && nameTable.getName(oldNameId).equals(name)) return;
+		nameIds[id] = nameTable.acquire(name);
+		nameTable.release(oldNameId);
+		touch(id);
+	}
+
+	/**
+	 * Return the id in the name table of this store of the name of the worm with the given id.
+	 */
+	public int getNameId(int id) {
+		checkId(id);
+		return nameIds[id];
+	}
+
+	/**
+	 * Return the table holding the distinct names of the worms in this store.
+	 */
+	@Basic @Immutable
+	public WormNameTable getNameTable() {
+		return nameTable;
+	}
+
+	/**
+	 * The table holding the distinct names of the worms in this store.
+	 */
+	private final WormNameTable nameTable = new WormNameTable();
+
+	/**
+	 * Return the horizontal position of the worm with the given id.
+	 */
+	public double getHorizontalPosition(int id) {
+		checkId(id);
+		return horizontalPositions[id];
+	}
+
+	void setHorizontalPosition(int id, double horizontalPosition) {
+		horizontalPositions[id] = horizontalPosition;
+		touch(id);
+	}
+
+	/**
+	 * Return the vertical position of the worm with the given id.
+	 */
+	public double getVerticalPosition(int id) {
+		checkId(id);
+		return verticalPositions[id];
+	}
+
+	void setVerticalPosition(int id, double verticalPosition) {
+		verticalPositions[id] = verticalPosition;
+		touch(id);
+	}
+
+	/**
+	 * Return the orientation of the worm with the given id.
+	 */
+	public double getOrientation(int id) {
+		checkId(id);
+		return orientations[id];
+	}
+
+	void setOrientation(int id, double orientation) {
+		orientations[id] = orientation;
+		derivedStates[id] &= ~(ORIENTATION_DERIVED_STATE|JUMP_DERIVED_STATE);
+		touch(id);
+	}
+
+	/**
+	 * Return the cosine of the orientation of the worm with the given id.
+	 * The sine and cosine of each orientation are computed together, the first time either is
+	 * asked for after the orientation is set, so that turning a worm stays cheap.
+	 * @return	| result == Math.cos(getOrientation(id))
+	 */
+	public double getCosineOfOrientation(int id) {
+		checkId(id);
+		if(!hasDerivedState(id, ORIENTATION_DERIVED_STATE)) computeOrientationState(id);
+		return cosines[id];
+	}
+
+	/**
+	 * Return the sine of the orientation of the worm with the given id.
+	 * @return	| result == Math.sin(getOrientation(id))
+	 */
+	public double getSineOfOrientation(int id) {
+		checkId(id);
+		if(!hasDerivedState(id, ORIENTATION_DERIVED_STATE)) computeOrientationState(id);
+		return sines[id];
+	}
+
+	/**
+	 * Make sure the sine and cosine columns hold the sine and cosine of the orientation of
+	 * every worm with an id in the given range, for kernels that read those columns.
+	 */
+	void ensureOrientationState(int from, int to) {
+		for(int id=from; id<to; id++)
+			if((derivedStates[id] & ORIENTATION_DERIVED_STATE) == 0) computeOrientationState(id);
+	}
+
+	private void computeOrientationState(int id) {
+		cosines[id] = Math.cos(orientations[id]);
+		sines[id] = Math.sin(orientations[id]);
+		derivedStates[id] |= ORIENTATION_DERIVED_STATE;
+	}
+
+	/**
+	 * Return the radius of the worm with the given id.
+	 */
+	public double getRadius(int id) {
+		checkId(id);
+		return radii[id];
+	}
+
+	void setRadius(int id, double radius) {
+		radii[id] = radius;
+		derivedStates[id] &= ~(RADIUS_DERIVED_STATE|JUMP_DERIVED_STATE);
+		touch(id);
+	}
+
+	/**
+	 * Return the current number of action points of the worm with the given id.
+	 */
+	public long getActionPoints(int id) {
+		checkId(id);
+		return actionPoints[id];
+	}
+
+	void setActionPoints(int id, long number) {
+		actionPoints[id] = number;
+		derivedStates[id] &= ~JUMP_DERIVED_STATE;
+		touch(id);
+	}
+
+	/**
+	 * Return the modification stamp of the worm with the given id.
+	 * The stamp of a worm changes whenever any of its state changes, and only then. Stamps are
+	 * drawn from a counter of this store, so that they only ever increase.
+	 */
+	public long getModificationStamp(int id) {
+		checkId(id);
+		return modificationStamps[id];
+	}
+
+	/**
+	 * Return the number of modifications of worms in this store so far, which is the highest
+	 * modification stamp of any of its worms.
+	 */
+	@Basic
+	public long getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Give the worm with the given id a new modification stamp.
+	 * @post	| new.getModificationCount() == old.getModificationCount() + 1
+	 * @post	| new.getModificationStamp(id) == new.getModificationCount()
+	 */
+	private void touch(int id) {
+		modificationStamps[id] = ++modificationCount;
+	}
+
+	/**
+	 * The number of modifications of worms in this store so far.
+	 */
+	private long modificationCount;
+
+	/**
+	 * Groups of derived state of a worm, each depending on a different part of its state: the
+	 * mass depends on the radius, the sine and cosine on the orientation, and the jump
+	 * properties on the radius, the orientation and the action points. Only changes to those invalidate a group; a worm that is renamed or
+	 * moved without spending action points keeps its derived state.
+	 */
+	static final int RADIUS_DERIVED_STATE = 1;
+	static final int ORIENTATION_DERIVED_STATE = 2;
+	static final int JUMP_DERIVED_STATE = 4;
+
+	/**
+	 * Return whether the given groups of derived state of the worm with the given id are up to
+	 * date, counting the answer as a hit or a miss of the derived state cache of this store.
+	 */
+	boolean hasDerivedState(int id, int groups) {
+		if((derivedStates[id] & groups) == groups) {
+			derivedStateCacheHits++;
+			return true;
+		}
+		derivedStateCacheMisses++;
+		return false;
+	}
+
+	/**
+	 * Store the given mass of the worm with the given id, which stays valid until its radius
+	 * changes.
+	 */
+	void setMass(int id, double mass) {
+		masses[id] = mass;
+		derivedStates[id] |= RADIUS_DERIVED_STATE;
+	}
+
+	double getMass(int id) {
+		return masses[id];
+	}
+
+	/**
+	 * Store the given initial velocity, jump distance and jump time of the worm with the given
+	 * id, which stay valid until its radius, orientation or action points change.
+	 */
+	void setJumpState(int id, double initialVelocity, double jumpDistance, double jumpTime) {
+		initialVelocities[id] = initialVelocity;
+		jumpDistances[id] = jumpDistance;
+		jumpTimes[id] = jumpTime;
+		derivedStates[id] |= JUMP_DERIVED_STATE;
+	}
+
+	double getInitialVelocity(int id) {
+		return initialVelocities[id];
+	}
+
+	double getJumpDistance(int id) {
+		return jumpDistances[id];
+	}
+
+	double getJumpTime(int id) {
+		return jumpTimes[id];
+	}
+
+	/**
+	 * Return the number of times derived state of a worm in this store was served from its
+	 * cache.
+	 */
+	public long getDerivedStateCacheHits() {
+		return derivedStateCacheHits;
+	}
+
+	/**
+	 * Return the number of times derived state of a worm in this store had to be recomputed.
+	 */
+	public long getDerivedStateCacheMisses() {
+		return derivedStateCacheMisses;
+	}
+
+	/**
+	 * Reset the derived state cache counters of this store to zero.
+	 */
+	public void resetDerivedStateCacheCounters() {
+		derivedStateCacheHits = 0;
+		derivedStateCacheMisses = 0;
+	}
+
+	/**
+	 * Counters for the derived state cache of the worms in this store. Like the rest of the
+	 * store, they are only changed by the thread that changes its worms.
+	 */
+	private long derivedStateCacheHits;
+	private long derivedStateCacheMisses;
+
+	/**
+	 * Register the given listener, so that it is notified of worms that are added to, moved or
+	 * changed in this store.
+	 */
+	public void addListener(WormStoreListener listener) {
+		listeners = Arrays.copyOf(listeners, listeners.length+1);
+		listeners[listeners.length-1] = listener;
+	}
+
+	/**
+	 * Stop notifying the given listener.
+	 */
+	public void removeListener(WormStoreListener listener) {
+		for(int i=0; i<listeners.length; i++) {
+			if(listeners[i]==listener) {
+				WormStoreListener[] result = new WormStoreListener[listeners.length-1];
+				System.arraycopy(listeners, 0, result, 0, i);
+				System.arraycopy(listeners, i+1, result, i, result.length-i);
+				listeners = result;
+				return;
+			}
+		}
+	}
+
+	void fireWormAdded(int id) {
+		for(WormStoreListener listener : listeners) listener.wormAdded(this, id);
+	}
+
+	void fireWormMoved(int id) {
+		for(WormStoreListener listener : listeners) listener.wormMoved(this, id);
+	}
+
+	void fireWormChanged(int id) {
+		for(WormStoreListener listener : listeners) listener.wormChanged(this, id);
+	}
+
+	/**
+	 * The listeners of this store.
+	 */
+	private WormStoreListener[] listeners = new WormStoreListener[0];
+
+	/**
+	 * Copy the horizontal positions of all worms in this store into the given array, in id order.
+	 * @return	The given array, or a new array if the given one is not effective or too small.
+	 */
+	public double[] copyHorizontalPositions(double[] result) {
+		return copyColumn(horizontalPositions, result);
+	}
+
+	/**
+	 * Copy the vertical positions of all worms in this store into the given array, in id order.
+	 * @return	The given array, or a new array if the given one is not effective or too small.
+	 */
+	public double[] copyVerticalPositions(double[] result) {
+		return copyColumn(verticalPositions, result);
+	}
+
+	/**
+	 * Copy the radii of all worms in this store into the given array, in id order.
+	 * @return	The given array, or a new array if the given one is not effective or too small.
+	 */
+	public double[] copyRadii(double[] result) {
+		return copyColumn(radii, result);
+	}
+
+	private double[] copyColumn(double[] column, double[] result) {
+		if(result==null || result.length<nbWorms) result = new double[nbWorms];
+		System.arraycopy(column, 0, result, 0, nbWorms);
+		return result;
+	}
+
+	/**
+	 * Return the columns of this store themselves, for kernels in this package that read every
+	 * worm at once. The columns may be longer than the number of worms, and are replaced when
+	 * this store grows; they must not be modified. The sine and cosine columns only hold the
+	 * sine and cosine of worms for which ensureOrientationState was called since they turned.
+	 */
+	double[] getHorizontalPositionColumn() {
+		return horizontalPositions;
+	}
+
+	double[] getVerticalPositionColumn() {
+		return verticalPositions;
+	}
+
+	double[] getOrientationColumn() {
+		return orientations;
+	}
+
+	double[] getCosineColumn() {
+		return cosines;
+	}
+
+	double[] getSineColumn() {
+		return sines;
+	}
+
+	double[] getRadiusColumn() {
+		return radii;
+	}
+
+	long[] getActionPointColumn() {
+		return actionPoints;
+	}
+
+	/**
+	 * The number of worms in this store.
+	 */
+	private int nbWorms;
+
+	/**
+	 * The handles of the worms in this store, indexed by id.
+	 */
+	private Worm[] handles;
+
+	/**
+	 * The columns of this store, indexed by id.
+	 */
+	private int[] nameIds;
+	private double[] horizontalPositions;
+	private double[] verticalPositions;
+	private double[] orientations;
+	private double[] radii;
+	private long[] actionPoints;
+	private long[] modificationStamps;
+
+	/**
+	 * The derived state of the worms in this store, indexed by id, with the groups of it that
+	 * are up to date.
+	 */
+	private double[] cosines;
+	private double[] sines;
+	private double[] masses;
+	private double[] initialVelocities;
+	private double[] jumpDistances;
+	private double[] jumpTimes;
+	private byte[] derivedStates;
+
+}
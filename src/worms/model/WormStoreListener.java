@@ -0,0 +1,31 @@
+package worms.model;
+
+/**
+ * An interface for objects that keep track of the worms in a {@link WormStore}.
+ *
+ * @version 1.7
+ * @author Yasmine Baestaens and Sander Leyssens (Bachelor of Mathematics)
+ */
+public interface WormStoreListener {
+
+	/**
+	 * The worm with the given id has been added to the given store and is fully initialized.
+	 */
+	void wormAdded(WormStore store, int id);
+
+	/**
+	 * The position or radius of the worm with the given id in the given store has changed.
+	 * This is also sent while a worm is being initialized, before it has been added; listeners
+	 * can ignore those notifications.
+	 */
+	void wormMoved(WormStore store, int id);
+
+	/**
+	 * The name, position, orientation, radius or number of action points of the worm with the
+	 * given id in the given store has changed, so that its modification stamp has moved. Sent
+	 * once for every change through the public interface of {@link Worm}, after it is complete.
+	 * Like {@link #wormMoved(WormStore, int)}, this is also sent while a worm is being initialized.
+	 */
+	void wormChanged(WormStore store, int id);
+
+}
@@ -0,0 +1,635 @@
+package worms.model;
+import java.util.Arrays;
+import java.util.Collection;
+
+import worms.BadOrientationException;
+import be.kuleuven.cs.som.annotate.*;
+
+/**
+ * A class of broad phases detecting contact between the worms in a worm store, by sorting the
+ * bodies of the worms along the horizontal axis and sweeping over them.
+ * The world is cut into horizontal bands, and each worm is kept in every band its body reaches
+ * into. Within a band, worms are sorted by the left edge of their body, so that the only worms
+ * whose bodies can overlap a given body are the ones that follow it until the first one that
+ * starts to the right of it. A band holds the worms of a strip of the world only, which keeps
+ * that run short however tall the world is.
+ * A broad phase registers itself as a listener of its store, and brings the worms that have
+ * been added, moved, jumped or resized since its last query up to date before answering the
+ * next one. Since worms only move a little at a time, the bands are nearly sorted then, and
+ * are sorted again by insertion.
+ * A broad phase is not thread-safe.
+ * @invar	The band height of each broad phase is strictly positive.
+ * 			| getBandHeight() > 0
+ *
+ * @version 1.7
+ * @author Yasmine Baestaens and Sander Leyssens (Bachelor of Mathematics)
+ */
+public class WormSweepAndPrune implements WormStoreListener {
+
+	/**
+	 * Initialize a new broad phase with the default band height over the given store.
+	 * @effect	| this(store, DEFAULT_BAND_HEIGHT)
+	 */
+	public WormSweepAndPrune(WormStore store) throws IllegalArgumentException {
+		this(store, DEFAULT_BAND_HEIGHT);
+	}
+
+	/**
+	 * Initialize a new broad phase with the given band height over the given store, holding all
+	 * worms that are currently in the store.
+	 * @param	store
+	 * 			The store whose worms are tracked.
+	 * @param	bandHeight
+	 * 			The height of the bands of this broad phase, in metres.
+	 * @post	| new.getStore() == store && new.getBandHeight() == bandHeight
+	 * @post	| new.getNbWorms() == store.getNbWorms()
+	 * @throws	IllegalArgumentException
+	 * 			| store == null || !(bandHeight > 0)
+	 */
+	public WormSweepAndPrune(WormStore store, double bandHeight) throws IllegalArgumentException {
+		if(store==null) throw new IllegalArgumentException("Not a valid store!");
+		if(!(bandHeight>0) || Double.isInfinite(bandHeight)) throw new IllegalArgumentException("Not a valid band height!");
+		this.store = store;
+		this.bandHeight = bandHeight;
+		this.inverseBandHeight = 1/bandHeight;
+		ensureWormCapacity(store.getNbWorms());
+		for(int id=0; id<store.getNbWorms(); id++) add(id);
+		update();
+		store.addListener(this);
+	}
+
+	/**
+	 * Constant denoting the default band height, in metres: about twice the diameter of the
+	 * worms in a new game, so that most worms are in a single band.
+	 */
+	public static final double DEFAULT_BAND_HEIGHT = 2.0;
+
+	/**
+	 * Return the store whose worms are tracked by this broad phase.
+	 */
+	@Basic @Immutable
+	public WormStore getStore() {
+		return store;
+	}
+
+	private final WormStore store;
+
+	/**
+	 * Return the height of the bands of this broad phase.
+	 */
+	@Basic @Immutable
+	public double getBandHeight() {
+		return bandHeight;
+	}
+
+	private final double bandHeight;
+	private final double inverseBandHeight;
+
+	/**
+	 * Return the number of worms in this broad phase.
+	 */
+	@Basic
+	public int getNbWorms() {
+		return nbWorms;
+	}
+
+	/**
+	 * Stop following the store of this broad phase. The broad phase is out of date after this.
+	 */
+	public void detach() {
+		store.removeListener(this);
+	}
+
+	@Override
+	public void wormAdded(WormStore store, int id) {
+		ensureWormCapacity(id+1);
+		add(id);
+	}
+
+	@Override
+	public void wormMoved(WormStore store, int id) {
+		if(id>=indexed.length || !indexed[id]) return;
+		markDirty(id);
+	}
+
+	@Override
+	public void wormChanged(WormStore store, int id) {
+		// only moves affect the broad phase
+	}
+
+	/**
+	 * Bring the bands of this broad phase up to date with the worms that have been added, moved
+	 * or resized since the last update. Every query does this first.
+	 */
+	public void update() {
+		if(nbDirtyWorms==0) return;
+		nbUpdates++;
+		double[] verticalPositions = store.getVerticalPositionColumn();
+		double[] radii = store.getRadiusColumn();
+		for(int i=0; i<nbDirtyWorms; i++) {
+			int id = dirtyWorms[i];
+			dirty[id] = false;
+			updated[id] = nbUpdates;
+			double radius = radii[id];
+			maxRadius = Math.max(maxRadius, radius);
+			int low = bandIndex(verticalPositions[id]-radius);
+			int high = bandIndex(verticalPositions[id]+radius);
+			int oldLow = lowBands[id], oldHigh = highBands[id];
+			// the bands the worm stays in are sorted again, those it leaves drop it
+			for(int b=oldLow; b<=oldHigh; b++) markDirty(getBand(b));
+			for(int b=low; b<=high; b++) {
+				if(b<oldLow || b>oldHigh) {
+					Band band = getOrCreateBand(b);
+					band.addPending(id);
+					markDirty(band);
+				}
+			}
+			lowBands[id] = low;
+			highBands[id] = high;
+		}
+		nbDirtyWorms = 0;
+		for(int i=0; i<nbDirtyBands; i++) {
+			rebuild(dirtyBands[i]);
+			dirtyBands[i].dirty = false;
+			dirtyBands[i] = null;
+		}
+		nbDirtyBands = 0;
+	}
+
+	/**
+	 * Report every pair of worms in this broad phase whose bodies overlap to the given listener,
+	 * once for each pair.
+	 * @param	listener
+	 * 			The listener to report the pairs to, or null to count them only.
+	 * @return	The number of pairs of worms whose bodies overlap.
+	 */
+	public int findOverlappingPairs(WormOverlapListener listener) {
+		update();
+		int result = 0;
+		for(Band band : bands) {
+			if(band!=null) result += findOverlappingPairs(band, listener);
+		}
+		return result;
+	}
+
+	private int findOverlappingPairs(Band band, WormOverlapListener listener) {
+		int result = 0;
+		int n = band.size;
+		int[] ids = band.ids;
+		double[] minXs = band.minXs, xs = band.xs, ys = band.ys, radii = band.radii;
+		for(int i=0; i<n; i++) {
+			double x = xs[i], y = ys[i], radius = radii[i];
+			double maxX = x+radius;
+			for(int j=i+1; j<n && minXs[j]<=maxX; j++) {
+				double dx = xs[j]-x, dy = ys[j]-y, reach = radius+radii[j];
+				if(dx*dx+dy*dy>=reach*reach) continue;
+				// the pair is seen in every band both worms are in, it is reported in the lowest one only
+				if(bandIndex(Math.max(y-radius, ys[j]-radii[j]))!=band.index) continue;
+				result++;
+				if(listener!=null) listener.wormsOverlap(store, ids[i], ids[j]);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Add every other worm whose body overlaps the body of the given worm to the given collection.
+	 * @throws	IllegalArgumentException
+	 * 			| worm == null || worm.getStore() != getStore()
+	 */
+	public void collectOverlappingWorms(Worm worm, Collection<? super Worm> result) throws IllegalArgumentException {
+		checkWorm(worm);
+		pathXs[0] = worm.getHorizontalPosition();
+		pathYs[0] = worm.getVerticalPosition();
+		collectAlongPath(1, worm.getRadius(), worm.getId(), result);
+	}
+
+	/**
+	 * Add every worm whose body a circle with the given radius would touch while it moves along
+	 * a straight line between the given points to the given collection.
+	 */
+	public void collectWormsAlongSegment(double x0, double y0, double x1, double y1, double radius,
+			Collection<? super Worm> result) {
+		pathXs[0] = x0; pathYs[0] = y0;
+		pathXs[1] = x1; pathYs[1] = y1;
+		collectAlongPath(2, radius, -1, result);
+	}
+
+	/**
+	 * Add every other worm whose body the given worm would touch if it would move the given
+	 * number of steps to the given collection.
+	 * @effect	The worm sweeps its body along the line to its position after the move.
+	 * 			| collectWormsAlongSegment(worm.getHorizontalPosition(), worm.getVerticalPosition(),
+	 * 			|	worm.getHorizontalPosition()+Math.cos(worm.getOrientation())*worm.getRadius()*steps,
+	 * 			|	worm.getVerticalPosition()+Math.sin(worm.getOrientation())*worm.getRadius()*steps,
+	 * 			|	worm.getRadius(), result), leaving out the given worm itself
+	 * @throws	IllegalArgumentException
+	 * 			| worm == null || worm.getStore() != getStore()
+	 */
+	public void collectWormsAlongMove(Worm worm, int steps, Collection<? super Worm> result) throws IllegalArgumentException {
+		checkWorm(worm);
+		int id = worm.getId();
+		double radius = worm.getRadius();
+		pathXs[0] = worm.getHorizontalPosition();
+		pathYs[0] = worm.getVerticalPosition();
+		pathXs[1] = pathXs[0]+store.getCosineOfOrientation(id)*radius*steps;
+		pathYs[1] = pathYs[0]+store.getSineOfOrientation(id)*radius*steps;
+		collectAlongPath(2, radius, id, result);
+	}
+
+	/**
+	 * Add every other worm whose body the given worm would touch if it would jump to the given
+	 * collection.
+	 * The arc of the jump is followed through a fixed number of straight pieces, and the body of
+	 * the given worm is widened by the largest distance between a piece and the arc, so that no
+	 * worm on the arc is missed; worms that come within that distance of the arc are reported too.
+	 * A worm without action points stays in place.
+	 * @throws	IllegalArgumentException
+	 * 			| worm == null || worm.getStore() != getStore()
+	 * @throws	BadOrientationException
+	 * 			The given worm is facing downwards.
+	 * 			| worm.getOrientation() > Math.PI
+	 */
+	public void collectWormsAlongJump(Worm worm, Collection<? super Worm> result)
+			throws IllegalArgumentException, BadOrientationException {
+		checkWorm(worm);
+		worm.sampleJumpTrajectory(JUMP_PIECES, trajectory);
+		pathXs[0] = worm.getHorizontalPosition();
+		pathYs[0] = worm.getVerticalPosition();
+		for(int i=0; i<JUMP_PIECES; i++) {
+			pathXs[i+1] = trajectory[2*i];
+			pathYs[i+1] = trajectory[2*i+1];
+		}
+		double widening = 0;
+		if(worm.getCurrentNumberOfActionPoints()>0) {
+			// a parabola lies at most g*dt*dt/8 from its chord over a time dt
+			double dt = worm.jumpTime()/JUMP_PIECES;
+			widening = Worm.STANDARD_ACCELERATION*dt*dt/8;
+		}
+		collectAlongPath(JUMP_PIECES+1, worm.getRadius()+widening, worm.getId(), result);
+	}
+
+	/**
+	 * Constant denoting the number of straight pieces by which the arc of a jump is followed.
+	 */
+	public static final int JUMP_PIECES = 16;
+
+	/**
+	 * Add every worm other than the worm with the given id whose body a circle with the given
+	 * radius touches while it moves along the first given number of points of the path.
+	 */
+	private void collectAlongPath(int nbPoints, double radius, int ignoredId, Collection<? super Worm> result) {
+		update();
+		double minX = pathXs[0], maxX = pathXs[0], minY = pathYs[0], maxY = pathYs[0];
+		for(int i=1; i<nbPoints; i++) {
+			minX = Math.min(minX, pathXs[i]); maxX = Math.max(maxX, pathXs[i]);
+			minY = Math.min(minY, pathYs[i]); maxY = Math.max(maxY, pathYs[i]);
+		}
+		minX -= radius; maxX += radius; minY -= radius; maxY += radius;
+		int lowBand = bandIndex(minY), highBand = bandIndex(maxY);
+		for(int b=lowBand; b<=highBand; b++) {
+			Band band = getBand(b);
+			if(band==null) continue;
+			int[] ids = band.ids;
+			double[] minXs = band.minXs, xs = band.xs, ys = band.ys, radii = band.radii;
+			// a body that reaches the path starts at most a diameter to the left of it
+			for(int i=lowerBound(band, minX-2*maxRadius); i<band.size && minXs[i]<=maxX; i++) {
+				if(ids[i]==ignoredId || ys[i]+radii[i]<minY || ys[i]-radii[i]>maxY) continue;
+				if(bandIndex(Math.max(minY, ys[i]-radii[i]))!=b) continue;
+				if(touchesPath(nbPoints, xs[i], ys[i], radius+radii[i])) result.add(store.getWorm(ids[i]));
+			}
+		}
+	}
+
+	/**
+	 * Return whether the given point lies closer than the given distance to the path.
+	 */
+	private boolean touchesPath(int nbPoints, double x, double y, double distance) {
+		double maxDistance = distance*distance;
+		if(nbPoints==1) return distanceSquared(pathXs[0]-x, pathYs[0]-y)<maxDistance;
+		for(int i=1; i<nbPoints; i++) {
+			double ax = pathXs[i-1], ay = pathYs[i-1];
+			double dx = pathXs[i]-ax, dy = pathYs[i]-ay;
+			double length = dx*dx+dy*dy;
+			// the point of the piece closest to the given point
+			double t = length==0 ? 0 : Math.max(0, Math.min(1, ((x-ax)*dx+(y-ay)*dy)/length));
+			if(distanceSquared(ax+t*dx-x, ay+t*dy-y)<maxDistance) return true;
+		}
+		return false;
+	}
+
+	private static double distanceSquared(double dx, double dy) {
+		return dx*dx+dy*dy;
+	}
+
+	/**
+	 * Return the position of the first worm in the given band whose body starts at or to the
+	 * right of the given coordinate.
+	 */
+	private static int lowerBound(Band band, double minX) {
+		int low = 0, high = band.size;
+		while(low<high) {
+			int middle = (low+high)>>>1;
+			if(band.minXs[middle]<minX) low = middle+1;
+			else high = middle;
+		}
+		return low;
+	}
+
+	private void checkWorm(Worm worm) throws IllegalArgumentException {
+		if(worm==null || worm.getStore()!=store) throw new IllegalArgumentException("Not a worm of this store!");
+	}
+
+	private void add(int id) {
+		indexed[id] = true;
+		nbWorms++;
+		// the worm is in no band yet
+		lowBands[id] = 1;
+		highBands[id] = 0;
+		markDirty(id);
+	}
+
+	private void markDirty(int id) {
+		if(dirty[id]) return;
+		dirty[id] = true;
+		if(nbDirtyWorms==dirtyWorms.length) dirtyWorms = Arrays.copyOf(dirtyWorms, Math.max(16, 2*nbDirtyWorms));
+		dirtyWorms[nbDirtyWorms++] = id;
+	}
+
+	private void markDirty(Band band) {
+		if(band.dirty) return;
+		band.dirty = true;
+		if(nbDirtyBands==dirtyBands.length) dirtyBands = Arrays.copyOf(dirtyBands, Math.max(16, 2*nbDirtyBands));
+		dirtyBands[nbDirtyBands++] = band;
+	}
+
+	/**
+	 * Drop the worms that have left the given band, sort the others again by the left edge of
+	 * their bodies and merge in the worms that have entered it, copying the position and radius
+	 * of every worm in it.
+	 */
+	private void rebuild(Band band) {
+		double[] horizontalPositions = store.getHorizontalPositionColumn();
+		double[] verticalPositions = store.getVerticalPositionColumn();
+		double[] radii = store.getRadiusColumn();
+		int n = 0;
+		for(int i=0; i<band.size; i++) {
+			int id = band.ids[i];
+			if(updated[id]!=nbUpdates) {
+				// the worm has not moved, only the worms before it have left
+				if(n<i) band.copy(i, n);
+				n++;
+				continue;
+			}
+			if(lowBands[id]>band.index || highBands[id]<band.index) continue;
+			double x = horizontalPositions[id], y = verticalPositions[id], radius = radii[id];
+			band.ids[n] = id;
+			band.minXs[n] = x-radius;
+			band.xs[n] = x;
+			band.ys[n] = y;
+			band.radii[n++] = radius;
+		}
+		band.insertionSort(n);
+		int nbPending = band.nbPending;
+		band.ensureCapacity(n+nbPending);
+		for(int i=0; i<nbPending; i++) {
+			int id = band.pendingIds[i];
+			band.pendingMinXs[i] = horizontalPositions[id]-radii[id];
+		}
+		mergeSort(band.pendingIds, band.pendingMinXs, 0, nbPending, band.bufferIds, band.bufferMinXs);
+		band.mergePending(n, horizontalPositions, verticalPositions, radii);
+	}
+
+	/**
+	 * Sort the given range of the given keys and the ids alongside them, using the given
+	 * buffers, which are at least as long, as scratch space.
+	 */
+	private static void mergeSort(int[] ids, double[] keys, int from, int to, int[] bufferIds, double[] bufferKeys) {
+		if(to-from<=INSERTION_SORT_THRESHOLD) {
+			for(int i=from+1; i<to; i++) {
+				double key = keys[i];
+				int id = ids[i];
+				int j = i;
+				for(; j>from && keys[j-1]>key; j--) {
+					keys[j] = keys[j-1];
+					ids[j] = ids[j-1];
+				}
+				keys[j] = key;
+				ids[j] = id;
+			}
+			return;
+		}
+		int middle = (from+to)>>>1;
+		mergeSort(ids, keys, from, middle, bufferIds, bufferKeys);
+		mergeSort(ids, keys, middle, to, bufferIds, bufferKeys);
+		if(keys[middle-1]<=keys[middle]) return;
+		System.arraycopy(ids, from, bufferIds, from, to-from);
+		System.arraycopy(keys, from, bufferKeys, from, to-from);
+		int i = from, j = middle;
+		for(int k=from; k<to; k++) {
+			if(j>=to || (i<middle && bufferKeys[i]<=bufferKeys[j])) { ids[k] = bufferIds[i]; keys[k] = bufferKeys[i++]; }
+			else { ids[k] = bufferIds[j]; keys[k] = bufferKeys[j++]; }
+		}
+	}
+
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	/**
+	 * Return the index of the band containing the given vertical coordinate. Coordinates far
+	 * away from the origin share the outermost bands, so that the table of bands stays small.
+	 */
+	private int bandIndex(double y) {
+		double index = Math.floor(y*inverseBandHeight);
+		return (int) Math.max(-MAX_BAND_INDEX, Math.min(MAX_BAND_INDEX, index));
+	}
+
+	private static final int MAX_BAND_INDEX = 1<<16;
+
+	private Band getBand(int index) {
+		int i = index-firstBand;
+		return (i<0 || i>=bands.length) ? null : bands[i];
+	}
+
+	private Band getOrCreateBand(int index) {
+		if(bands.length==0) firstBand = index;
+		if(index<firstBand) {
+			Band[] result = new Band[bands.length+(firstBand-index)];
+			System.arraycopy(bands, 0, result, firstBand-index, bands.length);
+			bands = result;
+			firstBand = index;
+		}
+		else if(index-firstBand>=bands.length) bands = Arrays.copyOf(bands, index-firstBand+1);
+		Band band = bands[index-firstBand];
+		if(band==null) band = bands[index-firstBand] = new Band(index);
+		return band;
+	}
+
+	private void ensureWormCapacity(int capacity) {
+		if(capacity<=indexed.length) return;
+		capacity = Math.max(capacity, 2*indexed.length);
+		indexed = Arrays.copyOf(indexed, capacity);
+		dirty = Arrays.copyOf(dirty, capacity);
+		updated = Arrays.copyOf(updated, capacity);
+		lowBands = Arrays.copyOf(lowBands, capacity);
+		highBands = Arrays.copyOf(highBands, capacity);
+	}
+
+	/**
+	 * The worms whose bodies reach into a horizontal strip of the world, sorted by the left
+	 * edge of their bodies, with the position and radius of each of them at the last update.
+	 */
+	private static class Band {
+
+		Band(int index) {
+			this.index = index;
+		}
+
+		final int index;
+		int size;
+		int[] ids = new int[0];
+		double[] minXs = new double[0];
+		double[] xs = new double[0];
+		double[] ys = new double[0];
+		double[] radii = new double[0];
+
+		/**
+		 * The worms that have entered this band since the last update.
+		 */
+		int nbPending;
+		int[] pendingIds = new int[0];
+		double[] pendingMinXs = new double[0];
+
+		/**
+		 * Scratch space for sorting the pending worms, as long as the columns.
+		 */
+		int[] bufferIds = new int[0];
+		double[] bufferMinXs = new double[0];
+
+		boolean dirty;
+
+		void addPending(int id) {
+			if(nbPending==pendingIds.length) {
+				pendingIds = Arrays.copyOf(pendingIds, Math.max(4, 2*nbPending));
+				pendingMinXs = new double[pendingIds.length];
+			}
+			pendingIds[nbPending++] = id;
+		}
+
+		void ensureCapacity(int capacity) {
+			if(capacity<=ids.length) return;
+			capacity = Math.max(capacity, 2*ids.length);
+			ids = Arrays.copyOf(ids, capacity);
+			minXs = Arrays.copyOf(minXs, capacity);
+			xs = Arrays.copyOf(xs, capacity);
+			ys = Arrays.copyOf(ys, capacity);
+			radii = Arrays.copyOf(radii, capacity);
+			bufferIds = new int[capacity];
+			bufferMinXs = new double[capacity];
+		}
+
+		void copy(int from, int to) {
+			ids[to] = ids[from];
+			minXs[to] = minXs[from];
+			xs[to] = xs[from];
+			ys[to] = ys[from];
+			radii[to] = radii[from];
+		}
+
+		/**
+		 * Sort the first given number of worms of this band, which are nearly sorted.
+		 */
+		void insertionSort(int n) {
+			for(int i=1; i<n; i++) {
+				double minX = minXs[i];
+				if(minXs[i-1]<=minX) continue;
+				int id = ids[i];
+				double x = xs[i], y = ys[i], radius = radii[i];
+				int j = i;
+				do {
+					ids[j] = ids[j-1];
+					minXs[j] = minXs[j-1];
+					xs[j] = xs[j-1];
+					ys[j] = ys[j-1];
+					radii[j] = radii[j-1];
+					j--;
+				} while(j>0 && minXs[j-1]>minX);
+				ids[j] = id;
+				minXs[j] = minX;
+				xs[j] = x;
+				ys[j] = y;
+				radii[j] = radius;
+			}
+		}
+
+		/**
+		 * Merge the sorted pending worms into the first given number of worms of this band,
+		 * which are sorted, copying the positions and radii of the pending worms from the
+		 * given columns. The worms are merged from the back, so that runs of worms that were
+		 * already in this band are moved at once.
+		 */
+		void mergePending(int n, double[] horizontalPositions, double[] verticalPositions, double[] radii) {
+			int i = n;
+			for(int j=nbPending-1; j>=0; j--) {
+				double minX = pendingMinXs[j];
+				int end = i;
+				while(i>0 && minXs[i-1]>minX) i--;
+				// the worms from i up to end go behind the pending worms up to j
+				System.arraycopy(ids, i, ids, i+j+1, end-i);
+				System.arraycopy(minXs, i, minXs, i+j+1, end-i);
+				System.arraycopy(xs, i, xs, i+j+1, end-i);
+				System.arraycopy(ys, i, ys, i+j+1, end-i);
+				System.arraycopy(this.radii, i, this.radii, i+j+1, end-i);
+				int id = pendingIds[j];
+				ids[i+j] = id;
+				minXs[i+j] = minX;
+				xs[i+j] = horizontalPositions[id];
+				ys[i+j] = verticalPositions[id];
+				this.radii[i+j] = radii[id];
+			}
+			size = n+nbPending;
+			nbPending = 0;
+		}
+
+	}
+
+	/**
+	 * The number of worms in this broad phase, and the largest radius any of them ever had.
+	 * Queries look this far to the left of a path, so the largest radius never shrinks.
+	 */
+	private int nbWorms;
+	private double maxRadius;
+
+	/**
+	 * For every worm id, whether it is in this broad phase, whether it has moved since the last
+	 * update, the last update in which it had moved, and the lowest and highest band it was in
+	 * at the last update.
+	 */
+	private boolean[] indexed = new boolean[0];
+	private boolean[] dirty = new boolean[0];
+	private int[] updated = new int[0];
+	private int[] lowBands = new int[0];
+	private int[] highBands = new int[0];
+
+	/**
+	 * The worms and bands that have changed since the last update.
+	 */
+	private int nbUpdates;
+	private int nbDirtyWorms;
+	private int[] dirtyWorms = new int[0];
+	private int nbDirtyBands;
+	private Band[] dirtyBands = new Band[0];
+
+	/**
+	 * The bands, from the band with index firstBand on; bands that were never used are null.
+	 */
+	private int firstBand;
+	private Band[] bands = new Band[0];
+
+	/**
+	 * The points of the path of the current query, and the trajectory of a jump.
+	 */
+	private final double[] pathXs = new double[JUMP_PIECES+1];
+	private final double[] pathYs = new double[JUMP_PIECES+1];
+	private final double[] trajectory = new double[2*JUMP_PIECES];
+
+}
@@ -0,0 +1,132 @@
+package worms.gui.game.commands;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.gui.game.GameView;
+import worms.model.Facade;
+import worms.model.IFacade;
+import worms.model.Worm;
+
+public class CommandProcessorTest {
+
+	private IFacade facade;
+	private Worm worm;
+	private CommandProcessor processor;
+	private final List<String> shown = new ArrayList<String>();
+
+	private final GameView view = new GameView() {
+		@Override
+		public void showWormLocation(Worm worm, double x, double y) {
+			shown.add("location "+x);
+		}
+
+		@Override
+		public void showWormDirection(Worm worm, double direction) {
+			shown.add("direction");
+		}
+
+		@Override
+		public void showWormRadius(Worm worm, double radius) {
+			shown.add("radius "+radius);
+		}
+
+		@Override
+		public void addMessage(String message) {
+			shown.add(message);
+		}
+	};
+
+	@Before
+	public void setup() {
+		facade = new Facade();
+		worm = facade.createWorm(0, 0, 0, 1, "Test");
+		processor = new CommandProcessor();
+	}
+
+	@Test
+	public void testMoveThenResize_RunInOrder() {
+		processor.enqueueCommand(new Move(facade, worm, 2, view));
+		processor.enqueueCommand(new Resize(facade, worm, 2, view));
+		processor.advanceCommandQueue(0.5);
+		// the worm is still moving, and has not grown yet
+		assertEquals(1, facade.getRadius(worm), 0);
+		for(int i=0; i<10 && !processor.isIdle(); i++)
+			processor.advanceCommandQueue(0.5);
+		assertTrue(processor.isIdle());
+		assertEquals(2, facade.getRadius(worm), 0);
+		assertEquals("location 2.0", shown.get(shown.size()-2));
+		assertEquals("radius 2.0", shown.get(shown.size()-1));
+	}
+
+	@Test
+	public void testMoveThenRename_RenameOvertakes() {
+		processor.enqueueCommand(new Move(facade, worm, 2, view));
+		processor.enqueueCommand(new Rename(facade, worm, "Renamed", view));
+		processor.advanceCommandQueue(0.5);
+		assertEquals("Renamed", facade.getName(worm));
+		assertFalse(processor.isIdle());
+	}
+
+	@Test
+	public void testMergedMoves_CostAsMuchAsSeparateMoves() {
+		for(double orientation=0; orientation<2*Math.PI; orientation+=0.3) {
+			Worm merging = facade.createWorm(0, 0, orientation, 1, "Merging");
+			Worm separate = facade.createWorm(0, 0, orientation, 1, "Separate");
+			for(int i=0; i<3; i++) {
+				processor.enqueueCommand(new Move(facade, merging, 1, view));
+				facade.move(separate, 1);
+			}
+			runUntilIdle();
+			assertEquals(facade.getActionPoints(separate), facade.getActionPoints(merging));
+			assertEquals(facade.getX(separate), facade.getX(merging), 1e-9);
+			assertEquals(facade.getY(separate), facade.getY(merging), 1e-9);
+		}
+	}
+
+	@Test
+	public void testMergedMoves_FirstRunsWhenAllCannotBeAfforded() {
+		Worm poor = facade.restoreWorm(0, 0, 0, 1, "Poor", 2);
+		processor.enqueueCommand(new Move(facade, poor, 2, view));
+		processor.enqueueCommand(new Move(facade, poor, 1, view));
+		runUntilIdle();
+		assertEquals(1, processor.getNbMergedCommands());
+		assertEquals(2, facade.getX(poor), 1e-9);
+		assertEquals(0, facade.getActionPoints(poor));
+	}
+
+	@Test
+	public void testMergedTurns_FirstRunsWhenAllCannotBeAfforded() {
+		Worm poor = facade.restoreWorm(0, 0, 1, 1, "Poor", 4);
+		processor.enqueueCommand(new Turn(facade, poor, 0.25, view));
+		processor.enqueueCommand(new Turn(facade, poor, 0.3, view));
+		runUntilIdle();
+		assertEquals(1, processor.getNbMergedCommands());
+		assertEquals(1.25, facade.getOrientation(poor), 1e-9);
+		assertEquals(1, facade.getActionPoints(poor));
+	}
+
+	@Test
+	public void testWaitingCommands_SplitMergedCommands() {
+		processor.enqueueCommand(new Move(facade, worm, 3, view));
+		processor.enqueueCommand(new Move(facade, worm, 1, view));
+		processor.enqueueCommand(new Move(facade, worm, 1, view));
+		processor.advanceCommandQueue(0);
+		assertEquals(1, processor.getNbMergedCommands());
+		List<Command> waiting = processor.getWaitingCommands();
+		assertEquals(2, waiting.size());
+		assertEquals(1, ((Move) waiting.get(0)).getNbSteps());
+		assertEquals(1, ((Move) waiting.get(1)).getNbSteps());
+	}
+
+	private void runUntilIdle() {
+		for(int i=0; i<100 && !processor.isIdle(); i++)
+			processor.advanceCommandQueue(0.5);
+		assertTrue(processor.isIdle());
+	}
+
+}
@@ -1,9 +1,14 @@
 package worms.model;
 import static org.junit.Assert.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 
+import worms.gui.game.commands.Command;
+import worms.gui.game.commands.Turn;
 import worms.model.Facade;
 import worms.model.ModelException;
 import worms.model.Worm;
@@ -26,6 +31,16 @@ public class PartialFacadeTest {
 		assertEquals(4448, facade.getMaxActionPoints(worm));
 	}
 
+	@Test
+	public void testRestoreWorm() {
+		Worm worm = facade.restoreWorm(1, 2, 3, 1, "Test", 100);
+		assertEquals(1, facade.getX(worm), EPS);
+		assertEquals(2, facade.getY(worm), EPS);
+		assertEquals(3, facade.getOrientation(worm), EPS);
+		assertEquals(100, facade.getActionPoints(worm));
+		assertEquals("Test", facade.getName(worm));
+	}
+
 	@Test
 	public void testMoveHorizontal() {
 		Worm worm = facade.createWorm(0, 0, 0, 1, "Test");
@@ -48,4 +63,36 @@ public class PartialFacadeTest {
 		facade.jump(worm);
 	}
 
+
+	@Test
+	public void testMergedTurns_CostAsMuchAsSeparateTurns() {
+		double[][] turns = {{0.25, 0.3}, {0.05, 0.05}, {0.25, -0.3}, {3, 0.3}, {-3, -0.3}};
+		int nbMerged = 0;
+		for(double[] angles: turns) {
+			Worm merging = facade.createWorm(0, 0, 1, 1, "Test");
+			Worm separate = facade.createWorm(0, 0, 1, 1, "Test");
+			Command merged = new Turn(facade, merging, angles[0], null).mergeWith(new Turn(facade, merging, angles[1], null));
+			if(merged==null) continue;
+			nbMerged++;
+			facade.turn(merging, ((Turn) merged).getAngle());
+			facade.turn(separate, angles[0]);
+			facade.turn(separate, angles[1]);
+			assertEquals(facade.getActionPoints(separate), facade.getActionPoints(merging));
+			assertEquals(facade.getOrientation(separate), facade.getOrientation(merging), EPS);
+		}
+		assertEquals(1, nbMerged);
+	}
+
+	@Test
+	public void testCollectWormsNear_IncludesTouchingBodies() {
+		Worm far = facade.createWorm(10, 0, 0, 3, "Far");
+		Worm near = facade.createWorm(2, 0, 0, 0.5, "Near");
+		Worm outside = facade.createWorm(100, 0, 0, 0.5, "Outside");
+		List<Worm> result = new ArrayList<Worm>();
+		facade.collectWormsNear(0, 0, 8, result);
+		assertTrue(result.contains(far));
+		assertTrue(result.contains(near));
+		assertFalse(result.contains(outside));
+	}
+
 }
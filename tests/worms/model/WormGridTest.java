@@ -0,0 +1,193 @@
+package worms.model;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class WormGridTest {
+
+	private WormStore store;
+	private WormGrid grid;
+
+	@Before
+	public void setUp() throws Exception {
+		store = new WormStore();
+		Random random = new Random(42);
+		for(int i=0; i<500; i++)
+			new Worm(store, "Worm", 40*random.nextDouble()-20, 40*random.nextDouble()-20, 0, 0.25+random.nextDouble(), 0);
+		grid = new WormGrid(store, 1);
+	}
+
+	@Test
+	public void testConstructor_IndexesExistingWorms() {
+		assertEquals(store.getNbWorms(), grid.getNbWorms());
+		assertSame(store, grid.getStore());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructor_IllegalCellSize() {
+		new WormGrid(store, 0);
+	}
+
+	@Test
+	public void testGetWormAt_MatchesLinearScan() {
+		Random random = new Random(7);
+		for(int i=0; i<1000; i++) {
+			double x = 44*random.nextDouble()-22, y = 44*random.nextDouble()-22;
+			assertSame(pickByScan(x, y), grid.getWormAt(x, y));
+		}
+	}
+
+	@Test
+	public void testGetWormAt_Empty() {
+		assertNull(new WormGrid(new WormStore()).getWormAt(0, 0));
+		assertNull(grid.getWormAt(1000, 1000));
+	}
+
+	@Test
+	public void testCollectWormsWithin_MatchesLinearScan() {
+		Random random = new Random(11);
+		for(int i=0; i<100; i++) {
+			double x = 44*random.nextDouble()-22, y = 44*random.nextDouble()-22;
+			double distance = 10*random.nextDouble();
+			Set<Worm> result = new HashSet<Worm>();
+			grid.collectWormsWithin(x, y, distance, result);
+			assertEquals(withinByScan(x, y, distance), result);
+		}
+		Set<Worm> all = new HashSet<Worm>();
+		grid.collectWormsWithin(0, 0, 1e6, all);
+		assertEquals(store.getNbWorms(), all.size());
+	}
+
+	@Test
+	public void testGetMaximalRadius_NeverShrinks() {
+		double radius = grid.getMaximalRadius();
+		for(int id=0; id<store.getNbWorms(); id++)
+			assertTrue(store.getRadius(id) <= radius);
+		Worm worm = store.getWorm(0);
+		worm.setRadius(radius+3);
+		assertEquals(radius+3, grid.getMaximalRadius(), 0);
+		worm.setRadius(0.5);
+		assertEquals(radius+3, grid.getMaximalRadius(), 0);
+	}
+
+	@Test
+	public void testFindNearestWorms_MatchesLinearScan() {
+		Random random = new Random(13);
+		Worm[] result = new Worm[10];
+		for(int i=0; i<100; i++) {
+			double x = 60*random.nextDouble()-30, y = 60*random.nextDouble()-30;
+			assertEquals(10, grid.findNearestWorms(x, y, 10, result));
+			for(int j=0; j<10; j++) {
+				assertSame(nthNearestByScan(x, y, j), result[j]);
+			}
+		}
+	}
+
+	@Test
+	public void testFindNearestWorms_FewerWormsThanAsked() {
+		WormStore small = new WormStore();
+		Worm first = new Worm(small, "First", 0, 0, 0, 1, 0);
+		Worm second = new Worm(small, "Second", 100, 0, 0, 1, 0);
+		Worm[] result = new Worm[5];
+		assertEquals(2, new WormGrid(small).findNearestWorms(90, 0, 5, result));
+		assertSame(second, result[0]);
+		assertSame(first, result[1]);
+	}
+
+	@Test(timeout = 2000)
+	public void testFindNearestWorms_FarawayWorm() {
+		Worm outlier = new Worm(store, "Outlier", 1e6, 1e6, 0, 1);
+		Worm[] result = new Worm[store.getNbWorms()];
+		assertEquals(store.getNbWorms(), grid.findNearestWorms(0, 0, result.length, result));
+		assertSame(outlier, result[result.length-1]);
+		assertEquals(1, grid.findNearestWorms(1e6-1, 1e6, 1, result));
+		assertSame(outlier, result[0]);
+		for(int j=0; j<10; j++) {
+			grid.findNearestWorms(0, 0, 10, result);
+			assertSame(nthNearestByScan(0, 0, j), result[j]);
+		}
+	}
+
+	@Test
+	public void testGrid_FollowsAddedWorms() {
+		Worm worm = new Worm(store, "Newcomer", 500, 500, 0, 1, 0);
+		assertEquals(store.getNbWorms(), grid.getNbWorms());
+		assertSame(worm, grid.getWormAt(500.5, 500));
+	}
+
+	@Test
+	public void testGrid_FollowsMovesAndJumps() {
+		Worm worm = new Worm(store, "Traveller", 500, 500, 0, 1, 4000);
+		worm.move(3);
+		assertNull(grid.getWormAt(500, 500));
+		assertSame(worm, grid.getWormAt(503, 500));
+		worm.turn(Math.PI/4);
+		worm.jump();
+		assertSame(worm, grid.getWormAt(worm.getHorizontalPosition(), worm.getVerticalPosition()));
+		assertNull(grid.getWormAt(503, 500));
+	}
+
+	@Test
+	public void testGrid_FollowsRadius() {
+		Worm worm = new Worm(store, "Grower", 500, 500, 0, 1, 0);
+		assertNull(grid.getWormAt(504, 500));
+		worm.setRadius(5);
+		assertSame(worm, grid.getWormAt(504, 500));
+	}
+
+	@Test
+	public void testDetach_StopsFollowing() {
+		grid.detach();
+		new Worm(store, "Stranger", 500, 500, 0, 1, 0);
+		assertEquals(store.getNbWorms()-1, grid.getNbWorms());
+	}
+
+	private Worm pickByScan(double x, double y) {
+		Worm result = null;
+		double best = Double.POSITIVE_INFINITY;
+		for(int id=0; id<store.getNbWorms(); id++) {
+			double distance = distanceSquared(id, x, y);
+			double radius = store.getRadius(id);
+			if(distance<=radius*radius && distance<best) {
+				best = distance;
+				result = store.getWorm(id);
+			}
+		}
+		return result;
+	}
+
+	private Set<Worm> withinByScan(double x, double y, double distance) {
+		Set<Worm> result = new HashSet<Worm>();
+		for(int id=0; id<store.getNbWorms(); id++) {
+			if(distanceSquared(id, x, y)<=distance*distance) result.add(store.getWorm(id));
+		}
+		return result;
+	}
+
+	private Worm nthNearestByScan(final double x, final double y, int n) {
+		List<Integer> ids = new ArrayList<Integer>();
+		for(int id=0; id<store.getNbWorms(); id++) ids.add(id);
+		Collections.sort(ids, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer first, Integer second) {
+				return Double.compare(distanceSquared(first, x, y), distanceSquared(second, x, y));
+			}
+		});
+		return store.getWorm(ids.get(n));
+	}
+
+	private double distanceSquared(int id, double x, double y) {
+		double dx = store.getHorizontalPosition(id)-x, dy = store.getVerticalPosition(id)-y;
+		return dx*dx+dy*dy;
+	}
+
+}
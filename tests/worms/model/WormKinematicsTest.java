@@ -0,0 +1,117 @@
+package worms.model;
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.util.Util;
+
+public class WormKinematicsTest {
+
+	private WormStore store;
+
+	@Before
+	public void setUp() throws Exception {
+		store = new WormStore();
+		Random random = new Random(5);
+		double[] orientations = {0, Math.PI/4, Math.PI/2, 3*Math.PI/4, Math.PI, 3*Math.PI/2};
+		for(double orientation : orientations)
+			new Worm(store, "Edge", 0, 0, orientation, 0.5, 100);
+		for(int i=0; i<500; i++) {
+			double radius = 0.25+random.nextDouble();
+			long maximum = Math.round(1062*(4.0/3.0)*Math.PI*Math.pow(radius, 3));
+			long actionPoints = i%10==0 ? 0 : (long) (maximum*random.nextDouble());
+			new Worm(store, "Worm", 20*random.nextDouble()-10, 20*random.nextDouble()-10,
+					2*Math.PI*random.nextDouble(), radius, actionPoints);
+		}
+	}
+
+	@Test
+	public void testComputeJumpDisplacements_MatchesJump() {
+		int nbWorms = store.getNbWorms();
+		double[] result = new double[nbWorms];
+		WormKinematics.computeJumpDisplacements(store, 0, nbWorms, result);
+		for(int id=0; id<nbWorms; id++) {
+			Worm worm = store.getWorm(id);
+			if(worm.getCurrentNumberOfActionPoints()==0 || worm.getOrientation()>Math.PI) {
+				assertTrue(Double.isNaN(result[id]));
+			} else {
+				double x = worm.getHorizontalPosition();
+				worm.jump();
+				assertTrue(Util.fuzzyEquals(worm.getHorizontalPosition()-x, result[id]));
+			}
+		}
+	}
+
+	@Test
+	public void testComputeJumpTimes_MatchesJumpTime() {
+		int nbWorms = store.getNbWorms();
+		double[] result = new double[nbWorms];
+		WormKinematics.computeJumpTimes(store, 0, nbWorms, result);
+		for(int id=0; id<nbWorms; id++) {
+			Worm worm = store.getWorm(id);
+			if(worm.getOrientation()>Math.PI) assertTrue(Double.isNaN(result[id]));
+			else assertTrue(Util.fuzzyEquals(worm.jumpTime(), result[id]));
+		}
+	}
+
+	@Test
+	public void testComputeJumpSteps_MatchesJumpStep() {
+		int nbWorms = store.getNbWorms();
+		double[] result = new double[2*nbWorms];
+		double time = 0.05;
+		WormKinematics.computeJumpSteps(store, 0, nbWorms, time, result);
+		int compared = 0;
+		for(int id=0; id<nbWorms; id++) {
+			Worm worm = store.getWorm(id);
+			if(worm.getCurrentNumberOfActionPoints()==0 || worm.getOrientation()>Math.PI) {
+				assertEquals(worm.getHorizontalPosition(), result[2*id], 0);
+				assertEquals(worm.getVerticalPosition(), result[2*id+1], 0);
+			} else if(time<=worm.jumpTime()) {
+				double[] step = worm.jumpStep(time);
+				assertTrue(Util.fuzzyEquals(step[0], result[2*id]));
+				assertTrue(Util.fuzzyEquals(step[1], result[2*id+1]));
+				compared++;
+			}
+		}
+		assertTrue(compared>150);
+	}
+
+	@Test
+	public void testComputeMoveCosts_MatchesMove() {
+		int nbWorms = store.getNbWorms();
+		long[] result = new long[nbWorms];
+		WormKinematics.computeMoveCosts(store, 0, nbWorms, 2, result);
+		for(int id=0; id<nbWorms; id++) {
+			Worm worm = store.getWorm(id);
+			long actionPoints = worm.getCurrentNumberOfActionPoints();
+			assertEquals(actionPoints>=result[id], worm.canMove(2));
+			if(worm.canMove(2)) {
+				worm.move(2);
+				assertEquals(actionPoints-result[id], worm.getCurrentNumberOfActionPoints());
+			}
+		}
+	}
+
+	@Test
+	public void testKernels_SubRange() {
+		double[] all = new double[store.getNbWorms()];
+		double[] part = new double[10];
+		WormKinematics.computeJumpTimes(store, 0, store.getNbWorms(), all);
+		WormKinematics.computeJumpTimes(store, 100, 110, part);
+		for(int i=0; i<10; i++) assertEquals(all[100+i], part[i], 0);
+	}
+
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testKernels_IllegalRange() {
+		WormKinematics.computeJumpTimes(store, 0, store.getNbWorms()+1, new double[store.getNbWorms()+1]);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testKernels_ResultTooShort() {
+		WormKinematics.computeJumpSteps(store, 0, 10, 0.1, new double[19]);
+	}
+
+}
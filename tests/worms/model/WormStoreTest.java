@@ -0,0 +1,186 @@
+package worms.model;
+import static org.junit.Assert.*;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.util.Util;
+
+public class WormStoreTest {
+
+	private WormStore store;
+	
+	@Before
+	public void setUp() throws Exception {
+		store = new WormStore(1);
+	}
+
+	@Test
+	public void testAdd_IdsAreStable() {
+		Worm first = new Worm(store, "First", 1, 2, 0, 1, 10);
+		Worm second = new Worm(store, "Second", 3, 4, 0, 1, 10);
+		assertEquals(0, first.getId());
+		assertEquals(1, second.getId());
+		assertEquals(2, store.getNbWorms());
+		assertSame(first, store.getWorm(0));
+		assertSame(second, store.getWorm(1));
+	}
+	
+	@Test
+	public void testWormWithoutStore_KeepsAStoreOfItsOwn() {
+		Worm first = new Worm("First", 1, 2, 0, 1, 10);
+		Worm second = new Worm("Second", 3, 4, 0, 1);
+		assertNotSame(first.getStore(), second.getStore());
+		assertEquals(1, first.getStore().getNbWorms());
+		assertSame(first, first.getStore().getWorm(0));
+		assertEquals(1, second.getStore().getNbWorms());
+		assertSame(second, second.getStore().getWorm(0));
+	}
+	
+	@Test
+	public void testColumns_FollowWorm() {
+		Worm worm = new Worm(store, "Mover", 0, 0, 0, 1, 4000);
+		worm.move(3);
+		assertTrue(Util.fuzzyEquals(store.getHorizontalPosition(worm.getId()), 3));
+		assertTrue(Util.fuzzyEquals(store.getVerticalPosition(worm.getId()), 0));
+		assertEquals(worm.getCurrentNumberOfActionPoints(), store.getActionPoints(worm.getId()));
+		worm.setRadius(2);
+		assertTrue(Util.fuzzyEquals(store.getRadius(worm.getId()), 2));
+	}
+	
+	@Test
+	public void testInvalidWorm_DoesNotTakeASlot() {
+		try {
+			new Worm(store, "worm", 0, 0, 0, 1, 0);
+			fail();
+		} catch (IllegalArgumentException exc) {
+			assertEquals(0, store.getNbWorms());
+		}
+	}
+	
+	@Test
+	public void testNames_AreShared() {
+		Worm first = new Worm(store, "Twin", 0, 0, 0, 1, 0);
+		Worm second = new Worm(store, new String("Twin"), 0, 0, 0, 1, 0);
+		assertSame(first.getName(), second.getName());
+		assertEquals(first.getName(), "Twin");
+		assertEquals(1, store.getNameTable().getNbNames());
+		assertEquals(2, store.getNameTable().getReferenceCount(store.getNameId(first.getId())));
+	}
+	
+	@Test
+	public void testRename_ReleasesUnusedName() {
+		Worm worm = new Worm(store, "Before", 0, 0, 0, 1, 0);
+		worm.setName("After");
+		assertEquals("After", worm.getName());
+		assertEquals(1, store.getNameTable().getNbNames());
+		worm.setName("After");
+		assertEquals(1, store.getNameTable().getReferenceCount(store.getNameId(worm.getId())));
+	}
+	
+	@Test
+	public void testModificationStamp_MovesOnEveryChange() {
+		Worm worm = new Worm(store, "Stamped", 0, 0, 0, 1);
+		Worm other = new Worm(store, "Other", 5, 0, 0, 1);
+		long stamp = worm.getModificationStamp();
+		assertTrue(stamp < other.getModificationStamp());
+		worm.move(1);
+		assertTrue(worm.getModificationStamp() > other.getModificationStamp());
+		stamp = worm.getModificationStamp();
+		worm.turn(Math.PI / 4);
+		assertTrue(worm.getModificationStamp() > stamp);
+		stamp = worm.getModificationStamp();
+		worm.jump();
+		assertTrue(worm.getModificationStamp() > stamp);
+		stamp = worm.getModificationStamp();
+		worm.setRadius(2);
+		assertTrue(worm.getModificationStamp() > stamp);
+		stamp = worm.getModificationStamp();
+		worm.setName("Renamed");
+		assertTrue(worm.getModificationStamp() > stamp);
+		assertEquals(worm.getModificationStamp(), store.getModificationCount());
+	}
+	
+	@Test
+	public void testModificationStamp_SameNameIsNoChange() {
+		Worm worm = new Worm(store, "Same", 0, 0, 0, 1);
+		long stamp = worm.getModificationStamp();
+		worm.setName("Same");
+		assertEquals(stamp, worm.getModificationStamp());
+	}
+	
+	@Test
+	public void testListener_NotifiedOncePerChange() {
+		final Worm worm = new Worm(store, "Listened", 0, 0, 0, 1);
+		final int[] changes = new int[1];
+		store.addListener(new WormStoreListener() {
+			@Override
+			public void wormAdded(WormStore store, int id) {
+			}
+			@Override
+			public void wormMoved(WormStore store, int id) {
+			}
+			@Override
+			public void wormChanged(WormStore store, int id) {
+				assertEquals(worm.getId(), id);
+				changes[0]++;
+			}
+		});
+		worm.move(2);
+		worm.turn(0.5);
+		worm.setName("Heard");
+		assertEquals(3, changes[0]);
+	}
+	
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testGetWorm_UnknownId() {
+		store.getWorm(0);
+	}
+	
+	@Test
+	public void testCopyHorizontalPositions() {
+		new Worm(store, "First", 1, 0, 0, 1, 0);
+		new Worm(store, "Second", 2, 0, 0, 1, 0);
+		double[] xs = store.copyHorizontalPositions(null);
+		assertEquals(2, xs.length);
+		assertTrue(Util.fuzzyEquals(xs[1], 2));
+	}
+
+	@Test
+	public void testRestoreAll_MatchesConstructor() {
+		new Worm(store, "Before", 0, 0, 0, 1, 0);
+		Worm[] worms = Worm.restoreAll(store, new String[] { "Twin", "Other" }, new int[] { 0, 1, 0 },
+				new double[] { 1, 2, 3 }, new double[] { 4, 5, 6 }, new double[] { 0, 1, 2 },
+				new double[] { 1, 1, 0.5 }, new long[] { 10, 20, 1000000 });
+		assertEquals(4, store.getNbWorms());
+		assertEquals(1, worms[0].getId());
+		assertSame(worms[2], store.getWorm(3));
+		assertEquals("Other", worms[1].getName());
+		assertSame(worms[0].getName(), worms[2].getName());
+		assertEquals(2, store.getNameTable().getReferenceCount(store.getNameId(1)));
+		assertTrue(Util.fuzzyEquals(worms[1].getHorizontalPosition(), 2));
+		assertTrue(Util.fuzzyEquals(worms[2].getVerticalPosition(), 6));
+		assertTrue(Util.fuzzyEquals(worms[1].getOrientation(), 1));
+		assertEquals(20, worms[1].getCurrentNumberOfActionPoints());
+		// too many action points for its radius, as in the constructor
+		assertEquals(0, worms[2].getCurrentNumberOfActionPoints());
+		assertTrue(worms[2].getModificationStamp() > worms[0].getModificationStamp());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testRestoreAll_InvalidName() {
+		Worm.restoreAll(store, new String[] { "bad" }, new int[] { 0 }, new double[] { 0 },
+				new double[] { 0 }, new double[] { 0 }, new double[] { 1 }, new long[] { 0 });
+	}
+
+	@Test
+	public void testCreateAll_FullActionPoints() {
+		Worm[] worms = Worm.createAll(store, new String[] { "Twin" }, new int[] { 0, 0 },
+				new double[] { 1, 2 }, new double[] { 3, 4 }, new double[] { 0, 1 },
+				new double[] { 1, 0.5 });
+		Worm single = new Worm(store, "Single", 2, 4, 1, 0.5);
+		assertEquals(worms[0].getMaximalNumberOfActionPoints(), worms[0].getCurrentNumberOfActionPoints());
+		assertEquals(single.getCurrentNumberOfActionPoints(), worms[1].getCurrentNumberOfActionPoints());
+	}
+
+}
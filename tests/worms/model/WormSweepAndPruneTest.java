@@ -0,0 +1,196 @@
+package worms.model;
+import static org.junit.Assert.*;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import worms.BadOrientationException;
+
+public class WormSweepAndPruneTest {
+
+	private WormStore store;
+	private WormSweepAndPrune broadPhase;
+
+	@Before
+	public void setUp() throws Exception {
+		store = new WormStore();
+		Random random = new Random(42);
+		for(int i=0; i<500; i++)
+			new Worm(store, "Worm", 40*random.nextDouble()-20, 40*random.nextDouble()-20,
+					2*Math.PI*random.nextDouble(), 0.25+random.nextDouble());
+		broadPhase = new WormSweepAndPrune(store, 1);
+	}
+
+	@Test
+	public void testConstructor_TracksExistingWorms() {
+		assertEquals(store.getNbWorms(), broadPhase.getNbWorms());
+		assertSame(store, broadPhase.getStore());
+		assertEquals(1, broadPhase.getBandHeight(), 0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testConstructor_IllegalBandHeight() {
+		new WormSweepAndPrune(store, 0);
+	}
+
+	@Test
+	public void testFindOverlappingPairs_MatchesPairwiseScan() {
+		assertEquals(pairsByScan(), pairsOf(broadPhase));
+		assertEquals(pairsByScan().size(), broadPhase.findOverlappingPairs(null));
+	}
+
+	@Test
+	public void testFindOverlappingPairs_FollowsMovesJumpsAndResizes() {
+		Random random = new Random(3);
+		for(int round=0; round<5; round++) {
+			for(int id=0; id<store.getNbWorms(); id++) {
+				Worm worm = store.getWorm(id);
+				switch(random.nextInt(4)) {
+					case 0: if(worm.canMove(2)) worm.move(2); break;
+					case 1: if(worm.getOrientation()<=Math.PI && worm.getCurrentNumberOfActionPoints()>0) worm.jump(); break;
+					case 2: worm.setRadius(0.25+random.nextDouble()); break;
+					default: break;
+				}
+			}
+			assertEquals(pairsByScan(), pairsOf(broadPhase));
+		}
+	}
+
+	@Test
+	public void testFindOverlappingPairs_FollowsAddedWorms() {
+		new Worm(store, "Newcomer", 0, 0, 0, 3);
+		new Worm(store, "Faraway", 1e9, -1e9, 0, 1);
+		new Worm(store, "Faraway", 1e9, -1e9+1, 0, 1);
+		assertEquals(store.getNbWorms(), broadPhase.getNbWorms());
+		assertEquals(pairsByScan(), pairsOf(broadPhase));
+	}
+
+	@Test
+	public void testCollectOverlappingWorms_MatchesScan() {
+		for(int id=0; id<store.getNbWorms(); id+=7) {
+			Worm worm = store.getWorm(id);
+			Set<Worm> result = new HashSet<Worm>();
+			broadPhase.collectOverlappingWorms(worm, result);
+			Set<Worm> expected = new HashSet<Worm>();
+			for(int other=0; other<store.getNbWorms(); other++)
+				if(other!=id && distanceToPath(other, new double[]{worm.getHorizontalPosition(), worm.getVerticalPosition()})
+						<worm.getRadius()+store.getRadius(other))
+					expected.add(store.getWorm(other));
+			assertEquals(expected, result);
+		}
+	}
+
+	@Test
+	public void testCollectWormsAlongMove_MatchesScan() {
+		for(int id=0; id<store.getNbWorms(); id+=3) {
+			Worm worm = store.getWorm(id);
+			double radius = worm.getRadius();
+			double[] path = {worm.getHorizontalPosition(), worm.getVerticalPosition(),
+					worm.getHorizontalPosition()+Math.cos(worm.getOrientation())*radius*4,
+					worm.getVerticalPosition()+Math.sin(worm.getOrientation())*radius*4};
+			Set<Worm> result = new HashSet<Worm>();
+			broadPhase.collectWormsAlongMove(worm, 4, result);
+			Set<Worm> expected = new HashSet<Worm>();
+			for(int other=0; other<store.getNbWorms(); other++)
+				if(other!=id && distanceToPath(other, path)<radius+store.getRadius(other))
+					expected.add(store.getWorm(other));
+			assertEquals(expected, result);
+		}
+	}
+
+	@Test
+	public void testCollectWormsAlongJump_CoversArc() {
+		int compared = 0;
+		for(int id=0; id<store.getNbWorms(); id++) {
+			Worm worm = store.getWorm(id);
+			if(worm.getOrientation()>Math.PI) continue;
+			Set<Worm> result = new HashSet<Worm>();
+			broadPhase.collectWormsAlongJump(worm, result);
+			assertFalse(result.contains(worm));
+			// every worm the densely sampled arc touches is found, and nothing far from it
+			double[] trajectory = new double[2*1000];
+			worm.sampleJumpTrajectory(1000, trajectory);
+			double[] path = new double[2+trajectory.length];
+			path[0] = worm.getHorizontalPosition();
+			path[1] = worm.getVerticalPosition();
+			System.arraycopy(trajectory, 0, path, 2, trajectory.length);
+			for(int other=0; other<store.getNbWorms(); other++) {
+				if(other==id) continue;
+				double distance = distanceToPath(other, path)-worm.getRadius()-store.getRadius(other);
+				if(distance<0) assertTrue(result.contains(store.getWorm(other)));
+				if(distance>0.1) assertFalse(result.contains(store.getWorm(other)));
+			}
+			compared++;
+		}
+		assertTrue(compared>100);
+	}
+
+	@Test(expected = BadOrientationException.class)
+	public void testCollectWormsAlongJump_FacingDown() {
+		Worm worm = new Worm(store, "Digger", 0, 0, 3*Math.PI/2, 1);
+		broadPhase.collectWormsAlongJump(worm, new HashSet<Worm>());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testCollectWormsAlongMove_OtherStore() {
+		Worm worm = new Worm(new WormStore(), "Stranger", 0, 0, 0, 1);
+		broadPhase.collectWormsAlongMove(worm, 1, new HashSet<Worm>());
+	}
+
+	@Test
+	public void testDetach_StopsFollowing() {
+		broadPhase.detach();
+		new Worm(store, "Late", 0, 0, 0, 1);
+		assertEquals(500, broadPhase.getNbWorms());
+	}
+
+	private Set<Long> pairsOf(WormSweepAndPrune broadPhase) {
+		final Set<Long> result = new HashSet<Long>();
+		broadPhase.findOverlappingPairs(new WormOverlapListener() {
+			@Override
+			public void wormsOverlap(WormStore store, int id, int otherId) {
+				assertTrue(result.add(pair(id, otherId)));
+			}
+		});
+		return result;
+	}
+
+	private Set<Long> pairsByScan() {
+		Set<Long> result = new HashSet<Long>();
+		for(int i=0; i<store.getNbWorms(); i++) {
+			for(int j=i+1; j<store.getNbWorms(); j++) {
+				double dx = store.getHorizontalPosition(i)-store.getHorizontalPosition(j);
+				double dy = store.getVerticalPosition(i)-store.getVerticalPosition(j);
+				double reach = store.getRadius(i)+store.getRadius(j);
+				if(dx*dx+dy*dy<reach*reach) result.add(pair(i, j));
+			}
+		}
+		return result;
+	}
+
+	private static long pair(int id, int otherId) {
+		return ((long) Math.min(id, otherId)<<32) | Math.max(id, otherId);
+	}
+
+	/**
+	 * Return the distance from the centre of the worm with the given id to the path through the
+	 * given points, given as consecutive pairs of coordinates.
+	 */
+	private double distanceToPath(int id, double[] path) {
+		double x = store.getHorizontalPosition(id), y = store.getVerticalPosition(id);
+		double result = Math.hypot(path[0]-x, path[1]-y);
+		for(int i=2; i<path.length; i+=2) {
+			double ax = path[i-2], ay = path[i-1];
+			double dx = path[i]-ax, dy = path[i+1]-ay;
+			double length = dx*dx+dy*dy;
+			double t = length==0 ? 0 : Math.max(0, Math.min(1, ((x-ax)*dx+(y-ay)*dy)/length));
+			result = Math.min(result, Math.hypot(ax+t*dx-x, ay+t*dy-y));
+		}
+		return result;
+	}
+
+}
@@ -135,6 +135,59 @@ public class WormTest {
 		assertTrue(Util.fuzzyEquals(sander.getMass(),4448.49519748));
 	}
 
+	@Test
+	public void testGetMass_AfterSetRadius() {
+		sander.getMass();
+		sander.setRadius(2);
+		assertTrue(Util.fuzzyEquals(sander.getMass(),8*4448.49519748));
+		assertTrue(sander.getMaximalNumberOfActionPoints()==Math.round(8*4448.49519748));
+	}
+
+	@Test
+	public void testSetRadius_LowersActionPoints() {
+		Worm worm = new Worm("Test", 0, 0, 0, 1);
+		worm.setRadius(0.5);
+		assertEquals(worm.getMaximalNumberOfActionPoints(),worm.getCurrentNumberOfActionPoints());
+	}
+	
+	@Test
+	public void testDerivedStateCache_HitsOnRepeatedCalls() {
+		WormStore store = mover.getStore();
+		mover.jumpTime();
+		long misses = store.getDerivedStateCacheMisses();
+		long hits = store.getDerivedStateCacheHits();
+		mover.jumpTime();
+		mover.getMass();
+		assertEquals(misses, store.getDerivedStateCacheMisses());
+		assertEquals(hits+2, store.getDerivedStateCacheHits());
+	}
+	
+	@Test
+	public void testDerivedStateCache_KeptOnRename() {
+		WormStore store = mover.getStore();
+		mover.jumpTime();
+		mover.setName("Renamed");
+		long misses = store.getDerivedStateCacheMisses();
+		mover.jumpTime();
+		assertEquals(misses, store.getDerivedStateCacheMisses());
+	}
+	
+	@Test
+	public void testJumpTime_AfterMove() {
+		mover.jumpTime();
+		mover.move(1);
+		Worm fresh = new Worm("Fresh", 0, 0, mover.getOrientation(), 1, mover.getCurrentNumberOfActionPoints());
+		assertTrue(Util.fuzzyEquals(mover.jumpTime(), fresh.jumpTime()));
+	}
+	
+	@Test
+	public void testJumpTime_AfterTurn() {
+		mover.jumpTime();
+		mover.turn(0.5);
+		Worm fresh = new Worm("Fresh", 0, 0, mover.getOrientation(), 1, mover.getCurrentNumberOfActionPoints());
+		assertTrue(Util.fuzzyEquals(mover.jumpTime(), fresh.jumpTime()));
+	}
+
 	@Test
 	public void testGetCurrentNumberOfActionPoints() {
 		assertTrue(sander.getCurrentNumberOfActionPoints()==1);
@@ -217,4 +270,26 @@ public class WormTest {
 		assertTrue(Util.fuzzyEquals(mover.jumpStep(0.93)[1],1.355474214));
 	}
 
+	@Test
+	public void testSampleJumpTrajectory_MatchesJumpStep() {
+		double[] xy = new double[10];
+		mover.sampleJumpTrajectory(5, xy);
+		for (int i = 0; i < 5; i++) {
+			double[] expected = mover.jumpStep((i+1)*mover.jumpTime()/5);
+			assertTrue(Util.fuzzyEquals(xy[2*i], expected[0]));
+			assertTrue(Util.fuzzyEquals(xy[2*i+1], expected[1]));
+		}
+		assertTrue(Util.fuzzyEquals(xy[8], 4.741899957));
+	}
+	
+	@Test(expected = IllegalArgumentException.class)
+	public void testSampleJumpTrajectory_BufferTooSmall() {
+		mover.sampleJumpTrajectory(5, new double[9]);
+	}
+	
+	@Test(expected = BadOrientationException.class)
+	public void testSampleJumpTrajectory_FacingDownwards() {
+		stander.sampleJumpTrajectory(1, new double[2]);
+	}
+
 }